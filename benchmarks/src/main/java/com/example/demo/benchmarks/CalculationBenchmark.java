@@ -0,0 +1,87 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 推荐配置计算与聚合的基准测试。
+ *
+ *   getRecommendation      : CalculationService.getRecommendation() (读取总额账本 + 目标金额计算 + 构建 DTO)
+ *   comparePolicies        : CalculationService.compareRecommendations()，读取一次账本后按全部配置策略计算
+ *   sumAmountByType        : AssetService.sumAmountByType() (读取总额账本)
+ *   rebuildLedger          : AssetLedger.rebuild()，即启动/对账时对 N 条持仓的全量聚合
+ *   legacyStreamSumPerType : 对照组，重现改造前每种类型各扫描一次列表的 BigDecimal 流式求和
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculationBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int holdings;
+
+    private ServiceFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ServiceFixture(holdings);
+    }
+
+    @Benchmark
+    public RecommendationDTO getRecommendation() {
+        return fixture.calculationService.getRecommendation(Portfolios.DEFAULT_ID);
+    }
+
+    @Benchmark
+    public List<RecommendationDTO> comparePolicies() {
+        return fixture.calculationService.compareRecommendations(Portfolios.DEFAULT_ID, List.of());
+    }
+
+    @Benchmark
+    public Map<AssetType, BigDecimal> sumAmountByType() {
+        return fixture.assetService.sumAmountByType(Portfolios.DEFAULT_ID);
+    }
+
+    @Benchmark
+    public long rebuildLedger() {
+        fixture.assetLedger.rebuild();
+        return fixture.assetLedger.holdingCount();
+    }
+
+    @Benchmark
+    public Map<AssetType, BigDecimal> legacyStreamSumPerType() {
+        Map<AssetType, BigDecimal> totals = new EnumMap<>(AssetType.class);
+        for (AssetType type : AssetType.values()) {
+            totals.put(type, fixture.holdings.stream()
+                    .filter(asset -> asset.getAssetType() == type)
+                    .map(AssetDetail::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .setScale(2, RoundingMode.HALF_UP));
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.benchmarks;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP 压测：N 个并发客户端 (闭环，每个客户端收到响应后立即发下一个请求) 持续请求一个接口，
+ * 输出吞吐量和延迟分位数。用于对比平台线程模式与虚拟线程模式 (--spring.profiles.active=virtual)。
+ *
+ * 客户端使用 HttpClient 异步请求，一万个并发客户端也不需要一万个线程。
+ *
+ * 用法:
+ *   java -cp benchmarks/target/benchmarks.jar com.example.demo.benchmarks.HttpLoadTest \
+ *        [url] [clients] [seconds]
+ * 默认: http://localhost:8080/api/calculate/recommendation 1000 30
+ */
+public final class HttpLoadTest {
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api/calculate/recommendation");
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()))
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        Timer latency = Timer.builder("load.latency")
+                .publishPercentiles(0.5, 0.95, 0.99, 0.999)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(Duration.ofHours(1))
+                .distributionStatisticBufferLength(1)
+                .register(new SimpleMeterRegistry());
+        AtomicLong ok = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+
+        // 先预热 5 秒 (不计入结果)，再正式计时
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+        CompletableFuture<?>[] loops = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            loops[i] = loop(client, request, warmupEnd, end, latency, ok, failed);
+        }
+        CompletableFuture.allOf(loops).join();
+
+        HistogramSnapshot snapshot = latency.takeSnapshot();
+        System.out.printf("url=%s clients=%d seconds=%d%n", uri, clients, seconds);
+        System.out.printf("requests ok=%d failed=%d throughput=%.1f req/s%n",
+                ok.get(), failed.get(), ok.get() / (double) seconds);
+        System.out.printf("latency mean=%.2f ms max=%.2f ms%n",
+                snapshot.mean(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            System.out.printf("latency p%.1f=%.2f ms%n",
+                    percentile.percentile() * 100, percentile.value(TimeUnit.MILLISECONDS));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 单个客户端的请求循环：上一个响应到达后再发下一个请求，直到结束时间
+     */
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long warmupEnd, long end,
+                                                Timer latency, AtomicLong ok, AtomicLong failed) {
+        long start = System.nanoTime();
+        if (start >= end) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    long now = System.nanoTime();
+                    if (start >= warmupEnd) {
+                        if (error == null && response.statusCode() < 400) {
+                            ok.incrementAndGet();
+                            latency.record(now - start, TimeUnit.NANOSECONDS);
+                        } else {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> loop(client, request, warmupEnd, end, latency, ok, failed));
+    }
+}
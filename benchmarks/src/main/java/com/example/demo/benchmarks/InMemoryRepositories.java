@@ -0,0 +1,142 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.AssetTypeTotal;
+import com.example.demo.repository.HistoryRecordRepository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存版仓库替身：用 java.lang.reflect.Proxy 实现基准测试用到的几个仓库方法，
+ * 让服务层在没有数据库和 Spring 容器的情况下运行，只测量服务层自身的开销。
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * 以列表为存储的单组合 AssetDetailRepository
+     * (支持 findByPortfolioId / save / count / sumAmountGroupByPortfolioAndAssetType)
+     */
+    static AssetDetailRepository assetDetails(List<AssetDetail> rows) {
+        AtomicLong ids = new AtomicLong(rows.size());
+        return (AssetDetailRepository) Proxy.newProxyInstance(
+                AssetDetailRepository.class.getClassLoader(),
+                new Class<?>[]{AssetDetailRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll", "findByPortfolioId" -> rows;
+                    case "count" -> (long) rows.size();
+                    case "save" -> {
+                        AssetDetail asset = (AssetDetail) args[0];
+                        asset.setId(ids.incrementAndGet());
+                        yield asset;
+                    }
+                    case "sumAmountGroupByAssetType", "sumAmountGroupByPortfolioAndAssetType" -> sumGroupByType(rows);
+                    case "toString" -> "InMemoryAssetDetailRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * 只分配主键、不保留数据的 HistoryRecordRepository (支持 save)
+     */
+    static HistoryRecordRepository historyRecords() {
+        AtomicLong ids = new AtomicLong();
+        return (HistoryRecordRepository) Proxy.newProxyInstance(
+                HistoryRecordRepository.class.getClassLoader(),
+                new Class<?>[]{HistoryRecordRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save" -> {
+                        HistoryRecord record = (HistoryRecord) args[0];
+                        record.setId(ids.incrementAndGet());
+                        yield record;
+                    }
+                    case "toString" -> "InMemoryHistoryRecordRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * 与 AssetDetailRepository.sumAmountGroupByPortfolioAndAssetType() 的 JPQL 语义相同的内存实现 (所有行属于默认组合)
+     */
+    private static List<AssetTypeTotal> sumGroupByType(List<AssetDetail> rows) {
+        Map<AssetType, BigDecimal> totals = new EnumMap<>(AssetType.class);
+        Map<AssetType, Long> counts = new EnumMap<>(AssetType.class);
+        for (AssetDetail row : rows) {
+            totals.merge(row.getAssetType(), row.getAmount(), BigDecimal::add);
+            counts.merge(row.getAssetType(), 1L, Long::sum);
+        }
+        List<AssetTypeTotal> result = new ArrayList<>();
+        totals.forEach((type, total) -> result.add(new AssetTypeTotal() {
+            @Override
+            public Long getPortfolioId() {
+                return Portfolios.DEFAULT_ID;
+            }
+
+            @Override
+            public AssetType getAssetType() {
+                return type;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return total;
+            }
+
+            @Override
+            public long getHoldingCount() {
+                return counts.get(type);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * 生成 count 条持仓，类型轮流分配，金额为 0.01 ~ 100000.00 的确定性伪随机值
+     */
+    static List<AssetDetail> holdings(int count) {
+        AssetType[] types = AssetType.values();
+        List<AssetDetail> rows = new ArrayList<>(count);
+        long seed = 42;
+        for (int i = 0; i < count; i++) {
+            seed = seed * 6364136223846793005L + 1442695040888963407L;
+            AssetDetail asset = new AssetDetail();
+            asset.setId((long) i + 1);
+            asset.setAssetType(types[i % types.length]);
+            asset.setName("holding-" + i);
+            asset.setAmount(BigDecimal.valueOf(1 + Math.floorMod(seed >>> 16, 10_000_000L), 2));
+            rows.add(asset);
+        }
+        return rows;
+    }
+
+    /**
+     * 服务类使用字段注入 (@Autowired)，没有 Spring 容器时通过反射注入依赖
+     */
+    static <T> T inject(T target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+            return target;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法注入 " + target.getClass().getSimpleName() + "." + fieldName, e);
+        }
+    }
+}
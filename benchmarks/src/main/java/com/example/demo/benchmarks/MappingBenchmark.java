@@ -0,0 +1,65 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.HistoryRecordDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO / Entity 映射与快照构建的基准测试。
+ *
+ *   findAllAssets             : N 条 Entity -> DTO 映射 (AssetService.findAllAssets)
+ *   saveAssetRoundTrip        : 单条 DTO -> Entity -> 保存 -> DTO，并记入总额账本 (AssetService.saveAsset)
+ *   saveCurrentAssetsAsRecord : 从总额账本构建 HistoryRecord 快照并映射为 DTO
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int holdings;
+
+    private ServiceFixture fixture;
+
+    private final AssetDetailDTO input = new AssetDetailDTO(null, AssetType.NASDAQ, "QQQ", new BigDecimal("1234.56"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ServiceFixture(holdings);
+    }
+
+    @Benchmark
+    public List<AssetDetailDTO> findAllAssets() {
+        return fixture.assetService.findAllAssets(Portfolios.DEFAULT_ID);
+    }
+
+    @Benchmark
+    public AssetDetailDTO saveAssetRoundTrip() {
+        return fixture.assetService.saveAsset(Portfolios.DEFAULT_ID, input);
+    }
+
+    @Benchmark
+    public HistoryRecordDTO saveCurrentAssetsAsRecord() {
+        return fixture.assetService.saveCurrentAssetsAsRecord(Portfolios.DEFAULT_ID);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.service.Cents;
+import com.example.demo.service.Cents.Ratio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 金额运算基准测试：BigDecimal 与 long「分」定点运算的对比。
+ *
+ *   sum*     : 按类型累加 N 条持仓金额
+ *   targets* : 由四个类型总额计算总资产及 75/25、77/23 目标金额
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private static final BigDecimal TOTAL_RISK_RATIO = new BigDecimal("0.75");
+    private static final BigDecimal CASH_RATIO = new BigDecimal("0.25");
+    private static final BigDecimal NASDAQ_IN_RISK = new BigDecimal("0.77");
+    private static final BigDecimal SP_IN_RISK = new BigDecimal("0.23");
+
+    private static final Ratio TOTAL_RISK = Ratio.of("0.75");
+    private static final Ratio CASH = Ratio.of("0.25");
+    private static final Ratio NASDAQ = Ratio.of("0.77");
+    private static final Ratio SP = Ratio.of("0.23");
+
+    @Param({"1000", "10000", "100000"})
+    public int holdings;
+
+    private int[] types;
+    private BigDecimal[] amounts;
+    private long[] cents;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<AssetDetail> rows = InMemoryRepositories.holdings(holdings);
+        types = new int[holdings];
+        amounts = new BigDecimal[holdings];
+        cents = new long[holdings];
+        for (int i = 0; i < holdings; i++) {
+            types[i] = rows.get(i).getAssetType().ordinal();
+            amounts[i] = rows.get(i).getAmount();
+            cents[i] = Cents.of(amounts[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal[] sumBigDecimal() {
+        BigDecimal[] totals = {BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+        for (int i = 0; i < amounts.length; i++) {
+            totals[types[i]] = totals[types[i]].add(amounts[i]);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public long[] sumCents() {
+        long[] totals = new long[4];
+        for (int i = 0; i < cents.length; i++) {
+            totals[types[i]] = Cents.add(totals[types[i]], cents[i]);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public void targetsBigDecimal(Blackhole blackhole) {
+        BigDecimal grandTotal = amounts[0].add(amounts[1]).add(amounts[2]).add(amounts[3]);
+        BigDecimal totalRisk = grandTotal.multiply(TOTAL_RISK_RATIO).setScale(2, RoundingMode.HALF_UP);
+        blackhole.consume(totalRisk.multiply(NASDAQ_IN_RISK).setScale(2, RoundingMode.HALF_UP));
+        blackhole.consume(totalRisk.multiply(SP_IN_RISK).setScale(2, RoundingMode.HALF_UP));
+        blackhole.consume(grandTotal.multiply(CASH_RATIO).setScale(2, RoundingMode.HALF_UP));
+    }
+
+    @Benchmark
+    public void targetsCents(Blackhole blackhole) {
+        long grandTotal = Cents.add(Cents.add(cents[0], cents[1]), Cents.add(cents[2], cents[3]));
+        long totalRisk = Cents.multiply(grandTotal, TOTAL_RISK);
+        blackhole.consume(Cents.multiply(totalRisk, NASDAQ));
+        blackhole.consume(Cents.multiply(totalRisk, SP));
+        blackhole.consume(Cents.multiply(grandTotal, CASH));
+    }
+}
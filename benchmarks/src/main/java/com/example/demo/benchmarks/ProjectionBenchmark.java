@@ -0,0 +1,64 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.service.MonteCarloEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 蒙特卡洛模拟的吞吐量与线程数的关系：得分即每秒模拟的路径数 (每条路径 10 年、两组配置)。
+ *
+ *   simulate : MonteCarloEngine.simulate()，在 threads 个线程的 ForkJoinPool 中模拟 PATHS 条路径
+ *
+ * 不同线程数下的结果完全相同 (见 MonteCarloEngineTests)，只有耗时不同。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    private static final int PATHS = 200_000;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private MonteCarloEngine engine;
+    private ForkJoinPool pool;
+    private double[][] weights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new MonteCarloEngine(new double[]{0.10, 0.08, 0.04, 0.02}, new double[]{0.22, 0.16, 0.05, 0.01},
+                new double[]{1, 0.9, 0.2, 0, 0.9, 1, 0.2, 0, 0.2, 0.2, 1, 0, 0, 0, 0, 1});
+        pool = new ForkJoinPool(threads);
+        weights = new double[][]{{0.6, 0.1, 0.1, 0.2}, {0.5775, 0.1725, 0, 0.25}};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATHS)
+    public MonteCarloEngine.Result simulate() {
+        return engine.simulate(weights, PATHS, 10, 42, 1.0, pool);
+    }
+}
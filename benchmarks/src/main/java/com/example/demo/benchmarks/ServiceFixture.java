@@ -0,0 +1,67 @@
+package com.example.demo.benchmarks;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.policy.PolicyRegistry;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.AssetService;
+import com.example.demo.service.CalculationService;
+import com.example.demo.service.DataVersion;
+import com.example.demo.service.HistoryRollupService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.List;
+
+/**
+ * 基准测试夹具：用内存仓库替身手工组装 AssetLedger / AssetService / PolicyRegistry / CalculationService。
+ */
+final class ServiceFixture {
+
+    final List<AssetDetail> holdings;
+    final AssetDetailRepository assetDetailRepository;
+    final AssetLedger assetLedger;
+    final AssetService assetService;
+    final PolicyRegistry policyRegistry;
+    final CalculationService calculationService;
+
+    ServiceFixture(int holdingCount) {
+        holdings = InMemoryRepositories.holdings(holdingCount);
+        assetDetailRepository = InMemoryRepositories.assetDetails(holdings);
+        HistoryRecordRepository historyRecordRepository = InMemoryRepositories.historyRecords();
+
+        DataVersion dataVersion = new DataVersion();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        assetLedger = InMemoryRepositories.inject(new AssetLedger(), "assetDetailRepository", assetDetailRepository);
+        InMemoryRepositories.inject(assetLedger, "dataVersion", dataVersion);
+        assetLedger.rebuild();
+
+        assetService = new AssetService();
+        InMemoryRepositories.inject(assetService, "assetDetailRepository", assetDetailRepository);
+        InMemoryRepositories.inject(assetService, "historyRecordRepository", historyRecordRepository);
+        // 历史记录汇总写在数据库中，基准只衡量快照构建本身
+        InMemoryRepositories.inject(assetService, "historyRollupService", new HistoryRollupService() {
+            @Override
+            public void recordAll(List<HistoryRecord> records) {
+            }
+        });
+        InMemoryRepositories.inject(assetService, "assetLedger", assetLedger);
+        InMemoryRepositories.inject(assetService, "dataVersion", dataVersion);
+        InMemoryRepositories.inject(assetService, "meterRegistry", meterRegistry);
+
+        policyRegistry = InMemoryRepositories.inject(new PolicyRegistry(), "objectMapper", new ObjectMapper());
+        InMemoryRepositories.inject(policyRegistry, "dataVersion", dataVersion);
+        InMemoryRepositories.inject(policyRegistry, "location", new ClassPathResource("policies.json"));
+        policyRegistry.init();
+
+        calculationService = InMemoryRepositories.inject(new CalculationService(), "assetService", assetService);
+        InMemoryRepositories.inject(calculationService, "policyRegistry", policyRegistry);
+        InMemoryRepositories.inject(calculationService, "meterRegistry", meterRegistry);
+        calculationService.registerMeters();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动耗时基准：多次启动同一个服务进程，测量从启动进程到 GET /api/assets 第一次返回 200 的耗时，
+ * 输出每次的耗时和中位数。指定上限时中位数超过上限以退出码 1 结束，可在 CI 中防止启动时间回退。
+ *
+ * 每次启动前端口必须空闲；进程输出写入 startup-benchmark.log，收到第一个成功响应后结束进程。
+ *
+ * 用法:
+ *   java -cp benchmarks/target/benchmarks.jar com.example.demo.benchmarks.StartupBenchmark \
+ *        [runs] [url] [max-median-ms] -- <启动命令...>
+ * 默认: 5 http://localhost:8080/api/assets 0 (0 表示不检查上限)
+ * 例如:
+ *   ... StartupBenchmark 5 http://localhost:8080/api/assets 0 -- java -jar demo/target/demo-0.0.1-SNAPSHOT-exec.jar
+ */
+public final class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(3);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int separator = Arrays.asList(args).indexOf("--");
+        if (separator < 0 || separator == args.length - 1) {
+            System.err.println("usage: StartupBenchmark [runs] [url] [max-median-ms] -- <command...>");
+            System.exit(2);
+        }
+        int runs = separator > 0 ? Integer.parseInt(args[0]) : 5;
+        URI uri = URI.create(separator > 1 ? args[1] : "http://localhost:8080/api/assets");
+        long maxMedianMillis = separator > 2 ? Long.parseLong(args[2]) : 0;
+        List<String> command = Arrays.asList(args).subList(separator + 1, args.length);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build();
+        File log = new File("startup-benchmark.log");
+
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            millis[i] = timeToFirstResponse(command, client, request, log);
+            System.out.printf("run %d: %,d ms%n", i + 1, millis[i]);
+        }
+        Arrays.sort(millis);
+        long median = millis[runs / 2];
+        System.out.printf("command=%s%n", String.join(" ", command));
+        System.out.printf("time to first %s 200: median=%,d ms min=%,d ms max=%,d ms%n",
+                uri.getPath(), median, millis[0], millis[runs - 1]);
+        if (maxMedianMillis > 0 && median > maxMedianMillis) {
+            System.out.printf("FAILED: median %,d ms exceeds %,d ms%n", median, maxMedianMillis);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 启动一次进程，轮询直到接口返回 200，返回耗时 (毫秒) 并结束进程
+     */
+    private static long timeToFirstResponse(List<String> command, HttpClient client, HttpRequest request, File log)
+            throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .start();
+        try {
+            long deadline = start + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("进程已退出 (exit " + process.exitValue() + ")，见 " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // 端口还未监听或连接被重置，稍后重试
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("超过 " + TIMEOUT + " 仍未收到成功响应，见 " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+}
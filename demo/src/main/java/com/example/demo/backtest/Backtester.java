@@ -0,0 +1,124 @@
+package com.example.demo.backtest;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 再平衡回测：按日收益率序列重放目标配置，比较不同再平衡频率和容忍带的表现。
+ *
+ * 每个交易日各资产类型按当日收益率增长；在频率对应周期的最后一个交易日收盘后检查偏离，
+ * 容忍带为 0 时总是再平衡，否则只有某一类型的权重偏离目标超过容忍带 (绝对值) 时才再平衡。
+ * 多个策略在 ForkJoinPool 中并行回放，共享同一份只读映射的收益率序列。
+ */
+public final class Backtester {
+
+    private static final int TYPES = AssetType.values().length;
+
+    // 年化使用的每年交易日数
+    static final int TRADING_DAYS_PER_YEAR = 252;
+
+    private Backtester() {
+    }
+
+    /**
+     * 再平衡策略
+     * @param frequency 检查频率
+     * @param band      容忍带 (权重偏离的绝对值，如 0.05)，0 表示每次检查都再平衡
+     */
+    public record Strategy(RebalanceFrequency frequency, double band) {
+    }
+
+    /**
+     * 回测结果
+     * @param finalValue  期末金额 (期初为 1)
+     * @param cagr        年化复合收益率
+     * @param volatility  年化波动率 (日收益率标准差 × √252)
+     * @param maxDrawdown 最大回撤 (0 ~ 1)
+     * @param rebalances  再平衡次数
+     * @param turnover    累计换手率 (每次再平衡买卖金额的一半 / 当时总金额，逐次累加)
+     */
+    public record Result(Strategy strategy, double finalValue, double cagr, double volatility, double maxDrawdown,
+                         int rebalances, double turnover) {
+    }
+
+    /**
+     * 并行回放多个策略
+     *
+     * @param weights 目标配置中各资产类型的权重 (按 AssetType.ordinal() 排列，和为 1)
+     * @return 与 strategies 顺序一致的结果
+     */
+    public static List<Result> runAll(PriceSeries series, double[] weights, List<Strategy> strategies,
+                                      ForkJoinPool pool) {
+        List<ForkJoinTask<Result>> tasks = new ArrayList<>(strategies.size());
+        for (Strategy strategy : strategies) {
+            tasks.add(pool.submit(() -> run(series, weights, strategy)));
+        }
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<Result> task : tasks) {
+            results.add(task.join());
+        }
+        return results;
+    }
+
+    /**
+     * 回放一个策略
+     */
+    public static Result run(PriceSeries series, double[] weights, Strategy strategy) {
+        double[] holdings = weights.clone();
+        double value = 1;
+        double peak = 1;
+        double maxDrawdown = 0;
+        int rebalances = 0;
+        double turnover = 0;
+        // 日收益率的均值和方差 (Welford 算法，一遍计算)
+        double mean = 0;
+        double squares = 0;
+
+        for (int day = 0; day < series.days(); day++) {
+            double previousValue = value;
+            value = 0;
+            for (int t = 0; t < TYPES; t++) {
+                holdings[t] *= 1 + series.dailyReturn(day, t);
+                value += holdings[t];
+            }
+
+            double dailyReturn = value / previousValue - 1;
+            double delta = dailyReturn - mean;
+            mean += delta / (day + 1);
+            squares += delta * (dailyReturn - mean);
+
+            peak = Math.max(peak, value);
+            maxDrawdown = Math.max(maxDrawdown, 1 - value / peak);
+
+            // 下一个交易日进入新周期时，当日即本周期的最后一个交易日
+            if (day + 1 == series.days() || strategy.frequency().period(series.epochDay(day + 1))
+                    == strategy.frequency().period(series.epochDay(day))) {
+                continue;
+            }
+            double drift = 0;
+            for (int t = 0; t < TYPES; t++) {
+                drift = Math.max(drift, Math.abs(holdings[t] / value - weights[t]));
+            }
+            if (drift == 0 || drift <= strategy.band() && strategy.band() > 0) {
+                continue;
+            }
+            double traded = 0;
+            for (int t = 0; t < TYPES; t++) {
+                double target = value * weights[t];
+                traded += Math.abs(target - holdings[t]);
+                holdings[t] = target;
+            }
+            rebalances++;
+            turnover += traded / 2 / value;
+        }
+
+        int days = series.days();
+        double cagr = Math.pow(value, (double) TRADING_DAYS_PER_YEAR / days) - 1;
+        double volatility = days > 1 ? Math.sqrt(squares / (days - 1) * TRADING_DAYS_PER_YEAR) : 0;
+        return new Result(strategy, value, cagr, volatility, maxDrawdown, rebalances, turnover);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.backtest;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * 各资产类型的日收益率序列，直接映射本地二进制文件 (只读)。
+ *
+ * 文件格式 (小端序)：
+ *   0  : int  魔数 0x41535253 ("ASRS")
+ *   4  : int  版本号 (1)
+ *   8  : int  资产类型个数 (与 AssetType 一致)
+ *   12 : int  交易日数 N
+ *   16 : int[N]  日期 (epoch day)，严格递增
+ *   对齐到 8 字节后 : double[N][类型个数]  日收益率 (按日期、AssetType.ordinal() 排列)
+ *
+ * 数据通过 MappedByteBuffer 按需从页缓存读取，不复制到堆中；只使用绝对位置读取，可被多个线程同时使用。
+ */
+public final class PriceSeries {
+
+    static final int MAGIC = 0x41535253;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    private static final int TYPES = AssetType.values().length;
+
+    private final int days;
+    private final IntBuffer dates;
+    private final DoubleBuffer returns;
+
+    private PriceSeries(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("不是收益率序列文件");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("不支持的收益率序列文件版本: " + buffer.getInt(4));
+        }
+        if (buffer.getInt(8) != TYPES) {
+            throw new IllegalArgumentException("收益率序列文件中的资产类型个数为 " + buffer.getInt(8) + "，应为 " + TYPES);
+        }
+        days = buffer.getInt(12);
+        int returnsOffset = returnsOffset(days);
+        if (days < 1 || buffer.capacity() != returnsOffset + (long) days * TYPES * Double.BYTES) {
+            throw new IllegalArgumentException("收益率序列文件长度与交易日数不符");
+        }
+        dates = buffer.slice(HEADER_BYTES, days * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        returns = buffer.slice(returnsOffset, days * TYPES * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+    }
+
+    /**
+     * 日收益率数据的起始位置 (日期之后对齐到 8 字节)
+     */
+    static int returnsOffset(int days) {
+        return (HEADER_BYTES + days * Integer.BYTES + 7) & ~7;
+    }
+
+    /**
+     * 只读映射收益率序列文件 (映射建立后即可关闭文件通道)
+     *
+     * @throws IllegalArgumentException 文件格式不正确
+     */
+    public static PriceSeries map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PriceSeries(buffer);
+        }
+    }
+
+    /**
+     * 交易日数
+     */
+    public int days() {
+        return days;
+    }
+
+    /**
+     * 第 day 个交易日的日期 (epoch day)
+     */
+    public int epochDay(int day) {
+        return dates.get(day);
+    }
+
+    public LocalDate date(int day) {
+        return LocalDate.ofEpochDay(epochDay(day));
+    }
+
+    /**
+     * 第 day 个交易日某一资产类型的收益率 (如 0.01 表示上涨 1%)
+     */
+    public double dailyReturn(int day, int type) {
+        return returns.get(day * TYPES + type);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.backtest;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 把 CSV 格式的每日收盘价转换为 PriceSeries 二进制文件。
+ *
+ * CSV 首行为表头 date,NASDAQ,SP,CONSERVATIVE,CASH (资产类型列顺序不限，忽略其他列)，
+ * 之后每行一个交易日：日期 (yyyy-MM-dd，严格递增) 和各资产类型的收盘价 (或净值)，
+ * 第一行只作为基准，从第二行起按 当日价格 / 前一日价格 - 1 计算日收益率。
+ *
+ * 命令行用法 (只依赖 JDK，使用 demo 模块的普通 jar 即可，不需要启动应用)：
+ *   java -cp demo/target/demo-0.0.1-SNAPSHOT.jar com.example.demo.backtest.PriceSeriesConverter prices.csv prices.bin
+ */
+public final class PriceSeriesConverter {
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    private PriceSeriesConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("用法: PriceSeriesConverter <prices.csv> <output.bin>");
+            System.exit(2);
+        }
+        try (BufferedReader csv = Files.newBufferedReader(Path.of(args[0]), StandardCharsets.UTF_8)) {
+            int days = convert(csv, Path.of(args[1]));
+            System.out.println("已写入 " + days + " 个交易日: " + args[1]);
+        }
+    }
+
+    /**
+     * 转换 CSV 并写入二进制文件 (已存在时覆盖)
+     *
+     * @return 写入的交易日数 (CSV 数据行数 - 1)
+     * @throws IllegalArgumentException CSV 格式错误 (缺少列、日期未递增、价格不是正数等)，信息中带行号
+     */
+    public static int convert(BufferedReader csv, Path out) throws IOException {
+        String header = csv.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV 为空");
+        }
+        List<String> columns = Arrays.stream(header.split(",")).map(c -> c.trim().toUpperCase(Locale.ROOT)).toList();
+        int dateColumn = columns.indexOf("DATE");
+        int[] typeColumns = new int[TYPES.length];
+        for (AssetType type : TYPES) {
+            typeColumns[type.ordinal()] = columns.indexOf(type.name());
+            if (typeColumns[type.ordinal()] < 0) {
+                throw new IllegalArgumentException("CSV 表头缺少 " + type.name() + " 列");
+            }
+        }
+        if (dateColumn < 0) {
+            throw new IllegalArgumentException("CSV 表头缺少 date 列");
+        }
+
+        List<Integer> dates = new ArrayList<>();
+        List<double[]> returns = new ArrayList<>();
+        double[] previous = null;
+        int previousDate = Integer.MIN_VALUE;
+        int lineNumber = 1;
+        String line;
+        while ((line = csv.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            try {
+                int date = (int) LocalDate.parse(fields[dateColumn].trim()).toEpochDay();
+                if (date <= previousDate) {
+                    throw new IllegalArgumentException("日期必须严格递增");
+                }
+                double[] prices = new double[TYPES.length];
+                for (int t = 0; t < TYPES.length; t++) {
+                    prices[t] = Double.parseDouble(fields[typeColumns[t]].trim());
+                    if (!(prices[t] > 0) || Double.isInfinite(prices[t])) {
+                        throw new IllegalArgumentException(TYPES[t].name() + " 的价格必须是正数");
+                    }
+                }
+                if (previous != null) {
+                    double[] dailyReturns = new double[TYPES.length];
+                    for (int t = 0; t < TYPES.length; t++) {
+                        dailyReturns[t] = prices[t] / previous[t] - 1;
+                    }
+                    dates.add(date);
+                    returns.add(dailyReturns);
+                }
+                previous = prices;
+                previousDate = date;
+            } catch (ArrayIndexOutOfBoundsException | DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("第 " + lineNumber + " 行格式错误: " + line, e);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("第 " + lineNumber + " 行: " + e.getMessage(), e);
+            }
+        }
+        if (dates.isEmpty()) {
+            throw new IllegalArgumentException("CSV 至少需要两个交易日的价格");
+        }
+
+        int days = dates.size();
+        int returnsOffset = PriceSeries.returnsOffset(days);
+        ByteBuffer buffer = ByteBuffer.allocate(returnsOffset + days * TYPES.length * Double.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(PriceSeries.MAGIC).putInt(PriceSeries.VERSION).putInt(TYPES.length).putInt(days);
+        for (int date : dates) {
+            buffer.putInt(date);
+        }
+        buffer.position(returnsOffset);
+        for (double[] dailyReturns : returns) {
+            for (double value : dailyReturns) {
+                buffer.putDouble(value);
+            }
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return days;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.backtest;
+
+import java.time.LocalDate;
+
+/**
+ * 回测中的再平衡频率：每个周期的最后一个交易日收盘后检查 (并按需) 再平衡
+ */
+public enum RebalanceFrequency {
+    NEVER,      // 买入后持有，不再平衡
+    DAILY,
+    WEEKLY,
+    MONTHLY,
+    QUARTERLY,
+    ANNUALLY;
+
+    /**
+     * 日期所在周期的编号，相邻两个交易日编号不同即前一日为周期的最后一个交易日
+     */
+    long period(int epochDay) {
+        return switch (this) {
+            case NEVER -> 0;
+            case DAILY -> epochDay;
+            // 1970-01-01 是星期四，+3 后按星期一划分
+            case WEEKLY -> Math.floorDiv(epochDay + 3, 7);
+            case MONTHLY -> monthIndex(epochDay);
+            case QUARTERLY -> Math.floorDiv(monthIndex(epochDay), 3);
+            case ANNUALLY -> Math.floorDiv(monthIndex(epochDay), 12);
+        };
+    }
+
+    private static long monthIndex(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 虚拟线程模式下的并发闸门。
+ *
+ * 平台线程模式由 Tomcat 线程池 (server.tomcat.threads.max) 天然限制并发；虚拟线程模式下每个请求一个线程，
+ * 上万个请求会同时排队等待数据库连接，直到 Hikari 获取连接超时。此过滤器把同时处理的 /api 请求数
+ * 限制为连接池大小 (可配置)，其余请求公平排队，等待超过 acquire-timeout-ms 时直接返回 503，
+ * 不占用连接池的等待队列。流式响应的许可在异步写出完成后才释放。
+ *
+ * 仅在 spring.threads.virtual.enabled=true 且运行于 Java 21+ 时生效。
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConnectionPoolBulkheadFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private DataSource dataSource;
+
+    // 同时处理的 /api 请求数上限；0 表示与连接池最大连接数一致
+    @Value("${asset.threads.max-concurrent-requests:0}")
+    private int maxConcurrentRequests;
+
+    // 排队等待许可的最长时间 (毫秒)
+    @Value("${asset.threads.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMs;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() throws SQLException {
+        permits = new Semaphore(resolvePermits(), true);
+    }
+
+    private int resolvePermits() throws SQLException {
+        if (maxConcurrentRequests > 0) {
+            return maxConcurrentRequests;
+        }
+        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+            return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        }
+        return 10;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("服务繁忙，请稍后重试");
+            return;
+        }
+
+        boolean releaseNow = true;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // 流式响应：写出完成 (或超时、出错) 后才释放许可
+                request.getAsyncContext().addListener(new ReleaseOnComplete());
+                releaseNow = false;
+            }
+        } finally {
+            if (releaseNow) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 当前可用的许可数 (用于测试和监控)
+     */
+    int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private class ReleaseOnComplete implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permits.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -16,7 +16,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:5500", "http://127.0.0.1:5500") 
                 
                 // 允许的请求方法
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") 
+                .allowedMethods("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS") 
                 
                 // 允许所有请求头
                 .allowedHeaders("*") 
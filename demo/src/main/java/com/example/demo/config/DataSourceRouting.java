@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * 读写分离的路由规则 (配置了只读副本时生效，见 DataSourceRoutingConfig)。
+ *
+ * 只读事务 (@Transactional(readOnly = true)，以及 Spring Data 仓库默认的只读查询) 使用副本，
+ * 其余事务和事务外的语句使用主库。副本有复制延迟，需要读到最新提交的数据时 (如据此写入或缓存)，
+ * 用 onPrimary 把当前线程的只读事务也固定到主库。
+ */
+public final class DataSourceRouting {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * 当前线程即将获取的连接应来自哪个库
+     */
+    public static Target current() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPrimaryRequired()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    /**
+     * 当前线程是否要求只读事务也读主库
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * 在主库上执行 action 中的所有读取 (包括只读事务)
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean entered = requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            if (entered) {
+                release();
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 让异步执行的 task 沿用提交线程的路由要求 (流式响应在异步线程中读取数据库)
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!isPrimaryRequired()) {
+            return task;
+        }
+        return () -> onPrimary(task);
+    }
+
+    /**
+     * 要求当前线程读主库
+     * @return 是否由本次调用设置 (外层已要求时返回 false，调用方不应 release)
+     */
+    static boolean requirePrimary() {
+        if (isPrimaryRequired()) {
+            return false;
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return true;
+    }
+
+    static void release() {
+        PRIMARY_REQUIRED.remove();
+    }
+}
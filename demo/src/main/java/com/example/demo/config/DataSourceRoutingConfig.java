@@ -0,0 +1,147 @@
+package com.example.demo.config;
+
+import com.example.demo.config.DataSourceRouting.Target;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * 读写分离：配置了 asset.datasource.replica.url 时，只读事务使用只读副本，其余使用主库，两者各自一个连接池。
+ *
+ * 1. 主库：spring.datasource.* (连接池 spring.datasource.hikari.*)；
+ *    副本：asset.datasource.replica.* (连接池 asset.datasource.replica.hikari.*)；
+ * 2. 事务内第一次执行语句时才获取连接 (LazyConnectionDataSourceProxy)，此时已知事务是否只读，按 DataSourceRouting 选库；
+ * 3. 账本重建 / 对账、定时快照、响应缓存等依据读取结果写入或缓存的地方固定读主库，
+ *    带 X-Read-Your-Writes: true 请求头的请求整个读主库 (ReadYourWritesFilter)；
+ * 4. 读副本的事务不使用 Hibernate 二级缓存 (CacheMode.IGNORE)，避免把复制延迟前的旧数据缓存到 ttl 过期；
+ *    不能只禁止写入 (CacheMode.GET)：Hibernate 6.3 的查询缓存在 GET 模式下未命中时仍会写入查询结果。
+ *
+ * 未配置副本时不生效，所有连接来自 spring.datasource 的单个连接池。
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "asset.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("asset.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("asset.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return DataSourceRouting.current();
+            }
+        };
+        routing.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * 流式响应在 MVC 的异步线程中读取数据库，沿用请求线程的读己之写要求
+     */
+    @Bean
+    public TaskDecorator dataSourceRoutingTaskDecorator() {
+        return DataSourceRouting::propagate;
+    }
+
+    /**
+     * JpaTransactionManager 初始化时会取 EntityManagerFactory 的 JpaDialect，初始化之后再替换
+     */
+    @Bean
+    public static BeanPostProcessor replicaAwareJpaDialect() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JpaTransactionManager transactionManager) {
+                    transactionManager.setJpaDialect(new ReplicaAwareJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * 读副本的事务期间把 Session 的缓存模式设为 IGNORE，事务结束后恢复
+     */
+    static class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+        private record ReplicaTransactionData(Object delegate, Session session, CacheMode previous) {
+        }
+
+        @Override
+        public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+                throws SQLException {
+            Object data = super.beginTransaction(entityManager, definition);
+            if (!definition.isReadOnly() || DataSourceRouting.isPrimaryRequired()) {
+                return data;
+            }
+            Session session = entityManager.unwrap(Session.class);
+            CacheMode previous = session.getCacheMode();
+            session.setCacheMode(CacheMode.IGNORE);
+            return new ReplicaTransactionData(data, session, previous);
+        }
+
+        @Override
+        public void cleanupTransaction(Object transactionData) {
+            if (transactionData instanceof ReplicaTransactionData replica) {
+                replica.session().setCacheMode(replica.previous());
+                super.cleanupTransaction(replica.delegate());
+            } else {
+                super.cleanupTransaction(transactionData);
+            }
+        }
+    }
+}
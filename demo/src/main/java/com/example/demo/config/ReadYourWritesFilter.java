@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 请求级的读己之写。
+ *
+ * 带请求头 X-Read-Your-Writes: true 的 /api 请求，其中的只读事务也读主库，能立即读到客户端刚刚提交的写入
+ * (不受副本复制延迟影响)；流式响应的异步写出沿用同一要求。不带此请求头的读取使用只读副本。
+ * 未配置只读副本时所有读取本来就在主库，此请求头没有影响。
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Read-Your-Writes";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/")
+                || !"true".equalsIgnoreCase(request.getHeader(HEADER));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean entered = DataSourceRouting.requirePrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (entered) {
+                DataSourceRouting.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate 二级缓存：进程内的 Caffeine (通过 JCache 接入)。
+ *
+ * 1. 实体缓存：AssetDetail、HistoryRecord 按主键缓存 (READ_WRITE)，容量和写入后的存活时间有上限；
+ * 2. 查询缓存：仓库中标记为可缓存的查询 (HINT_CACHEABLE)，按 查询 + 参数 缓存返回的行；
+ *    表被写入后 (包括 JdbcTemplate 写入，见 SecondLevelCache) 依赖该表的查询结果全部失效；
+ * 3. 每个区域的命中 / 未命中 / 写入 / 淘汰次数以 cache.* 指标暴露 (tag cache=区域名)。
+ *
+ * 每个 Spring 上下文使用独立的 CacheManager，区域都在这里预先创建，缺少区域时启动失败 (不会创建无上限的缓存)。
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // 缓存区域名称
+    public static final String ASSET_DETAILS = "asset_details";
+    public static final String HISTORY_RECORDS = "history_records";
+    public static final String QUERY_RESULTS = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String UPDATE_TIMESTAMPS = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    private static final List<String> REGIONS = List.of(ASSET_DETAILS, HISTORY_RECORDS, QUERY_RESULTS,
+            UPDATE_TIMESTAMPS);
+
+    // 每个实体区域最多缓存的实体数
+    @Value("${asset.cache.second-level.max-entities:100000}")
+    private long maxEntities;
+
+    // 查询缓存最多缓存的查询结果数 (不同参数算不同结果)
+    @Value("${asset.cache.second-level.max-queries:10000}")
+    private long maxQueries;
+
+    // 写入缓存后的最长存活时间
+    @Value("${asset.cache.second-level.ttl:PT10M}")
+    private Duration ttl;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(ASSET_DETAILS, bounded(maxEntities));
+        cacheManager.createCache(HISTORY_RECORDS, bounded(maxEntities));
+        cacheManager.createCache(QUERY_RESULTS, bounded(maxQueries));
+        // 表的最后修改时间戳：每张表一条，不能被淘汰或过期，否则查询缓存会返回过期结果
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        timestamps.setStatisticsEnabled(true);
+        cacheManager.createCache(UPDATE_TIMESTAMPS, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheProperties(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> REGIONS.forEach(region ->
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region)));
+    }
+
+    /**
+     * 有容量上限、写入后 ttl 过期的区域 (CaffeineConfiguration 的时长单位为纳秒)。
+     * 缓存的是 Hibernate 拆解后的不可变状态，按引用保存，避免每次读写都序列化复制
+     */
+    private CaffeineConfiguration<Object, Object> bounded(long maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.config;
+
+import com.example.demo.policy.PolicyRegistry;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.BulkRecommendationService;
+import com.example.demo.service.EmbeddedStoreCompactor;
+import com.example.demo.service.HistoryRollupService;
+import com.example.demo.service.SnapshotService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 延迟初始化 (spring.main.lazy-initialization，prod 配置开启) 时仍在启动阶段创建的 bean。
+ *
+ * 1. 启动时必须完成的工作：账本从数据库重建 (AssetLedger)、历史汇总一致性检查 (HistoryRollupService)、
+ *    配置策略加载 (PolicyRegistry)，策略文件有误时启动失败而不是在第一次请求时失败；
+ * 2. 含 @Scheduled 方法的 bean：定时任务在 bean 创建时注册，延迟创建的 bean 不会被调度。
+ *
+ * 其余 bean (收益模拟、回测、调仓计划等) 在第一次用到时创建。
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                AssetLedger.class,
+                HistoryRollupService.class,
+                PolicyRegistry.class,
+                SnapshotService.class,
+                BulkRecommendationService.class,
+                EmbeddedStoreCompactor.class);
+    }
+}
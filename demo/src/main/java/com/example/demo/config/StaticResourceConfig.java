@@ -0,0 +1,37 @@
+package com.example.demo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * 前端静态文件的缓存和压缩 (文件由构建模块 static-assets 的 StaticAssetBuilder 在构建时生成)：
+ *
+ * 1. /assets/** 下的文件名包含内容摘要，内容变化时文件名随之变化，可以长期缓存且无需重新验证
+ *    (Cache-Control: max-age=365 天, public, immutable)；
+ * 2. index.html 等其余文件由 Spring Boot 默认的 /** 处理，每次使用前向服务端验证 (no-cache，未修改时返回 304)，
+ *    见 application.yml 的 spring.web.resources；
+ * 3. 两者都按请求的 Accept-Encoding 返回构建时生成的 .br / .gz 版本 (响应带 Vary: Accept-Encoding)，
+ *    不支持压缩的客户端收到原文件。
+ */
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+
+    // 带摘要文件所在的子目录 (相对于 static)，与 StaticAssetBuilder 的输出一致
+    private static final String ASSETS_DIR = "assets";
+
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/" + ASSETS_DIR + "/**")
+                .addResourceLocations("classpath:/static/" + ASSETS_DIR + "/")
+                .setCacheControl(CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+}
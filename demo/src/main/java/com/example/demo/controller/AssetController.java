@@ -1,30 +1,95 @@
 package com.example.demo.controller;
 
+import com.example.demo.config.DataSourceRouting;
 import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.AssetImportResultDTO;
+import com.example.demo.dto.CursorPageDTO;
+import com.example.demo.dto.HistoryBucketDTO;
 import com.example.demo.dto.HistoryRecordDTO;
-import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.HistoryRollup;
+import com.example.demo.model.Portfolios;
+import com.example.demo.service.AssetImportReaders;
+import com.example.demo.service.AssetImportService;
 import com.example.demo.service.AssetService;
 import com.example.demo.service.CalculationService;
+import com.example.demo.service.DataVersion;
+import com.example.demo.service.HistoryExportService;
+import com.example.demo.service.HistoryExportService.ExportFormat;
+import com.example.demo.service.HistoryRollupService;
+import com.example.demo.service.ProjectionService;
+import com.example.demo.service.RebalanceService;
+import com.example.demo.service.ResponseCache;
+import com.example.demo.service.VersionedCache;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 // 资产控制器，负责处理前端在“开始配置”页面上的所有操作。
 
 
+// 每个接口都有两种路由：/api/... 操作默认组合，/api/portfolios/{portfolioId}/... 操作指定组合。
 @RestController
 @RequestMapping("/api") // 所有接口都以 /api 开头
 public class AssetController {
 
+    private static final String PORTFOLIO = "/portfolios/{portfolioId}";
+
+    // 游标分页：默认每页条数和每页最大条数
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private AssetService assetService;
 
+    @Autowired
+    private AssetImportService assetImportService;
+
     @Autowired
     private CalculationService calculationService;
 
+    @Autowired
+    private RebalanceService rebalanceService;
+
+    @Autowired
+    private ProjectionService projectionService;
+
+    @Autowired
+    private HistoryExportService historyExportService;
+
+    @Autowired
+    private HistoryRollupService historyRollupService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // ==========================================================
     // 资产明细 (CRUD) 接口
     // ==========================================================
@@ -34,22 +99,168 @@ public class AssetController {
      * @param dto 前端传入的资产 DTO (assetType, name, amount)
      * @return 保存后的资产 DTO
      */
-    @PostMapping("/assets")
-    public ResponseEntity<AssetDetailDTO> addAsset(@RequestBody AssetDetailDTO dto) {
-        // 使用 AssetService 保存资产
-        AssetDetailDTO saved = assetService.saveAsset(dto);
-        // 返回 HTTP 201 Created 状态码
-        return new ResponseEntity<>(saved, HttpStatus.CREATED);
+    @PostMapping({"/assets", PORTFOLIO + "/assets"})
+    public ResponseEntity<?> addAsset(@PathVariable(required = false) Long portfolioId,
+                                      @RequestBody AssetDetailDTO dto) {
+        try {
+            // 使用 AssetService 保存资产
+            AssetDetailDTO saved = assetService.saveAsset(portfolio(portfolioId), dto);
+            // 返回 HTTP 201 Created 状态码
+            return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            // 组合总额超出可表示的范围 (写入已回滚)
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * POST /api/assets/batch : 批量添加资产明细 (JSON 数组)
+     * 请求体按流式逐条解析，每 asset.import.chunk-size 行提交一次。
+     * @param body 请求体 [{"assetType":"NASDAQ","name":"QQQ","amount":100.00}, ...]
+     * @return 导入结果 (导入行数、批次数、耗时)
+     */
+    @PostMapping(value = {"/assets/batch", PORTFOLIO + "/assets/batch"}, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> addAssetsInBatch(@PathVariable(required = false) Long portfolioId, InputStream body) {
+        return importAssets(portfolioId, () -> AssetImportReaders.jsonArray(body, objectMapper));
+    }
+
+    /**
+     * POST /api/assets/import : 流式导入 CSV 文件 (表头 asset_type,name,amount)
+     */
+    @PostMapping(value = {"/assets/import", PORTFOLIO + "/assets/import"}, consumes = "text/csv")
+    public ResponseEntity<?> importAssetsFromCsv(@PathVariable(required = false) Long portfolioId, InputStream body) {
+        return importAssets(portfolioId, () -> AssetImportReaders.csv(body));
+    }
+
+    /**
+     * POST /api/assets/import : 流式导入 NDJSON (每行一个资产明细 JSON 对象)
+     */
+    @PostMapping(value = {"/assets/import", PORTFOLIO + "/assets/import"},
+            consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importAssetsFromNdjson(@PathVariable(required = false) Long portfolioId,
+                                                    InputStream body) {
+        return importAssets(portfolioId, () -> AssetImportReaders.ndjson(body, objectMapper));
     }
 
     /**
      * GET /api/assets : 获取当前所有资产明细
+     * 带强 ETag (数据版本号)：If-None-Match 命中时直接返回 304，不访问数据库。
+     * 持仓较少时返回缓存的 JSON；持仓很多时以数据库游标逐条读取并直接写出 JSON 数组 (流式)。
      * @return 所有资产明细 DTO 列表
      */
-    @GetMapping("/assets")
-    public ResponseEntity<List<AssetDetailDTO>> getAllAssets() {
-        List<AssetDetailDTO> assets = assetService.findAllAssets();
-        return ResponseEntity.ok(assets);
+    @GetMapping(value = {"/assets", PORTFOLIO + "/assets"}, params = {"!limit", "!cursor"})
+    public ResponseEntity<StreamingResponseBody> getAllAssets(@PathVariable(required = false) Long portfolioId,
+                                                              WebRequest request) {
+        long id = portfolio(portfolioId);
+        if (request.checkNotModified(dataVersion.currentETag(id))) {
+            return null; // 已设置 304 响应
+        }
+        VersionedCache.Entry<byte[]> cached = responseCache.assetListJson(id);
+        if (cached == null) {
+            return cacheable(ResponseEntity.ok(), dataVersion.currentETag(id))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(this.<AssetDetailDTO>jsonArrayBody(action -> assetService.forEachAsset(id, action)));
+        }
+        byte[] json = cached.value();
+        return cacheable(ResponseEntity.ok(), dataVersion.eTag(cached.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> out.write(json));
+    }
+
+    /**
+     * GET /api/assets?limit=&cursor= : 游标分页获取资产明细 (按 id 升序)
+     * @param limit  每页条数 (默认 100，最大 1000)
+     * @param cursor 上一页返回的 nextCursor，首页不传
+     * @return 一页资产明细 {items, nextCursor}
+     */
+    @GetMapping(value = {"/assets", PORTFOLIO + "/assets"}, params = "limit")
+    public ResponseEntity<?> getAssetsPage(@PathVariable(required = false) Long portfolioId,
+                                           @RequestParam(required = false) Integer limit,
+                                           @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDTO<AssetDetailDTO> page =
+                    assetService.findAssetsPage(portfolio(portfolioId), cursor, pageSize(limit));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // 只传 cursor 时按默认每页条数分页
+    @GetMapping(value = {"/assets", PORTFOLIO + "/assets"}, params = {"!limit", "cursor"})
+    public ResponseEntity<?> getAssetsPage(@PathVariable(required = false) Long portfolioId,
+                                           @RequestParam String cursor) {
+        return getAssetsPage(portfolioId, null, cursor);
+    }
+
+    /**
+     * PATCH /api/assets/{id} : 修改一条资产明细 (只修改请求中非空的 assetType / name / amount)
+     * 请求体必须带读取时的 version；已被其他请求修改时返回 409，需重新读取后再提交。
+     * @return 修改后的资产 DTO (版本号加 1)
+     */
+    @PatchMapping({"/assets/{assetId}", PORTFOLIO + "/assets/{assetId}"})
+    public ResponseEntity<?> updateAsset(@PathVariable(required = false) Long portfolioId,
+                                         @PathVariable long assetId, @RequestBody AssetDetailDTO patch) {
+        return writeAssets(() -> ResponseEntity.ok(assetService.updateAsset(portfolio(portfolioId), assetId, patch)));
+    }
+
+    /**
+     * PATCH /api/assets : 批量修改资产明细 [{"id":1,"version":0,"amount":120.00}, ...]
+     * @return 修改条数，以及版本号冲突和不存在的 id (这些条目未修改)
+     */
+    @PatchMapping({"/assets", PORTFOLIO + "/assets"})
+    public ResponseEntity<?> updateAssets(@PathVariable(required = false) Long portfolioId,
+                                          @RequestBody List<AssetDetailDTO> patches) {
+        return writeAssets(() -> ResponseEntity.ok(assetService.updateAssets(portfolio(portfolioId), patches)));
+    }
+
+    /**
+     * DELETE /api/assets/{id}?version= : 删除一条资产明细，版本号不一致时返回 409
+     */
+    @DeleteMapping({"/assets/{assetId}", PORTFOLIO + "/assets/{assetId}"})
+    public ResponseEntity<?> deleteAsset(@PathVariable(required = false) Long portfolioId,
+                                         @PathVariable long assetId, @RequestParam long version) {
+        return writeAssets(() -> {
+            assetService.deleteAsset(portfolio(portfolioId), assetId, version);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * DELETE /api/assets : 批量删除资产明细 [{"id":1,"version":0}, ...]
+     * @return 删除条数，以及版本号冲突和不存在的 id (这些条目未删除)
+     */
+    @DeleteMapping({"/assets", PORTFOLIO + "/assets"})
+    public ResponseEntity<?> deleteAssets(@PathVariable(required = false) Long portfolioId,
+                                          @RequestBody List<AssetDetailDTO> targets) {
+        return writeAssets(() -> ResponseEntity.ok(assetService.deleteAssets(portfolio(portfolioId), targets)));
+    }
+
+    /**
+     * 辅助方法：执行修改 / 删除，参数错误返回 400，不存在返回 404，版本号冲突返回 409
+     */
+    private ResponseEntity<?> writeAssets(Supplier<ResponseEntity<?>> write) {
+        try {
+            return write.get();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * 辅助方法：执行导入，数据格式错误时返回 HTTP 400
+     */
+    private ResponseEntity<?> importAssets(Long portfolioId, Supplier<Iterator<AssetDetailDTO>> reader) {
+        try {
+            AssetImportResultDTO result = assetImportService.importAssets(portfolio(portfolioId), reader.get());
+            return new ResponseEntity<>(result, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
     }
 
 
@@ -59,15 +270,112 @@ public class AssetController {
 
     /**
      * GET /api/calculate/recommendation : 计算并返回推荐配置
+     * 默认策略的结果按数据版本号缓存 (序列化后的 JSON)；所有结果都带强 ETag：If-None-Match 命中时直接返回 304。
+     * 配置策略重新加载后版本号随之变化。
+     * @param policy 配置策略名称，省略时使用默认策略
      * @return 包含当前持仓和目标配置的 DTO
      */
-    @GetMapping("/calculate/recommendation")
-    public ResponseEntity<?> getRecommendation() {
+    @GetMapping({"/calculate/recommendation", PORTFOLIO + "/calculate/recommendation"})
+    public ResponseEntity<?> getRecommendation(@PathVariable(required = false) Long portfolioId,
+                                               @RequestParam(required = false) String policy, WebRequest request) {
+        long id = portfolio(portfolioId);
+        // 先取版本号再计算：计算期间发生写入时，返回的 ETag 偏旧，下次请求会重新计算
+        String eTag = dataVersion.currentETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null; // 已设置 304 响应
+        }
         try {
-            RecommendationDTO recommendation = calculationService.getRecommendation();
-            return ResponseEntity.ok(recommendation);
-        } catch (IllegalStateException e) {
-            // 如果 CalculationService 抛出异常 (例如：总资产为零)
+            if (policy != null) {
+                return cacheable(ResponseEntity.ok(), eTag).body(calculationService.getRecommendation(id, policy));
+            }
+            VersionedCache.Entry<byte[]> recommendation = responseCache.recommendationJson(id);
+            return cacheable(ResponseEntity.ok(), dataVersion.eTag(recommendation.version()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(recommendation.value());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            // 如果 CalculationService 抛出异常 (例如：总资产为零、策略不存在)
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/calculate/recommendation/compare?policies=default,balanced : 对比多个配置策略下的推荐配置
+     * 各类型总额只读取一次，再依次用每个策略计算。
+     * @param policies 配置策略名称，省略时对比所有策略
+     * @return 按 policies 顺序排列的推荐配置列表
+     */
+    @GetMapping({"/calculate/recommendation/compare", PORTFOLIO + "/calculate/recommendation/compare"})
+    public ResponseEntity<?> compareRecommendations(@PathVariable(required = false) Long portfolioId,
+                                                    @RequestParam(required = false) List<String> policies,
+                                                    WebRequest request) {
+        long id = portfolio(portfolioId);
+        String eTag = dataVersion.currentETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        try {
+            return cacheable(ResponseEntity.ok(), eTag).body(calculationService.compareRecommendations(id, policies));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/calculate/rebalance : 生成把组合调整到目标配置所需的持仓间划转
+     * 与推荐配置一样，默认策略的结果按数据版本号缓存，所有结果都带强 ETag。
+     * @param policy 配置策略名称，省略时使用默认策略
+     * @return 调仓计划
+     */
+    @GetMapping({"/calculate/rebalance", PORTFOLIO + "/calculate/rebalance"})
+    public ResponseEntity<?> getRebalancePlan(@PathVariable(required = false) Long portfolioId,
+                                              @RequestParam(required = false) String policy, WebRequest request) {
+        long id = portfolio(portfolioId);
+        String eTag = dataVersion.currentETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        try {
+            if (policy != null) {
+                // 读主库：划转来自各条持仓，副本有复制延迟时会以当前版本的 ETag 返回旧持仓上的计划
+                return cacheable(ResponseEntity.ok(), eTag)
+                        .body(DataSourceRouting.onPrimary(() -> rebalanceService.plan(id, policy)));
+            }
+            VersionedCache.Entry<byte[]> plan = responseCache.rebalancePlanJson(id);
+            return cacheable(ResponseEntity.ok(), dataVersion.eTag(plan.version()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(plan.value());
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/calculate/projection : 蒙特卡洛模拟当前持仓与推荐目标配置的未来金额分布
+     * 结果只取决于持仓、策略和请求参数 (默认使用固定种子)，因此同样可以用数据版本作为 ETag。
+     * @param policy 目标配置使用的策略，省略时使用默认策略
+     * @param paths  路径数，省略时使用 asset.projection.paths
+     * @param years  模拟年数，省略时使用 asset.projection.years
+     * @param seed   随机数种子，省略时使用 asset.projection.seed
+     * @param goal   目标金额，省略时为当前总资产
+     * @return 每年末的百分位数和期末未达标概率
+     */
+    @GetMapping({"/calculate/projection", PORTFOLIO + "/calculate/projection"})
+    public ResponseEntity<?> getProjection(@PathVariable(required = false) Long portfolioId,
+                                           @RequestParam(required = false) String policy,
+                                           @RequestParam(required = false) Integer paths,
+                                           @RequestParam(required = false) Integer years,
+                                           @RequestParam(required = false) Long seed,
+                                           @RequestParam(required = false) BigDecimal goal,
+                                           WebRequest request) {
+        long id = portfolio(portfolioId);
+        String eTag = dataVersion.currentETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        try {
+            return cacheable(ResponseEntity.ok(), eTag)
+                    .body(projectionService.project(id, policy, paths, years, seed, goal));
+        } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
@@ -84,10 +392,10 @@ public class AssetController {
      * POST /api/records : 保存当前资产配置为历史快照
      * @return 保存后的历史记录 DTO
      */
-    @PostMapping("/records")
-    public ResponseEntity<?> saveHistoryRecord() {
+    @PostMapping({"/records", PORTFOLIO + "/records"})
+    public ResponseEntity<?> saveHistoryRecord(@PathVariable(required = false) Long portfolioId) {
         try {
-            HistoryRecordDTO savedRecord = assetService.saveCurrentAssetsAsRecord();
+            HistoryRecordDTO savedRecord = assetService.saveCurrentAssetsAsRecord(portfolio(portfolioId));
             return new ResponseEntity<>(savedRecord, HttpStatus.CREATED);
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -95,12 +403,174 @@ public class AssetController {
     }
 
     /**
-     * GET /api/records : 获取所有历史记录
+     * GET /api/records : 获取所有历史记录 (按日期倒序)
+     * 以数据库游标逐条读取并直接写出 JSON 数组
      * @return 历史记录 DTO 列表
      */
-    @GetMapping("/records")
-    public ResponseEntity<List<HistoryRecordDTO>> getAllHistoryRecords() {
-        List<HistoryRecordDTO> records = assetService.findAllHistoryRecords();
-        return ResponseEntity.ok(records);
+    @GetMapping(value = {"/records", PORTFOLIO + "/records"}, params = {"!limit", "!cursor", "!bucket", "!points"})
+    public ResponseEntity<StreamingResponseBody> getAllHistoryRecords(
+            @PathVariable(required = false) Long portfolioId) {
+        long id = portfolio(portfolioId);
+        return this.<HistoryRecordDTO>streamJsonArray(action -> assetService.forEachHistoryRecord(id, action));
+    }
+
+    /**
+     * GET /api/records?limit=&cursor= : 按 (record_date, id) 游标分页获取历史记录
+     * @param limit  每页条数 (默认 100，最大 1000)
+     * @param cursor 上一页返回的 nextCursor，首页不传
+     * @return 一页历史记录 {items, nextCursor}
+     */
+    @GetMapping(value = {"/records", PORTFOLIO + "/records"}, params = "limit")
+    public ResponseEntity<?> getHistoryRecordsPage(@PathVariable(required = false) Long portfolioId,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) String cursor) {
+        try {
+            CursorPageDTO<HistoryRecordDTO> page =
+                    assetService.findHistoryRecordsPage(portfolio(portfolioId), cursor, pageSize(limit));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // 只传 cursor 时按默认每页条数分页
+    @GetMapping(value = {"/records", PORTFOLIO + "/records"}, params = {"!limit", "cursor"})
+    public ResponseEntity<?> getHistoryRecordsPage(@PathVariable(required = false) Long portfolioId,
+                                                   @RequestParam String cursor) {
+        return getHistoryRecordsPage(portfolioId, null, cursor);
+    }
+
+    /**
+     * GET /api/records?bucket=day|week|month&from=&to= : 按天 / 周 / 月汇总的历史记录 (按时间正序)
+     * 读取增量维护的汇总表，行数只与时间段数有关
+     * @param from 起始日期 yyyy-MM-dd (含)，不传表示不限
+     * @param to   结束日期 yyyy-MM-dd (含)，不传表示不限
+     * @return 汇总列表 (各项总额取时间段内最后一条记录，附总资产最小 / 最大 / 平均值)
+     */
+    @GetMapping(value = {"/records", PORTFOLIO + "/records"}, params = {"bucket", "!points"})
+    public ResponseEntity<?> getHistoryBuckets(
+            @PathVariable(required = false) Long portfolioId,
+            @RequestParam String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            HistoryRollup.Bucket parsed;
+            try {
+                parsed = HistoryRollup.Bucket.valueOf(bucket.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的汇总粒度: " + bucket + " (可选 day / week / month)");
+            }
+            List<HistoryBucketDTO> buckets =
+                    historyRollupService.findBuckets(portfolio(portfolioId), parsed, from, to);
+            return ResponseEntity.ok(buckets);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/records?points=500&from=&to= : 供图表使用的降采样历史记录 (按时间正序，LTTB 选点)
+     * 范围内记录较多时从汇总表选点，读取的行数有上限
+     * @param points 返回的最多点数 (3 ~ asset.history.max-points)
+     * @return 历史记录 DTO 列表 (来自汇总的点 id 为 null)
+     */
+    @GetMapping(value = {"/records", PORTFOLIO + "/records"}, params = "points")
+    public ResponseEntity<?> getHistoryPoints(
+            @PathVariable(required = false) Long portfolioId,
+            @RequestParam int points,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<HistoryRecordDTO> records =
+                    historyRollupService.downsample(portfolio(portfolioId), from, to, points);
+            return ResponseEntity.ok(records);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * GET /api/records/export : 流式导出历史记录 (按时间正序)，用于离线分析
+     * @param format 导出格式 csv (默认) 或 ndjson
+     * @param from   起始日期 yyyy-MM-dd (含)，不传表示不限
+     * @param to     结束日期 yyyy-MM-dd (含)，不传表示不限
+     * @return 附件形式的 CSV / NDJSON 文件
+     */
+    @GetMapping({"/records/export", PORTFOLIO + "/records/export"})
+    public ResponseEntity<StreamingResponseBody> exportHistoryRecords(
+            @PathVariable(required = false) Long portfolioId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.parse(format);
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("起始日期不能晚于结束日期");
+            }
+        } catch (IllegalArgumentException e) {
+            // 流式接口的返回类型固定为 StreamingResponseBody，错误信息同样以纯文本写出
+            byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(out -> out.write(message));
+        }
+
+        long id = portfolio(portfolioId);
+        StreamingResponseBody body = out -> historyExportService.export(id, exportFormat, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"history_records." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * 辅助方法：路由中没有组合编号时使用默认组合
+     */
+    private long portfolio(Long portfolioId) {
+        return portfolioId == null ? Portfolios.DEFAULT_ID : portfolioId;
+    }
+
+    /**
+     * 辅助方法：计算每页条数 (默认 100，限制在 1 ~ 1000)
+     */
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 辅助方法：设置强 ETag，并要求浏览器每次使用缓存前都带 If-None-Match 向服务端确认
+     */
+    private ResponseEntity.BodyBuilder cacheable(ResponseEntity.BodyBuilder builder, String eTag) {
+        return builder.eTag(eTag).cacheControl(CacheControl.noCache());
+    }
+
+    /**
+     * 辅助方法：把 source 逐条产生的元素直接写为 JSON 数组，不在内存中组装完整列表
+     * @param source 接收一个逐条写出的回调，并在读取每一行时调用它 (如 AssetService::forEachAsset)
+     */
+    private <T> ResponseEntity<StreamingResponseBody> streamJsonArray(Consumer<Consumer<T>> source) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(jsonArrayBody(source));
+    }
+
+    private <T> StreamingResponseBody jsonArrayBody(Consumer<Consumer<T>> source) {
+        return out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            source.accept(item -> {
+                try {
+                    generator.writeObject(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.close();
+        };
     }
 }
\ No newline at end of file
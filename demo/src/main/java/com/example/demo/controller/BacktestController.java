@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import com.example.demo.backtest.RebalanceFrequency;
+import com.example.demo.service.BacktestService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// 回测控制器：用历史收益率对比配置策略在不同再平衡频率和容忍带下的表现。
+
+@RestController
+@RequestMapping("/api/backtest")
+public class BacktestController {
+
+    @Autowired
+    private BacktestService backtestService;
+
+    /**
+     * GET /api/backtest?policy=default&frequencies=MONTHLY,ANNUALLY&bands=0,0.05 : 回测配置策略
+     * @param policy      配置策略名称，省略时使用默认策略
+     * @param frequencies 再平衡频率 (NEVER, DAILY, WEEKLY, MONTHLY, QUARTERLY, ANNUALLY)，省略时使用默认组合
+     * @param bands       容忍带，省略时对比 0 和 0.05
+     * @return 每个频率 × 容忍带的年化收益率、波动率、最大回撤等
+     */
+    @GetMapping
+    public ResponseEntity<?> backtest(@RequestParam(required = false) String policy,
+                                      @RequestParam(required = false) List<RebalanceFrequency> frequencies,
+                                      @RequestParam(required = false) List<BigDecimal> bands) {
+        try {
+            return ResponseEntity.ok(backtestService.backtest(policy, frequencies, bands));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BulkRecommendationStatusDTO;
+import com.example.demo.service.BulkRecommendationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// 批量任务控制器：手动触发夜间批量任务并查询进度 (任务本身也可按 cron 定时运行)。
+
+@RestController
+@RequestMapping("/api/batch")
+public class BatchController {
+
+    @Autowired
+    private BulkRecommendationService bulkRecommendationService;
+
+    /**
+     * POST /api/batch/recommendations : 在后台为所有组合计算推荐配置
+     * 上次运行未完成时从检查点继续；restart=true 时从头开始。
+     * @return 202 及当前状态；已有任务在运行时返回 409
+     */
+    @PostMapping("/recommendations")
+    public ResponseEntity<?> startBulkRecommendation(@RequestParam(defaultValue = "false") boolean restart) {
+        if (!bulkRecommendationService.startAsync(restart)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("批量推荐任务正在运行中");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkRecommendationService.status());
+    }
+
+    /**
+     * GET /api/batch/recommendations : 查询批量推荐任务的运行状态和进度
+     * @return 状态 DTO (running、progress、processedPortfolios 等)
+     */
+    @GetMapping("/recommendations")
+    public BulkRecommendationStatusDTO getBulkRecommendationStatus() {
+        return bulkRecommendationService.status();
+    }
+}
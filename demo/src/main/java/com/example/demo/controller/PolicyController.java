@@ -0,0 +1,41 @@
+package com.example.demo.controller;
+
+import com.example.demo.policy.PolicyConfig;
+import com.example.demo.policy.PolicyRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// 配置策略控制器：查看当前生效的配置策略，修改策略文件后无需重启即可重新加载。
+
+@RestController
+@RequestMapping("/api/policies")
+public class PolicyController {
+
+    @Autowired
+    private PolicyRegistry policyRegistry;
+
+    /**
+     * GET /api/policies : 当前生效的所有配置策略 (策略文件内容)
+     * @return 默认策略名称及所有策略的定义
+     */
+    @GetMapping
+    public PolicyConfig getPolicies() {
+        return policyRegistry.current().getSource();
+    }
+
+    /**
+     * POST /api/policies/reload : 从策略文件重新加载配置策略
+     * 新策略全部校验通过后才整体生效，文件无效时返回 HTTP 400 并继续使用原有策略。
+     * @return 重新加载后的所有配置策略
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<?> reloadPolicies() {
+        try {
+            return ResponseEntity.ok(policyRegistry.reload().getSource());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+}
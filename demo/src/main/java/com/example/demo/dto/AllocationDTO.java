@@ -0,0 +1,123 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.math.BigDecimal;
+
+/**
+ * 配置策略中一个节点 (分组或资产类型) 的当前金额、目标金额和容忍带
+ */
+public class AllocationDTO {
+
+    /**
+     * 当前金额相对容忍带的位置
+     */
+    public enum BandStatus {
+        BELOW,   // 低于下限，需要买入
+        WITHIN,  // 在容忍带内
+        ABOVE    // 高于上限，需要卖出
+    }
+
+    // 节点名称 (分组名或资产类型名)
+    private String name;
+
+    // 叶子节点对应的资产类型，分组为 null
+    private AssetType assetType;
+
+    // 层级 (第一层分组为 1)
+    private int level;
+
+    // 当前金额和目标金额
+    private BigDecimal current;
+    private BigDecimal target;
+
+    // 目标占总资产的比例 (如 "57.75%")
+    private String targetRatio;
+
+    // 容忍带上下限，未配置容忍带时为 null
+    private BigDecimal lowerBound;
+    private BigDecimal upperBound;
+    private BandStatus status;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public AllocationDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public AssetType getAssetType() {
+        return assetType;
+    }
+
+    public void setAssetType(AssetType assetType) {
+        this.assetType = assetType;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public BigDecimal getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(BigDecimal current) {
+        this.current = current;
+    }
+
+    public BigDecimal getTarget() {
+        return target;
+    }
+
+    public void setTarget(BigDecimal target) {
+        this.target = target;
+    }
+
+    public String getTargetRatio() {
+        return targetRatio;
+    }
+
+    public void setTargetRatio(String targetRatio) {
+        this.targetRatio = targetRatio;
+    }
+
+    public BigDecimal getLowerBound() {
+        return lowerBound;
+    }
+
+    public void setLowerBound(BigDecimal lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    public BigDecimal getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(BigDecimal upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    public BandStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BandStatus status) {
+        this.status = status;
+    }
+}
@@ -9,9 +9,11 @@ import java.math.BigDecimal;
 public class AssetDetailDTO { // 资产明细DTO
 
     private Long id;
+    private Long portfolioId; // 所属投资组合 (提交时以路由中的组合编号为准)
     private AssetDetail.AssetType assetType; // 使用枚举类型
     private String name;
     private BigDecimal amount;
+    private Long version; // 乐观锁版本号，修改和删除时原样传回
 
     // ----------------------
     // 构造函数
@@ -38,6 +40,14 @@ public class AssetDetailDTO { // 资产明细DTO
         this.id = id;
     }
 
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
     public AssetDetail.AssetType getAssetType() {
         return assetType;
     }
@@ -61,4 +71,12 @@ public class AssetDetailDTO { // 资产明细DTO
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.dto;
+
+/**
+ * 批量导入资产明细的结果
+ */
+public class AssetImportResultDTO {
+
+    // 成功导入的行数
+    private long imported;
+
+    // 提交的批次数 (每批一个事务)
+    private int chunks;
+
+    // 耗时 (毫秒)
+    private long elapsedMillis;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public AssetImportResultDTO() {
+    }
+
+    public AssetImportResultDTO(long imported, int chunks, long elapsedMillis) {
+        this.imported = imported;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量修改 / 删除资产明细的结果
+ */
+public class AssetWriteResultDTO {
+
+    // 请求中的条数
+    private int requested;
+
+    // 实际修改 / 删除的条数
+    private int affected;
+
+    // 版本号不一致 (已被其他请求修改) 而未执行的 id，重新读取后再提交
+    private List<Long> conflicts = new ArrayList<>();
+
+    // 组合中不存在的 id
+    private List<Long> missing = new ArrayList<>();
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public AssetWriteResultDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public void setAffected(int affected) {
+        this.affected = affected;
+    }
+
+    public List<Long> getConflicts() {
+        return conflicts;
+    }
+
+    public void setConflicts(List<Long> conflicts) {
+        this.conflicts = conflicts;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 回测结果：同一配置策略在不同再平衡频率和容忍带下的表现对比
+ */
+public class BacktestDTO {
+
+    // 回测的配置策略名称
+    private String policy;
+
+    // 收益率序列的起止日期和交易日数
+    private LocalDate from;
+    private LocalDate to;
+    private int days;
+
+    // 每个再平衡策略的结果，按频率、容忍带排列
+    private List<BacktestResultDTO> results;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public BacktestDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public List<BacktestResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BacktestResultDTO> results) {
+        this.results = results;
+    }
+}
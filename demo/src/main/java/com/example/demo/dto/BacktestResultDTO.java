@@ -0,0 +1,101 @@
+package com.example.demo.dto;
+
+import com.example.demo.backtest.RebalanceFrequency;
+
+import java.math.BigDecimal;
+
+/**
+ * 一个再平衡策略 (频率 + 容忍带) 的回测结果，比例均保留四位小数
+ */
+public class BacktestResultDTO {
+
+    // 再平衡频率和容忍带 (0 表示每次检查都再平衡)
+    private RebalanceFrequency frequency;
+    private BigDecimal band;
+
+    // 期末金额 (期初为 1)
+    private BigDecimal finalValue;
+
+    // 年化复合收益率、年化波动率、最大回撤
+    private BigDecimal cagr;
+    private BigDecimal volatility;
+    private BigDecimal maxDrawdown;
+
+    // 再平衡次数和累计换手率
+    private int rebalances;
+    private BigDecimal turnover;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public BacktestResultDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public RebalanceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(RebalanceFrequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public BigDecimal getBand() {
+        return band;
+    }
+
+    public void setBand(BigDecimal band) {
+        this.band = band;
+    }
+
+    public BigDecimal getFinalValue() {
+        return finalValue;
+    }
+
+    public void setFinalValue(BigDecimal finalValue) {
+        this.finalValue = finalValue;
+    }
+
+    public BigDecimal getCagr() {
+        return cagr;
+    }
+
+    public void setCagr(BigDecimal cagr) {
+        this.cagr = cagr;
+    }
+
+    public BigDecimal getVolatility() {
+        return volatility;
+    }
+
+    public void setVolatility(BigDecimal volatility) {
+        this.volatility = volatility;
+    }
+
+    public BigDecimal getMaxDrawdown() {
+        return maxDrawdown;
+    }
+
+    public void setMaxDrawdown(BigDecimal maxDrawdown) {
+        this.maxDrawdown = maxDrawdown;
+    }
+
+    public int getRebalances() {
+        return rebalances;
+    }
+
+    public void setRebalances(int rebalances) {
+        this.rebalances = rebalances;
+    }
+
+    public BigDecimal getTurnover() {
+        return turnover;
+    }
+
+    public void setTurnover(BigDecimal turnover) {
+        this.turnover = turnover;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.demo.dto;
+
+/**
+ * 批量推荐任务的运行状态和进度 (每提交一个批次更新一次)
+ */
+public class BulkRecommendationStatusDTO {
+
+    // 是否正在运行
+    private boolean running;
+
+    // 本轮是否从上次中断的检查点继续
+    private boolean resumed;
+
+    // 本轮是否已全部完成
+    private boolean completed;
+
+    // 已处理的组合数、持仓条数 (从检查点继续时包含此前已处理的部分)
+    private long processedPortfolios;
+    private long processedHoldings;
+
+    // 本轮需要处理的持仓总条数 (开始时统计，用于计算进度)
+    private long totalHoldings;
+
+    // 已处理完的最后一个组合编号
+    private Long lastPortfolioId;
+
+    // 本次运行提交的批次数
+    private int chunks;
+
+    // 本次运行耗时 (毫秒)
+    private long elapsedMillis;
+
+    // 失败原因 (成功时为 null)
+    private String error;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public BulkRecommendationStatusDTO() {
+    }
+
+    /**
+     * 进度 (0 ~ 1)：已处理持仓条数 / 持仓总条数
+     */
+    public double getProgress() {
+        if (completed || totalHoldings == 0) {
+            return completed ? 1.0 : 0.0;
+        }
+        return Math.min(1.0, (double) processedHoldings / totalHoldings);
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public long getProcessedPortfolios() {
+        return processedPortfolios;
+    }
+
+    public void setProcessedPortfolios(long processedPortfolios) {
+        this.processedPortfolios = processedPortfolios;
+    }
+
+    public long getProcessedHoldings() {
+        return processedHoldings;
+    }
+
+    public void setProcessedHoldings(long processedHoldings) {
+        this.processedHoldings = processedHoldings;
+    }
+
+    public long getTotalHoldings() {
+        return totalHoldings;
+    }
+
+    public void setTotalHoldings(long totalHoldings) {
+        this.totalHoldings = totalHoldings;
+    }
+
+    public Long getLastPortfolioId() {
+        return lastPortfolioId;
+    }
+
+    public void setLastPortfolioId(Long lastPortfolioId) {
+        this.lastPortfolioId = lastPortfolioId;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * 游标 (keyset) 分页结果
+ * nextCursor 为下一页的起点，传给下一次请求的 cursor 参数；没有更多数据时为 null。
+ */
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public CursorPageDTO() {
+    }
+
+    public CursorPageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.HistoryRollup.Bucket;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 按天 / 周 / 月汇总的历史记录
+ * 各项总额取时间段内最后一条记录 (lastRecordDate) 的值，另附总资产的最小值、最大值和平均值。
+ */
+public class HistoryBucketDTO {
+
+    private Bucket bucket;
+    private LocalDate bucketStart; // 时间段第一天
+    private long count; // 时间段内的记录条数
+    private LocalDateTime lastRecordDate;
+    private BigDecimal grandTotal;
+    private BigDecimal nasdaqTotal;
+    private BigDecimal spTotal;
+    private BigDecimal conservativeTotal;
+    private BigDecimal cashTotal;
+    private BigDecimal minGrandTotal;
+    private BigDecimal maxGrandTotal;
+    private BigDecimal avgGrandTotal;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public HistoryBucketDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public Bucket getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(Bucket bucket) {
+        this.bucket = bucket;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public LocalDateTime getLastRecordDate() {
+        return lastRecordDate;
+    }
+
+    public void setLastRecordDate(LocalDateTime lastRecordDate) {
+        this.lastRecordDate = lastRecordDate;
+    }
+
+    public BigDecimal getGrandTotal() {
+        return grandTotal;
+    }
+
+    public void setGrandTotal(BigDecimal grandTotal) {
+        this.grandTotal = grandTotal;
+    }
+
+    public BigDecimal getNasdaqTotal() {
+        return nasdaqTotal;
+    }
+
+    public void setNasdaqTotal(BigDecimal nasdaqTotal) {
+        this.nasdaqTotal = nasdaqTotal;
+    }
+
+    public BigDecimal getSpTotal() {
+        return spTotal;
+    }
+
+    public void setSpTotal(BigDecimal spTotal) {
+        this.spTotal = spTotal;
+    }
+
+    public BigDecimal getConservativeTotal() {
+        return conservativeTotal;
+    }
+
+    public void setConservativeTotal(BigDecimal conservativeTotal) {
+        this.conservativeTotal = conservativeTotal;
+    }
+
+    public BigDecimal getCashTotal() {
+        return cashTotal;
+    }
+
+    public void setCashTotal(BigDecimal cashTotal) {
+        this.cashTotal = cashTotal;
+    }
+
+    public BigDecimal getMinGrandTotal() {
+        return minGrandTotal;
+    }
+
+    public void setMinGrandTotal(BigDecimal minGrandTotal) {
+        this.minGrandTotal = minGrandTotal;
+    }
+
+    public BigDecimal getMaxGrandTotal() {
+        return maxGrandTotal;
+    }
+
+    public void setMaxGrandTotal(BigDecimal maxGrandTotal) {
+        this.maxGrandTotal = maxGrandTotal;
+    }
+
+    public BigDecimal getAvgGrandTotal() {
+        return avgGrandTotal;
+    }
+
+    public void setAvgGrandTotal(BigDecimal avgGrandTotal) {
+        this.avgGrandTotal = avgGrandTotal;
+    }
+}
@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
 public class HistoryRecordDTO {
 
     private Long id;
+    private Long portfolioId; // 所属投资组合
     private LocalDateTime recordDate;
     private BigDecimal grandTotal;
     private BigDecimal nasdaqTotal;
@@ -36,6 +37,14 @@ public class HistoryRecordDTO {
         this.id = id;
     }
 
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
     public LocalDateTime getRecordDate() {
         return recordDate;
     }
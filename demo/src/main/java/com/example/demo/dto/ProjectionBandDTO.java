@@ -0,0 +1,77 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 模拟中某一年末组合金额的百分位数
+ */
+public class ProjectionBandDTO {
+
+    // 第几年末 (从 1 开始)
+    private int year;
+
+    // 第 5、25、50、75、95 百分位数
+    private BigDecimal p5;
+    private BigDecimal p25;
+    private BigDecimal p50;
+    private BigDecimal p75;
+    private BigDecimal p95;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public ProjectionBandDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public BigDecimal getP5() {
+        return p5;
+    }
+
+    public void setP5(BigDecimal p5) {
+        this.p5 = p5;
+    }
+
+    public BigDecimal getP25() {
+        return p25;
+    }
+
+    public void setP25(BigDecimal p25) {
+        this.p25 = p25;
+    }
+
+    public BigDecimal getP50() {
+        return p50;
+    }
+
+    public void setP50(BigDecimal p50) {
+        this.p50 = p50;
+    }
+
+    public BigDecimal getP75() {
+        return p75;
+    }
+
+    public void setP75(BigDecimal p75) {
+        this.p75 = p75;
+    }
+
+    public BigDecimal getP95() {
+        return p95;
+    }
+
+    public void setP95(BigDecimal p95) {
+        this.p95 = p95;
+    }
+}
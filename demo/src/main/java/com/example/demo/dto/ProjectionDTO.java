@@ -0,0 +1,102 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * 蒙特卡洛模拟结果：当前持仓与推荐目标配置在未来若干年的金额分布对比
+ * 相同的持仓、策略、参数和种子总是得到相同的结果。
+ */
+public class ProjectionDTO {
+
+    // 目标配置使用的配置策略名称
+    private String policy;
+
+    // 模拟参数
+    private int paths;
+    private int years;
+    private long seed;
+
+    // 初始总资产
+    private BigDecimal grandTotal;
+
+    // 目标金额：期末低于该金额计为未达标
+    private BigDecimal goal;
+
+    // 当前持仓和目标配置的模拟结果
+    private ProjectionSeriesDTO current;
+    private ProjectionSeriesDTO target;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public ProjectionDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public int getPaths() {
+        return paths;
+    }
+
+    public void setPaths(int paths) {
+        this.paths = paths;
+    }
+
+    public int getYears() {
+        return years;
+    }
+
+    public void setYears(int years) {
+        this.years = years;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public BigDecimal getGrandTotal() {
+        return grandTotal;
+    }
+
+    public void setGrandTotal(BigDecimal grandTotal) {
+        this.grandTotal = grandTotal;
+    }
+
+    public BigDecimal getGoal() {
+        return goal;
+    }
+
+    public void setGoal(BigDecimal goal) {
+        this.goal = goal;
+    }
+
+    public ProjectionSeriesDTO getCurrent() {
+        return current;
+    }
+
+    public void setCurrent(ProjectionSeriesDTO current) {
+        this.current = current;
+    }
+
+    public ProjectionSeriesDTO getTarget() {
+        return target;
+    }
+
+    public void setTarget(ProjectionSeriesDTO target) {
+        this.target = target;
+    }
+}
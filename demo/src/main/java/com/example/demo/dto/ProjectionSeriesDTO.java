@@ -0,0 +1,53 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 一组配置 (当前持仓或目标配置) 的模拟结果
+ */
+public class ProjectionSeriesDTO {
+
+    // 配置名称 ("current" 或 "target")
+    private String label;
+
+    // 每年末的百分位数
+    private List<ProjectionBandDTO> bands;
+
+    // 期末金额低于目标金额的概率 (0 ~ 1，保留四位小数)
+    private BigDecimal shortfallProbability;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public ProjectionSeriesDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public List<ProjectionBandDTO> getBands() {
+        return bands;
+    }
+
+    public void setBands(List<ProjectionBandDTO> bands) {
+        this.bands = bands;
+    }
+
+    public BigDecimal getShortfallProbability() {
+        return shortfallProbability;
+    }
+
+    public void setShortfallProbability(BigDecimal shortfallProbability) {
+        this.shortfallProbability = shortfallProbability;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 调仓计划：把组合调整到配置策略目标所需的持仓间划转
+ * 结果只取决于持仓数据、策略和阈值配置，相同输入总是得到相同的计划。
+ */
+public class RebalancePlanDTO {
+
+    // 使用的配置策略名称
+    private String policy;
+
+    // 总资产
+    private BigDecimal grandTotal;
+
+    // 所有划转的金额合计
+    private BigDecimal transferred;
+
+    // 未能安排的调整金额 (低于最小交易金额、或卖出与买入不能完全抵消的部分)
+    private BigDecimal residual;
+
+    // 划转明细，按卖出资产类型、持仓金额从大到小排列
+    private List<TradeDTO> trades;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public RebalancePlanDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public BigDecimal getGrandTotal() {
+        return grandTotal;
+    }
+
+    public void setGrandTotal(BigDecimal grandTotal) {
+        this.grandTotal = grandTotal;
+    }
+
+    public BigDecimal getTransferred() {
+        return transferred;
+    }
+
+    public void setTransferred(BigDecimal transferred) {
+        this.transferred = transferred;
+    }
+
+    public BigDecimal getResidual() {
+        return residual;
+    }
+
+    public void setResidual(BigDecimal residual) {
+        this.residual = residual;
+    }
+
+    public List<TradeDTO> getTrades() {
+        return trades;
+    }
+
+    public void setTrades(List<TradeDTO> trades) {
+        this.trades = trades;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.dto;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * 用于返回资产配置推荐结果的数据传输对象
@@ -8,6 +9,9 @@ import java.math.BigDecimal;
  */
 public class RecommendationDTO { // 推荐配置DTO
 
+    // 使用的配置策略名称
+    private String policy;
+
     // 总资产
     private BigDecimal grandTotal;
 
@@ -20,13 +24,21 @@ public class RecommendationDTO { // 推荐配置DTO
     // 目标推荐金额
     private BigDecimal nasdaqTarget;
     private BigDecimal spTarget;
-    private BigDecimal cashTarget; // 注意：稳健投资的目标金额在推荐中通常为0或忽略
+    private BigDecimal conservativeTarget; // 默认策略中稳健投资的权重为 0
+    private BigDecimal cashTarget;
 
     // 目标推荐比例 (格式化为字符串，如 "57.75%")
     private String nasdaqTargetRatio;
     private String spTargetRatio;
+    private String conservativeTargetRatio;
     private String cashTargetRatio;
 
+    // 策略中每个分组和资产类型的明细 (按策略树前序排列，不含总资产)
+    private List<AllocationDTO> allocations;
+
+    // 是否有分组或资产类型超出容忍带
+    private boolean rebalanceNeeded;
+
     // ----------------------
     // 构造函数 (省略，通常通过 Builder 或 Setters 填充)
     // ----------------------
@@ -124,4 +136,44 @@ public class RecommendationDTO { // 推荐配置DTO
     public void setCashTargetRatio(String cashTargetRatio) {
         this.cashTargetRatio = cashTargetRatio;
     }
-}
\ No newline at end of file
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public BigDecimal getConservativeTarget() {
+        return conservativeTarget;
+    }
+
+    public void setConservativeTarget(BigDecimal conservativeTarget) {
+        this.conservativeTarget = conservativeTarget;
+    }
+
+    public String getConservativeTargetRatio() {
+        return conservativeTargetRatio;
+    }
+
+    public void setConservativeTargetRatio(String conservativeTargetRatio) {
+        this.conservativeTargetRatio = conservativeTargetRatio;
+    }
+
+    public List<AllocationDTO> getAllocations() {
+        return allocations;
+    }
+
+    public void setAllocations(List<AllocationDTO> allocations) {
+        this.allocations = allocations;
+    }
+
+    public boolean isRebalanceNeeded() {
+        return rebalanceNeeded;
+    }
+
+    public void setRebalanceNeeded(boolean rebalanceNeeded) {
+        this.rebalanceNeeded = rebalanceNeeded;
+    }
+}
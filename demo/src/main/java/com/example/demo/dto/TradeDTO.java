@@ -0,0 +1,90 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.math.BigDecimal;
+
+/**
+ * 调仓计划中的一笔划转：从一条持仓卖出 amount，买入另一条持仓
+ */
+public class TradeDTO {
+
+    // 卖出的持仓
+    private Long fromAssetId;
+    private String fromName;
+    private AssetType fromAssetType;
+
+    // 买入的持仓；该资产类型还没有持仓时 toAssetId 为 null，表示新建一条持仓
+    private Long toAssetId;
+    private String toName;
+    private AssetType toAssetType;
+
+    // 划转金额
+    private BigDecimal amount;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public TradeDTO() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public Long getFromAssetId() {
+        return fromAssetId;
+    }
+
+    public void setFromAssetId(Long fromAssetId) {
+        this.fromAssetId = fromAssetId;
+    }
+
+    public String getFromName() {
+        return fromName;
+    }
+
+    public void setFromName(String fromName) {
+        this.fromName = fromName;
+    }
+
+    public AssetType getFromAssetType() {
+        return fromAssetType;
+    }
+
+    public void setFromAssetType(AssetType fromAssetType) {
+        this.fromAssetType = fromAssetType;
+    }
+
+    public Long getToAssetId() {
+        return toAssetId;
+    }
+
+    public void setToAssetId(Long toAssetId) {
+        this.toAssetId = toAssetId;
+    }
+
+    public String getToName() {
+        return toName;
+    }
+
+    public void setToName(String toName) {
+        this.toName = toName;
+    }
+
+    public AssetType getToAssetType() {
+        return toAssetType;
+    }
+
+    public void setToAssetType(AssetType toAssetType) {
+        this.toAssetType = toAssetType;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
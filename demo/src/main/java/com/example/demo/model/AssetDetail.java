@@ -1,10 +1,23 @@
 package com.example.demo.model;
 
+import com.example.demo.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "asset_details")
+@Table(name = "asset_details", indexes = {
+        // 按组合分组求和、按组合和类型查询
+        @Index(name = "idx_asset_details_portfolio_type", columnList = "portfolio_id, asset_type"),
+        // 支撑组合内按 id 的游标分页和流式读取
+        @Index(name = "idx_asset_details_portfolio_id", columnList = "portfolio_id, id")
+})
+// 二级缓存：按主键缓存 (区域容量和存活时间见 SecondLevelCacheConfig)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.ASSET_DETAILS)
 public class AssetDetail {
 
     // ----------------------
@@ -17,10 +30,18 @@ public class AssetDetail {
         CASH           // 现金
     }
 
+    // 使用序列 (pooled, 每次预取 50 个 ID) 代替 IDENTITY 自增列，
+    // 这样 Hibernate 无需每插入一行就回查一次主键，可以按 JDBC 批量插入
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asset_details_seq")
+    @SequenceGenerator(name = "asset_details_seq", sequenceName = "asset_details_seq", allocationSize = 50)
     private Long id;
 
+    // 所属投资组合 (已有数据在新增该列时归入默认组合)
+    @Column(name = "portfolio_id", nullable = false)
+    @ColumnDefault("1")
+    private Long portfolioId = Portfolios.DEFAULT_ID;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "asset_type", nullable = false)
     private AssetType assetType;
@@ -31,6 +52,12 @@ public class AssetDetail {
     @Column(name = "amount", precision = 19, scale = 2, nullable = false)
     private BigDecimal amount;
 
+    // 乐观锁版本号：每次修改加 1，修改和删除都带上读取时的版本号，不一致说明已被其他请求修改 (已有数据为 0)
+    @Version
+    @Column(name = "version", nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     // ----------------------
     // 构造函数 (JPA 要求无参构造函数)
     // ----------------------
@@ -49,6 +76,14 @@ public class AssetDetail {
         this.id = id;
     }
 
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
     public AssetType getAssetType() {
         return assetType;
     }
@@ -72,4 +107,12 @@ public class AssetDetail {
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
-}
\ No newline at end of file
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// 批量任务的检查点：记录任务已处理到的位置，任务中断 (异常、重启) 后从该位置继续，而不是从头开始。
+
+@Entity
+@Table(name = "batch_checkpoints")
+public class BatchCheckpoint {
+
+    // 任务名称 (每个任务一行)
+    @Id
+    @Column(name = "job_name", length = 64)
+    private String jobName;
+
+    // 已处理完的最后一个组合编号，null 表示尚未处理任何组合
+    @Column(name = "last_portfolio_id")
+    private Long lastPortfolioId;
+
+    // 本轮已处理的组合数和持仓条数
+    @Column(name = "processed_portfolios", nullable = false)
+    private long processedPortfolios;
+
+    @Column(name = "processed_holdings", nullable = false)
+    private long processedHoldings;
+
+    // 本轮开始时间和检查点更新时间
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // 本轮是否已全部完成；未完成时下次运行从 lastPortfolioId 之后继续
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    // ----------------------
+    // 构造函数 (JPA 要求无参构造函数)
+    // ----------------------
+    public BatchCheckpoint() {
+    }
+
+    public BatchCheckpoint(String jobName, LocalDateTime startedAt) {
+        this.jobName = jobName;
+        this.startedAt = startedAt;
+        this.updatedAt = startedAt;
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Long getLastPortfolioId() {
+        return lastPortfolioId;
+    }
+
+    public void setLastPortfolioId(Long lastPortfolioId) {
+        this.lastPortfolioId = lastPortfolioId;
+    }
+
+    public long getProcessedPortfolios() {
+        return processedPortfolios;
+    }
+
+    public void setProcessedPortfolios(long processedPortfolios) {
+        this.processedPortfolios = processedPortfolios;
+    }
+
+    public long getProcessedHoldings() {
+        return processedHoldings;
+    }
+
+    public void setProcessedHoldings(long processedHoldings) {
+        this.processedHoldings = processedHoldings;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+}
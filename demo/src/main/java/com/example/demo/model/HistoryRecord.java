@@ -1,19 +1,35 @@
 package com.example.demo.model;
 
+import com.example.demo.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 // 这个实体用于存储用户点击“保存”时的配置快照，将映射到 PostgreSQL 中的 history_records 表。
 
 @Entity
-@Table(name = "history_records")
+@Table(name = "history_records", indexes = {
+        // 支撑组合内按时间倒序的游标分页和按日期范围导出 (portfolio_id, record_date, id)
+        @Index(name = "idx_history_records_portfolio_date_id", columnList = "portfolio_id, record_date DESC, id DESC")
+})
+// 二级缓存：按主键缓存 (区域容量和存活时间见 SecondLevelCacheConfig)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.HISTORY_RECORDS)
 public class HistoryRecord {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // 所属投资组合 (已有数据在新增该列时归入默认组合)
+    @Column(name = "portfolio_id", nullable = false)
+    @ColumnDefault("1")
+    private Long portfolioId = Portfolios.DEFAULT_ID;
+
     // 记录时间
     @Column(name = "record_date", nullable = false)
     private LocalDateTime recordDate;
@@ -54,6 +70,14 @@ public class HistoryRecord {
         this.id = id;
     }
 
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
     public LocalDateTime getRecordDate() {
         return recordDate;
     }
@@ -0,0 +1,236 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Objects;
+
+// 历史记录按天 / 周 / 月的汇总，每保存一条历史记录时增量更新 (HistoryRollupService)，
+// 按时间段查询趋势时只读取汇总行，与历史记录总数无关。
+
+@Entity
+@Table(name = "history_rollups", indexes = {
+        // 组合内按粒度和时间范围查询
+        @Index(name = "idx_history_rollups_portfolio_bucket_start", columnList = "portfolio_id, bucket, bucket_start")
+})
+@IdClass(HistoryRollup.Key.class)
+public class HistoryRollup {
+
+    /**
+     * 汇总粒度
+     */
+    public enum Bucket {
+        DAY,
+        WEEK,   // 从星期一开始
+        MONTH;
+
+        /**
+         * 记录时间所在时间段的第一天
+         */
+        public LocalDate start(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+    }
+
+    /**
+     * 主键：组合编号 + 粒度 + 时间段第一天
+     */
+    public static class Key implements Serializable {
+
+        private Long portfolioId;
+        private Bucket bucket;
+        private LocalDate bucketStart;
+
+        public Key() {
+        }
+
+        public Key(Long portfolioId, Bucket bucket, LocalDate bucketStart) {
+            this.portfolioId = portfolioId;
+            this.bucket = bucket;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(portfolioId, other.portfolioId)
+                    && bucket == other.bucket && Objects.equals(bucketStart, other.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(portfolioId, bucket, bucketStart);
+        }
+    }
+
+    // 组合编号
+    @Id
+    @Column(name = "portfolio_id")
+    private Long portfolioId;
+
+    // 汇总粒度
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "bucket", length = 8)
+    private Bucket bucket;
+
+    // 时间段第一天
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDate bucketStart;
+
+    // 时间段内的历史记录条数
+    @Column(name = "sample_count", nullable = false)
+    private long sampleCount;
+
+    // 时间段内最后一条记录的时间及其各项总额 (作为该时间段的值)
+    @Column(name = "last_record_date", nullable = false)
+    private LocalDateTime lastRecordDate;
+
+    @Column(name = "grand_total", precision = 19, scale = 2, nullable = false)
+    private BigDecimal grandTotal;
+
+    @Column(name = "nasdaq_total", precision = 19, scale = 2)
+    private BigDecimal nasdaqTotal;
+
+    @Column(name = "sp_total", precision = 19, scale = 2)
+    private BigDecimal spTotal;
+
+    @Column(name = "conservative_total", precision = 19, scale = 2)
+    private BigDecimal conservativeTotal;
+
+    @Column(name = "cash_total", precision = 19, scale = 2)
+    private BigDecimal cashTotal;
+
+    // 时间段内总资产的最小值、最大值和总和 (总和 / 条数 即平均值)
+    @Column(name = "min_grand_total", precision = 19, scale = 2, nullable = false)
+    private BigDecimal minGrandTotal;
+
+    @Column(name = "max_grand_total", precision = 19, scale = 2, nullable = false)
+    private BigDecimal maxGrandTotal;
+
+    @Column(name = "sum_grand_total", precision = 24, scale = 2, nullable = false)
+    private BigDecimal sumGrandTotal;
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public HistoryRollup() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
+    public Bucket getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(Bucket bucket) {
+        this.bucket = bucket;
+    }
+
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDate bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    public void setSampleCount(long sampleCount) {
+        this.sampleCount = sampleCount;
+    }
+
+    public LocalDateTime getLastRecordDate() {
+        return lastRecordDate;
+    }
+
+    public void setLastRecordDate(LocalDateTime lastRecordDate) {
+        this.lastRecordDate = lastRecordDate;
+    }
+
+    public BigDecimal getGrandTotal() {
+        return grandTotal;
+    }
+
+    public void setGrandTotal(BigDecimal grandTotal) {
+        this.grandTotal = grandTotal;
+    }
+
+    public BigDecimal getNasdaqTotal() {
+        return nasdaqTotal;
+    }
+
+    public void setNasdaqTotal(BigDecimal nasdaqTotal) {
+        this.nasdaqTotal = nasdaqTotal;
+    }
+
+    public BigDecimal getSpTotal() {
+        return spTotal;
+    }
+
+    public void setSpTotal(BigDecimal spTotal) {
+        this.spTotal = spTotal;
+    }
+
+    public BigDecimal getConservativeTotal() {
+        return conservativeTotal;
+    }
+
+    public void setConservativeTotal(BigDecimal conservativeTotal) {
+        this.conservativeTotal = conservativeTotal;
+    }
+
+    public BigDecimal getCashTotal() {
+        return cashTotal;
+    }
+
+    public void setCashTotal(BigDecimal cashTotal) {
+        this.cashTotal = cashTotal;
+    }
+
+    public BigDecimal getMinGrandTotal() {
+        return minGrandTotal;
+    }
+
+    public void setMinGrandTotal(BigDecimal minGrandTotal) {
+        this.minGrandTotal = minGrandTotal;
+    }
+
+    public BigDecimal getMaxGrandTotal() {
+        return maxGrandTotal;
+    }
+
+    public void setMaxGrandTotal(BigDecimal maxGrandTotal) {
+        this.maxGrandTotal = maxGrandTotal;
+    }
+
+    public BigDecimal getSumGrandTotal() {
+        return sumGrandTotal;
+    }
+
+    public void setSumGrandTotal(BigDecimal sumGrandTotal) {
+        this.sumGrandTotal = sumGrandTotal;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// 批量推荐任务 (BulkRecommendationService) 为每个组合计算的推荐配置，每个组合、每个配置策略保留最近一次的结果。
+
+@Entity
+@Table(name = "portfolio_recommendations")
+@IdClass(PortfolioRecommendation.Key.class)
+public class PortfolioRecommendation {
+
+    /**
+     * 主键：组合编号 + 配置策略名称
+     */
+    public static class Key implements Serializable {
+
+        private Long portfolioId;
+        private String policy;
+
+        public Key() {
+        }
+
+        public Key(Long portfolioId, String policy) {
+            this.portfolioId = portfolioId;
+            this.policy = policy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(portfolioId, other.portfolioId)
+                    && Objects.equals(policy, other.policy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(portfolioId, policy);
+        }
+    }
+
+    // 组合编号
+    @Id
+    @Column(name = "portfolio_id")
+    private Long portfolioId;
+
+    // 配置策略名称
+    @Id
+    @Column(name = "policy", length = 64)
+    private String policy;
+
+    // 计算时间
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    // 总资产
+    @Column(name = "grand_total", precision = 19, scale = 2, nullable = false)
+    private BigDecimal grandTotal;
+
+    // 当前各类资产总额
+    @Column(name = "nasdaq_current", precision = 19, scale = 2, nullable = false)
+    private BigDecimal nasdaqCurrent;
+
+    @Column(name = "sp_current", precision = 19, scale = 2, nullable = false)
+    private BigDecimal spCurrent;
+
+    @Column(name = "conservative_current", precision = 19, scale = 2, nullable = false)
+    private BigDecimal conservativeCurrent;
+
+    @Column(name = "cash_current", precision = 19, scale = 2, nullable = false)
+    private BigDecimal cashCurrent;
+
+    // 目标金额
+    @Column(name = "nasdaq_target", precision = 19, scale = 2, nullable = false)
+    private BigDecimal nasdaqTarget;
+
+    @Column(name = "sp_target", precision = 19, scale = 2, nullable = false)
+    private BigDecimal spTarget;
+
+    @Column(name = "conservative_target", precision = 19, scale = 2, nullable = false)
+    private BigDecimal conservativeTarget;
+
+    @Column(name = "cash_target", precision = 19, scale = 2, nullable = false)
+    private BigDecimal cashTarget;
+
+    // ----------------------
+    // 构造函数 (JPA 要求无参构造函数)
+    // ----------------------
+    public PortfolioRecommendation() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public Long getPortfolioId() {
+        return portfolioId;
+    }
+
+    public void setPortfolioId(Long portfolioId) {
+        this.portfolioId = portfolioId;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(String policy) {
+        this.policy = policy;
+    }
+
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+
+    public BigDecimal getGrandTotal() {
+        return grandTotal;
+    }
+
+    public void setGrandTotal(BigDecimal grandTotal) {
+        this.grandTotal = grandTotal;
+    }
+
+    public BigDecimal getNasdaqCurrent() {
+        return nasdaqCurrent;
+    }
+
+    public void setNasdaqCurrent(BigDecimal nasdaqCurrent) {
+        this.nasdaqCurrent = nasdaqCurrent;
+    }
+
+    public BigDecimal getSpCurrent() {
+        return spCurrent;
+    }
+
+    public void setSpCurrent(BigDecimal spCurrent) {
+        this.spCurrent = spCurrent;
+    }
+
+    public BigDecimal getConservativeCurrent() {
+        return conservativeCurrent;
+    }
+
+    public void setConservativeCurrent(BigDecimal conservativeCurrent) {
+        this.conservativeCurrent = conservativeCurrent;
+    }
+
+    public BigDecimal getCashCurrent() {
+        return cashCurrent;
+    }
+
+    public void setCashCurrent(BigDecimal cashCurrent) {
+        this.cashCurrent = cashCurrent;
+    }
+
+    public BigDecimal getNasdaqTarget() {
+        return nasdaqTarget;
+    }
+
+    public void setNasdaqTarget(BigDecimal nasdaqTarget) {
+        this.nasdaqTarget = nasdaqTarget;
+    }
+
+    public BigDecimal getSpTarget() {
+        return spTarget;
+    }
+
+    public void setSpTarget(BigDecimal spTarget) {
+        this.spTarget = spTarget;
+    }
+
+    public BigDecimal getConservativeTarget() {
+        return conservativeTarget;
+    }
+
+    public void setConservativeTarget(BigDecimal conservativeTarget) {
+        this.conservativeTarget = conservativeTarget;
+    }
+
+    public BigDecimal getCashTarget() {
+        return cashTarget;
+    }
+
+    public void setCashTarget(BigDecimal cashTarget) {
+        this.cashTarget = cashTarget;
+    }
+}
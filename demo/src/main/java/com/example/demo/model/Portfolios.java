@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+/**
+ * 投资组合 (账户) 相关常量。
+ *
+ * 资产明细和历史记录都带有 portfolio_id；不带组合编号的 /api 路由 (如 /api/assets) 操作默认组合，
+ * 多账户部署使用 /api/portfolios/{portfolioId}/... 路由。
+ */
+public final class Portfolios {
+
+    // 默认组合编号 (引入多组合之前的数据都属于该组合)
+    public static final long DEFAULT_ID = 1L;
+
+    private Portfolios() {
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// 定时任务的租约：多个应用实例中只有持有未过期租约的实例执行该任务 (基于数据库的选主)。
+
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+
+    // 租约名称 (每个定时任务一行)
+    @Id
+    @Column(name = "lease_name", length = 64)
+    private String leaseName;
+
+    // 当前持有者 (实例标识)
+    @Column(name = "owner", length = 128, nullable = false)
+    private String owner;
+
+    // 到期时间，过期后其他实例可以接管
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // ----------------------
+    // 构造函数 (JPA 要求无参构造函数)
+    // ----------------------
+    public SchedulerLease() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getLeaseName() {
+        return leaseName;
+    }
+
+    public void setLeaseName(String leaseName) {
+        this.leaseName = leaseName;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.demo.policy;
+
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.service.Cents;
+import com.example.demo.service.Cents.Ratio;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 编译后的配置策略 (不可变，可被多个线程同时使用)。
+ *
+ * 策略树在加载时展开为按前序排列的节点数组 (父节点总在子节点之前，0 号节点为总资产)，
+ * 权重、容忍带转换为 Ratio，各节点占总资产的比例预先格式化；计算时只做整数运算，不再遍历定义、不创建 BigDecimal。
+ *
+ * 目标金额自上而下逐层计算：子节点目标 = 父节点目标 × 权重，每一步按 HALF_UP 舍入到分。
+ */
+public final class CompiledPolicy {
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    // 根节点 (总资产) 的编号和名称
+    public static final int ROOT = 0;
+    private static final String ROOT_NAME = "总资产";
+
+    private final String name;
+    private final String description;
+
+    // 以下数组按节点编号索引
+    private final String[] nodeNames;
+    private final int[] parents;       // 父节点编号，根节点为 -1
+    private final int[] levels;        // 层级，根节点为 0
+    private final int[] assetTypes;    // 叶子节点的 AssetType.ordinal()，分组为 -1
+    private final Ratio[] weights;     // 在父节点中的权重
+    private final Ratio[] tolerances;  // 容忍带 (占总资产的比例)，null 表示不检查
+    private final String[] targetRatios; // 占总资产的比例 (如 "57.75%")
+    private final double[] targetWeights; // 占总资产的比例 (用于回测等浮点计算)
+
+    // AssetType.ordinal() -> 叶子节点编号
+    private final int[] nodeOfType;
+
+    private CompiledPolicy(String name, String description, List<Node> nodes) {
+        this.name = name;
+        this.description = description;
+        int size = nodes.size();
+        nodeNames = new String[size];
+        parents = new int[size];
+        levels = new int[size];
+        assetTypes = new int[size];
+        weights = new Ratio[size];
+        tolerances = new Ratio[size];
+        targetRatios = new String[size];
+        targetWeights = new double[size];
+        nodeOfType = new int[TYPES.length];
+        Ratio[] effective = new Ratio[size];
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get(i);
+            nodeNames[i] = node.name;
+            parents[i] = node.parent;
+            levels[i] = node.parent < 0 ? 0 : levels[node.parent] + 1;
+            assetTypes[i] = node.assetType == null ? -1 : node.assetType.ordinal();
+            weights[i] = node.weight;
+            tolerances[i] = node.tolerance;
+            effective[i] = node.parent < 0 ? node.weight : effective[node.parent].times(node.weight);
+            targetRatios[i] = effective[i].toPercentString();
+            targetWeights[i] = (double) effective[i].numerator() / effective[i].denominator();
+            if (node.assetType != null) {
+                nodeOfType[node.assetType.ordinal()] = i;
+            }
+        }
+    }
+
+    /**
+     * 校验并编译策略定义
+     *
+     * @throws IllegalArgumentException 定义无效 (缺少名称或权重、同层权重之和不为 1、资产类型重复或未覆盖等)
+     */
+    public static CompiledPolicy compile(PolicyDefinition definition) {
+        if (definition == null || definition.getName() == null || definition.getName().isBlank()) {
+            throw new IllegalArgumentException("配置策略缺少 name");
+        }
+        String policy = definition.getName();
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node(ROOT_NAME, -1, null, new Ratio(1, 1), null));
+        addChildren(policy, ROOT_NAME, definition.getBuckets(), ROOT, nodes, new HashSet<>());
+
+        for (AssetType type : TYPES) {
+            if (nodes.stream().noneMatch(node -> node.assetType == type)) {
+                throw new IllegalArgumentException("配置策略 " + policy + " 未覆盖资产类型 " + type
+                        + " (不需要配置的类型可设权重为 0)");
+            }
+        }
+        try {
+            return new CompiledPolicy(policy, definition.getDescription(), nodes);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("配置策略 " + policy + " 的层级过深或权重小数位过多，无法精确计算比例");
+        }
+    }
+
+    private static void addChildren(String policy, String parentName, List<PolicyDefinition.Bucket> buckets,
+                                    int parent, List<Node> nodes, Set<AssetType> seen) {
+        if (buckets == null || buckets.isEmpty()) {
+            throw new IllegalArgumentException("配置策略 " + policy + " 的分组 " + parentName + " 没有下一层");
+        }
+        BigDecimal weightSum = BigDecimal.ZERO;
+        for (PolicyDefinition.Bucket bucket : buckets) {
+            boolean leaf = bucket.getAssetType() != null;
+            boolean group = bucket.getBuckets() != null && !bucket.getBuckets().isEmpty();
+            if (leaf == group) {
+                throw new IllegalArgumentException("配置策略 " + policy + " 的分组 " + parentName
+                        + " 中每一项必须且只能指定 assetType 或下一层 buckets 之一");
+            }
+            String bucketName = bucket.getName() != null && !bucket.getName().isBlank() ? bucket.getName()
+                    : leaf ? bucket.getAssetType().name() : null;
+            if (bucketName == null) {
+                throw new IllegalArgumentException("配置策略 " + policy + " 的分组 " + parentName + " 中有分组缺少 name");
+            }
+            BigDecimal weight = bucket.getWeight();
+            if (weight == null || weight.signum() < 0 || weight.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("配置策略 " + policy + " 中 " + bucketName + " 的权重必须在 0 ~ 1 之间");
+            }
+            BigDecimal tolerance = bucket.getTolerance();
+            if (tolerance != null && (tolerance.signum() < 0 || tolerance.compareTo(BigDecimal.ONE) > 0)) {
+                throw new IllegalArgumentException("配置策略 " + policy + " 中 " + bucketName + " 的容忍带必须在 0 ~ 1 之间");
+            }
+            if (leaf && !seen.add(bucket.getAssetType())) {
+                throw new IllegalArgumentException("配置策略 " + policy + " 中资产类型 " + bucket.getAssetType() + " 重复");
+            }
+            weightSum = weightSum.add(weight);
+
+            int index = nodes.size();
+            nodes.add(new Node(bucketName, parent, bucket.getAssetType(), Ratio.of(weight.toPlainString()),
+                    tolerance == null ? null : Ratio.of(tolerance.toPlainString())));
+            if (group) {
+                addChildren(policy, bucketName, bucket.getBuckets(), index, nodes, seen);
+            }
+        }
+        if (weightSum.compareTo(BigDecimal.ONE) != 0) {
+            throw new IllegalArgumentException("配置策略 " + policy + " 的分组 " + parentName
+                    + " 中权重之和为 " + weightSum.toPlainString() + "，应为 1");
+        }
+    }
+
+    /**
+     * 编译过程中的节点
+     */
+    private record Node(String name, int parent, AssetType assetType, Ratio weight, Ratio tolerance) {
+    }
+
+    // ==========================================================
+    // 计算
+    // ==========================================================
+
+    /**
+     * 由各类型当前金额 (分，按 AssetType.ordinal() 索引) 计算每个节点的当前金额：叶子取对应类型，分组为子节点之和
+     */
+    public long[] nodeCurrents(long[] centsByType) {
+        long[] currents = new long[nodeNames.length];
+        // 子节点总在父节点之后，倒序遍历即可自下而上累加
+        for (int i = nodeNames.length - 1; i > ROOT; i--) {
+            if (assetTypes[i] >= 0) {
+                currents[i] = centsByType[assetTypes[i]];
+            }
+            currents[parents[i]] = Cents.add(currents[parents[i]], currents[i]);
+        }
+        return currents;
+    }
+
+    /**
+     * 由总资产计算每个节点的目标金额 (分)，写入 targets[0 .. nodeCount())
+     */
+    public void nodeTargets(long grandTotal, long[] targets) {
+        targets[ROOT] = grandTotal;
+        // 父节点总在子节点之前，顺序遍历即可自上而下拆分
+        for (int i = ROOT + 1; i < nodeNames.length; i++) {
+            targets[i] = Cents.multiply(targets[parents[i]], weights[i]);
+        }
+    }
+
+    /**
+     * 由总资产计算各资产类型的目标金额 (分)，按 AssetType.ordinal() 写入 out[offset ..]
+     *
+     * @param nodeScratch 长度不小于 nodeCount() 的临时数组 (调用方复用，避免每次分配)
+     */
+    public void targetsByType(long grandTotal, long[] nodeScratch, long[] out, int offset) {
+        nodeTargets(grandTotal, nodeScratch);
+        for (int t = 0; t < TYPES.length; t++) {
+            out[offset + t] = nodeScratch[nodeOfType[t]];
+        }
+    }
+
+    /**
+     * 节点的容忍带下限和上限 (分)；节点没有容忍带时返回 null
+     */
+    public long[] band(int node, long grandTotal, long target) {
+        if (tolerances[node] == null) {
+            return null;
+        }
+        long allowance = Cents.multiply(grandTotal, tolerances[node]);
+        return new long[]{target - allowance, target + allowance};
+    }
+
+    // ==========================================================
+    // 节点信息
+    // ==========================================================
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int nodeCount() {
+        return nodeNames.length;
+    }
+
+    public String nodeName(int node) {
+        return nodeNames[node];
+    }
+
+    public int level(int node) {
+        return levels[node];
+    }
+
+    /**
+     * 叶子节点对应的资产类型，分组返回 null
+     */
+    public AssetType assetType(int node) {
+        return assetTypes[node] < 0 ? null : TYPES[assetTypes[node]];
+    }
+
+    /**
+     * 节点占总资产的比例 (如 "57.75%")
+     */
+    public String targetRatio(int node) {
+        return targetRatios[node];
+    }
+
+    /**
+     * 节点占总资产的比例 (如 0.5775)
+     */
+    public double targetWeight(int node) {
+        return targetWeights[node];
+    }
+
+    /**
+     * 资产类型对应的叶子节点编号
+     */
+    public int nodeOf(AssetType type) {
+        return nodeOfType[type.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return name + Arrays.toString(nodeNames);
+    }
+}
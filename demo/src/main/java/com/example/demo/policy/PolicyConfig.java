@@ -0,0 +1,42 @@
+package com.example.demo.policy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 配置策略文件 (policies.json) 的内容：所有策略及默认策略名称
+ */
+public class PolicyConfig {
+
+    // 未指定策略时使用的策略名称
+    private String defaultPolicy;
+
+    // 所有策略
+    private List<PolicyDefinition> policies = new ArrayList<>();
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public PolicyConfig() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getDefaultPolicy() {
+        return defaultPolicy;
+    }
+
+    public void setDefaultPolicy(String defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public List<PolicyDefinition> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<PolicyDefinition> policies) {
+        this.policies = policies;
+    }
+}
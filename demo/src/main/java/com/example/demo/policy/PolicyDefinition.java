@@ -0,0 +1,130 @@
+package com.example.demo.policy;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个配置策略的定义 (从 policies.json 读取)：总资产按权重逐层拆分到分组和资产类型。
+ *
+ * 例如 风险资产 0.75 (纳指 0.77、标普 0.23) + 稳健投资 0 + 现金 0.25。
+ * 定义只用于描述和校验，计算时使用编译后的 CompiledPolicy。
+ */
+public class PolicyDefinition {
+
+    // 策略名称 (唯一)
+    private String name;
+
+    // 说明
+    private String description;
+
+    // 第一层分组 (权重之和为 1)
+    private List<Bucket> buckets = new ArrayList<>();
+
+    /**
+     * 分组或资产类型：指定 assetType 的是叶子节点，否则是包含下一层 buckets 的分组
+     */
+    public static class Bucket {
+
+        // 分组名称 (叶子节点可省略，默认为资产类型名)
+        private String name;
+
+        // 叶子节点对应的资产类型
+        private AssetType assetType;
+
+        // 在上一层中的权重 (0 ~ 1)
+        private BigDecimal weight;
+
+        // 容忍带：实际金额偏离目标金额超过 总资产 × tolerance 时需要再平衡 (如 0.05 表示 ±5 个百分点)，省略表示不检查
+        private BigDecimal tolerance;
+
+        // 下一层分组 (权重之和为 1)
+        private List<Bucket> buckets = new ArrayList<>();
+
+        // ----------------------
+        // 构造函数
+        // ----------------------
+        public Bucket() {
+        }
+
+        // ----------------------
+        // Getter 和 Setter 方法
+        // ----------------------
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public AssetType getAssetType() {
+            return assetType;
+        }
+
+        public void setAssetType(AssetType assetType) {
+            this.assetType = assetType;
+        }
+
+        public BigDecimal getWeight() {
+            return weight;
+        }
+
+        public void setWeight(BigDecimal weight) {
+            this.weight = weight;
+        }
+
+        public BigDecimal getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(BigDecimal tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public List<Bucket> getBuckets() {
+            return buckets;
+        }
+
+        public void setBuckets(List<Bucket> buckets) {
+            this.buckets = buckets;
+        }
+    }
+
+    // ----------------------
+    // 构造函数
+    // ----------------------
+    public PolicyDefinition() {
+    }
+
+    // ----------------------
+    // Getter 和 Setter 方法
+    // ----------------------
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<Bucket> buckets) {
+        this.buckets = buckets;
+    }
+}
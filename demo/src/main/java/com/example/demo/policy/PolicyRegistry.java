@@ -0,0 +1,121 @@
+package com.example.demo.policy;
+
+import com.example.demo.service.DataVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 配置策略注册表：从 asset.policy.location (默认 classpath:policies.json) 加载并编译所有策略。
+ *
+ * 策略文件是普通文件时，定期检查修改时间，变化后自动重新加载；也可通过 POST /api/policies/reload 手动重新加载。
+ * 新策略全部编译通过后才以一次 volatile 写整体替换，正在进行的计算继续使用旧的一组策略；
+ * 编译失败时保留旧策略。替换后递增所有组合的数据版本号，缓存的推荐配置和 ETag 随之失效。
+ */
+@Component
+public class PolicyRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyRegistry.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    // 策略文件位置，如 classpath:policies.json 或 file:/etc/asset/policies.json
+    @Value("${asset.policy.location:classpath:policies.json}")
+    private Resource location;
+
+    private volatile PolicySet policies;
+
+    // 最近一次加载时策略文件的修改时间 (只对普通文件有效)
+    private volatile long loadedModified;
+
+    /**
+     * 启动时加载策略，策略无效时启动失败
+     */
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 当前生效的全部策略
+     */
+    public PolicySet current() {
+        return policies;
+    }
+
+    /**
+     * 从策略文件重新加载
+     *
+     * @throws IllegalArgumentException 文件无法读取或策略无效 (此时保留旧策略)
+     */
+    public synchronized PolicySet reload() {
+        long modified = lastModified();
+        PolicyConfig config;
+        try (InputStream in = location.getInputStream()) {
+            config = objectMapper.readValue(in, PolicyConfig.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("无法读取配置策略文件 " + location + ": " + e.getMessage(), e);
+        }
+        PolicySet loaded = apply(config);
+        loadedModified = modified;
+        return loaded;
+    }
+
+    /**
+     * 编译并替换为给定的策略 (不写回策略文件)
+     *
+     * @throws IllegalArgumentException 策略无效 (此时保留旧策略)
+     */
+    public synchronized PolicySet apply(PolicyConfig config) {
+        PolicySet compiled = PolicySet.compile(config);
+        policies = compiled;
+        // 先替换策略再递增版本号：读到新版本号的请求一定使用新策略计算
+        dataVersion.bumpAllAfterCommit();
+        log.info("配置策略已加载: {} (默认 {})", compiled.all().stream().map(CompiledPolicy::getName).toList(),
+                compiled.getDefault().getName());
+        return compiled;
+    }
+
+    /**
+     * 定期检查策略文件是否被修改 (asset.policy.reload-interval-ms)
+     */
+    @Scheduled(initialDelayString = "${asset.policy.reload-interval-ms:10000}",
+            fixedDelayString = "${asset.policy.reload-interval-ms:10000}")
+    public void reloadIfModified() {
+        long modified = lastModified();
+        if (modified <= 0 || modified == loadedModified) {
+            return;
+        }
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            // 记下这次的修改时间，文件再次修改前不重复报错
+            loadedModified = modified;
+            log.error("配置策略文件已修改但无法加载，继续使用原有策略: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 策略文件的修改时间；不是普通文件 (如打包在 jar 中) 时返回 0，不做自动重新加载
+     */
+    private long lastModified() {
+        try {
+            return location.isFile() ? location.lastModified() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
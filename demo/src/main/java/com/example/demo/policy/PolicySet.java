@@ -0,0 +1,81 @@
+package com.example.demo.policy;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次加载得到的全部编译后策略 (不可变)。重新加载时整体替换，读取方拿到的总是一组完整、一致的策略。
+ */
+public final class PolicySet {
+
+    private final PolicyConfig source;
+    private final Map<String, CompiledPolicy> policies;
+    private final CompiledPolicy defaultPolicy;
+
+    private PolicySet(PolicyConfig source, Map<String, CompiledPolicy> policies, CompiledPolicy defaultPolicy) {
+        this.source = source;
+        this.policies = policies;
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * 校验并编译配置中的所有策略；任一策略无效时整体失败
+     *
+     * @throws IllegalArgumentException 配置无效
+     */
+    public static PolicySet compile(PolicyConfig config) {
+        if (config == null || config.getPolicies() == null || config.getPolicies().isEmpty()) {
+            throw new IllegalArgumentException("至少需要配置一个策略");
+        }
+        Map<String, CompiledPolicy> compiled = new LinkedHashMap<>();
+        for (PolicyDefinition definition : config.getPolicies()) {
+            CompiledPolicy policy = CompiledPolicy.compile(definition);
+            if (compiled.putIfAbsent(policy.getName(), policy) != null) {
+                throw new IllegalArgumentException("配置策略名称重复: " + policy.getName());
+            }
+        }
+        String defaultName = config.getDefaultPolicy() != null ? config.getDefaultPolicy()
+                : config.getPolicies().get(0).getName();
+        CompiledPolicy defaultPolicy = compiled.get(defaultName);
+        if (defaultPolicy == null) {
+            throw new IllegalArgumentException("默认配置策略不存在: " + defaultName);
+        }
+        return new PolicySet(config, Collections.unmodifiableMap(compiled), defaultPolicy);
+    }
+
+    /**
+     * 按名称获取策略，name 为空时返回默认策略
+     *
+     * @throws IllegalArgumentException 策略不存在
+     */
+    public CompiledPolicy get(String name) {
+        if (name == null || name.isBlank()) {
+            return defaultPolicy;
+        }
+        CompiledPolicy policy = policies.get(name);
+        if (policy == null) {
+            throw new IllegalArgumentException("配置策略不存在: " + name);
+        }
+        return policy;
+    }
+
+    public CompiledPolicy getDefault() {
+        return defaultPolicy;
+    }
+
+    /**
+     * 所有策略 (按配置文件中的顺序)
+     */
+    public Collection<CompiledPolicy> all() {
+        return policies.values();
+    }
+
+    /**
+     * 加载时的原始配置 (只读，用于展示)
+     */
+    public PolicyConfig getSource() {
+        return source;
+    }
+}
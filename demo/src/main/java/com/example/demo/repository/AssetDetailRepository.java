@@ -1,23 +1,75 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.AssetDetail;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AssetDetailRepository extends JpaRepository<AssetDetail, Long> {
-    
+
+    /**
+     * 获取某个组合的所有资产明细 (结果进入二级查询缓存，asset_details 被写入后失效)
+     * @param portfolioId 组合编号
+     * @return 资产明细列表
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<AssetDetail> findByPortfolioId(Long portfolioId);
+
     /**
-     * 根据资产类型查找所有资产明细
+     * 根据资产类型查找某个组合的资产明细 (走 idx_asset_details_portfolio_type 索引)
      * Spring Data JPA 会自动实现此方法
+     * @param portfolioId 组合编号
      * @param assetType 资产类型 (NASDAQ, SP, etc.)
      * @return 资产明细列表
      */
-    List<AssetDetail> findByAssetType(AssetDetail.AssetType assetType);
-    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<AssetDetail> findByPortfolioIdAndAssetType(Long portfolioId, AssetDetail.AssetType assetType);
+
+    /**
+     * 按资产类型分组求和某个组合的持仓 (在数据库中完成聚合，只扫描该组合的索引范围)
+     * 没有任何持仓的资产类型不会出现在结果中；组合为空时返回空列表。
+     * @return 每种资产类型的金额总和及持仓条数
+     */
+    @Query("SELECT a.portfolioId AS portfolioId, a.assetType AS assetType, SUM(a.amount) AS total, "
+            + "COUNT(a) AS holdingCount "
+            + "FROM AssetDetail a WHERE a.portfolioId = :portfolioId GROUP BY a.portfolioId, a.assetType")
+    List<AssetTypeTotal> sumAmountGroupByAssetType(@Param("portfolioId") Long portfolioId);
+
+    /**
+     * 按 (组合, 资产类型) 分组求和所有持仓，用于启动时构建账本和定期对账
+     */
+    @Query("SELECT a.portfolioId AS portfolioId, a.assetType AS assetType, SUM(a.amount) AS total, "
+            + "COUNT(a) AS holdingCount "
+            + "FROM AssetDetail a GROUP BY a.portfolioId, a.assetType")
+    List<AssetTypeTotal> sumAmountGroupByPortfolioAndAssetType();
+
+    /**
+     * 游标分页：按主键升序读取组合内 id 大于 afterId 的一页资产明细
+     * (走 idx_asset_details_portfolio_id 索引，与页码和其他组合的数据量无关)
+     * @param portfolioId 组合编号
+     * @param afterId 上一页最后一条的 id，首页传 0
+     * @param pageable 只使用其中的每页条数
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<AssetDetail> findByPortfolioIdAndIdGreaterThanOrderByIdAsc(Long portfolioId, Long afterId,
+            Pageable pageable);
+
+    /**
+     * 以数据库游标逐行读取某个组合的所有资产明细 (必须在事务中使用并关闭 Stream)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<AssetDetail> streamByPortfolioIdOrderByIdAsc(Long portfolioId);
+
     /**
      * Spring Data JPA 默认提供了 findAll(), save(), findById() 等方法
      */
-}
\ No newline at end of file
+}
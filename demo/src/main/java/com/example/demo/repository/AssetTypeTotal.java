@@ -0,0 +1,19 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.AssetDetail;
+import java.math.BigDecimal;
+
+/**
+ * 按 (组合, 资产类型) 分组汇总的投影结果 (portfolio_id, asset_type, SUM(amount), COUNT(*))
+ * 由数据库直接完成聚合，避免把所有资产明细加载到内存中再求和。
+ */
+public interface AssetTypeTotal {
+
+    Long getPortfolioId();
+
+    AssetDetail.AssetType getAssetType();
+
+    BigDecimal getTotal();
+
+    long getHoldingCount();
+}
@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.BatchCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+// 负责批量任务检查点的持久化操作 (按任务名称读写)
+
+@Repository
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+}
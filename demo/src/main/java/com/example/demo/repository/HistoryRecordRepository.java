@@ -1,15 +1,50 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.HistoryRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 // 负责记录数据的持久化操作
+// 所有查询都限定在一个组合内，走 idx_history_records_portfolio_date_id 索引
+// 返回 List 的查询结果进入二级查询缓存，history_records 被写入后失效；流式读取不缓存
 
 @Repository
 public interface HistoryRecordRepository extends JpaRepository<HistoryRecord, Long> {
 
-    // 自定义方法：获取所有记录，并按日期倒序排列（最新记录在前）
-    List<HistoryRecord> findAllByOrderByRecordDateDesc();
-}
\ No newline at end of file
+    // 自定义方法：获取某个组合的所有记录，并按日期倒序排列（最新记录在前）
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<HistoryRecord> findByPortfolioIdOrderByRecordDateDesc(Long portfolioId);
+
+    // 游标分页：首页 (按 record_date, id 倒序)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<HistoryRecord> findByPortfolioIdOrderByRecordDateDescIdDesc(Long portfolioId, Pageable pageable);
+
+    // 游标分页：读取排在 (recordDate, id) 之后的一页
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT r FROM HistoryRecord r WHERE r.portfolioId = :portfolioId "
+            + "AND (r.recordDate < :recordDate OR (r.recordDate = :recordDate AND r.id < :id)) "
+            + "ORDER BY r.recordDate DESC, r.id DESC")
+    List<HistoryRecord> findPageAfter(@Param("portfolioId") Long portfolioId,
+            @Param("recordDate") LocalDateTime recordDate, @Param("id") Long id, Pageable pageable);
+
+    // 以数据库游标逐行读取某个组合的所有记录 (必须在事务中使用并关闭 Stream)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<HistoryRecord> streamByPortfolioIdOrderByRecordDateDescIdDesc(Long portfolioId);
+
+    // 导出：以数据库游标按时间正序读取组合内 [from, to) 范围内的记录，from / to 为 null 表示不限
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT r FROM HistoryRecord r WHERE r.portfolioId = :portfolioId "
+            + "AND (:from IS NULL OR r.recordDate >= :from) AND (:to IS NULL OR r.recordDate < :to) "
+            + "ORDER BY r.recordDate ASC, r.id ASC")
+    Stream<HistoryRecord> streamForExport(@Param("portfolioId") Long portfolioId,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,35 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.HistoryRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+// 读取历史记录汇总 (写入由 HistoryRollupService 直接执行，走 idx_history_rollups_portfolio_bucket_start 索引)
+
+@Repository
+public interface HistoryRollupRepository extends JpaRepository<HistoryRollup, HistoryRollup.Key> {
+
+    // 组合内某一粒度、时间段第一天在 [from, to] 范围内的汇总，按时间正序；from / to 为 null 表示不限
+    @Query("SELECT r FROM HistoryRollup r WHERE r.portfolioId = :portfolioId AND r.bucket = :bucket "
+            + "AND (:from IS NULL OR r.bucketStart >= :from) AND (:to IS NULL OR r.bucketStart <= :to) "
+            + "ORDER BY r.bucketStart ASC")
+    List<HistoryRollup> findRange(@Param("portfolioId") Long portfolioId, @Param("bucket") HistoryRollup.Bucket bucket,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // 上面的范围内有多少个汇总行 (时间段数)
+    @Query("SELECT COUNT(r) FROM HistoryRollup r WHERE r.portfolioId = :portfolioId AND r.bucket = :bucket "
+            + "AND (:from IS NULL OR r.bucketStart >= :from) AND (:to IS NULL OR r.bucketStart <= :to)")
+    long countRange(@Param("portfolioId") Long portfolioId, @Param("bucket") HistoryRollup.Bucket bucket,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // 上面的范围内的历史记录条数 (各汇总行 sample_count 之和)
+    @Query("SELECT COALESCE(SUM(r.sampleCount), 0) FROM HistoryRollup r WHERE r.portfolioId = :portfolioId "
+            + "AND r.bucket = :bucket AND (:from IS NULL OR r.bucketStart >= :from) "
+            + "AND (:to IS NULL OR r.bucketStart <= :to)")
+    long sumSamples(@Param("portfolioId") Long portfolioId, @Param("bucket") HistoryRollup.Bucket bucket,
+            @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.PortfolioRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+// 负责读取批量推荐任务的结果 (写入由 BulkRecommendationService 按批次直接执行)
+
+@Repository
+public interface PortfolioRecommendationRepository extends JpaRepository<PortfolioRecommendation, PortfolioRecommendation.Key> {
+}
@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+// 读取定时任务租约 (获取和续约由 LeaseService 以条件更新直接执行)
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+}
@@ -0,0 +1,214 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * 批量导入的增量解析器：逐条读取请求体中的资产明细，不会把整个请求体缓存在内存中。
+ *
+ * 支持三种格式：
+ *   JSON 数组 : [{"assetType":"NASDAQ","name":"QQQ","amount":100.00}, ...]
+ *   NDJSON    : 每行一个 JSON 对象
+ *   CSV       : 首行为表头 asset_type,name,amount (列顺序不限)，字段可用双引号包裹
+ */
+public final class AssetImportReaders {
+
+    private AssetImportReaders() {
+    }
+
+    /**
+     * 解析 JSON 数组
+     */
+    public static Iterator<AssetDetailDTO> jsonArray(InputStream in, ObjectMapper objectMapper) {
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(in);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("请求体必须是 JSON 数组");
+            }
+            return new Iterator<>() {
+                private JsonToken next = advance();
+
+                private JsonToken advance() {
+                    try {
+                        return parser.nextToken();
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("JSON 格式错误: " + e.getMessage(), e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next == JsonToken.START_OBJECT;
+                }
+
+                @Override
+                public AssetDetailDTO next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    try {
+                        AssetDetailDTO dto = objectMapper.readValue(parser, AssetDetailDTO.class);
+                        next = advance();
+                        return dto;
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("JSON 格式错误: " + e.getMessage(), e);
+                    }
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 解析 NDJSON (每行一个 JSON 对象)
+     */
+    public static Iterator<AssetDetailDTO> ndjson(InputStream in, ObjectMapper objectMapper) {
+        try {
+            MappingIterator<AssetDetailDTO> values = objectMapper.readerFor(AssetDetailDTO.class).readValues(in);
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return values.hasNextValue();
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("NDJSON 格式错误: " + e.getMessage(), e);
+                    }
+                }
+
+                @Override
+                public AssetDetailDTO next() {
+                    try {
+                        return values.nextValue();
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("NDJSON 格式错误: " + e.getMessage(), e);
+                    }
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 解析 CSV (首行为表头)
+     */
+    public static Iterator<AssetDetailDTO> csv(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = splitCsvLine(readLine(reader));
+        if (header == null) {
+            throw new IllegalArgumentException("CSV 为空，缺少表头 asset_type,name,amount");
+        }
+        int typeColumn = columnIndex(header, "asset_type");
+        int nameColumn = columnIndex(header, "name");
+        int amountColumn = columnIndex(header, "amount");
+
+        return new Iterator<>() {
+            private String line = nextNonBlank();
+            private long lineNumber = 1;
+
+            private String nextNonBlank() {
+                String candidate;
+                do {
+                    candidate = readLine(reader);
+                } while (candidate != null && candidate.isBlank());
+                return candidate;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return line != null;
+            }
+
+            @Override
+            public AssetDetailDTO next() {
+                if (line == null) {
+                    throw new NoSuchElementException();
+                }
+                lineNumber++;
+                List<String> fields = splitCsvLine(line);
+                line = nextNonBlank();
+                if (fields.size() < header.size()) {
+                    throw new IllegalArgumentException("CSV 第 " + lineNumber + " 行列数不足");
+                }
+                try {
+                    return new AssetDetailDTO(
+                            null,
+                            AssetType.valueOf(fields.get(typeColumn).trim().toUpperCase(Locale.ROOT)),
+                            fields.get(nameColumn),
+                            new BigDecimal(fields.get(amountColumn).trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("CSV 第 " + lineNumber + " 行数据无效: " + e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    private static int columnIndex(List<String> header, String column) {
+        for (int i = 0; i < header.size(); i++) {
+            if (header.get(i).replace("\uFEFF", "").trim().equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("CSV 表头缺少列: " + column);
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 拆分一行 CSV：支持双引号包裹的字段，以及字段内用 "" 表示的双引号
+     */
+    static List<String> splitCsvLine(String line) {
+        if (line == null) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
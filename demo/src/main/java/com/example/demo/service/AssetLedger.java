@@ -0,0 +1,355 @@
+package com.example.demo.service;
+
+import com.example.demo.config.DataSourceRouting;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.AssetTypeTotal;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 资产总额账本：在内存中按组合维护每种资产类型的金额总和 (单位：分) 和持仓条数。
+ *
+ * 1. 启动时从 asset_details 按 (组合, 类型) 分组求和构建一次；
+ * 2. 每次资产写入的事务提交后，按增量更新：每个组合的账本是不可变的版本 (Totals)，写入时基于当前版本生成新版本再替换，
+ *    不同组合的写入互不竞争；
+ * 3. 定期与数据库对账，发现偏差时记录告警并以数据库为准重建。
+ *
+ * 读取方拿到的总是某一次写入完成后的完整版本 (各类型金额和条数来自同一时间点)，不会读到修改类型、批量导入等
+ * 跨多个类型的增量只应用了一半的状态，且读取从不加锁、不阻塞写入。
+ *
+ * 这样推荐配置只需 O(1) 读取某个组合的账本，而无需扫描该组合的持仓，更不会扫描整张表。
+ * 账本只反映本实例的写入 (其他实例的写入在对账时才并入)，因此长期保存的历史快照不从账本读取。
+ */
+@Component
+public class AssetLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(AssetLedger.class);
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    // 组合编号 -> 该组合的账本；重建时整体替换
+    private volatile ConcurrentHashMap<Long, Totals> portfolios = new ConcurrentHashMap<>();
+
+    // 已应用到账本的写入次数，以及已提交到数据库但尚未应用到账本的写入数 (对账时用于判断账本是否静止)
+    private final AtomicLong appliedWrites = new AtomicLong();
+    private final AtomicLong pendingWrites = new AtomicLong();
+
+    /**
+     * 单个组合某一时间点的账本 (不可变)：按 AssetType.ordinal() 索引的金额总和 (分) 和持仓条数。
+     * 数组由所有读取方共享，不得修改。
+     */
+    public record Totals(long[] cents, long[] counts) {
+
+        static final Totals EMPTY = new Totals(new long[TYPES.length], new long[TYPES.length]);
+
+        /**
+         * 持仓条数
+         */
+        public long holdingCount() {
+            long count = 0;
+            for (long value : counts) {
+                count += value;
+            }
+            return count;
+        }
+
+        /**
+         * 总资产 (分)
+         */
+        public long grandTotal() {
+            long total = 0;
+            for (long value : cents) {
+                total = Cents.add(total, value);
+            }
+            return total;
+        }
+
+        /**
+         * 在本版本上应用 {各类型金额增量..., 各类型条数增量...}，返回新版本
+         * @throws ArithmeticException 某类型的金额或条数超出 long 范围
+         */
+        Totals plus(long[] deltas) {
+            long[] newCents = cents.clone();
+            long[] newCounts = counts.clone();
+            for (int i = 0; i < TYPES.length; i++) {
+                newCents[i] = Cents.add(newCents[i], deltas[i]);
+                newCounts[i] = Math.addExact(newCounts[i], deltas[TYPES.length + i]);
+            }
+            return new Totals(newCents, newCounts);
+        }
+    }
+
+    /**
+     * 启动时从数据库构建账本
+     */
+    @PostConstruct
+    public void rebuild() {
+        reset(loadFromDatabase());
+    }
+
+    /**
+     * 用数据库中的 组合 -> {各类型金额(分)..., 各类型条数...} 覆盖账本
+     */
+    private void reset(Map<Long, long[]> fromDatabase) {
+        ConcurrentHashMap<Long, Totals> rebuilt = new ConcurrentHashMap<>(Math.max(16, fromDatabase.size() * 2));
+        fromDatabase.forEach((portfolioId, values) -> rebuilt.put(portfolioId, Totals.EMPTY.plus(values)));
+        portfolios = rebuilt;
+        appliedWrites.incrementAndGet();
+        // 账本被整体覆盖，依赖它的所有组合的缓存结果随之失效
+        dataVersion.bumpAllAfterCommit();
+        log.info("资产总额账本已从数据库重建: {} 个组合, {} 条持仓", rebuilt.size(), holdingCount());
+    }
+
+    // ==========================================================
+    // 写入：在事务提交后应用增量
+    // ==========================================================
+
+    /**
+     * 记录组合内新增一条持仓
+     */
+    public void recordInsert(long portfolioId, AssetType type, BigDecimal amount) {
+        applyAfterCommit(portfolioId, single(type, Cents.of(amount)), single(type, 1));
+    }
+
+    /**
+     * 记录批量新增的持仓 (按组合、类型先汇总，整批只注册一次事务回调)
+     */
+    public void recordInserts(List<AssetDetail> assets) {
+        Map<Long, long[]> byPortfolio = new HashMap<>();
+        for (AssetDetail asset : assets) {
+            long[] values = byPortfolio.computeIfAbsent(asset.getPortfolioId(), id -> new long[TYPES.length * 2]);
+            int type = asset.getAssetType().ordinal();
+            values[type] = addOrReject(asset.getPortfolioId(), values[type], Cents.of(asset.getAmount()));
+            values[TYPES.length + type]++;
+        }
+        applyAfterCommit(byPortfolio);
+    }
+
+    /**
+     * 记录组合内删除一条持仓
+     */
+    public void recordDelete(long portfolioId, AssetType type, BigDecimal amount) {
+        applyAfterCommit(portfolioId, single(type, Math.negateExact(Cents.of(amount))), single(type, -1));
+    }
+
+    /**
+     * 记录组合内修改一条持仓 (类型和金额都可能变化)
+     */
+    public void recordUpdate(long portfolioId, AssetType oldType, BigDecimal oldAmount,
+                             AssetType newType, BigDecimal newAmount) {
+        long[] cents = single(oldType, Math.negateExact(Cents.of(oldAmount)));
+        long[] counts = single(oldType, -1);
+        cents[newType.ordinal()] = addOrReject(portfolioId, cents[newType.ordinal()], Cents.of(newAmount));
+        counts[newType.ordinal()] += 1;
+        applyAfterCommit(portfolioId, cents, counts);
+    }
+
+    private static long addOrReject(long portfolioId, long a, long b) {
+        try {
+            return Cents.add(a, b);
+        } catch (ArithmeticException e) {
+            throw overflow(portfolioId);
+        }
+    }
+
+    private static IllegalArgumentException overflow(long portfolioId) {
+        return new IllegalArgumentException("组合 " + portfolioId + " 的资产总额超出可表示的范围，写入被拒绝");
+    }
+
+    private static long[] single(AssetType type, long value) {
+        long[] values = new long[TYPES.length];
+        values[type.ordinal()] = value;
+        return values;
+    }
+
+    private void applyAfterCommit(long portfolioId, long[] cents, long[] counts) {
+        long[] values = new long[TYPES.length * 2];
+        System.arraycopy(cents, 0, values, 0, TYPES.length);
+        System.arraycopy(counts, 0, values, TYPES.length, TYPES.length);
+        applyAfterCommit(Map.of(portfolioId, values));
+    }
+
+    /**
+     * 如果当前处于事务中，则在事务成功提交后才应用增量 (回滚时丢弃)；否则立即应用。
+     * 应用后某组合的金额、条数或总资产会超出 long 范围时抛出 IllegalArgumentException，调用方的事务随之回滚。
+     */
+    private void applyAfterCommit(Map<Long, long[]> deltas) {
+        deltas.forEach((portfolioId, values) -> {
+            try {
+                snapshot(portfolioId).plus(values).grandTotal();
+            } catch (ArithmeticException e) {
+                throw overflow(portfolioId);
+            }
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(deltas);
+            return;
+        }
+        pendingWrites.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    apply(deltas);
+                }
+                pendingWrites.decrementAndGet();
+            }
+        });
+    }
+
+    private void apply(Map<Long, long[]> deltas) {
+        ConcurrentHashMap<Long, Totals> current = portfolios;
+        // 同一组合的增量在生成新版本时串行，读取方看到的是替换前或替换后的完整版本
+        // 提交前已检查过溢出；并发提交的多个写入合计仍可能溢出，此时保留原版本，由下一轮对账以数据库为准重建
+        deltas.forEach((portfolioId, values) -> current.compute(portfolioId, (id, totals) -> {
+            Totals base = totals == null ? Totals.EMPTY : totals;
+            try {
+                Totals next = base.plus(values);
+                next.grandTotal();
+                return next;
+            } catch (ArithmeticException e) {
+                log.error("组合 {} 的资产总额账本溢出，增量未应用，等待对账重建", id);
+                return totals;
+            }
+        }));
+        appliedWrites.incrementAndGet();
+    }
+
+    // ==========================================================
+    // 读取：O(1)
+    // ==========================================================
+
+    /**
+     * 组合账本的当前版本 (一致的时间点)；需要同时使用多个值 (如条数和金额) 时应只调用一次
+     */
+    public Totals snapshot(long portfolioId) {
+        return portfolios.getOrDefault(portfolioId, Totals.EMPTY);
+    }
+
+    /**
+     * 组合内各资产类型的金额总和 (保留两位小数，没有持仓的类型为 0.00)
+     */
+    public Map<AssetType, BigDecimal> totalsByType(long portfolioId) {
+        long[] cents = centsByType(portfolioId);
+        Map<AssetType, BigDecimal> totals = new EnumMap<>(AssetType.class);
+        for (AssetType type : TYPES) {
+            totals.put(type, Cents.toBigDecimal(cents[type.ordinal()]));
+        }
+        return totals;
+    }
+
+    /**
+     * 组合内各资产类型的金额总和 (单位：分)，按 AssetType.ordinal() 索引，供推荐计算直接使用而不创建 BigDecimal
+     */
+    public long[] centsByType(long portfolioId) {
+        return snapshot(portfolioId).cents().clone();
+    }
+
+    /**
+     * 组合内持仓条数
+     */
+    public long holdingCount(long portfolioId) {
+        return snapshot(portfolioId).holdingCount();
+    }
+
+    /**
+     * 所有组合的持仓总条数
+     */
+    public long holdingCount() {
+        long count = 0;
+        for (Totals totals : portfolios.values()) {
+            count += totals.holdingCount();
+        }
+        return count;
+    }
+
+    // ==========================================================
+    // 定期对账
+    // ==========================================================
+
+    /**
+     * 与数据库分组求和结果对账。
+     * 对账期间如有写入正在提交或已应用，结果不可比较，本轮跳过；发现偏差时告警并以数据库为准重建。
+     *
+     * @return 是否发现偏差
+     */
+    @Scheduled(initialDelayString = "${asset.ledger.reconcile-interval-ms:300000}",
+            fixedDelayString = "${asset.ledger.reconcile-interval-ms:300000}")
+    public boolean reconcile() {
+        long writesBefore = appliedWrites.get();
+        if (pendingWrites.get() > 0) {
+            log.debug("存在未完成的写入，跳过本轮账本对账");
+            return false;
+        }
+        Map<Long, long[]> fromDatabase = loadFromDatabase();
+        if (pendingWrites.get() > 0 || appliedWrites.get() != writesBefore) {
+            log.debug("对账期间发生写入，跳过本轮账本对账");
+            return false;
+        }
+
+        boolean drift = false;
+        long[] empty = new long[TYPES.length * 2];
+        Set<Long> portfolioIds = new HashSet<>(fromDatabase.keySet());
+        portfolioIds.addAll(portfolios.keySet());
+        for (Long portfolioId : portfolioIds) {
+            Totals totals = snapshot(portfolioId);
+            long[] expected = fromDatabase.getOrDefault(portfolioId, empty);
+            for (AssetType type : TYPES) {
+                long ledgerCents = totals.cents()[type.ordinal()];
+                long ledgerCount = totals.counts()[type.ordinal()];
+                long expectedCents = expected[type.ordinal()];
+                long expectedCount = expected[TYPES.length + type.ordinal()];
+                if (ledgerCents != expectedCents || ledgerCount != expectedCount) {
+                    drift = true;
+                    log.warn("资产总额账本与数据库不一致: portfolio={}, type={}, 账本={} ({} 条), 数据库={} ({} 条)",
+                            portfolioId, type, Cents.toBigDecimal(ledgerCents), ledgerCount,
+                            Cents.toBigDecimal(expectedCents), expectedCount);
+                }
+            }
+        }
+        if (drift) {
+            reset(fromDatabase);
+        }
+        return drift;
+    }
+
+    /**
+     * 从数据库读取 组合 -> {各类型金额(分)..., 各类型条数...}
+     */
+    private Map<Long, long[]> loadFromDatabase() {
+        Map<Long, long[]> result = new HashMap<>();
+        // 读主库：账本以数据库为准，不能使用有复制延迟的副本
+        List<AssetTypeTotal> totals = DataSourceRouting.onPrimary(
+                assetDetailRepository::sumAmountGroupByPortfolioAndAssetType);
+        for (AssetTypeTotal total : totals) {
+            long[] values = result.computeIfAbsent(total.getPortfolioId(), id -> new long[TYPES.length * 2]);
+            values[total.getAssetType().ordinal()] = Cents.of(total.getTotal());
+            values[TYPES.length + total.getAssetType().ordinal()] = total.getHoldingCount();
+        }
+        return result;
+    }
+}
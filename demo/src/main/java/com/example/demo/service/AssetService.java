@@ -1,20 +1,43 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.AssetWriteResultDTO;
+import com.example.demo.dto.CursorPageDTO;
 import com.example.demo.dto.HistoryRecordDTO;
 import com.example.demo.model.AssetDetail;
 import com.example.demo.model.AssetDetail.AssetType;
 import com.example.demo.model.HistoryRecord;
 import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.AssetTypeTotal;
 import com.example.demo.repository.HistoryRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 
 @Service
 public class AssetService { // 资产服务，负责把DTO转换为Entity并保存到数据库，以及将Entity转换为DTO并返回给前端
@@ -24,16 +47,41 @@ public class AssetService { // 资产服务，负责把DTO转换为Entity并保
 
     @Autowired
     private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupService historyRollupService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
-     * 将 DTO 转换为 Entity 并保存到数据库
+     * 将 DTO 转换为 Entity 并保存到组合中
      * 
+     * @param portfolioId 组合编号
      * @param dto 前端传入的资产明细 DTO
      * @return 保存后的 DTO
      */
-    public AssetDetailDTO saveAsset(AssetDetailDTO dto) {
+    @Transactional
+    public AssetDetailDTO saveAsset(long portfolioId, AssetDetailDTO dto) {
         // 1. DTO 转换为 Entity
         AssetDetail asset = new AssetDetail();
         asset.setId(null);
+        asset.setPortfolioId(portfolioId);
         asset.setAssetType(dto.getAssetType());
         asset.setName(dto.getName());
         asset.setAmount(dto.getAmount());
@@ -41,91 +89,480 @@ public class AssetService { // 资产服务，负责把DTO转换为Entity并保
         // 2. 保存到数据库
         AssetDetail savedAsset = assetDetailRepository.save(asset);
 
+        // 事务提交后更新资产总额账本，并使缓存的推荐配置 / 资产列表失效
+        assetLedger.recordInsert(portfolioId, savedAsset.getAssetType(), savedAsset.getAmount());
+        dataVersion.bumpAfterCommit(portfolioId);
+
         // 3. Entity 转换为 DTO 返回
         return mapToDTO(savedAsset);
     }
 
+    // 修改和删除都是带版本号条件的单条语句，不加载实体、不加行锁；影响 0 行即说明版本号已变化
+    private static final String UPDATE_ASSET = "UPDATE asset_details SET asset_type = ?, name = ?, amount = ?, "
+            + "version = version + 1 WHERE id = ? AND portfolio_id = ? AND version = ?";
+
+    private static final String DELETE_ASSET = "DELETE FROM asset_details WHERE id = ? AND portfolio_id = ? "
+            + "AND version = ?";
+
+    // 每次读取当前值 (IN 列表) 和批量写入的行数
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    /**
+     * 修改一条资产明细 (只修改 DTO 中非空的 assetType / name / amount)
+     *
+     * @param portfolioId 组合编号
+     * @param id 资产明细 id
+     * @param patch 要修改的字段和读取时的版本号
+     * @return 修改后的 DTO (版本号已加 1)
+     * @throws NoSuchElementException 组合中没有该资产明细
+     * @throws OptimisticLockingFailureException 版本号不一致 (已被其他请求修改)
+     */
+    @Transactional
+    public AssetDetailDTO updateAsset(long portfolioId, long id, AssetDetailDTO patch) {
+        patch.setId(id);
+        List<AssetDetail> updated = new ArrayList<>(1);
+        AssetWriteResultDTO result = updateAssets(portfolioId, List.of(patch), updated);
+        throwIfNotApplied(result, id);
+        return mapToDTO(updated.get(0));
+    }
+
+    /**
+     * 批量修改资产明细：每条按 id 和版本号修改，版本号不一致的跳过并在结果中列出
+     *
+     * @param portfolioId 组合编号
+     * @param patches 要修改的字段、id 和读取时的版本号
+     * @return 修改条数、冲突和不存在的 id
+     */
+    @Transactional
+    public AssetWriteResultDTO updateAssets(long portfolioId, List<AssetDetailDTO> patches) {
+        return updateAssets(portfolioId, patches, new ArrayList<>(patches.size()));
+    }
+
+    private AssetWriteResultDTO updateAssets(long portfolioId, List<AssetDetailDTO> patches,
+                                             List<AssetDetail> updated) {
+        for (AssetDetailDTO patch : patches) {
+            if (patch.getAmount() != null && patch.getAmount().signum() < 0) {
+                throw new IllegalArgumentException("金额不能为负数: id=" + patch.getId());
+            }
+            if (patch.getName() != null && patch.getName().isBlank()) {
+                throw new IllegalArgumentException("名称不能为空: id=" + patch.getId());
+            }
+        }
+        AssetWriteResultDTO result = new AssetWriteResultDTO();
+        Map<Long, AssetDetail> current = loadCurrent(portfolioId, patches, result);
+
+        // 1. 与读取的当前值合并 (版本号与读取时一致，因此修改成功时旧值就是读取的值)
+        List<AssetDetail[]> candidates = new ArrayList<>(current.size());
+        for (AssetDetailDTO patch : patches) {
+            AssetDetail before = current.get(patch.getId());
+            if (before == null) {
+                continue;
+            }
+            AssetDetail after = new AssetDetail();
+            after.setId(before.getId());
+            after.setPortfolioId(portfolioId);
+            after.setAssetType(patch.getAssetType() != null ? patch.getAssetType() : before.getAssetType());
+            after.setName(patch.getName() != null ? patch.getName() : before.getName());
+            after.setAmount(Cents.toBigDecimal(Cents.of(patch.getAmount() != null ? patch.getAmount()
+                    : before.getAmount())));
+            after.setVersion(before.getVersion() + 1);
+            candidates.add(new AssetDetail[]{before, after});
+        }
+
+        // 2. 带版本号条件批量修改 (先使这些行的二级缓存失效)
+        if (!candidates.isEmpty()) {
+            secondLevelCache.beforeJdbcUpdate(AssetDetail.class, current.keySet());
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_ASSET, candidates, WRITE_BATCH_SIZE, (ps, pair) -> {
+            ps.setString(1, pair[1].getAssetType().name());
+            ps.setString(2, pair[1].getName());
+            ps.setBigDecimal(3, pair[1].getAmount());
+            ps.setLong(4, pair[1].getId());
+            ps.setLong(5, portfolioId);
+            ps.setLong(6, pair[0].getVersion());
+        });
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                AssetDetail[] pair = candidates.get(i++);
+                if (count == 0) {
+                    result.getConflicts().add(pair[0].getId());
+                    continue;
+                }
+                assetLedger.recordUpdate(portfolioId, pair[0].getAssetType(), pair[0].getAmount(),
+                        pair[1].getAssetType(), pair[1].getAmount());
+                updated.add(pair[1]);
+            }
+        }
+        result.setAffected(updated.size());
+        if (!updated.isEmpty()) {
+            dataVersion.bumpAfterCommit(portfolioId);
+        }
+        evictStale(result);
+        recordRows("assets.update", updated.size());
+        return result;
+    }
+
+    /**
+     * 删除一条资产明细
+     *
+     * @throws NoSuchElementException 组合中没有该资产明细
+     * @throws OptimisticLockingFailureException 版本号不一致 (已被其他请求修改)
+     */
+    @Transactional
+    public void deleteAsset(long portfolioId, long id, long version) {
+        AssetDetailDTO target = new AssetDetailDTO();
+        target.setId(id);
+        target.setVersion(version);
+        throwIfNotApplied(deleteAssets(portfolioId, List.of(target)), id);
+    }
+
+    /**
+     * 批量删除资产明细：每条按 id 和版本号删除，版本号不一致的跳过并在结果中列出
+     *
+     * @param targets 要删除的 id 和读取时的版本号
+     * @return 删除条数、冲突和不存在的 id
+     */
+    @Transactional
+    public AssetWriteResultDTO deleteAssets(long portfolioId, List<AssetDetailDTO> targets) {
+        AssetWriteResultDTO result = new AssetWriteResultDTO();
+        Map<Long, AssetDetail> current = loadCurrent(portfolioId, targets, result);
+        List<AssetDetail> candidates = new ArrayList<>(current.values());
+
+        if (!candidates.isEmpty()) {
+            secondLevelCache.beforeJdbcUpdate(AssetDetail.class, current.keySet());
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(DELETE_ASSET, candidates, WRITE_BATCH_SIZE, (ps, asset) -> {
+            ps.setLong(1, asset.getId());
+            ps.setLong(2, portfolioId);
+            ps.setLong(3, asset.getVersion());
+        });
+        int deleted = 0;
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                AssetDetail asset = candidates.get(i++);
+                if (count == 0) {
+                    result.getConflicts().add(asset.getId());
+                    continue;
+                }
+                assetLedger.recordDelete(portfolioId, asset.getAssetType(), asset.getAmount());
+                deleted++;
+            }
+        }
+        result.setAffected(deleted);
+        if (deleted > 0) {
+            dataVersion.bumpAfterCommit(portfolioId);
+        }
+        evictStale(result);
+        recordRows("assets.delete", deleted);
+        return result;
+    }
+
+    /**
+     * 辅助方法：读取请求中各 id 的当前类型、名称、金额和版本号 (只读列，不加载实体)。
+     * 不存在的 id 记入 missing，版本号与请求不一致的记入 conflicts，只返回版本号一致的行。
+     */
+    private Map<Long, AssetDetail> loadCurrent(long portfolioId, List<AssetDetailDTO> requested,
+                                               AssetWriteResultDTO result) {
+        result.setRequested(requested.size());
+        Set<Long> ids = new LinkedHashSet<>();
+        for (AssetDetailDTO item : requested) {
+            if (item.getId() == null || item.getVersion() == null) {
+                throw new IllegalArgumentException("每条记录都需要 id 和 version");
+            }
+            if (!ids.add(item.getId())) {
+                throw new IllegalArgumentException("重复的 id: " + item.getId());
+            }
+        }
+
+        Map<Long, AssetDetail> rows = new HashMap<>(ids.size() * 2);
+        List<Long> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += WRITE_BATCH_SIZE) {
+            List<Long> chunk = idList.subList(from, Math.min(from + WRITE_BATCH_SIZE, idList.size()));
+            String sql = "SELECT id, asset_type, name, amount, version FROM asset_details WHERE portfolio_id = ? "
+                    + "AND id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            Object[] args = new Object[chunk.size() + 1];
+            args[0] = portfolioId;
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i + 1] = chunk.get(i);
+            }
+            jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+                AssetDetail asset = new AssetDetail();
+                asset.setId(rs.getLong(1));
+                asset.setPortfolioId(portfolioId);
+                asset.setAssetType(AssetType.valueOf(rs.getString(2)));
+                asset.setName(rs.getString(3));
+                asset.setAmount(rs.getBigDecimal(4));
+                asset.setVersion(rs.getLong(5));
+                rows.put(asset.getId(), asset);
+            }, args);
+        }
+
+        Map<Long, AssetDetail> current = new LinkedHashMap<>(rows.size() * 2);
+        for (AssetDetailDTO item : requested) {
+            AssetDetail row = rows.get(item.getId());
+            if (row == null) {
+                result.getMissing().add(item.getId());
+            } else if (row.getVersion() != item.getVersion()) {
+                result.getConflicts().add(item.getId());
+            } else {
+                current.put(row.getId(), row);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 冲突或不存在的 id：请求中的版本号可能读自二级缓存中的旧数据，事务结束后移除，下次读取从数据库加载
+     */
+    private void evictStale(AssetWriteResultDTO result) {
+        if (result.getConflicts().isEmpty() && result.getMissing().isEmpty()) {
+            return;
+        }
+        List<Long> stale = new ArrayList<>(result.getConflicts());
+        stale.addAll(result.getMissing());
+        secondLevelCache.evictAfterCompletion(AssetDetail.class, stale);
+    }
+
+    private static void throwIfNotApplied(AssetWriteResultDTO result, long id) {
+        if (!result.getMissing().isEmpty()) {
+            throw new NoSuchElementException("资产明细不存在: id=" + id);
+        }
+        if (!result.getConflicts().isEmpty()) {
+            throw new OptimisticLockingFailureException("资产明细已被修改，请刷新后重试: id=" + id);
+        }
+    }
+
     /**
-     * 获取所有资产明细
+     * 获取组合的所有资产明细
      * 
+     * @param portfolioId 组合编号
      * @return 所有资产明细 DTO 列表
      */
-    public List<AssetDetailDTO> findAllAssets() {
+    @Transactional(readOnly = true)
+    public List<AssetDetailDTO> findAllAssets(long portfolioId) {
         // 查找所有 Entity 并转换为 DTO 列表
-        return assetDetailRepository.findAll().stream()
+        List<AssetDetailDTO> assets = assetDetailRepository.findByPortfolioId(portfolioId).stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
+        recordRows("assets.all", assets.size());
+        return assets;
+    }
+
+    /**
+     * 游标分页获取组合的资产明细 (按 id 升序)
+     * 
+     * @param portfolioId 组合编号
+     * @param cursor 上一页返回的 nextCursor，首页传 null
+     * @param limit  每页条数
+     * @return 当前页及下一页游标
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<AssetDetailDTO> findAssetsPage(long portfolioId, String cursor, int limit) {
+        long afterId = cursor == null ? 0L : decodeAssetCursor(cursor);
+        // 多取一条用于判断是否还有下一页
+        List<AssetDetail> rows = assetDetailRepository.findByPortfolioIdAndIdGreaterThanOrderByIdAsc(portfolioId,
+                afterId, PageRequest.ofSize(limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<AssetDetailDTO> items = rows.stream().limit(limit).map(this::mapToDTO).collect(Collectors.toList());
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        recordRows("assets.page", items.size());
+        return new CursorPageDTO<>(items, nextCursor);
     }
 
     /**
-     * 获取某一资产类型的所有资产总额
+     * 以数据库游标逐条读取组合的所有资产明细并交给 action 处理 (如直接写入响应)，
+     * 每条处理完即从持久化上下文中移除，内存占用与总行数无关。
+     */
+    @Transactional(readOnly = true)
+    public void forEachAsset(long portfolioId, Consumer<AssetDetailDTO> action) {
+        long[] rows = {0};
+        try (Stream<AssetDetail> assets = assetDetailRepository.streamByPortfolioIdOrderByIdAsc(portfolioId)) {
+            assets.forEach(asset -> {
+                action.accept(mapToDTO(asset));
+                entityManager.detach(asset);
+                rows[0]++;
+            });
+        }
+        recordRows("assets.stream", rows[0]);
+    }
+
+    /**
+     * 获取组合内某一资产类型的所有资产明细
      * 
+     * @param portfolioId 组合编号
      * @param type 资产类型
-     * @return 该类型资产总额
+     * @return 该类型资产明细
+     */
+    @Transactional(readOnly = true)
+    public List<AssetDetail> findAssetsByType(long portfolioId, AssetDetail.AssetType type) {
+        return assetDetailRepository.findByPortfolioIdAndAssetType(portfolioId, type);
+    }
+
+    /**
+     * 获取组合内各资产类型的金额总和 (读取内存中的资产总额账本，O(1))
+     * 
+     * @param portfolioId 组合编号
+     * @return 资产类型 -> 总额，没有持仓的类型为 0.00
      */
-    public List<AssetDetail> findAssetsByType(AssetDetail.AssetType type) {
-        return assetDetailRepository.findByAssetType(type);
+    public Map<AssetType, BigDecimal> sumAmountByType(long portfolioId) {
+        return assetLedger.totalsByType(portfolioId);
+    }
+
+    /**
+     * 获取组合内各资产类型的金额总和 (单位：分，按 AssetType.ordinal() 索引)，供推荐计算使用
+     * 各类型的值来自账本的同一个版本，不会混入并发写入的中间状态
+     */
+    public long[] sumCentsByType(long portfolioId) {
+        return assetLedger.centsByType(portfolioId);
     }
 
     // --- 历史记录相关方法 ---
 
     /**
-     * 根据当前资产明细，生成快照并保存为历史记录。
+     * 根据组合当前的资产明细，生成快照并保存为历史记录。
      * 
+     * @param portfolioId 组合编号
      * @return HistoryRecordDTO
      */
-    public HistoryRecordDTO saveCurrentAssetsAsRecord() {
-        // 1. 获取当前所有资产明细
-        List<AssetDetailDTO> allAssets = findAllAssets();
+    @Transactional
+    public HistoryRecordDTO saveCurrentAssetsAsRecord(long portfolioId) {
+        // 1. 在数据库中按类型分组求和：一条语句，条数和各类资产总额 (单位：分) 来自同一时间点。
+        //    保存的快照会长期保留，不使用本实例的账本 (其他实例的写入要到对账时才反映到账本中)
+        long[] centsByType = new long[AssetType.values().length];
+        long holdingCount = 0;
+        for (AssetTypeTotal total : assetDetailRepository.sumAmountGroupByAssetType(portfolioId)) {
+            centsByType[total.getAssetType().ordinal()] = Cents.of(total.getTotal());
+            holdingCount += total.getHoldingCount();
+        }
 
-        if (allAssets.isEmpty()) {
+        // 2. 检查当前是否有资产明细
+        if (holdingCount == 0) {
             throw new IllegalStateException("当前没有资产明细，无法保存历史记录。");
         }
+        long nasdaqTotal = centsByType[AssetType.NASDAQ.ordinal()];
+        long spTotal = centsByType[AssetType.SP.ordinal()];
+        long conservativeTotal = centsByType[AssetType.CONSERVATIVE.ordinal()];
+        long cashTotal = centsByType[AssetType.CASH.ordinal()];
 
-        // 2. 聚合各类资产总额
-        BigDecimal nasdaqTotal = sumAmount(allAssets, AssetType.NASDAQ);
-        BigDecimal spTotal = sumAmount(allAssets, AssetType.SP);
-        BigDecimal conservativeTotal = sumAmount(allAssets, AssetType.CONSERVATIVE);
-        BigDecimal cashTotal = sumAmount(allAssets, AssetType.CASH);
+        long grandTotal = Cents.add(Cents.add(nasdaqTotal, spTotal), Cents.add(conservativeTotal, cashTotal));
 
-        BigDecimal grandTotal = nasdaqTotal.add(spTotal).add(conservativeTotal).add(cashTotal);
-
-        // 3. 构建 HistoryRecord 实体
+        // 3. 构建 HistoryRecord 实体 (在实体边界转换为 BigDecimal)
         HistoryRecord record = new HistoryRecord();
+        record.setPortfolioId(portfolioId);
         record.setRecordDate(LocalDateTime.now());
-        record.setGrandTotal(grandTotal);
-        record.setNasdaqTotal(nasdaqTotal);
-        record.setSpTotal(spTotal);
-        record.setConservativeTotal(conservativeTotal);
-        record.setCashTotal(cashTotal);
+        record.setGrandTotal(Cents.toBigDecimal(grandTotal));
+        record.setNasdaqTotal(Cents.toBigDecimal(nasdaqTotal));
+        record.setSpTotal(Cents.toBigDecimal(spTotal));
+        record.setConservativeTotal(Cents.toBigDecimal(conservativeTotal));
+        record.setCashTotal(Cents.toBigDecimal(cashTotal));
 
         // 4. 保存到数据库
         HistoryRecord savedRecord = historyRecordRepository.save(record);
+        // 在同一事务中更新天 / 周 / 月汇总
+        historyRollupService.record(savedRecord);
+        dataVersion.bumpAfterCommit(portfolioId);
 
         // 5. 转换为 DTO 返回
         return mapToDTO(savedRecord);
     }
 
     /**
-     * 获取所有历史记录（按日期倒序）
+     * 获取组合的所有历史记录（按日期倒序）
      * 
+     * @param portfolioId 组合编号
      * @return 历史记录 DTO 列表
      */
-    public List<HistoryRecordDTO> findAllHistoryRecords() {
-        return historyRecordRepository.findAllByOrderByRecordDateDesc().stream()
+    @Transactional(readOnly = true)
+    public List<HistoryRecordDTO> findAllHistoryRecords(long portfolioId) {
+        List<HistoryRecordDTO> records = historyRecordRepository.findByPortfolioIdOrderByRecordDateDesc(portfolioId)
+                .stream()
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
+        recordRows("records.all", records.size());
+        return records;
+    }
+
+    /**
+     * 游标分页获取组合的历史记录 (按 record_date, id 倒序)
+     * 
+     * @param portfolioId 组合编号
+     * @param cursor 上一页返回的 nextCursor，首页传 null
+     * @param limit  每页条数
+     * @return 当前页及下一页游标
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<HistoryRecordDTO> findHistoryRecordsPage(long portfolioId, String cursor, int limit) {
+        PageRequest page = PageRequest.ofSize(limit + 1);
+        List<HistoryRecord> rows;
+        if (cursor == null) {
+            rows = historyRecordRepository.findByPortfolioIdOrderByRecordDateDescIdDesc(portfolioId, page);
+        } else {
+            HistoryRecord last = decodeRecordCursor(cursor);
+            rows = historyRecordRepository.findPageAfter(portfolioId, last.getRecordDate(), last.getId(), page);
+        }
+        boolean hasMore = rows.size() > limit;
+        List<HistoryRecord> pageRows = rows.subList(0, Math.min(limit, rows.size()));
+        String nextCursor = hasMore ? encodeRecordCursor(pageRows.get(pageRows.size() - 1)) : null;
+        recordRows("records.page", pageRows.size());
+        return new CursorPageDTO<>(pageRows.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * 以数据库游标逐条读取组合的所有历史记录 (按日期倒序) 并交给 action 处理
+     */
+    @Transactional(readOnly = true)
+    public void forEachHistoryRecord(long portfolioId, Consumer<HistoryRecordDTO> action) {
+        long[] rows = {0};
+        try (Stream<HistoryRecord> records =
+                     historyRecordRepository.streamByPortfolioIdOrderByRecordDateDescIdDesc(portfolioId)) {
+            records.forEach(record -> {
+                action.accept(mapToDTO(record));
+                entityManager.detach(record);
+                rows[0]++;
+            });
+        }
+        recordRows("records.stream", rows[0]);
     }
 
     /**
-     * 辅助方法：计算某一资产类型的所有金额总和
+     * 辅助方法：记录一次查询返回的行数 (asset.query.rows，按 query 区分)
      */
-    private BigDecimal sumAmount(List<AssetDetailDTO> assets, AssetType type) {
-        return assets.stream()
-                .filter(asset -> asset.getAssetType() == type)
-                .map(AssetDetailDTO::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+    private void recordRows(String query, long rows) {
+        meterRegistry.summary("asset.query.rows", "query", query).record(rows);
+    }
+
+    /**
+     * 辅助方法：解析资产明细游标 (上一页最后一条的 id)
+     */
+    private long decodeAssetCursor(String cursor) {
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + cursor);
+        }
+    }
+
+    /**
+     * 辅助方法：历史记录游标 = Base64URL("recordDate|id")
+     */
+    private String encodeRecordCursor(HistoryRecord record) {
+        String raw = record.getRecordDate() + "|" + record.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private HistoryRecord decodeRecordCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            HistoryRecord last = new HistoryRecord();
+            last.setRecordDate(LocalDateTime.parse(raw.substring(0, separator)));
+            last.setId(Long.parseLong(raw.substring(separator + 1)));
+            return last;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标: " + cursor);
+        }
     }
 
     /**
@@ -134,6 +571,7 @@ public class AssetService { // 资产服务，负责把DTO转换为Entity并保
     private HistoryRecordDTO mapToDTO(HistoryRecord record) {
         HistoryRecordDTO dto = new HistoryRecordDTO();
         dto.setId(record.getId());
+        dto.setPortfolioId(record.getPortfolioId());
         dto.setRecordDate(record.getRecordDate());
         dto.setGrandTotal(record.getGrandTotal());
         dto.setNasdaqTotal(record.getNasdaqTotal());
@@ -147,10 +585,13 @@ public class AssetService { // 资产服务，负责把DTO转换为Entity并保
      * 辅助方法：将 Entity 映射为 DTO
      */
     private AssetDetailDTO mapToDTO(AssetDetail asset) {
-        return new AssetDetailDTO(
+        AssetDetailDTO dto = new AssetDetailDTO(
                 asset.getId(),
                 asset.getAssetType(),
                 asset.getName(),
                 asset.getAmount());
+        dto.setPortfolioId(asset.getPortfolioId());
+        dto.setVersion(asset.getVersion());
+        return dto;
     }
 }
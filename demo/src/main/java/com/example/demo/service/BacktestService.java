@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.backtest.Backtester;
+import com.example.demo.backtest.PriceSeries;
+import com.example.demo.backtest.RebalanceFrequency;
+import com.example.demo.dto.BacktestDTO;
+import com.example.demo.dto.BacktestResultDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.policy.CompiledPolicy;
+import com.example.demo.policy.PolicyRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 回测服务：用历史日收益率回放配置策略的目标配置，对比不同再平衡频率和容忍带。
+ *
+ * 收益率序列文件 (由 PriceSeriesConverter 从 CSV 生成) 在第一次使用时只读映射，之后所有请求共用；
+ * 各策略在独立的 ForkJoinPool 中并行回放。
+ */
+@Service
+public class BacktestService {
+
+    private static final Logger log = LoggerFactory.getLogger(BacktestService.class);
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    // 未指定时对比的再平衡频率和容忍带
+    private static final List<RebalanceFrequency> DEFAULT_FREQUENCIES = List.of(RebalanceFrequency.NEVER,
+            RebalanceFrequency.MONTHLY, RebalanceFrequency.QUARTERLY, RebalanceFrequency.ANNUALLY);
+    private static final List<BigDecimal> DEFAULT_BANDS = List.of(BigDecimal.ZERO, new BigDecimal("0.05"));
+
+    @Autowired
+    private PolicyRegistry policyRegistry;
+
+    // 收益率序列文件路径，为空表示未配置
+    @Value("${asset.backtest.location:}")
+    private String location;
+
+    // 并行回放的线程数，0 表示与 CPU 核数一致
+    @Value("${asset.backtest.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool pool;
+
+    private volatile PriceSeries series;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 回测配置策略在各再平衡频率 × 容忍带组合下的表现
+     * @param policyName  配置策略名称，null 表示默认策略
+     * @param frequencies 再平衡频率，为空时对比 NEVER / MONTHLY / QUARTERLY / ANNUALLY
+     * @param bands       容忍带 (0 ~ 1)，为空时对比 0 和 0.05；NEVER 只回放一次
+     * @return BacktestDTO
+     * @throws IllegalArgumentException 策略不存在或容忍带超出范围
+     * @throws IllegalStateException    未配置或无法读取收益率序列文件
+     */
+    public BacktestDTO backtest(String policyName, List<RebalanceFrequency> frequencies, List<BigDecimal> bands) {
+        CompiledPolicy policy = policyRegistry.current().get(policyName);
+        List<RebalanceFrequency> selectedFrequencies = frequencies == null || frequencies.isEmpty()
+                ? DEFAULT_FREQUENCIES : frequencies;
+        List<BigDecimal> selectedBands = bands == null || bands.isEmpty() ? DEFAULT_BANDS : bands;
+        for (BigDecimal band : selectedBands) {
+            if (band.signum() < 0 || band.compareTo(BigDecimal.ONE) > 0) {
+                throw new IllegalArgumentException("容忍带必须在 0 ~ 1 之间");
+            }
+        }
+
+        List<Backtester.Strategy> strategies = new ArrayList<>();
+        for (RebalanceFrequency frequency : selectedFrequencies) {
+            for (BigDecimal band : selectedBands) {
+                strategies.add(new Backtester.Strategy(frequency, band.doubleValue()));
+                if (frequency == RebalanceFrequency.NEVER) {
+                    break; // 不再平衡时容忍带没有意义
+                }
+            }
+        }
+
+        double[] weights = new double[TYPES.length];
+        for (AssetType type : TYPES) {
+            weights[type.ordinal()] = policy.targetWeight(policy.nodeOf(type));
+        }
+
+        PriceSeries prices = series();
+        List<Backtester.Result> results = Backtester.runAll(prices, weights, strategies, pool);
+
+        BacktestDTO dto = new BacktestDTO();
+        dto.setPolicy(policy.getName());
+        dto.setFrom(prices.date(0));
+        dto.setTo(prices.date(prices.days() - 1));
+        dto.setDays(prices.days());
+        dto.setResults(results.stream().map(BacktestService::mapToDTO).toList());
+        return dto;
+    }
+
+    /**
+     * 映射后的收益率序列，第一次使用时建立映射
+     */
+    private PriceSeries series() {
+        PriceSeries current = series;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (series == null) {
+                if (location == null || location.isBlank()) {
+                    throw new IllegalStateException("未配置历史收益率文件 (asset.backtest.location)");
+                }
+                try {
+                    series = PriceSeries.map(Path.of(location));
+                    log.info("已映射历史收益率文件 {}: {} 个交易日", location, series.days());
+                } catch (IOException | IllegalArgumentException e) {
+                    throw new IllegalStateException("无法读取历史收益率文件 " + location + ": " + e.getMessage(), e);
+                }
+            }
+            return series;
+        }
+    }
+
+    private static BacktestResultDTO mapToDTO(Backtester.Result result) {
+        BacktestResultDTO dto = new BacktestResultDTO();
+        dto.setFrequency(result.strategy().frequency());
+        dto.setBand(ratio(result.strategy().band()));
+        dto.setFinalValue(ratio(result.finalValue()));
+        dto.setCagr(ratio(result.cagr()));
+        dto.setVolatility(ratio(result.volatility()));
+        dto.setMaxDrawdown(ratio(result.maxDrawdown()));
+        dto.setRebalances(result.rebalances());
+        dto.setTurnover(ratio(result.turnover()));
+        return dto;
+    }
+
+    private static BigDecimal ratio(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,543 @@
+package com.example.demo.service;
+
+import com.example.demo.config.DataSourceRouting;
+import com.example.demo.dto.BulkRecommendationStatusDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.BatchCheckpoint;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.policy.CompiledPolicy;
+import com.example.demo.policy.PolicyRegistry;
+import com.example.demo.policy.PolicySet;
+import com.example.demo.repository.BatchCheckpointRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 批量推荐任务：为所有组合计算推荐配置 (夜间任务)。
+ *
+ * 不再逐个组合调用 CalculationService.getRecommendation()，而是一遍扫描完成：
+ * 1. 按 (portfolio_id, id) 顺序游标分页读取 asset_details，每批 chunk-size 行，边读边累加各组合各类型金额 (分)；
+ *    读取直接使用 JDBC 并在 SQL 中把金额换算为分，不创建实体和 BigDecimal；
+ * 2. 本批中已读完的组合交给 ForkJoinPool 并行计算目标金额 (跨批次的组合留到下一批)，
+ *    同一遍扫描可以同时按多个配置策略计算 (asset.batch.recommendation.policies)，对比策略不会增加数据库读取；
+ * 3. 在一个事务中批量写入结果 (portfolio_recommendations，可选同时写入历史快照) 并更新检查点。
+ *
+ * 检查点与结果在同一事务中提交：任务中断后再次运行，会从最后一个已提交的组合之后继续，已写入的结果不会重复。
+ * 多个应用实例之间通过数据库租约 (LeaseService) 保证同一时间只有一个实例运行：每写入一批续约一次，
+ * 失去租约即停止 (由接管的实例从检查点继续)，运行结束后释放租约。
+ */
+@Service
+public class BulkRecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkRecommendationService.class);
+
+    // 检查点中的任务名称，同时也是租约名称
+    static final String JOB_NAME = "bulk-recommendation";
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    // 每个 fork/join 子任务处理的组合数不超过该值时不再拆分
+    private static final int FORK_THRESHOLD = 1024;
+
+    // 每次 JDBC 批量写入的行数
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    // 读取 (portfolio_id, id) 之后的一批持仓，金额换算为分 (amount 的 scale 为 2，乘以 100 后是精确整数)
+    private static final String SELECT_CHUNK = "SELECT portfolio_id, id, asset_type, CAST(amount * 100 AS BIGINT) "
+            + "FROM asset_details WHERE (portfolio_id, id) > (?, ?) ORDER BY portfolio_id, id LIMIT ?";
+
+    private static final String INSERT_RECOMMENDATION = "INSERT INTO portfolio_recommendations (portfolio_id, "
+            + "policy, computed_at, grand_total, nasdaq_current, sp_current, conservative_current, cash_current, "
+            + "nasdaq_target, sp_target, conservative_target, cash_target) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SNAPSHOT = "INSERT INTO history_records (portfolio_id, record_date, "
+            + "grand_total, nasdaq_total, sp_total, conservative_total, cash_total) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private PolicyRegistry policyRegistry;
+
+    @Autowired
+    private HistoryRollupService historyRollupService;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 每批读取的持仓行数 (同时也是每个事务处理的数据量)
+    @Value("${asset.batch.recommendation.chunk-size:10000}")
+    private int chunkSize;
+
+    // 计算目标金额的并行度，0 表示与 CPU 核数一致
+    @Value("${asset.batch.recommendation.parallelism:0}")
+    private int parallelism;
+
+    // 按哪些配置策略计算 (逗号分隔)，为空时只用默认策略；每个组合每个策略写入一行结果
+    @Value("${asset.batch.recommendation.policies:}")
+    private List<String> policyNames;
+
+    // 是否同时为每个组合写入一条历史快照 (history_records)
+    @Value("${asset.batch.recommendation.snapshots:false}")
+    private boolean snapshots;
+
+    // 租约时长：持有者异常退出后，其他实例最多等待这么久接管；应远大于处理一批所需的时间
+    @Value("${asset.batch.recommendation.lease-duration:PT10M}")
+    private Duration leaseDuration;
+
+    private ForkJoinPool pool;
+
+    // 后台运行任务的线程 (接口触发、定时触发)，本实例同一时间只运行一个任务，实例之间由租约互斥
+    private ExecutorService runner;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // 最近一次运行的状态，每提交一个批次替换一次
+    private volatile BulkRecommendationStatusDTO status = new BulkRecommendationStatusDTO();
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        runner = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "bulk-recommendation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("asset.batch.recommendation.progress", this, service -> service.status.getProgress())
+                .description("批量推荐任务进度 (0 ~ 1)")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    /**
+     * 最近一次运行的状态和进度
+     */
+    public BulkRecommendationStatusDTO status() {
+        return status;
+    }
+
+    /**
+     * 在当前线程运行任务，返回最终状态
+     *
+     * @param restart true 时忽略未完成的检查点，从头开始
+     * @throws IllegalStateException 本实例或其他实例已有任务在运行
+     */
+    public BulkRecommendationStatusDTO run(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("批量推荐任务正在运行中");
+        }
+        try {
+            if (!leaseService.tryAcquire(JOB_NAME, leaseDuration)) {
+                throw new IllegalStateException("批量推荐任务正在其他实例上运行");
+            }
+            try {
+                return execute(restart);
+            } finally {
+                leaseService.release(JOB_NAME);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 在后台线程运行任务，进度通过 status() 查询
+     *
+     * @param restart true 时忽略未完成的检查点，从头开始
+     * @return false 表示本实例或其他实例已有任务在运行，本次未启动
+     */
+    public boolean startAsync(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        // 在调用线程中获取租约，调用方能立即知道是否启动
+        if (!leaseService.tryAcquire(JOB_NAME, leaseDuration)) {
+            running.set(false);
+            return false;
+        }
+        runner.execute(() -> {
+            try {
+                execute(restart);
+            } catch (RuntimeException e) {
+                // 失败原因已记录在 status 中，下次运行从检查点继续
+            } finally {
+                leaseService.release(JOB_NAME);
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * 定时运行 (asset.batch.recommendation.cron，默认关闭)；上一轮未结束或其他实例正在运行时跳过
+     */
+    @Scheduled(cron = "${asset.batch.recommendation.cron:-}")
+    public void runScheduled() {
+        if (!startAsync(false)) {
+            log.info("批量推荐任务正在本实例或其他实例上运行，跳过本次定时运行");
+        }
+    }
+
+    private BulkRecommendationStatusDTO execute(boolean restart) {
+        long start = System.nanoTime();
+        BatchCheckpoint checkpoint = restart ? null
+                : DataSourceRouting.onPrimary(() -> checkpointRepository.findById(JOB_NAME))
+                        .filter(saved -> !saved.isCompleted()).orElse(null);
+        boolean resumed = checkpoint != null;
+        if (checkpoint == null) {
+            checkpoint = new BatchCheckpoint(JOB_NAME, LocalDateTime.now());
+        }
+        long afterPortfolio = lowerBound(checkpoint);
+        long totalHoldings = checkpoint.getProcessedHoldings() + jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM asset_details WHERE portfolio_id > ?", Long.class, afterPortfolio);
+        log.info("批量推荐任务开始: {}, 待处理 {} 条持仓", resumed ? "从组合 " + afterPortfolio + " 之后继续" : "从头开始",
+                totalHoldings - checkpoint.getProcessedHoldings());
+
+        // 整轮任务使用同一组策略，不受运行期间重新加载的影响
+        PolicySet policySet = policyRegistry.current();
+        List<CompiledPolicy> policies = policyNames.isEmpty() ? List.of(policySet.getDefault())
+                : policyNames.stream().map(policySet::get).toList();
+
+        Aggregator aggregator = new Aggregator(chunkSize + 1, policies.size());
+        int chunks = 0;
+        publish(checkpoint, resumed, true, totalHoldings, chunks, start, null);
+        try {
+            long afterId = Long.MAX_VALUE;
+            boolean end = false;
+            while (!end) {
+                int rows = readChunk(afterPortfolio, afterId, aggregator);
+                end = rows < chunkSize;
+                if (end) {
+                    aggregator.finishCurrent();
+                }
+                Chunk chunk = aggregator.completed;
+                if (chunk.size > 0 || end) {
+                    // 每写入一批之前续约；租约已过期并被其他实例接管时停止，由接管的实例从检查点继续
+                    if (!leaseService.tryAcquire(JOB_NAME, leaseDuration)) {
+                        publish(checkpoint, resumed, false, totalHoldings, chunks, start, "租约已被其他实例接管");
+                        log.warn("批量推荐任务租约已被其他实例接管，停止运行 (已处理到组合 {})",
+                                checkpoint.getLastPortfolioId());
+                        return status;
+                    }
+                    pool.invoke(new TargetsTask(chunk, policies, 0, chunk.size));
+                    writeChunk(checkpoint, chunk, policies, end);
+                    chunks++;
+                    publish(checkpoint, resumed, !end, totalHoldings, chunks, start, null);
+                    log.debug("批量推荐任务: 已处理 {} 个组合, {}/{} 条持仓", checkpoint.getProcessedPortfolios(),
+                            checkpoint.getProcessedHoldings(), totalHoldings);
+                    chunk.clear();
+                }
+                afterPortfolio = aggregator.lastPortfolioId;
+                afterId = aggregator.lastId;
+            }
+        } catch (RuntimeException e) {
+            publish(checkpoint, resumed, false, totalHoldings, chunks, start, e.getMessage());
+            log.error("批量推荐任务失败，已处理到组合 {}，下次运行从该处继续", checkpoint.getLastPortfolioId(), e);
+            throw e;
+        }
+        log.info("批量推荐任务完成: {} 个组合, {} 条持仓, {} 个批次, 耗时 {} ms", checkpoint.getProcessedPortfolios(),
+                checkpoint.getProcessedHoldings(), chunks, status.getElapsedMillis());
+        return status;
+    }
+
+    /**
+     * 读取 (afterPortfolio, afterId) 之后的一批持仓并累加，返回读取的行数
+     */
+    private int readChunk(long afterPortfolio, long afterId, Aggregator aggregator) {
+        int[] rows = {0};
+        RowCallbackHandler handler = rs -> {
+            aggregator.add(rs.getLong(1), rs.getLong(2), AssetType.valueOf(rs.getString(3)), rs.getLong(4));
+            rows[0]++;
+        };
+        jdbcTemplate.query(SELECT_CHUNK, handler, afterPortfolio, afterId, chunkSize);
+        return rows[0];
+    }
+
+    /**
+     * 在一个事务中写入本批结果并推进检查点。
+     * 先删除 (上一个检查点, 本批最后一个组合] 范围内的旧结果再插入，范围内已没有持仓的组合的旧结果随之清除；
+     * 最后一批的范围延伸到最大编号。
+     */
+    private void writeChunk(BatchCheckpoint checkpoint, Chunk chunk, List<CompiledPolicy> policies, boolean end) {
+        long lower = lowerBound(checkpoint);
+        long upper = end ? Long.MAX_VALUE : chunk.portfolioIds[chunk.size - 1];
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> written = new ArrayList<>(chunk.size);
+        long chunkHoldings = 0;
+        for (int i = 0; i < chunk.size; i++) {
+            chunkHoldings += chunk.holdings[i];
+            if (!chunk.skipped[i]) {
+                written.add(i);
+            }
+        }
+        long holdings = chunkHoldings;
+        // 结果行：第 k 行对应 written[k / 策略数] 号组合的第 k % 策略数 个策略
+        int policyCount = policies.size();
+        List<Integer> resultRows = new ArrayList<>(written.size() * policyCount);
+        for (int i : written) {
+            for (int p = 0; p < policyCount; p++) {
+                resultRows.add(i * policyCount + p);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            jdbcTemplate.update("DELETE FROM portfolio_recommendations WHERE portfolio_id > ? AND portfolio_id <= ?",
+                    lower, upper);
+            jdbcTemplate.batchUpdate(INSERT_RECOMMENDATION, resultRows, WRITE_BATCH_SIZE, (ps, row) -> {
+                int i = row / policyCount;
+                int c = i * TYPES.length;
+                int t = row * TYPES.length;
+                ps.setLong(1, chunk.portfolioIds[i]);
+                ps.setString(2, policies.get(row % policyCount).getName());
+                ps.setObject(3, now);
+                ps.setBigDecimal(4, Cents.toBigDecimal(chunk.grandTotals[i]));
+                ps.setBigDecimal(5, Cents.toBigDecimal(chunk.cents[c + AssetType.NASDAQ.ordinal()]));
+                ps.setBigDecimal(6, Cents.toBigDecimal(chunk.cents[c + AssetType.SP.ordinal()]));
+                ps.setBigDecimal(7, Cents.toBigDecimal(chunk.cents[c + AssetType.CONSERVATIVE.ordinal()]));
+                ps.setBigDecimal(8, Cents.toBigDecimal(chunk.cents[c + AssetType.CASH.ordinal()]));
+                ps.setBigDecimal(9, Cents.toBigDecimal(chunk.targets[t + AssetType.NASDAQ.ordinal()]));
+                ps.setBigDecimal(10, Cents.toBigDecimal(chunk.targets[t + AssetType.SP.ordinal()]));
+                ps.setBigDecimal(11, Cents.toBigDecimal(chunk.targets[t + AssetType.CONSERVATIVE.ordinal()]));
+                ps.setBigDecimal(12, Cents.toBigDecimal(chunk.targets[t + AssetType.CASH.ordinal()]));
+            });
+            if (snapshots) {
+                // 历史记录没有响应缓存，不需要递增数据版本号，只需使历史记录的查询缓存失效；同一事务中更新天 / 周 / 月汇总
+                secondLevelCache.beforeJdbcInsert(HistoryRecord.class);
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, written, WRITE_BATCH_SIZE, (ps, i) -> {
+                    int c = i * TYPES.length;
+                    ps.setLong(1, chunk.portfolioIds[i]);
+                    ps.setObject(2, now);
+                    ps.setBigDecimal(3, Cents.toBigDecimal(chunk.grandTotals[i]));
+                    ps.setBigDecimal(4, Cents.toBigDecimal(chunk.cents[c + AssetType.NASDAQ.ordinal()]));
+                    ps.setBigDecimal(5, Cents.toBigDecimal(chunk.cents[c + AssetType.SP.ordinal()]));
+                    ps.setBigDecimal(6, Cents.toBigDecimal(chunk.cents[c + AssetType.CONSERVATIVE.ordinal()]));
+                    ps.setBigDecimal(7, Cents.toBigDecimal(chunk.cents[c + AssetType.CASH.ordinal()]));
+                });
+                historyRollupService.recordAll(written.stream().map(i -> snapshot(chunk, i, now)).toList());
+            }
+
+            if (chunk.size > 0) {
+                checkpoint.setLastPortfolioId(chunk.portfolioIds[chunk.size - 1]);
+            }
+            checkpoint.setProcessedPortfolios(checkpoint.getProcessedPortfolios() + chunk.size);
+            checkpoint.setProcessedHoldings(checkpoint.getProcessedHoldings() + holdings);
+            checkpoint.setUpdatedAt(now);
+            checkpoint.setCompleted(end);
+            checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * 辅助方法：检查点之后的第一个组合的下界 (不含)
+     */
+    private static long lowerBound(BatchCheckpoint checkpoint) {
+        return checkpoint.getLastPortfolioId() == null ? Long.MIN_VALUE : checkpoint.getLastPortfolioId();
+    }
+
+    /**
+     * 辅助方法：本批第 i 个组合的历史快照 (用于更新历史记录汇总)
+     */
+    private static HistoryRecord snapshot(Chunk chunk, int i, LocalDateTime now) {
+        int c = i * TYPES.length;
+        HistoryRecord record = new HistoryRecord();
+        record.setPortfolioId(chunk.portfolioIds[i]);
+        record.setRecordDate(now);
+        record.setGrandTotal(Cents.toBigDecimal(chunk.grandTotals[i]));
+        record.setNasdaqTotal(Cents.toBigDecimal(chunk.cents[c + AssetType.NASDAQ.ordinal()]));
+        record.setSpTotal(Cents.toBigDecimal(chunk.cents[c + AssetType.SP.ordinal()]));
+        record.setConservativeTotal(Cents.toBigDecimal(chunk.cents[c + AssetType.CONSERVATIVE.ordinal()]));
+        record.setCashTotal(Cents.toBigDecimal(chunk.cents[c + AssetType.CASH.ordinal()]));
+        return record;
+    }
+
+    /**
+     * 辅助方法：发布最新状态 (新建一个 DTO 整体替换，读取方不会看到更新到一半的状态)
+     */
+    private void publish(BatchCheckpoint checkpoint, boolean resumed, boolean running, long totalHoldings,
+                         int chunks, long start, String error) {
+        BulkRecommendationStatusDTO next = new BulkRecommendationStatusDTO();
+        next.setRunning(running);
+        next.setResumed(resumed);
+        next.setCompleted(checkpoint.isCompleted());
+        next.setProcessedPortfolios(checkpoint.getProcessedPortfolios());
+        next.setProcessedHoldings(checkpoint.getProcessedHoldings());
+        next.setTotalHoldings(totalHoldings);
+        next.setLastPortfolioId(checkpoint.getLastPortfolioId());
+        next.setChunks(chunks);
+        next.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        next.setError(error);
+        status = next;
+    }
+
+    /**
+     * 一批已读完的组合：按下标存放组合编号、各类型金额 (分) 和计算结果，整轮任务复用同一组数组
+     */
+    private static final class Chunk {
+        final long[] portfolioIds;
+        final int[] holdings;
+        // 各类型金额 (分)，第 i 个组合占 [i * TYPES.length, (i + 1) * TYPES.length)
+        final long[] cents;
+        final long[] grandTotals;
+        // 各类型目标金额 (分)，第 i 个组合第 p 个策略占 [(i * 策略数 + p) * TYPES.length, ...)
+        final long[] targets;
+        // 总资产为零或金额溢出的组合不写入结果
+        final boolean[] skipped;
+        int size;
+
+        Chunk(int capacity, int policyCount) {
+            portfolioIds = new long[capacity];
+            holdings = new int[capacity];
+            cents = new long[capacity * TYPES.length];
+            grandTotals = new long[capacity];
+            targets = new long[capacity * policyCount * TYPES.length];
+            skipped = new boolean[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * 按 (portfolio_id, id) 顺序逐行累加：组合编号变化时，上一个组合已读完，移入 completed
+     */
+    private static final class Aggregator {
+        final Chunk completed;
+        final long[] current = new long[TYPES.length];
+        int currentHoldings;
+        boolean currentOverflow;
+        boolean hasCurrent;
+        long lastPortfolioId;
+        long lastId;
+
+        Aggregator(int capacity, int policyCount) {
+            completed = new Chunk(capacity, policyCount);
+        }
+
+        void add(long portfolioId, long id, AssetType type, long cents) {
+            if (hasCurrent && portfolioId != lastPortfolioId) {
+                finishCurrent();
+            }
+            hasCurrent = true;
+            lastPortfolioId = portfolioId;
+            lastId = id;
+            currentHoldings++;
+            try {
+                current[type.ordinal()] = Cents.add(current[type.ordinal()], cents);
+            } catch (ArithmeticException e) {
+                currentOverflow = true;
+            }
+        }
+
+        void finishCurrent() {
+            if (!hasCurrent) {
+                return;
+            }
+            Chunk chunk = completed;
+            int i = chunk.size++;
+            chunk.portfolioIds[i] = lastPortfolioId;
+            chunk.holdings[i] = currentHoldings;
+            System.arraycopy(current, 0, chunk.cents, i * TYPES.length, TYPES.length);
+            chunk.skipped[i] = currentOverflow;
+            Arrays.fill(current, 0);
+            currentHoldings = 0;
+            currentOverflow = false;
+            hasCurrent = false;
+        }
+    }
+
+    /**
+     * fork/join 任务：对 [from, to) 范围内的组合计算总资产和每个策略下的目标金额
+     */
+    private static final class TargetsTask extends RecursiveAction {
+        private final Chunk chunk;
+        private final List<CompiledPolicy> policies;
+        private final int from;
+        private final int to;
+
+        TargetsTask(Chunk chunk, List<CompiledPolicy> policies, int from, int to) {
+            this.chunk = chunk;
+            this.policies = policies;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= FORK_THRESHOLD) {
+                // 每个叶子任务一个节点临时数组，各组合复用
+                long[] nodeScratch = new long[policies.stream().mapToInt(CompiledPolicy::nodeCount).max().orElse(0)];
+                for (int i = from; i < to; i++) {
+                    computeOne(i, nodeScratch);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TargetsTask(chunk, policies, from, middle), new TargetsTask(chunk, policies, middle, to));
+        }
+
+        private void computeOne(int i, long[] nodeScratch) {
+            if (chunk.skipped[i]) {
+                log.warn("组合 {} 的资产金额超出范围，跳过", chunk.portfolioIds[i]);
+                return;
+            }
+            int c = i * TYPES.length;
+            try {
+                long grandTotal = 0;
+                for (int t = 0; t < TYPES.length; t++) {
+                    grandTotal = Cents.add(grandTotal, chunk.cents[c + t]);
+                }
+                // 与 CalculationService 一致：总资产为零时没有推荐配置
+                chunk.skipped[i] = grandTotal == 0;
+                chunk.grandTotals[i] = grandTotal;
+                for (int p = 0; p < policies.size(); p++) {
+                    policies.get(p).targetsByType(grandTotal, nodeScratch, chunk.targets,
+                            (i * policies.size() + p) * TYPES.length);
+                }
+            } catch (ArithmeticException e) {
+                chunk.skipped[i] = true;
+                log.warn("组合 {} 的资产金额超出范围，跳过", chunk.portfolioIds[i]);
+            }
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AllocationDTO;
+import com.example.demo.dto.AllocationDTO.BandStatus;
 import com.example.demo.dto.RecommendationDTO;
-import com.example.demo.model.AssetDetail;
 import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.policy.CompiledPolicy;
+import com.example.demo.policy.PolicyRegistry;
+import com.example.demo.policy.PolicySet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class CalculationService {
@@ -17,105 +24,165 @@ public class CalculationService {
     @Autowired
     private AssetService assetService;
 
-    // ----------------------------------------------------
-    // 固定的配置比例 (定义为常量)
-    // ----------------------------------------------------
-    private static final BigDecimal TOTAL_RISK_RATIO = new BigDecimal("0.75");
-    private static final BigDecimal CASH_RATIO = new BigDecimal("0.25");
-    private static final BigDecimal NASDAQ_IN_RISK = new BigDecimal("0.77");
-    private static final BigDecimal SP_IN_RISK = new BigDecimal("0.23");
-    
-    // 计算精度
-    private static final int SCALE = 2; 
+    // 配置比例来自配置策略 (policies.json)，可在运行时重新加载
+    @Autowired
+    private PolicyRegistry policyRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 计算各阶段耗时 (asset.recommendation.stage)，在启动时注册一次
+    private Timer loadTimer;
+    private Timer aggregateTimer;
+    private Timer targetsTimer;
+    private Timer dtoTimer;
+
+    @PostConstruct
+    public void registerMeters() {
+        loadTimer = stageTimer("load");
+        aggregateTimer = stageTimer("aggregate");
+        targetsTimer = stageTimer("targets");
+        dtoTimer = stageTimer("dto");
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("asset.recommendation.stage")
+                .description("推荐配置计算各阶段耗时")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按默认策略计算组合的推荐配置
+     * @param portfolioId 组合编号
+     * @return RecommendationDTO
+     */
+    public RecommendationDTO getRecommendation(long portfolioId) {
+        return getRecommendation(portfolioId, null);
+    }
 
     /**
-     * 执行核心计算，返回推荐配置 DTO
+     * 执行核心计算，返回组合在指定策略下的推荐配置 DTO
+     * 计算过程全部使用 long 表示的「分」，只在构建 DTO 时转换为 BigDecimal。
+     * @param portfolioId 组合编号
+     * @param policyName  配置策略名称，null 表示默认策略
      * @return RecommendationDTO
+     * @throws IllegalArgumentException 策略不存在
      */
-    public RecommendationDTO getRecommendation() {
-        // 1. 获取当前所有资产明细 (Entity)
-        List<AssetDetail> allAssets = assetService.findAllAssets().stream()
-                .map(this::mapToEntity) // 将 DTO 列表转换为 Entity 列表，方便后续聚合
-                .toList();
-
-        // 2. 统计当前各资产类型总额和总资产
-        BigDecimal nasdaqCurrent = sumAmountByType(allAssets, AssetType.NASDAQ);
-        BigDecimal spCurrent = sumAmountByType(allAssets, AssetType.SP);
-        BigDecimal conservativeCurrent = sumAmountByType(allAssets, AssetType.CONSERVATIVE);
-        BigDecimal cashCurrent = sumAmountByType(allAssets, AssetType.CASH);
-        
-        // 总资产
-        BigDecimal grandTotal = nasdaqCurrent
-                .add(spCurrent)
-                .add(conservativeCurrent)
-                .add(cashCurrent);
-
-        if (grandTotal.compareTo(BigDecimal.ZERO) == 0) {
+    public RecommendationDTO getRecommendation(long portfolioId, String policyName) {
+        CompiledPolicy policy = policyRegistry.current().get(policyName);
+        long start = System.nanoTime();
+
+        // 1. 获取当前各资产类型总额 (单位：分，读取内存中的资产总额账本)
+        long[] centsByType = assetService.sumCentsByType(portfolioId);
+        start = recordStage(loadTimer, start);
+
+        return evaluate(policy, centsByType, start);
+    }
+
+    /**
+     * 对比多个策略下的推荐配置：各类型总额只读取一次，再依次用每个策略计算
+     * @param portfolioId 组合编号
+     * @param policyNames 配置策略名称，为空时对比所有策略
+     * @return 按 policyNames 顺序排列的推荐配置
+     * @throws IllegalArgumentException 策略不存在
+     */
+    public List<RecommendationDTO> compareRecommendations(long portfolioId, List<String> policyNames) {
+        // 同一次对比使用同一组策略，不受期间重新加载的影响
+        PolicySet policies = policyRegistry.current();
+        List<CompiledPolicy> selected = policyNames == null || policyNames.isEmpty()
+                ? List.copyOf(policies.all())
+                : policyNames.stream().map(policies::get).toList();
+        long start = System.nanoTime();
+
+        long[] centsByType = assetService.sumCentsByType(portfolioId);
+        start = recordStage(loadTimer, start);
+
+        List<RecommendationDTO> recommendations = new ArrayList<>(selected.size());
+        for (CompiledPolicy policy : selected) {
+            recommendations.add(evaluate(policy, centsByType, start));
+            start = System.nanoTime();
+        }
+        return recommendations;
+    }
+
+    /**
+     * 用一个策略计算推荐配置 (步骤 2 ~ 4)
+     */
+    private RecommendationDTO evaluate(CompiledPolicy policy, long[] centsByType, long start) {
+        // 2. 统计策略中每个分组的当前金额，根节点即总资产
+        long[] currents = policy.nodeCurrents(centsByType);
+        long grandTotal = currents[CompiledPolicy.ROOT];
+
+        if (grandTotal == 0) {
             // 如果总资产为零，则不进行后续计算
             throw new IllegalStateException("当前资产总额为零，无法计算推荐配置。");
         }
-        
-        // 3. 计算目标金额
-        // 总风险金额 = 总资产 * 75%
-        BigDecimal totalRiskTarget = grandTotal.multiply(TOTAL_RISK_RATIO).setScale(SCALE, RoundingMode.HALF_UP);
-        
-        // 纳指目标 = 总风险金额 * 77%
-        BigDecimal nasdaqTarget = totalRiskTarget.multiply(NASDAQ_IN_RISK).setScale(SCALE, RoundingMode.HALF_UP);
-        
-        // 标普目标 = 总风险金额 * 23%
-        BigDecimal spTarget = totalRiskTarget.multiply(SP_IN_RISK).setScale(SCALE, RoundingMode.HALF_UP);
-        
-        // 现金目标 = 总资产 * 25%
-        BigDecimal cashTarget = grandTotal.multiply(CASH_RATIO).setScale(SCALE, RoundingMode.HALF_UP);
-        
-        // 4. 构建返回 DTO
+        start = recordStage(aggregateTimer, start);
+
+        // 3. 自上而下计算每个节点的目标金额 (每一步都按 HALF_UP 舍入到分)
+        long[] targets = new long[policy.nodeCount()];
+        policy.nodeTargets(grandTotal, targets);
+        start = recordStage(targetsTimer, start);
+
+        // 4. 构建返回 DTO (在 DTO 边界转换为 BigDecimal)
         RecommendationDTO dto = new RecommendationDTO();
-        dto.setGrandTotal(grandTotal);
+        dto.setPolicy(policy.getName());
+        dto.setGrandTotal(Cents.toBigDecimal(grandTotal));
 
         // 当前金额
-        dto.setNasdaqCurrent(nasdaqCurrent);
-        dto.setSpCurrent(spCurrent);
-        dto.setConservativeCurrent(conservativeCurrent);
-        dto.setCashCurrent(cashCurrent);
+        dto.setNasdaqCurrent(Cents.toBigDecimal(centsByType[AssetType.NASDAQ.ordinal()]));
+        dto.setSpCurrent(Cents.toBigDecimal(centsByType[AssetType.SP.ordinal()]));
+        dto.setConservativeCurrent(Cents.toBigDecimal(centsByType[AssetType.CONSERVATIVE.ordinal()]));
+        dto.setCashCurrent(Cents.toBigDecimal(centsByType[AssetType.CASH.ordinal()]));
 
         // 目标金额
-        dto.setNasdaqTarget(nasdaqTarget);
-        dto.setSpTarget(spTarget);
-        dto.setCashTarget(cashTarget);
-        
-        // 目标比例 (格式化为字符串，方便前端直接展示)
-        dto.setNasdaqTargetRatio(TOTAL_RISK_RATIO.multiply(NASDAQ_IN_RISK).multiply(new BigDecimal("100")).setScale(SCALE, RoundingMode.HALF_UP) + "%"); // 57.75%
-        dto.setSpTargetRatio(TOTAL_RISK_RATIO.multiply(SP_IN_RISK).multiply(new BigDecimal("100")).setScale(SCALE, RoundingMode.HALF_UP) + "%");       // 17.25%
-        dto.setCashTargetRatio(CASH_RATIO.multiply(new BigDecimal("100")).setScale(SCALE, RoundingMode.HALF_UP) + "%");                                // 25.00%
+        dto.setNasdaqTarget(Cents.toBigDecimal(targets[policy.nodeOf(AssetType.NASDAQ)]));
+        dto.setSpTarget(Cents.toBigDecimal(targets[policy.nodeOf(AssetType.SP)]));
+        dto.setConservativeTarget(Cents.toBigDecimal(targets[policy.nodeOf(AssetType.CONSERVATIVE)]));
+        dto.setCashTarget(Cents.toBigDecimal(targets[policy.nodeOf(AssetType.CASH)]));
+
+        // 目标比例 (编译策略时已格式化)
+        dto.setNasdaqTargetRatio(policy.targetRatio(policy.nodeOf(AssetType.NASDAQ)));
+        dto.setSpTargetRatio(policy.targetRatio(policy.nodeOf(AssetType.SP)));
+        dto.setConservativeTargetRatio(policy.targetRatio(policy.nodeOf(AssetType.CONSERVATIVE)));
+        dto.setCashTargetRatio(policy.targetRatio(policy.nodeOf(AssetType.CASH)));
+
+        // 每个分组和资产类型的明细及容忍带
+        List<AllocationDTO> allocations = new ArrayList<>(policy.nodeCount() - 1);
+        boolean rebalanceNeeded = false;
+        for (int node = CompiledPolicy.ROOT + 1; node < policy.nodeCount(); node++) {
+            AllocationDTO allocation = new AllocationDTO();
+            allocation.setName(policy.nodeName(node));
+            allocation.setAssetType(policy.assetType(node));
+            allocation.setLevel(policy.level(node));
+            allocation.setCurrent(Cents.toBigDecimal(currents[node]));
+            allocation.setTarget(Cents.toBigDecimal(targets[node]));
+            allocation.setTargetRatio(policy.targetRatio(node));
+            long[] band = policy.band(node, grandTotal, targets[node]);
+            if (band != null) {
+                allocation.setLowerBound(Cents.toBigDecimal(band[0]));
+                allocation.setUpperBound(Cents.toBigDecimal(band[1]));
+                BandStatus status = currents[node] < band[0] ? BandStatus.BELOW
+                        : currents[node] > band[1] ? BandStatus.ABOVE : BandStatus.WITHIN;
+                allocation.setStatus(status);
+                rebalanceNeeded |= status != BandStatus.WITHIN;
+            }
+            allocations.add(allocation);
+        }
+        dto.setAllocations(allocations);
+        dto.setRebalanceNeeded(rebalanceNeeded);
+        recordStage(dtoTimer, start);
 
         return dto;
     }
 
     /**
-     * 辅助方法：计算某一资产类型的所有金额总和
-     */
-    private BigDecimal sumAmountByType(List<AssetDetail> assets, AssetType type) {
-        return assets.stream()
-                .filter(asset -> asset.getAssetType() == type)
-                .map(AssetDetail::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(SCALE, RoundingMode.HALF_UP);
-    }
-    
-    /**
-     * 辅助方法：将 DTO 转换为 Entity (这里假设我们从 AssetService 拿到的已经是 DTO，需转回 Entity)
-     * 注意：这个辅助方法是为了让 CalculationService 独立地处理数据聚合。
-     * 实际在 AssetService 中已完成 Entity到DTO的转换。
-     * 由于我们这里直接使用了 AssetService 拿到的 List<AssetDetailDTO>，
-     * 理论上需要一个转换，但为了简化，我们假设 AssetService 能够直接返回 List<AssetDetail>
-     * 或者我们在 AssetService 中增加一个方法，但现在先用这个简化方式。
+     * 辅助方法：记录从 start 到现在的阶段耗时，返回当前时间作为下一阶段的起点
      */
-    private AssetDetail mapToEntity(com.example.demo.dto.AssetDetailDTO dto) {
-        AssetDetail asset = new AssetDetail();
-        asset.setId(dto.getId());
-        asset.setAssetType(dto.getAssetType());
-        asset.setName(dto.getName());
-        asset.setAmount(dto.getAmount());
-        return asset;
+    private static long recordStage(Timer timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start, TimeUnit.NANOSECONDS);
+        return now;
     }
-}
\ No newline at end of file
+}
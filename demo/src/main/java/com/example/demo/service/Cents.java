@@ -0,0 +1,109 @@
+package com.example.demo.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * 定点金额运算：金额以 long 表示的「分」(scale = 2) 参与聚合和推荐计算，
+ * 只在 DTO 边界转换为 BigDecimal。
+ *
+ * 所有运算都是精确的：加法溢出、金额超出 long 范围时抛出 ArithmeticException；
+ * 比例乘法按 HALF_UP 舍入到分，与 BigDecimal.multiply(ratio).setScale(2, HALF_UP) 的结果逐分一致。
+ */
+public final class Cents {
+
+    private Cents() {
+    }
+
+    /**
+     * 比例 numerator / denominator (denominator 为 10 的幂，如 0.75 = 75 / 100)，在类加载时创建一次
+     */
+    public record Ratio(long numerator, long denominator) {
+
+        public Ratio {
+            if (denominator <= 0) {
+                throw new IllegalArgumentException("比例分母必须为正数");
+            }
+        }
+
+        /**
+         * 由十进制字符串创建比例，如 "0.75"
+         */
+        public static Ratio of(String decimal) {
+            BigDecimal value = new BigDecimal(decimal).stripTrailingZeros();
+            int scale = Math.max(value.scale(), 0);
+            return new Ratio(value.movePointRight(scale).longValueExact(), BigInteger.TEN.pow(scale).longValueExact());
+        }
+
+        /**
+         * 两个比例相乘 (如 总风险比例 0.75 × 风险内纳指比例 0.77)
+         */
+        public Ratio times(Ratio other) {
+            return new Ratio(Math.multiplyExact(numerator, other.numerator),
+                    Math.multiplyExact(denominator, other.denominator));
+        }
+
+        /**
+         * 格式化为百分比字符串，保留两位小数 (如 "57.75%")
+         */
+        public String toPercentString() {
+            return BigDecimal.valueOf(numerator).multiply(BigDecimal.valueOf(100))
+                    .divide(BigDecimal.valueOf(denominator), 2, RoundingMode.HALF_UP) + "%";
+        }
+    }
+
+    /**
+     * BigDecimal 金额转换为分 (HALF_UP 舍入到两位小数，与数据库 scale = 2 一致)
+     */
+    public static long of(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 分转换为 BigDecimal (scale = 2)
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * 精确加法，溢出时抛出 ArithmeticException
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * cents × ratio，HALF_UP 舍入到分。
+     * 中间乘积超出 long 范围时退回 BigInteger 精确计算，结果超出 long 范围时抛出 ArithmeticException。
+     */
+    public static long multiply(long cents, Ratio ratio) {
+        long product;
+        try {
+            product = Math.multiplyExact(cents, ratio.numerator());
+        } catch (ArithmeticException overflow) {
+            return multiplyWide(cents, ratio);
+        }
+        return divideHalfUp(product, ratio.denominator());
+    }
+
+    /**
+     * 有符号整数除法，HALF_UP (远离零) 舍入；divisor 必须为正数
+     */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // |remainder| * 2 >= divisor 时进位；用减法比较避免 |remainder| * 2 溢出
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    private static long multiplyWide(long cents, Ratio ratio) {
+        BigDecimal exact = new BigDecimal(BigInteger.valueOf(cents).multiply(BigInteger.valueOf(ratio.numerator())))
+                .divide(BigDecimal.valueOf(ratio.denominator()), 0, RoundingMode.HALF_UP);
+        return exact.longValueExact();
+    }
+}
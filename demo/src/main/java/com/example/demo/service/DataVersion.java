@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据版本号：每个组合的资产写入、新增历史记录提交后，该组合的版本号加一；账本整体重建时所有组合加一。
+ * 用作结果缓存的失效依据和 HTTP 强 ETag，版本号不变即说明该组合的响应内容不变。
+ *
+ * 版本号只在内存中维护，ETag 带上本次启动的标识，重启后旧的 ETag 不会误命中。
+ * 其他实例的写入不会使本实例的版本号变化，接口只支持单实例部署 (见 README「多实例部署」)；
+ * 各实例的 ETag 带有不同的启动标识，客户端换到另一个实例时不会误得到 304。
+ */
+@Component
+public class DataVersion {
+
+    // 本次启动的标识 (启动时间，36 进制)
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // 所有组合共享的版本号 (账本重建时递增)
+    private final AtomicLong generation = new AtomicLong();
+
+    // 组合编号 -> 该组合自身的版本号；只有发生过写入的组合才有记录
+    private final ConcurrentHashMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    /**
+     * 组合的当前版本号 (共享版本号与组合版本号之和，两者都只增不减，任一变化都会使其变化)
+     */
+    public long current(long portfolioId) {
+        AtomicLong version = versions.get(portfolioId);
+        return generation.get() + (version == null ? 0 : version.get());
+    }
+
+    /**
+     * 组合当前版本号对应的强 ETag
+     */
+    public String currentETag(long portfolioId) {
+        return eTag(current(portfolioId));
+    }
+
+    /**
+     * 版本号对应的强 ETag (如 "\"m1x2y3z-42\"")
+     */
+    public String eTag(long version) {
+        return "\"" + bootId + "-" + version + "\"";
+    }
+
+    /**
+     * 在当前事务提交后递增组合的版本号；不在事务中时立即递增。
+     * 应在同一事务的 AssetLedger 记录之后调用：两者都在 afterCompletion 中按注册顺序执行，
+     * 保证版本号变化时账本已是新值。
+     */
+    public void bumpAfterCommit(long portfolioId) {
+        afterCommit(() -> versions.computeIfAbsent(portfolioId, id -> new AtomicLong()).incrementAndGet());
+    }
+
+    /**
+     * 在当前事务提交后递增所有组合的版本号；不在事务中时立即递增
+     */
+    public void bumpAllAfterCommit() {
+        afterCommit(generation::incrementAndGet);
+    }
+
+    private static void afterCommit(Runnable bump) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    bump.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 嵌入式存储模式 (profile embedded) 的定期压缩。
+ *
+ * H2 的 MVStore 是追加写的日志结构存储：每次提交把修改过的页作为新块追加到文件末尾，旧版本的页只标记为失效，
+ * 文件中有效数据的比例 (fill rate) 随修改和删除持续下降。这里按固定间隔把有效数据比例低的块重写为新块，
+ * 旧块整体失效后其空间供之后的写入复用，文件大小不会随修改次数无限增长。
+ *
+ * 取得 MVStore 依赖 H2 的内部类 (SessionLocal、Database.getStore)，它们不属于公开 API，小版本之间可能变化：
+ * 运行时的 H2 不是已验证的版本 (SUPPORTED_VERSION) 或内部结构不符时只记录警告并跳过压缩，不影响读写。
+ */
+@Component
+@Profile("embedded")
+public class EmbeddedStoreCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddedStoreCompactor.class);
+
+    // 已验证内部类用法的 H2 版本 (主版本.次版本，与 Spring Boot 管理的版本一致)，升级 H2 时需重新验证
+    static final String SUPPORTED_VERSION = "2.2";
+
+    @Autowired
+    private DataSource dataSource;
+
+    // 有效数据比例 (%) 低于该值的块会被重写
+    @Value("${asset.embedded.compact.target-fill-rate:80}")
+    private int targetFillRate;
+
+    // 每轮最多重写的字节数，限制单次压缩对写入的影响
+    @Value("${asset.embedded.compact.max-write-bytes:67108864}")
+    private int maxWriteBytes;
+
+    // H2 版本或内部结构不符时置为 true，之后不再尝试
+    private volatile boolean unsupported;
+
+    /**
+     * 一轮压缩的结果
+     * @param fillRateBefore 压缩前的有效数据比例 (%)
+     * @param fillRateAfter  压缩后的有效数据比例 (%)
+     * @param fileSize       压缩后的文件大小 (字节)
+     * @param rewritten      是否重写了块
+     */
+    public record Result(int fillRateBefore, int fillRateAfter, long fileSize, boolean rewritten) {
+
+        // 未压缩 (H2 版本不受支持)
+        static final Result SKIPPED = new Result(-1, -1, -1, false);
+    }
+
+    @Scheduled(initialDelayString = "${asset.embedded.compact.interval-ms:600000}",
+            fixedDelayString = "${asset.embedded.compact.interval-ms:600000}")
+    public void compactScheduled() throws SQLException {
+        compact();
+    }
+
+    /**
+     * 在当前线程运行一轮压缩；H2 版本不受支持时返回 Result.SKIPPED
+     */
+    public Result compact() throws SQLException {
+        if (unsupported) {
+            return Result.SKIPPED;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            MVStore store = mvStore(connection);
+            if (store == null) {
+                return Result.SKIPPED;
+            }
+            int before = store.getFillRate();
+            boolean rewritten = before < targetFillRate && store.compact(targetFillRate, maxWriteBytes);
+            Result result = new Result(before, store.getFillRate(), store.getFileStore().size(), rewritten);
+            if (rewritten) {
+                log.info("嵌入式存储已压缩: 有效数据 {}% -> {}%, 文件 {} 字节", result.fillRateBefore(),
+                        result.fillRateAfter(), result.fileSize());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 取得连接所在数据库的 MVStore；H2 版本或内部结构不符时记录警告、停用压缩并返回 null
+     */
+    private MVStore mvStore(Connection connection) throws SQLException {
+        // 驱动版本形如 "2.2.224 (2023-09-17)"，在运行时读取 (Constants 中的版本号是编译期常量)
+        String version = connection.getMetaData().getDriverVersion();
+        if (!version.startsWith(SUPPORTED_VERSION + ".")) {
+            return disable("H2 版本 " + version + " 未经验证 (已验证 " + SUPPORTED_VERSION + ".x)");
+        }
+        try {
+            SessionLocal session = (SessionLocal) connection.unwrap(JdbcConnection.class).getSession();
+            return session.getDatabase().getStore().getMvStore();
+        } catch (ClassCastException | LinkageError e) {
+            return disable("H2 " + version + " 的内部结构与预期不符: " + e);
+        }
+    }
+
+    private MVStore disable(String reason) {
+        unsupported = true;
+        log.warn("嵌入式存储的定期压缩已停用，{}", reason);
+        return null;
+    }
+}
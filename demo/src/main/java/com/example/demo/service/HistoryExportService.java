@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * 历史记录导出：在只读事务中以数据库游标逐行读取 history_records，读一行写一行，
+ * 内存占用与导出行数无关。
+ */
+@Service
+public class HistoryExportService {
+
+    /**
+     * 导出格式
+     */
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String fileExtension;
+
+        ExportFormat(String contentType, String fileExtension) {
+            this.contentType = contentType;
+            this.fileExtension = fileExtension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getFileExtension() {
+            return fileExtension;
+        }
+
+        public static ExportFormat parse(String value) {
+            try {
+                return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的导出格式: " + value + "，可选 csv 或 ndjson");
+            }
+        }
+    }
+
+    private static final String CSV_HEADER =
+            "id,record_date,grand_total,nasdaq_total,sp_total,conservative_total,cash_total\n";
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 导出组合在 [from, to] 日期范围内的历史记录 (按时间正序)
+     *
+     * @param portfolioId 组合编号
+     * @param format 导出格式
+     * @param from   起始日期 (含)，null 表示不限
+     * @param to     结束日期 (含)，null 表示不限
+     * @param out    输出流 (调用方负责关闭)
+     * @return 导出的行数
+     */
+    @Transactional(readOnly = true)
+    public long export(long portfolioId, ExportFormat format, LocalDate from, LocalDate to, OutputStream out)
+            throws IOException {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("起始日期不能晚于结束日期");
+        }
+        LocalDateTime fromTime = from == null ? null : from.atStartOfDay();
+        LocalDateTime toTime = to == null ? null : to.plusDays(1).atStartOfDay();
+
+        try (Stream<HistoryRecord> records = historyRecordRepository.streamForExport(portfolioId, fromTime, toTime)) {
+            Iterator<HistoryRecord> iterator = records.iterator();
+            long rows = format == ExportFormat.CSV ? writeCsv(iterator, out) : writeNdjson(iterator, out);
+            meterRegistry.summary("asset.query.rows", "query", "records.export").record(rows);
+            return rows;
+        }
+    }
+
+    private long writeCsv(Iterator<HistoryRecord> records, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        long rows = 0;
+        while (records.hasNext()) {
+            HistoryRecord record = records.next();
+            writer.write(String.valueOf(record.getId()));
+            writer.write(',');
+            writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(record.getRecordDate()));
+            writeCsvAmount(writer, record.getGrandTotal());
+            writeCsvAmount(writer, record.getNasdaqTotal());
+            writeCsvAmount(writer, record.getSpTotal());
+            writeCsvAmount(writer, record.getConservativeTotal());
+            writeCsvAmount(writer, record.getCashTotal());
+            writer.write('\n');
+            entityManager.detach(record);
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvAmount(Writer writer, BigDecimal amount) throws IOException {
+        writer.write(',');
+        if (amount != null) {
+            writer.write(amount.toPlainString());
+        }
+    }
+
+    private long writeNdjson(Iterator<HistoryRecord> records, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long rows = 0;
+        while (records.hasNext()) {
+            HistoryRecord record = records.next();
+            generator.writeStartObject();
+            generator.writeNumberField("id", record.getId());
+            generator.writeStringField("recordDate", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(record.getRecordDate()));
+            writeJsonAmount(generator, "grandTotal", record.getGrandTotal());
+            writeJsonAmount(generator, "nasdaqTotal", record.getNasdaqTotal());
+            writeJsonAmount(generator, "spTotal", record.getSpTotal());
+            writeJsonAmount(generator, "conservativeTotal", record.getConservativeTotal());
+            writeJsonAmount(generator, "cashTotal", record.getCashTotal());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            entityManager.detach(record);
+            rows++;
+        }
+        generator.close();
+        return rows;
+    }
+
+    private static void writeJsonAmount(JsonGenerator generator, String field, BigDecimal amount) throws IOException {
+        if (amount == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, amount);
+        }
+    }
+}
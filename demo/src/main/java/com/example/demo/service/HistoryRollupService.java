@@ -0,0 +1,461 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.HistoryBucketDTO;
+import com.example.demo.dto.HistoryRecordDTO;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.model.HistoryRollup;
+import com.example.demo.model.HistoryRollup.Bucket;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 历史记录汇总：按天 / 周 / 月维护 history_rollups，按时间段查询趋势时不再扫描 history_records。
+ *
+ * 每保存一条历史记录，在同一事务中更新它所在的天、周、月三个汇总行 (先 INSERT ... ON CONFLICT DO NOTHING
+ * 建空行，再用一条 UPDATE 原子地累加)，因此并发保存不会丢失计数；多行更新前按主键排序，避免相互等锁。
+ * 启动时检查 id 最小和最大的两条历史记录是否已计入汇总 (主键查找，耗时与记录总数无关)；未计入时
+ * (例如新增该表之前已有历史记录) 按时间顺序重建全部汇总。多个实例同时启动时由取得租约 (LeaseService) 的实例重建。
+ *
+ * 图表使用的降采样 (points 参数) 也在这里：范围内的记录数不超过 asset.history.max-source 时从原始记录
+ * 用 LTTB 选点，否则从能容纳的最细粒度汇总选点，读取的行数有上限，耗时与历史记录总数无关。
+ */
+@Service
+public class HistoryRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryRollupService.class);
+
+    private static final Bucket[] BUCKETS = Bucket.values();
+
+    // 启动时重建汇总的租约名称
+    static final String REBUILD_LEASE_NAME = "history-rollup-rebuild";
+
+    // 每次 JDBC 批量写入的行数
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    // 汇总行不存在时先建一行空汇总 (sample_count = 0)，已存在时什么都不做
+    private static final String INSERT_EMPTY = "INSERT INTO history_rollups (portfolio_id, bucket, bucket_start, "
+            + "sample_count, last_record_date, grand_total, nasdaq_total, sp_total, conservative_total, cash_total, "
+            + "min_grand_total, max_grand_total, sum_grand_total) VALUES (?, ?, ?, 0, ?, ?, ?, ?, ?, ?, ?, ?, 0) "
+            + "ON CONFLICT DO NOTHING";
+
+    // 把一条记录累加到汇总行：各项总额只在该记录不早于当前最后一条时替换 (SET 中引用的都是更新前的值)
+    private static final String ACCUMULATE = "UPDATE history_rollups SET sample_count = sample_count + 1, "
+            + "sum_grand_total = sum_grand_total + ?, "
+            + "min_grand_total = LEAST(min_grand_total, ?), max_grand_total = GREATEST(max_grand_total, ?), "
+            + "grand_total = CASE WHEN ? >= last_record_date THEN ? ELSE grand_total END, "
+            + "nasdaq_total = CASE WHEN ? >= last_record_date THEN ? ELSE nasdaq_total END, "
+            + "sp_total = CASE WHEN ? >= last_record_date THEN ? ELSE sp_total END, "
+            + "conservative_total = CASE WHEN ? >= last_record_date THEN ? ELSE conservative_total END, "
+            + "cash_total = CASE WHEN ? >= last_record_date THEN ? ELSE cash_total END, "
+            + "last_record_date = GREATEST(last_record_date, ?) "
+            + "WHERE portfolio_id = ? AND bucket = ? AND bucket_start = ?";
+
+    private static final String INSERT_ROLLUP = "INSERT INTO history_rollups (portfolio_id, bucket, bucket_start, "
+            + "sample_count, last_record_date, grand_total, nasdaq_total, sp_total, conservative_total, cash_total, "
+            + "min_grand_total, max_grand_total, sum_grand_total) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // 同一汇总行的记录按时间顺序累加，不同汇总行按主键顺序加锁
+    private static final Comparator<Entry> LOCK_ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.record.getPortfolioId())
+            .thenComparing(entry -> entry.bucket)
+            .thenComparing(entry -> entry.bucketStart)
+            .thenComparing(entry -> entry.record.getRecordDate());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    // 启动检查在 @PostConstruct 中直接查询表：表由 Flyway 迁移建好 (EntityManagerFactory 依赖 Flyway)；
+    // 测试和嵌入式模式不使用 Flyway，由 Hibernate 建表，注入仓库保证检查前 EntityManagerFactory 已初始化
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 重建租约的时长：持有者重建中异常退出后，其他实例最多等待这么久才能接管
+    @Value("${asset.history.rebuild-lease-duration:PT30M}")
+    private Duration rebuildLeaseDuration;
+
+    // points 参数的上限
+    @Value("${asset.history.max-points:2000}")
+    private int maxPoints;
+
+    // 降采样时最多读取的行数：范围内的记录数不超过该值时从原始记录选点，否则改用汇总
+    @Value("${asset.history.max-source:20000}")
+    private int maxSource;
+
+    /**
+     * 一条记录对应的一个汇总行
+     */
+    private record Entry(HistoryRecord record, Bucket bucket, LocalDate bucketStart) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (rollupsCoverRecords()) {
+            return;
+        }
+        if (!leaseService.tryAcquire(REBUILD_LEASE_NAME, rebuildLeaseDuration)) {
+            log.info("历史记录汇总需要重建，重建租约由其他实例持有，跳过");
+            return;
+        }
+        try {
+            // 取得租约之前其他实例可能刚刚重建完
+            if (!rollupsCoverRecords()) {
+                log.info("历史记录汇总未覆盖已有的历史记录，开始重建");
+                rebuild();
+            }
+        } finally {
+            leaseService.release(REBUILD_LEASE_NAME);
+        }
+    }
+
+    /**
+     * 汇总是否覆盖了历史记录：id 最小和最大的记录都已计入其所在的天汇总 (没有记录时汇总应为空)。
+     * 只做主键上的 MIN / MAX 和几次主键查找，不扫描 history_records 或 history_rollups。
+     */
+    boolean rollupsCoverRecords() {
+        Long[] ids = jdbcTemplate.queryForObject("SELECT MIN(id), MAX(id) FROM history_records",
+                (rs, rowNum) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (ids[0] == null) {
+            return jdbcTemplate.queryForList("SELECT 1 FROM history_rollups LIMIT 1").isEmpty();
+        }
+        return rolledUp(ids[0]) && rolledUp(ids[1]);
+    }
+
+    private boolean rolledUp(long recordId) {
+        List<HistoryRecord> records = jdbcTemplate.query(
+                "SELECT portfolio_id, record_date FROM history_records WHERE id = ?", (rs, rowNum) -> {
+                    HistoryRecord record = new HistoryRecord();
+                    record.setPortfolioId(rs.getLong(1));
+                    record.setRecordDate(rs.getObject(2, LocalDateTime.class));
+                    return record;
+                }, recordId);
+        if (records.isEmpty()) {
+            // 检查期间被删除，视为已覆盖
+            return true;
+        }
+        HistoryRecord record = records.get(0);
+        Integer found = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM history_rollups "
+                        + "WHERE portfolio_id = ? AND bucket = ? AND bucket_start = ? AND last_record_date >= ?",
+                Integer.class, record.getPortfolioId(), Bucket.DAY.name(),
+                Bucket.DAY.start(record.getRecordDate().toLocalDate()), record.getRecordDate());
+        return found > 0;
+    }
+
+    /**
+     * 把一条新保存的历史记录累加到天、周、月汇总 (在调用方的事务中执行)
+     */
+    public void record(HistoryRecord record) {
+        recordAll(List.of(record));
+    }
+
+    /**
+     * 把一批新保存的历史记录累加到汇总 (在调用方的事务中执行)
+     */
+    public void recordAll(List<HistoryRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>(records.size() * BUCKETS.length);
+        for (HistoryRecord record : records) {
+            LocalDate date = record.getRecordDate().toLocalDate();
+            for (Bucket bucket : BUCKETS) {
+                entries.add(new Entry(record, bucket, bucket.start(date)));
+            }
+        }
+        entries.sort(LOCK_ORDER);
+
+        jdbcTemplate.batchUpdate(INSERT_EMPTY, entries, WRITE_BATCH_SIZE, (ps, entry) -> {
+            HistoryRecord record = entry.record;
+            ps.setLong(1, record.getPortfolioId());
+            ps.setString(2, entry.bucket.name());
+            ps.setObject(3, entry.bucketStart);
+            ps.setObject(4, record.getRecordDate());
+            ps.setBigDecimal(5, record.getGrandTotal());
+            ps.setBigDecimal(6, record.getNasdaqTotal());
+            ps.setBigDecimal(7, record.getSpTotal());
+            ps.setBigDecimal(8, record.getConservativeTotal());
+            ps.setBigDecimal(9, record.getCashTotal());
+            ps.setBigDecimal(10, record.getGrandTotal());
+            ps.setBigDecimal(11, record.getGrandTotal());
+        });
+        jdbcTemplate.batchUpdate(ACCUMULATE, entries, WRITE_BATCH_SIZE, (ps, entry) -> {
+            HistoryRecord record = entry.record;
+            LocalDateTime date = record.getRecordDate();
+            ps.setBigDecimal(1, record.getGrandTotal());
+            ps.setBigDecimal(2, record.getGrandTotal());
+            ps.setBigDecimal(3, record.getGrandTotal());
+            BigDecimal[] totals = {record.getGrandTotal(), record.getNasdaqTotal(), record.getSpTotal(),
+                    record.getConservativeTotal(), record.getCashTotal()};
+            for (int i = 0; i < totals.length; i++) {
+                ps.setObject(4 + i * 2, date);
+                ps.setBigDecimal(5 + i * 2, totals[i]);
+            }
+            ps.setObject(14, date);
+            ps.setLong(15, record.getPortfolioId());
+            ps.setString(16, entry.bucket.name());
+            ps.setObject(17, entry.bucketStart);
+        });
+    }
+
+    /**
+     * 按 history_records 重建全部汇总：按 (组合, 时间) 顺序逐行读取，在内存中累加一个组合的汇总后批量写入。
+     *
+     * 删除和重建在同一个 READ COMMITTED 事务中，其他实例并发的 recordAll 可能把汇总行插在删除之后，
+     * 或累加了重建读取时尚未提交的记录，造成重复计数或主键冲突。PostgreSQL 中先以 EXCLUSIVE 模式锁表：
+     * 查询不受影响，汇总写入等到重建提交后再累加 (它们的记录此时尚未提交，不在重建读取的范围内)，
+     * 已在写入汇总的事务则先于重建提交 (记录会被重建读到)。H2 不支持 LOCK TABLE，且只用于单实例的嵌入式模式和测试，
+     * 重建在启动时、接受请求和运行定时任务之前执行，没有并发的汇总写入。
+     */
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            if (isPostgreSql()) {
+                jdbcTemplate.execute("LOCK TABLE history_rollups IN EXCLUSIVE MODE");
+            }
+            jdbcTemplate.update("DELETE FROM history_rollups");
+            Map<HistoryRollup.Key, HistoryRollup> rollups = new LinkedHashMap<>();
+            long[] current = {Long.MIN_VALUE};
+            long[] rows = {0};
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement("SELECT portfolio_id, record_date, grand_total, "
+                        + "nasdaq_total, sp_total, conservative_total, cash_total FROM history_records "
+                        + "ORDER BY portfolio_id, record_date, id");
+                ps.setFetchSize(500);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                long portfolioId = rs.getLong(1);
+                if (portfolioId != current[0]) {
+                    writeRollups(rollups.values());
+                    rollups.clear();
+                    current[0] = portfolioId;
+                }
+                HistoryRecord record = new HistoryRecord();
+                record.setPortfolioId(portfolioId);
+                record.setRecordDate(rs.getObject(2, LocalDateTime.class));
+                record.setGrandTotal(rs.getBigDecimal(3));
+                record.setNasdaqTotal(rs.getBigDecimal(4));
+                record.setSpTotal(rs.getBigDecimal(5));
+                record.setConservativeTotal(rs.getBigDecimal(6));
+                record.setCashTotal(rs.getBigDecimal(7));
+                for (Bucket bucket : BUCKETS) {
+                    LocalDate start = bucket.start(record.getRecordDate().toLocalDate());
+                    accumulate(rollups.computeIfAbsent(new HistoryRollup.Key(portfolioId, bucket, start),
+                            key -> emptyRollup(portfolioId, bucket, start)), record);
+                }
+                rows[0]++;
+            });
+            writeRollups(rollups.values());
+            log.info("已重建历史记录汇总：{} 条记录", rows[0]);
+        });
+    }
+
+    /**
+     * 组合内某一粒度的汇总 (按时间正序)
+     * @param from 起始日期 (含)，null 表示不限；从该日期所在的时间段开始
+     * @param to   结束日期 (含)，null 表示不限
+     */
+    @Transactional(readOnly = true)
+    public List<HistoryBucketDTO> findBuckets(long portfolioId, Bucket bucket, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        LocalDate start = from == null ? null : bucket.start(from);
+        return historyRollupRepository.findRange(portfolioId, bucket, start, to).stream()
+                .map(HistoryRollupService::mapToDTO)
+                .toList();
+    }
+
+    /**
+     * 供图表使用的降采样历史记录 (按时间正序，不超过 points 条)
+     *
+     * 来自汇总的点取时间段内最后一条记录的值和时间，id 为 null。
+     * @param from 起始日期 (含)，null 表示不限
+     * @param to   结束日期 (含)，null 表示不限
+     * @throws IllegalArgumentException points 超出范围或起始日期晚于结束日期
+     */
+    @Transactional(readOnly = true)
+    public List<HistoryRecordDTO> downsample(long portfolioId, LocalDate from, LocalDate to, int points) {
+        if (points < 3 || points > maxPoints) {
+            throw new IllegalArgumentException("points 必须在 3 ~ " + maxPoints + " 之间");
+        }
+        checkRange(from, to);
+
+        List<HistoryRecordDTO> source = new ArrayList<>();
+        long records = historyRollupRepository.sumSamples(portfolioId, Bucket.DAY, from, to);
+        if (records <= maxSource) {
+            try (Stream<HistoryRecord> rows = historyRecordRepository.streamForExport(portfolioId,
+                    from == null ? null : from.atStartOfDay(), to == null ? null : to.plusDays(1).atStartOfDay())) {
+                rows.forEach(row -> {
+                    source.add(mapToDTO(row));
+                    entityManager.detach(row);
+                });
+            }
+        } else {
+            // 选能容纳的最细粒度；按月仍然超出时也用按月汇总 (每年只有 12 行)
+            Bucket bucket = Bucket.MONTH;
+            for (Bucket candidate : BUCKETS) {
+                LocalDate start = from == null ? null : candidate.start(from);
+                if (historyRollupRepository.countRange(portfolioId, candidate, start, to) <= maxSource) {
+                    bucket = candidate;
+                    break;
+                }
+            }
+            LocalDate start = from == null ? null : bucket.start(from);
+            for (HistoryRollup rollup : historyRollupRepository.findRange(portfolioId, bucket, start, to)) {
+                source.add(mapToRecordDTO(rollup));
+            }
+        }
+
+        int n = source.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            HistoryRecordDTO point = source.get(i);
+            x[i] = point.getRecordDate().toEpochSecond(ZoneOffset.UTC);
+            y[i] = point.getGrandTotal().doubleValue();
+        }
+        int[] selected = Lttb.select(x, y, points);
+        List<HistoryRecordDTO> result = new ArrayList<>(selected.length);
+        for (int index : selected) {
+            result.add(source.get(index));
+        }
+        return result;
+    }
+
+    private boolean isPostgreSql() {
+        return "PostgreSQL".equals(jdbcTemplate.execute(
+                (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName()));
+    }
+
+    private void writeRollups(Collection<HistoryRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP, new ArrayList<>(rollups), WRITE_BATCH_SIZE, (ps, rollup) -> {
+            ps.setLong(1, rollup.getPortfolioId());
+            ps.setString(2, rollup.getBucket().name());
+            ps.setObject(3, rollup.getBucketStart());
+            ps.setLong(4, rollup.getSampleCount());
+            ps.setObject(5, rollup.getLastRecordDate());
+            ps.setBigDecimal(6, rollup.getGrandTotal());
+            ps.setBigDecimal(7, rollup.getNasdaqTotal());
+            ps.setBigDecimal(8, rollup.getSpTotal());
+            ps.setBigDecimal(9, rollup.getConservativeTotal());
+            ps.setBigDecimal(10, rollup.getCashTotal());
+            ps.setBigDecimal(11, rollup.getMinGrandTotal());
+            ps.setBigDecimal(12, rollup.getMaxGrandTotal());
+            ps.setBigDecimal(13, rollup.getSumGrandTotal());
+        });
+    }
+
+    private static HistoryRollup emptyRollup(long portfolioId, Bucket bucket, LocalDate start) {
+        HistoryRollup rollup = new HistoryRollup();
+        rollup.setPortfolioId(portfolioId);
+        rollup.setBucket(bucket);
+        rollup.setBucketStart(start);
+        rollup.setSumGrandTotal(BigDecimal.ZERO);
+        return rollup;
+    }
+
+    /**
+     * 与 ACCUMULATE 语句相同的累加规则 (重建时按时间顺序调用)
+     */
+    private static void accumulate(HistoryRollup rollup, HistoryRecord record) {
+        BigDecimal grandTotal = record.getGrandTotal();
+        rollup.setSampleCount(rollup.getSampleCount() + 1);
+        rollup.setSumGrandTotal(rollup.getSumGrandTotal().add(grandTotal));
+        rollup.setMinGrandTotal(rollup.getMinGrandTotal() == null ? grandTotal : rollup.getMinGrandTotal().min(grandTotal));
+        rollup.setMaxGrandTotal(rollup.getMaxGrandTotal() == null ? grandTotal : rollup.getMaxGrandTotal().max(grandTotal));
+        rollup.setLastRecordDate(record.getRecordDate());
+        rollup.setGrandTotal(grandTotal);
+        rollup.setNasdaqTotal(record.getNasdaqTotal());
+        rollup.setSpTotal(record.getSpTotal());
+        rollup.setConservativeTotal(record.getConservativeTotal());
+        rollup.setCashTotal(record.getCashTotal());
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("起始日期不能晚于结束日期");
+        }
+    }
+
+    private static HistoryBucketDTO mapToDTO(HistoryRollup rollup) {
+        HistoryBucketDTO dto = new HistoryBucketDTO();
+        dto.setBucket(rollup.getBucket());
+        dto.setBucketStart(rollup.getBucketStart());
+        dto.setCount(rollup.getSampleCount());
+        dto.setLastRecordDate(rollup.getLastRecordDate());
+        dto.setGrandTotal(rollup.getGrandTotal());
+        dto.setNasdaqTotal(rollup.getNasdaqTotal());
+        dto.setSpTotal(rollup.getSpTotal());
+        dto.setConservativeTotal(rollup.getConservativeTotal());
+        dto.setCashTotal(rollup.getCashTotal());
+        dto.setMinGrandTotal(rollup.getMinGrandTotal());
+        dto.setMaxGrandTotal(rollup.getMaxGrandTotal());
+        dto.setAvgGrandTotal(rollup.getSampleCount() == 0 ? null : rollup.getSumGrandTotal()
+                .divide(BigDecimal.valueOf(rollup.getSampleCount()), 2, RoundingMode.HALF_UP));
+        return dto;
+    }
+
+    private static HistoryRecordDTO mapToRecordDTO(HistoryRollup rollup) {
+        HistoryRecordDTO dto = new HistoryRecordDTO();
+        dto.setPortfolioId(rollup.getPortfolioId());
+        dto.setRecordDate(rollup.getLastRecordDate());
+        dto.setGrandTotal(rollup.getGrandTotal());
+        dto.setNasdaqTotal(rollup.getNasdaqTotal());
+        dto.setSpTotal(rollup.getSpTotal());
+        dto.setConservativeTotal(rollup.getConservativeTotal());
+        dto.setCashTotal(rollup.getCashTotal());
+        return dto;
+    }
+
+    private static HistoryRecordDTO mapToDTO(HistoryRecord record) {
+        HistoryRecordDTO dto = new HistoryRecordDTO();
+        dto.setId(record.getId());
+        dto.setPortfolioId(record.getPortfolioId());
+        dto.setRecordDate(record.getRecordDate());
+        dto.setGrandTotal(record.getGrandTotal());
+        dto.setNasdaqTotal(record.getNasdaqTotal());
+        dto.setSpTotal(record.getSpTotal());
+        dto.setConservativeTotal(record.getConservativeTotal());
+        dto.setCashTotal(record.getCashTotal());
+        return dto;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 基于数据库的定时任务租约 (选主)：多个应用实例运行同一个定时任务时，只有持有未过期租约的实例执行。
+ *
+ * 获取和续约都是单条语句 (先 INSERT ... ON CONFLICT DO NOTHING 建行，否则只在租约属于自己或已过期时 UPDATE)，
+ * 由数据库的行锁保证同一时刻只有一个实例成功。到期时间按应用服务器时钟计算，租约时长应远大于实例间的时钟偏差。
+ */
+@Service
+public class LeaseService {
+
+    private static final String INSERT = "INSERT INTO scheduler_leases (lease_name, owner, expires_at) "
+            + "VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String TAKE_OVER = "UPDATE scheduler_leases SET owner = ?, expires_at = ? "
+            + "WHERE lease_name = ? AND (owner = ? OR expires_at < ?)";
+
+    private static final String RELEASE = "UPDATE scheduler_leases SET expires_at = ? "
+            + "WHERE lease_name = ? AND owner = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 本实例的标识，为空时使用 主机名-随机串
+    @Value("${asset.lease.owner:}")
+    private String owner;
+
+    @PostConstruct
+    public void init() {
+        if (owner == null || owner.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+            owner = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+
+    /**
+     * 本实例的标识
+     */
+    public String owner() {
+        return owner;
+    }
+
+    /**
+     * 获取或续约租约
+     * @param name     租约名称
+     * @param duration 从现在起的有效时长
+     * @return 本实例是否持有租约
+     */
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(duration);
+        if (jdbcTemplate.update(INSERT, name, owner, expiresAt) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update(TAKE_OVER, owner, expiresAt, name, owner, now) == 1;
+    }
+
+    /**
+     * 提前释放本实例持有的租约 (不持有时什么都不做)
+     */
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE, LocalDateTime.now().minusNanos(1000), name, owner);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+/**
+ * LTTB (Largest-Triangle-Three-Buckets) 降采样：从按 x 升序排列的折线中选出 threshold 个点，
+ * 尽量保留折线的形状 (峰、谷和拐点)。
+ *
+ * 首尾两点总是保留；中间的点均分为 threshold - 2 个桶，每个桶选出与 上一个选中点、下一个桶的平均点
+ * 构成三角形面积最大的点。一遍扫描，O(n)。
+ */
+final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * @param x         横坐标 (升序)
+     * @param y         纵坐标
+     * @param threshold 保留的点数 (至少 3)
+     * @return 选中点的下标 (升序)；点数不超过 threshold 时返回全部下标
+     */
+    static int[] select(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (n <= threshold || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // 下一个桶的平均点 (最后一个桶之后是末尾点)
+            int nextFrom = (int) Math.floor((i + 1) * every) + 1;
+            int nextTo = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextFrom; j < nextTo; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            avgX /= nextTo - nextFrom;
+            avgY /= nextTo - nextFrom;
+
+            // 当前桶中与 上一个选中点 a、下一个桶平均点 构成三角形面积最大的点
+            int from = (int) Math.floor(i * every) + 1;
+            int to = (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int chosen = from;
+            for (int j = from; j < to; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = j;
+                }
+            }
+            selected[i + 1] = chosen;
+            a = chosen;
+        }
+        selected[threshold - 1] = n - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AssetDetail.AssetType;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 蒙特卡洛组合收益模拟引擎 (不依赖 Spring，可直接用于基准测试)。
+ *
+ * 每种资产类型按年度几何布朗运动演化，年收益之间的相关性由相关系数矩阵的 Cholesky 分解给出；
+ * 各类型买入后持有，同一条路径上的随机数同时用于多组配置 (当前持仓、目标配置)，便于对比。
+ *
+ * 可复现：路径按固定大小 (BLOCK_SIZE) 分块，每块在开始前由种子依次 split 出独立的 SplittableRandom，
+ * 结果是各块计数的整数和，与线程数、任务拆分方式和执行顺序无关。
+ * 每年的分布用对数刻度直方图 (BINS 格) 记录，内存只与年数有关，与路径数无关。
+ */
+public final class MonteCarloEngine {
+
+    private static final int TYPES = AssetType.values().length;
+
+    // 每块路径数：决定随机数流的划分，修改后同一种子的结果会变化
+    public static final int BLOCK_SIZE = 16384;
+
+    // 直方图覆盖 期末金额 / 初始金额 的 [0.001, 10000] 区间，按对数均分，每格约 0.39%
+    public static final int BINS = 4096;
+    private static final double LOG_MIN = Math.log(1e-3);
+    private static final double LOG_MAX = Math.log(1e4);
+    private static final double BIN_WIDTH = (LOG_MAX - LOG_MIN) / BINS;
+
+    // 每种资产类型的年度对数漂移 (μ - σ²/2) 和波动率
+    private final double[] drifts = new double[TYPES];
+    private final double[] volatilities = new double[TYPES];
+
+    // 相关系数矩阵的 Cholesky 下三角因子
+    private final double[][] cholesky;
+
+    /**
+     * @param expectedReturns 各资产类型的年化期望收益率 (按 AssetType.ordinal() 排列)
+     * @param volatilities    各资产类型的年化波动率
+     * @param correlation     相关系数矩阵，按行展开 (TYPES × TYPES 个数)
+     * @throws IllegalArgumentException 参数个数不对、波动率为负或相关系数矩阵不是正定对称矩阵
+     */
+    public MonteCarloEngine(double[] expectedReturns, double[] volatilities, double[] correlation) {
+        if (expectedReturns.length != TYPES || volatilities.length != TYPES || correlation.length != TYPES * TYPES) {
+            throw new IllegalArgumentException("收益率和波动率需要 " + TYPES + " 个数，相关系数矩阵需要 "
+                    + TYPES * TYPES + " 个数");
+        }
+        for (int t = 0; t < TYPES; t++) {
+            if (volatilities[t] < 0) {
+                throw new IllegalArgumentException("波动率不能为负数");
+            }
+            this.volatilities[t] = volatilities[t];
+            this.drifts[t] = Math.log1p(expectedReturns[t]) - volatilities[t] * volatilities[t] / 2;
+        }
+        this.cholesky = cholesky(correlation);
+    }
+
+    private static double[][] cholesky(double[] correlation) {
+        double[][] lower = new double[TYPES][TYPES];
+        for (int i = 0; i < TYPES; i++) {
+            for (int j = 0; j <= i; j++) {
+                if (correlation[i * TYPES + j] != correlation[j * TYPES + i]) {
+                    throw new IllegalArgumentException("相关系数矩阵必须对称");
+                }
+                double sum = correlation[i * TYPES + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= lower[i][k] * lower[j][k];
+                }
+                if (i == j) {
+                    if (sum <= 0) {
+                        throw new IllegalArgumentException("相关系数矩阵必须正定");
+                    }
+                    lower[i][i] = Math.sqrt(sum);
+                } else {
+                    lower[i][j] = sum / lower[j][j];
+                }
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * 模拟结果：counts[(mix * years + year) * BINS + bin] 为第 year + 1 年末落在该格的路径数，
+     * shortfalls[mix] 为期末金额低于目标的路径数
+     */
+    public record Result(int mixes, int paths, int years, int[] counts, long[] shortfalls) {
+
+        /**
+         * 第 year + 1 年末的百分位数 (0 < p < 1)，以相对初始金额的倍数表示；格内按对数线性插值
+         */
+        public double percentile(int mix, int year, double p) {
+            int offset = (mix * years + year) * BINS;
+            double rank = p * paths;
+            long cumulative = 0;
+            for (int bin = 0; bin < BINS; bin++) {
+                int count = counts[offset + bin];
+                if (count > 0 && cumulative + count >= rank) {
+                    double fraction = (rank - cumulative) / count;
+                    return Math.exp(LOG_MIN + (bin + fraction) * BIN_WIDTH);
+                }
+                cumulative += count;
+            }
+            return Math.exp(LOG_MAX);
+        }
+
+        /**
+         * 期末金额低于目标的概率
+         */
+        public double shortfallProbability(int mix) {
+            return (double) shortfalls[mix] / paths;
+        }
+    }
+
+    /**
+     * 运行模拟
+     *
+     * @param weights   每组配置中各资产类型占初始金额的比例，weights[mix][AssetType.ordinal()]
+     * @param paths     路径数
+     * @param years     模拟年数
+     * @param seed      随机数种子
+     * @param goalRatio 期末目标金额 / 初始金额，低于该值计为未达标
+     * @param pool      执行模拟的 ForkJoinPool
+     */
+    public Result simulate(double[][] weights, int paths, int years, long seed, double goalRatio, ForkJoinPool pool) {
+        int blocks = (paths + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        // 在提交任务前按块的顺序依次 split，每块的随机数流只由种子和块号决定
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            streams[b] = root.split();
+        }
+        // 每个叶子任务连续处理若干块并共用一组计数，减少直方图的分配和合并
+        int leafBlocks = Math.max(1, blocks / (pool.getParallelism() * 4));
+        Tally tally = pool.invoke(new SimulationTask(this, weights, paths, years, goalRatio, streams,
+                0, blocks, leafBlocks));
+        return new Result(weights.length, paths, years, tally.counts, tally.shortfalls);
+    }
+
+    /**
+     * 一个叶子任务的计数
+     */
+    private static final class Tally {
+        final int[] counts;
+        final long[] shortfalls;
+
+        Tally(int mixes, int years) {
+            counts = new int[mixes * years * BINS];
+            shortfalls = new long[mixes];
+        }
+
+        Tally add(Tally other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            for (int m = 0; m < shortfalls.length; m++) {
+                shortfalls[m] += other.shortfalls[m];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * fork/join 任务：模拟 [fromBlock, toBlock) 范围内的路径块
+     */
+    private static final class SimulationTask extends RecursiveTask<Tally> {
+        private final MonteCarloEngine engine;
+        private final double[][] weights;
+        private final int paths;
+        private final int years;
+        private final double goalRatio;
+        private final SplittableRandom[] streams;
+        private final int fromBlock;
+        private final int toBlock;
+        private final int leafBlocks;
+
+        SimulationTask(MonteCarloEngine engine, double[][] weights, int paths, int years, double goalRatio,
+                       SplittableRandom[] streams, int fromBlock, int toBlock, int leafBlocks) {
+            this.engine = engine;
+            this.weights = weights;
+            this.paths = paths;
+            this.years = years;
+            this.goalRatio = goalRatio;
+            this.streams = streams;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.leafBlocks = leafBlocks;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (toBlock - fromBlock <= leafBlocks) {
+                Tally tally = new Tally(weights.length, years);
+                for (int b = fromBlock; b < toBlock; b++) {
+                    int from = b * BLOCK_SIZE;
+                    engine.simulateBlock(weights, Math.min(BLOCK_SIZE, paths - from), years, goalRatio,
+                            streams[b], tally);
+                }
+                return tally;
+            }
+            int middle = (fromBlock + toBlock) >>> 1;
+            SimulationTask left = new SimulationTask(engine, weights, paths, years, goalRatio, streams,
+                    fromBlock, middle, leafBlocks);
+            left.fork();
+            Tally right = new SimulationTask(engine, weights, paths, years, goalRatio, streams,
+                    middle, toBlock, leafBlocks).compute();
+            return right.add(left.join());
+        }
+    }
+
+    private void simulateBlock(double[][] weights, int count, int years, double goalRatio,
+                               SplittableRandom random, Tally tally) {
+        int mixes = weights.length;
+        double[] growth = new double[TYPES];
+        double[] shocks = new double[TYPES];
+        for (int path = 0; path < count; path++) {
+            Arrays.fill(growth, 1.0);
+            for (int year = 0; year < years; year++) {
+                for (int t = 0; t < TYPES; t++) {
+                    shocks[t] = random.nextGaussian();
+                }
+                // 相关的年度冲击 = L × z，各类型累计增长倍数按对数收益率更新
+                for (int t = 0; t < TYPES; t++) {
+                    double correlated = 0;
+                    for (int k = 0; k <= t; k++) {
+                        correlated += cholesky[t][k] * shocks[k];
+                    }
+                    growth[t] *= Math.exp(drifts[t] + volatilities[t] * correlated);
+                }
+                for (int m = 0; m < mixes; m++) {
+                    double value = 0;
+                    for (int t = 0; t < TYPES; t++) {
+                        value += weights[m][t] * growth[t];
+                    }
+                    tally.counts[(m * years + year) * BINS + bin(value)]++;
+                    if (year == years - 1 && value < goalRatio) {
+                        tally.shortfalls[m]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int bin(double value) {
+        if (value <= 0) {
+            return 0;
+        }
+        int bin = (int) ((Math.log(value) - LOG_MIN) / BIN_WIDTH);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+}
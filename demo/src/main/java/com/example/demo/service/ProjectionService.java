@@ -0,0 +1,169 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ProjectionBandDTO;
+import com.example.demo.dto.ProjectionDTO;
+import com.example.demo.dto.ProjectionSeriesDTO;
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 收益模拟服务：用蒙特卡洛方法对比当前持仓与推荐目标配置在未来若干年的金额分布。
+ *
+ * 当前金额和目标金额取自 CalculationService.getRecommendation()，两组配置使用相同的随机路径；
+ * 模拟在独立的 ForkJoinPool 中并行运行，结果只取决于持仓、策略、参数和种子 (见 MonteCarloEngine)。
+ */
+@Service
+public class ProjectionService {
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    // 输出的百分位数
+    private static final double[] PERCENTILES = {0.05, 0.25, 0.50, 0.75, 0.95};
+
+    @Autowired
+    private CalculationService calculationService;
+
+    // 各资产类型的年化期望收益率、波动率 (按 NASDAQ, SP, CONSERVATIVE, CASH 排列) 和相关系数矩阵 (按行展开)
+    @Value("${asset.projection.expected-returns:0.10,0.08,0.04,0.02}")
+    private double[] expectedReturns;
+
+    @Value("${asset.projection.volatilities:0.22,0.16,0.05,0.01}")
+    private double[] volatilities;
+
+    @Value("${asset.projection.correlation:1,0.9,0.2,0,0.9,1,0.2,0,0.2,0.2,1,0,0,0,0,1}")
+    private double[] correlation;
+
+    // 默认路径数和路径数上限
+    @Value("${asset.projection.paths:100000}")
+    private int defaultPaths;
+
+    @Value("${asset.projection.max-paths:1000000}")
+    private int maxPaths;
+
+    // 默认模拟年数和年数上限
+    @Value("${asset.projection.years:10}")
+    private int defaultYears;
+
+    @Value("${asset.projection.max-years:50}")
+    private int maxYears;
+
+    // 默认随机数种子 (固定种子使相同请求得到相同结果，可按数据版本缓存)
+    @Value("${asset.projection.seed:20240101}")
+    private long defaultSeed;
+
+    // 模拟的并行度，0 表示与 CPU 核数一致
+    @Value("${asset.projection.parallelism:0}")
+    private int parallelism;
+
+    private MonteCarloEngine engine;
+
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        engine = new MonteCarloEngine(expectedReturns, volatilities, correlation);
+        pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * 模拟组合当前持仓和目标配置的未来金额分布
+     * @param portfolioId 组合编号
+     * @param policyName  目标配置使用的策略，null 表示默认策略
+     * @param paths       路径数，null 表示默认值
+     * @param years       模拟年数，null 表示默认值
+     * @param seed        随机数种子，null 表示默认种子
+     * @param goal        目标金额，null 表示当前总资产 (即期末亏损的概率)
+     * @return ProjectionDTO
+     * @throws IllegalArgumentException 参数超出范围或策略不存在
+     * @throws IllegalStateException    总资产为零
+     */
+    public ProjectionDTO project(long portfolioId, String policyName, Integer paths, Integer years, Long seed,
+                                 BigDecimal goal) {
+        int pathCount = paths != null ? paths : defaultPaths;
+        int yearCount = years != null ? years : defaultYears;
+        long randomSeed = seed != null ? seed : defaultSeed;
+        if (pathCount < 1 || pathCount > maxPaths) {
+            throw new IllegalArgumentException("路径数必须在 1 ~ " + maxPaths + " 之间");
+        }
+        if (yearCount < 1 || yearCount > maxYears) {
+            throw new IllegalArgumentException("模拟年数必须在 1 ~ " + maxYears + " 之间");
+        }
+        if (goal != null && goal.signum() < 0) {
+            throw new IllegalArgumentException("目标金额不能为负数");
+        }
+
+        RecommendationDTO recommendation = calculationService.getRecommendation(portfolioId, policyName);
+        BigDecimal grandTotal = recommendation.getGrandTotal();
+        BigDecimal goalAmount = goal != null ? goal.setScale(2, RoundingMode.HALF_UP) : grandTotal;
+        double total = grandTotal.doubleValue();
+
+        // 两组配置中各类型占总资产的比例
+        double[][] weights = new double[2][TYPES.length];
+        BigDecimal[] currents = {recommendation.getNasdaqCurrent(), recommendation.getSpCurrent(),
+                recommendation.getConservativeCurrent(), recommendation.getCashCurrent()};
+        BigDecimal[] targets = {recommendation.getNasdaqTarget(), recommendation.getSpTarget(),
+                recommendation.getConservativeTarget(), recommendation.getCashTarget()};
+        for (AssetType type : TYPES) {
+            weights[0][type.ordinal()] = currents[type.ordinal()].doubleValue() / total;
+            weights[1][type.ordinal()] = targets[type.ordinal()].doubleValue() / total;
+        }
+
+        MonteCarloEngine.Result result = engine.simulate(weights, pathCount, yearCount, randomSeed,
+                goalAmount.doubleValue() / total, pool);
+
+        ProjectionDTO dto = new ProjectionDTO();
+        dto.setPolicy(recommendation.getPolicy());
+        dto.setPaths(pathCount);
+        dto.setYears(yearCount);
+        dto.setSeed(randomSeed);
+        dto.setGrandTotal(grandTotal);
+        dto.setGoal(goalAmount);
+        dto.setCurrent(series("current", result, 0, total));
+        dto.setTarget(series("target", result, 1, total));
+        return dto;
+    }
+
+    private static ProjectionSeriesDTO series(String label, MonteCarloEngine.Result result, int mix, double total) {
+        List<ProjectionBandDTO> bands = new ArrayList<>(result.years());
+        for (int year = 0; year < result.years(); year++) {
+            BigDecimal[] values = new BigDecimal[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                values[i] = amount(result.percentile(mix, year, PERCENTILES[i]) * total);
+            }
+            ProjectionBandDTO band = new ProjectionBandDTO();
+            band.setYear(year + 1);
+            band.setP5(values[0]);
+            band.setP25(values[1]);
+            band.setP50(values[2]);
+            band.setP75(values[3]);
+            band.setP95(values[4]);
+            bands.add(band);
+        }
+        ProjectionSeriesDTO series = new ProjectionSeriesDTO();
+        series.setLabel(label);
+        series.setBands(bands);
+        series.setShortfallProbability(BigDecimal.valueOf(result.shortfallProbability(mix))
+                .setScale(4, RoundingMode.HALF_UP));
+        return series;
+    }
+
+    private static BigDecimal amount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RebalancePlanDTO;
+import com.example.demo.dto.TradeDTO;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.policy.CompiledPolicy;
+import com.example.demo.policy.PolicyRegistry;
+import com.example.demo.service.Cents.Ratio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 调仓计划：由推荐配置的目标金额生成持仓之间的划转。
+ *
+ * 各类型当前金额和目标金额与推荐配置同源 (总额账本 + 编译后的策略)，不再扫描持仓表；
+ * 只读取需要卖出或买入的资产类型的持仓 (走 (组合, 类型) 索引)，排序后贪心匹配，整体 O(n log n)。
+ *
+ * 生成规则：
+ *   1. 每种资产类型的调整金额 = 目标 - 当前；在策略容忍带内、不超过漂移阈值或低于最小交易金额的类型不调整
+ *   2. 超配类型从金额最大的持仓开始卖出 (金额相同时按 id)，尽量少动持仓
+ *   3. 低配类型全部买入金额最大的一条持仓，没有持仓时新建
+ *   4. 卖出和买入按资产类型顺序两两匹配，每次划转取两边剩余金额的较小值，
+ *      因此划转笔数不超过 卖出持仓数 + 买入类型数 - 1；低于最小交易金额的划转不生成，计入 residual
+ * 所有排序都有确定的次序，相同的持仓、策略和阈值总是得到相同的计划，可以缓存并逐次对比。
+ */
+@Service
+public class RebalanceService {
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private PolicyRegistry policyRegistry;
+
+    // 漂移阈值 (占总资产的比例)：调整金额不超过 总资产 × 阈值 的类型不调整，0 表示只要有偏差就调整
+    @Value("${asset.rebalance.drift-threshold:0}")
+    private BigDecimal driftThreshold;
+
+    // 最小交易金额 (元)：低于该金额的调整和划转不生成
+    @Value("${asset.rebalance.min-trade:0}")
+    private BigDecimal minTrade;
+
+    // 按金额从大到小、金额相同时按 id 升序，保证结果确定
+    private static final Comparator<AssetDetail> LARGEST_FIRST = Comparator
+            .comparing(AssetDetail::getAmount, Comparator.reverseOrder())
+            .thenComparing(AssetDetail::getId);
+
+    /**
+     * 生成组合在指定策略下的调仓计划
+     * @param portfolioId 组合编号
+     * @param policyName  配置策略名称，null 表示默认策略
+     * @return RebalancePlanDTO
+     * @throws IllegalArgumentException 策略不存在
+     * @throws IllegalStateException    总资产为零
+     */
+    public RebalancePlanDTO plan(long portfolioId, String policyName) {
+        CompiledPolicy policy = policyRegistry.current().get(policyName);
+
+        // 1. 各类型当前金额 (总额账本) 和目标金额，与推荐配置的计算方式一致
+        long[] currents = policy.nodeCurrents(assetService.sumCentsByType(portfolioId));
+        long grandTotal = currents[CompiledPolicy.ROOT];
+        if (grandTotal == 0) {
+            throw new IllegalStateException("当前资产总额为零，无法生成调仓计划。");
+        }
+        long[] targets = new long[policy.nodeCount()];
+        policy.nodeTargets(grandTotal, targets);
+
+        // 2. 每种资产类型的调整金额 (正数买入，负数卖出)，去掉不需要调整的类型
+        long threshold = Cents.multiply(grandTotal, Ratio.of(driftThreshold.toPlainString()));
+        long minTradeCents = Cents.of(minTrade);
+        long[] deltas = new long[TYPES.length];
+        long sellTotal = 0;
+        long buyTotal = 0;
+        for (AssetType type : TYPES) {
+            int node = policy.nodeOf(type);
+            long delta = targets[node] - currents[node];
+            long[] band = policy.band(node, grandTotal, targets[node]);
+            boolean withinBand = band != null && currents[node] >= band[0] && currents[node] <= band[1];
+            if (withinBand || Math.abs(delta) <= threshold || Math.abs(delta) < minTradeCents) {
+                continue;
+            }
+            deltas[type.ordinal()] = delta;
+            if (delta < 0) {
+                sellTotal -= delta;
+            } else {
+                buyTotal += delta;
+            }
+        }
+
+        // 3. 卖出：超配类型从金额最大的持仓开始卖出；买入：低配类型买入金额最大的持仓
+        List<AssetDetail> sellers = new ArrayList<>();
+        List<Long> sellAmounts = new ArrayList<>();
+        List<AssetDetail> buyers = new ArrayList<>();
+        List<AssetType> buyerTypes = new ArrayList<>();
+        List<Long> buyAmounts = new ArrayList<>();
+        for (AssetType type : TYPES) {
+            long delta = deltas[type.ordinal()];
+            if (delta == 0) {
+                continue;
+            }
+            List<AssetDetail> holdings = new ArrayList<>(assetService.findAssetsByType(portfolioId, type));
+            holdings.sort(LARGEST_FIRST);
+            if (delta > 0) {
+                buyers.add(holdings.isEmpty() ? null : holdings.get(0));
+                buyerTypes.add(type);
+                buyAmounts.add(delta);
+                continue;
+            }
+            long remaining = -delta;
+            for (AssetDetail holding : holdings) {
+                if (remaining == 0) {
+                    break;
+                }
+                long available = Cents.of(holding.getAmount());
+                if (available <= 0) {
+                    continue;
+                }
+                long amount = Math.min(available, remaining);
+                sellers.add(holding);
+                sellAmounts.add(amount);
+                remaining -= amount;
+            }
+        }
+
+        // 4. 卖出与买入两两匹配
+        List<TradeDTO> trades = new ArrayList<>();
+        long transferred = 0;
+        int s = 0;
+        int b = 0;
+        long sellLeft = sellers.isEmpty() ? 0 : sellAmounts.get(0);
+        long buyLeft = buyers.isEmpty() ? 0 : buyAmounts.get(0);
+        while (s < sellers.size() && b < buyers.size()) {
+            long amount = Math.min(sellLeft, buyLeft);
+            if (amount >= Math.max(minTradeCents, 1)) {
+                trades.add(trade(sellers.get(s), buyers.get(b), buyerTypes.get(b), amount));
+                transferred += amount;
+            }
+            sellLeft -= amount;
+            buyLeft -= amount;
+            if (sellLeft == 0 && ++s < sellers.size()) {
+                sellLeft = sellAmounts.get(s);
+            }
+            if (buyLeft == 0 && ++b < buyers.size()) {
+                buyLeft = buyAmounts.get(b);
+            }
+        }
+
+        RebalancePlanDTO plan = new RebalancePlanDTO();
+        plan.setPolicy(policy.getName());
+        plan.setGrandTotal(Cents.toBigDecimal(grandTotal));
+        plan.setTransferred(Cents.toBigDecimal(transferred));
+        plan.setResidual(Cents.toBigDecimal(Math.max(sellTotal, buyTotal) - transferred));
+        plan.setTrades(trades);
+        return plan;
+    }
+
+    private static TradeDTO trade(AssetDetail from, AssetDetail to, AssetType toType, long amount) {
+        TradeDTO trade = new TradeDTO();
+        trade.setFromAssetId(from.getId());
+        trade.setFromName(from.getName());
+        trade.setFromAssetType(from.getAssetType());
+        if (to != null) {
+            trade.setToAssetId(to.getId());
+            trade.setToName(to.getName());
+        } else {
+            trade.setToName(toType.name());
+        }
+        trade.setToAssetType(toType);
+        trade.setAmount(Cents.toBigDecimal(amount));
+        return trade;
+    }
+}
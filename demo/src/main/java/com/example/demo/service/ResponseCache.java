@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.config.DataSourceRouting;
+import com.example.demo.dto.AssetDetailDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+/**
+ * 推荐配置、调仓计划和资产列表的响应缓存 (按组合分别缓存)。
+ *
+ * 缓存的是序列化后的 JSON 字节，命中时既不访问数据库也不重新序列化；
+ * 以该组合的 DataVersion 作为版本号，组合内资产写入或新增历史记录后自动失效。
+ */
+@Service
+public class ResponseCache {
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private RebalanceService rebalanceService;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 持仓条数超过该值时不缓存资产列表，仍以流式响应返回，避免在内存中保留过大的 JSON
+    @Value("${asset.cache.max-cached-assets:10000}")
+    private long maxCachedAssets;
+
+    // 最多缓存多少个组合的结果，超过时清空后重新填充 (只保留最近访问的组合)
+    @Value("${asset.cache.max-cached-portfolios:10000}")
+    private int maxCachedPortfolios;
+
+    private final ConcurrentHashMap<Long, VersionedCache<byte[]>> recommendations = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, VersionedCache<byte[]>> rebalancePlans = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, VersionedCache<byte[]>> assetLists = new ConcurrentHashMap<>();
+
+    /**
+     * 组合的推荐配置 JSON；总资产为零时抛出 IllegalStateException (不缓存)
+     */
+    public VersionedCache.Entry<byte[]> recommendationJson(long portfolioId) {
+        return cacheFor(recommendations, portfolioId,
+                id -> () -> toJson(calculationService.getRecommendation(id))).get();
+    }
+
+    /**
+     * 组合在默认策略下的调仓计划 JSON；总资产为零时抛出 IllegalStateException (不缓存)
+     */
+    public VersionedCache.Entry<byte[]> rebalancePlanJson(long portfolioId) {
+        return cacheFor(rebalancePlans, portfolioId,
+                // 读主库：同资产列表，从有复制延迟的副本读取会把旧的调仓计划缓存到下一次写入
+                id -> () -> toJson(DataSourceRouting.onPrimary(() -> rebalanceService.plan(id, null)))).get();
+    }
+
+    /**
+     * 组合的资产列表 JSON；持仓条数超过 asset.cache.max-cached-assets 时返回 null，由调用方流式输出
+     */
+    public VersionedCache.Entry<byte[]> assetListJson(long portfolioId) {
+        if (assetLedger.holdingCount(portfolioId) > maxCachedAssets) {
+            assetLists.remove(portfolioId);
+            return null;
+        }
+        return cacheFor(assetLists, portfolioId, id -> () -> serializeAssetList(id)).get();
+    }
+
+    private VersionedCache<byte[]> cacheFor(ConcurrentHashMap<Long, VersionedCache<byte[]>> caches, long portfolioId,
+                                            LongFunction<Supplier<byte[]>> loader) {
+        VersionedCache<byte[]> cache = caches.get(portfolioId);
+        if (cache != null) {
+            return cache;
+        }
+        if (caches.size() >= maxCachedPortfolios) {
+            caches.clear();
+        }
+        return caches.computeIfAbsent(portfolioId,
+                id -> new VersionedCache<>(() -> dataVersion.current(id), loader.apply(id)));
+    }
+
+    private byte[] serializeAssetList(long portfolioId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            // 读主库：缓存以数据版本号为准，从有复制延迟的副本读取会把旧列表缓存到下一次写入
+            DataSourceRouting.onPrimary(() -> assetService.forEachAsset(portfolioId, (AssetDetailDTO asset) -> {
+                try {
+                    generator.writeObject(asset);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 让 JdbcTemplate 的写入也能正确地使 Hibernate 二级缓存失效 (Hibernate 只知道经过它自己的写入)。
+ *
+ * 修改和删除：事务结束后 (无论提交还是回滚) 从实体缓存区域中移除受影响的主键，之后的读取从数据库加载新数据。
+ * 不使用 Hibernate 内部的软锁 (JDBC 写入无法像 Hibernate 那样在提交后放入新版本，并发写入同一行时
+ * 软锁保留的旧版本号会让更早读到的旧数据重新放回缓存)。移除之前开始的读取仍可能把旧数据放回缓存，
+ * 因此写入方发现版本号冲突或行已不存在时也移除这些主键 (evictAfterCompletion)：读取方拿到的旧版本
+ * 最多导致一次冲突，不会一直从缓存读到旧版本。
+ * 查询缓存：执行语句之前预失效表的时间戳，事务结束后更新时间戳，依赖该表的查询缓存结果全部失效。
+ *
+ * 必须在写入所在的事务中、执行语句之前调用。
+ */
+@Component
+public class SecondLevelCache {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * 即将用 JDBC 修改或删除实体对应的行
+     * @param entityClass 实体类型
+     * @param ids         受影响的主键
+     */
+    public void beforeJdbcUpdate(Class<?> entityClass, Collection<Long> ids) {
+        SessionImplementor session = currentSession();
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        invalidateQueries(session, persister, evict(factory, persister, entityClass, ids));
+    }
+
+    /**
+     * 事务结束后从实体缓存中移除这些主键 (不影响查询缓存)：请求带来的版本号与数据库不一致或行已不存在时调用，
+     * 读取方拿到的可能是缓存中的旧数据
+     * @param entityClass 实体类型
+     * @param ids         主键
+     */
+    public void evictAfterCompletion(Class<?> entityClass, Collection<Long> ids) {
+        SessionImplementor session = currentSession();
+        SessionFactoryImplementor factory = session.getFactory();
+        EntityPersister persister = factory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        session.getActionQueue().registerProcess(evict(factory, persister, entityClass, ids));
+    }
+
+    private static AfterTransactionCompletionProcess evict(SessionFactoryImplementor factory,
+                                                           EntityPersister persister, Class<?> entityClass,
+                                                           Collection<Long> ids) {
+        List<Long> affected = List.copyOf(ids);
+        return (success, s) -> {
+            if (persister.canWriteToCache()) {
+                for (Long id : affected) {
+                    factory.getCache().evict(entityClass, id);
+                }
+            }
+        };
+    }
+
+    /**
+     * 即将用 JDBC 插入实体对应的行：已缓存的实体不受影响，只需使依赖该表的查询缓存失效
+     * @param entityClass 实体类型
+     */
+    public void beforeJdbcInsert(Class<?> entityClass) {
+        SessionImplementor session = currentSession();
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+        invalidateQueries(session, persister, (success, s) -> { });
+    }
+
+    private void invalidateQueries(SessionImplementor session, EntityPersister persister,
+                                   AfterTransactionCompletionProcess afterCompletion) {
+        String[] spaces = Arrays.stream(persister.getQuerySpaces()).map(String::valueOf).toArray(String[]::new);
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        boolean queryCacheEnabled = session.getFactory().getSessionFactoryOptions().isQueryCacheEnabled();
+        if (queryCacheEnabled) {
+            timestamps.preInvalidate(spaces, session);
+        }
+        session.getActionQueue().registerProcess((success, s) -> {
+            afterCompletion.doAfterTransactionCompletion(success, s);
+            if (queryCacheEnabled) {
+                timestamps.invalidate(spaces, s);
+            }
+        });
+    }
+
+    private SessionImplementor currentSession() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("JDBC 写入必须在事务中执行才能同步二级缓存");
+        }
+        return entityManager.unwrap(SessionImplementor.class);
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.config.DataSourceRouting;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.model.HistoryRollup.Bucket;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.AssetTypeTotal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 定时快照：按 asset.snapshot.cron 为所有组合保存历史记录，只在总额变化时写入。
+ *
+ * 1. 当前总额来自一次按 (组合, 类型) 分组求和，上一次快照的总额来自每个组合最新的按月汇总行
+ *    (history_rollups 中该月最后一条记录的值)，都不扫描 history_records；两次读取在同一个只读的可重复读事务中执行，
+ *    看到的是同一个 MVCC 快照，期间并发的写入既不被阻塞，也不会混入本轮结果；
+ * 2. 五项总额 (总资产和各类型) 与上一次快照完全相同的组合跳过，history_records 随实际变化增长，而不是随时间增长；
+ *    两次运行之间的多次修改合并为一条快照；没有持仓的组合不生成快照 (与手动保存一致)；
+ * 3. 多个应用实例同时运行时，只有取得数据库租约 (LeaseService) 的实例执行，每写入一批续约一次，失去租约即停止，本轮结束后释放租约；
+ * 4. 在独立的后台线程中运行，不占用请求线程和共享的定时任务线程。
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    // 租约名称
+    static final String LEASE_NAME = "history-snapshot";
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    // 每个事务写入的快照条数 (写入一批续约一次)
+    private static final int WRITE_BATCH_SIZE = 1000;
+
+    private static final String INSERT_SNAPSHOT = "INSERT INTO history_records (portfolio_id, record_date, "
+            + "grand_total, nasdaq_total, sp_total, conservative_total, cash_total) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // 每个组合最新的按月汇总行即最后一次快照的总额
+    private static final String SELECT_LAST = "SELECT r.portfolio_id, r.grand_total, r.nasdaq_total, r.sp_total, "
+            + "r.conservative_total, r.cash_total FROM history_rollups r WHERE r.bucket = ? AND r.bucket_start = "
+            + "(SELECT MAX(m.bucket_start) FROM history_rollups m WHERE m.portfolio_id = r.portfolio_id "
+            + "AND m.bucket = r.bucket)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 读取当前总额和上一次快照总额的事务：只读、可重复读 (PostgreSQL 中即整个事务使用同一个快照)
+    private TransactionTemplate readTemplate;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRollupService historyRollupService;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 租约时长：持有者异常退出后，其他实例最多等待这么久接管
+    @Value("${asset.snapshot.lease-duration:PT10M}")
+    private Duration leaseDuration;
+
+    // 后台运行快照的线程，同一时间只运行一轮
+    private ExecutorService runner;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 一轮快照的结果
+     * @param leader    本实例是否取得租约 (未取得时不做任何事)
+     * @param written   写入的快照条数
+     * @param unchanged 总额未变化而跳过的组合数
+     */
+    public record Result(boolean leader, int written, int unchanged) {
+    }
+
+    @PostConstruct
+    public void init() {
+        readTemplate = new TransactionTemplate(transactionManager);
+        readTemplate.setReadOnly(true);
+        readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        runner = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "history-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /**
+     * 定时运行 (asset.snapshot.cron，默认关闭)：交给后台线程后立即返回；上一轮未结束时跳过
+     */
+    @Scheduled(cron = "${asset.snapshot.cron:-}")
+    public void runScheduled() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("上一轮定时快照尚未结束，跳过本次运行");
+            return;
+        }
+        runner.submit(() -> {
+            try {
+                snapshot();
+            } catch (RuntimeException e) {
+                log.error("定时快照失败", e);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * 在当前线程运行一轮快照；结束 (包括失败) 后释放租约，下一轮由先到的实例获取
+     */
+    public Result snapshot() {
+        if (!leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+            log.debug("定时快照租约由其他实例持有，跳过本次运行");
+            return new Result(false, 0, 0);
+        }
+        try {
+            return snapshotAsLeader();
+        } finally {
+            leaseService.release(LEASE_NAME);
+        }
+    }
+
+    private Result snapshotAsLeader() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+
+        // 1. 当前总额 (分)：{总资产, 各类型...}，按组合编号排序
+        Map<Long, long[]> current = new TreeMap<>();
+        // 2. 上一次快照的总额
+        Map<Long, long[]> last = new HashMap<>();
+        // 读主库：是否写入快照取决于读到的总额，不能使用有复制延迟的副本
+        DataSourceRouting.onPrimary(() -> readTemplate.executeWithoutResult(tx -> {
+            for (AssetTypeTotal total : assetDetailRepository.sumAmountGroupByPortfolioAndAssetType()) {
+                long[] values = current.computeIfAbsent(total.getPortfolioId(), id -> new long[1 + TYPES.length]);
+                long cents = Cents.of(total.getTotal());
+                values[1 + total.getAssetType().ordinal()] = cents;
+                values[0] = Cents.add(values[0], cents);
+            }
+            jdbcTemplate.query(SELECT_LAST, (RowCallbackHandler) rs -> {
+                long[] values = new long[1 + TYPES.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = Cents.of(rs.getBigDecimal(2 + i));
+                }
+                last.put(rs.getLong(1), values);
+            }, Bucket.MONTH.name());
+        }));
+
+        // 3. 只为总额变化的组合生成快照
+        List<HistoryRecord> changed = new ArrayList<>();
+        int unchanged = 0;
+        for (Map.Entry<Long, long[]> entry : current.entrySet()) {
+            if (Arrays.equals(entry.getValue(), last.get(entry.getKey()))) {
+                unchanged++;
+            } else {
+                changed.add(snapshot(entry.getKey(), entry.getValue(), now));
+            }
+        }
+
+        // 4. 分批写入快照和汇总，每批之前续约
+        int written = 0;
+        for (int from = 0; from < changed.size(); from += WRITE_BATCH_SIZE) {
+            if (from > 0 && !leaseService.tryAcquire(LEASE_NAME, leaseDuration)) {
+                log.warn("定时快照租约已被其他实例接管，停止本轮写入 (已写入 {} 条)", written);
+                break;
+            }
+            List<HistoryRecord> batch = changed.subList(from, Math.min(from + WRITE_BATCH_SIZE, changed.size()));
+            transactionTemplate.executeWithoutResult(tx -> {
+                secondLevelCache.beforeJdbcInsert(HistoryRecord.class);
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, batch, WRITE_BATCH_SIZE, (ps, record) -> {
+                    ps.setLong(1, record.getPortfolioId());
+                    ps.setObject(2, record.getRecordDate());
+                    ps.setBigDecimal(3, record.getGrandTotal());
+                    ps.setBigDecimal(4, record.getNasdaqTotal());
+                    ps.setBigDecimal(5, record.getSpTotal());
+                    ps.setBigDecimal(6, record.getConservativeTotal());
+                    ps.setBigDecimal(7, record.getCashTotal());
+                });
+                historyRollupService.recordAll(batch);
+            });
+            written += batch.size();
+        }
+
+        meterRegistry.counter("asset.snapshot.records", "result", "written").increment(written);
+        meterRegistry.counter("asset.snapshot.records", "result", "unchanged").increment(unchanged);
+        log.info("定时快照完成：写入 {} 条，{} 个组合未变化，耗时 {} ms", written, unchanged,
+                (System.nanoTime() - start) / 1_000_000);
+        return new Result(true, written, unchanged);
+    }
+
+    private static HistoryRecord snapshot(long portfolioId, long[] totals, LocalDateTime now) {
+        HistoryRecord record = new HistoryRecord();
+        record.setPortfolioId(portfolioId);
+        record.setRecordDate(now);
+        record.setGrandTotal(Cents.toBigDecimal(totals[0]));
+        record.setNasdaqTotal(Cents.toBigDecimal(totals[1 + AssetType.NASDAQ.ordinal()]));
+        record.setSpTotal(Cents.toBigDecimal(totals[1 + AssetType.SP.ordinal()]));
+        record.setConservativeTotal(Cents.toBigDecimal(totals[1 + AssetType.CONSERVATIVE.ordinal()]));
+        record.setCashTotal(Cents.toBigDecimal(totals[1 + AssetType.CASH.ordinal()]));
+        return record;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 按版本号失效的单值缓存。
+ *
+ * 缓存的版本号与数据版本号一致时直接返回；不一致时只有一个线程重新计算，
+ * 同时到达的其他请求等待并共享这一次的计算结果 (避免缓存失效后的惊群)。
+ * 值以计算开始前读取的版本号保存，计算期间如有新写入，下一次读取会再次重新计算。
+ */
+public final class VersionedCache<T> {
+
+    /**
+     * 缓存项：值及其对应的数据版本号
+     */
+    public record Entry<T>(long version, T value) {
+    }
+
+    private final LongSupplier versionSource;
+    private final Supplier<T> loader;
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    private volatile Entry<T> entry;
+
+    public VersionedCache(LongSupplier versionSource, Supplier<T> loader) {
+        this.versionSource = versionSource;
+        this.loader = loader;
+    }
+
+    public Entry<T> get() {
+        Entry<T> cached = entry;
+        if (cached != null && cached.version() == versionSource.getAsLong()) {
+            return cached;
+        }
+        loadLock.lock();
+        try {
+            long version = versionSource.getAsLong();
+            cached = entry;
+            if (cached != null && cached.version() == version) {
+                return cached;
+            }
+            Entry<T> loaded = new Entry<>(version, loader.get());
+            entry = loaded;
+            return loaded;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * 清空缓存 (下一次读取重新计算)
+     */
+    public void invalidate() {
+        entry = null;
+    }
+}
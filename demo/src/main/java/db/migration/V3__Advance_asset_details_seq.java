@@ -0,0 +1,34 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 把 asset_details_seq 移到已有持仓的最大 id 之后 (V2 新建的序列从 1 开始，会与自增列分配过的 id 冲突)。
+ *
+ * Hibernate 的 pooled 分配器把 nextval 返回的值作为一批 50 个 id 的上界，因此下一次 nextval 至少为 max(id) + 50。
+ * ALTER SEQUENCE ... RESTART WITH 只接受常量，先查出最大 id 再执行 (PostgreSQL 与 H2 通用)；表为空时不需要移动。
+ */
+public class V3__Advance_asset_details_seq extends BaseJavaMigration {
+
+    private static final long ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT MAX(id) FROM asset_details")) {
+                rs.next();
+                maxId = rs.getLong(1);
+                if (rs.wasNull()) {
+                    return;
+                }
+            }
+            statement.execute("ALTER SEQUENCE asset_details_seq RESTART WITH " + (maxId + ALLOCATION_SIZE));
+        }
+    }
+}
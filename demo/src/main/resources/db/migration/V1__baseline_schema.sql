@@ -0,0 +1,22 @@
+-- 基线表结构：最初版本 (ddl-auto: update) 建出的持仓明细和历史快照表。
+-- 已由旧版本建好表的库在首次迁移时记为版本 1 (spring.flyway.baseline-on-migrate)，只执行 V2 及之后的脚本；
+-- 之后的脚本对可能已由 ddl-auto: update 建好的表、列、索引使用 IF NOT EXISTS。
+
+CREATE TABLE asset_details (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    asset_type VARCHAR(255)   NOT NULL CHECK (asset_type IN ('NASDAQ', 'SP', 'CONSERVATIVE', 'CASH')),
+    name       VARCHAR(255)   NOT NULL,
+    amount     NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE history_records (
+    id                 BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    record_date        TIMESTAMP(6)   NOT NULL,
+    grand_total        NUMERIC(19, 2) NOT NULL,
+    nasdaq_total       NUMERIC(19, 2),
+    sp_total           NUMERIC(19, 2),
+    conservative_total NUMERIC(19, 2),
+    cash_total         NUMERIC(19, 2),
+    PRIMARY KEY (id)
+);
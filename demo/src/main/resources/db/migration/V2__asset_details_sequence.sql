@@ -0,0 +1,3 @@
+-- 持仓主键改为序列分配 (每次预取 50 个，与 AssetDetail 的 allocationSize 一致)，支持 JDBC 批量插入。
+-- 原有的自增列保留 (显式指定 id 插入不受影响)；序列移到已有最大 id 之后见 V3。
+CREATE SEQUENCE IF NOT EXISTS asset_details_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,14 @@
+-- 多投资组合：已有数据归入默认组合 1；组合内查询使用的索引
+
+ALTER TABLE asset_details ADD COLUMN IF NOT EXISTS portfolio_id BIGINT DEFAULT 1 NOT NULL;
+ALTER TABLE history_records ADD COLUMN IF NOT EXISTS portfolio_id BIGINT DEFAULT 1 NOT NULL;
+
+-- 按组合分组求和、按组合和类型查询
+CREATE INDEX IF NOT EXISTS idx_asset_details_portfolio_type ON asset_details (portfolio_id, asset_type);
+-- 组合内按 id 的游标分页、流式读取和批量推荐任务的 (portfolio_id, id) 分块扫描
+CREATE INDEX IF NOT EXISTS idx_asset_details_portfolio_id ON asset_details (portfolio_id, id);
+
+-- 组合内按时间倒序的游标分页和按日期范围导出 (取代不含组合的 idx_history_records_record_date_id)
+DROP INDEX IF EXISTS idx_history_records_record_date_id;
+CREATE INDEX IF NOT EXISTS idx_history_records_portfolio_date_id
+    ON history_records (portfolio_id, record_date DESC, id DESC);
@@ -0,0 +1,21 @@
+-- 历史快照按天 / 周 / 月的汇总 (启动时发现与历史记录不一致会自动重建)
+CREATE TABLE IF NOT EXISTS history_rollups (
+    portfolio_id       BIGINT         NOT NULL,
+    bucket             VARCHAR(8)     NOT NULL CHECK (bucket IN ('DAY', 'WEEK', 'MONTH')),
+    bucket_start       DATE           NOT NULL,
+    sample_count       BIGINT         NOT NULL,
+    last_record_date   TIMESTAMP(6)   NOT NULL,
+    grand_total        NUMERIC(19, 2) NOT NULL,
+    nasdaq_total       NUMERIC(19, 2),
+    sp_total           NUMERIC(19, 2),
+    conservative_total NUMERIC(19, 2),
+    cash_total         NUMERIC(19, 2),
+    min_grand_total    NUMERIC(19, 2) NOT NULL,
+    max_grand_total    NUMERIC(19, 2) NOT NULL,
+    sum_grand_total    NUMERIC(24, 2) NOT NULL,
+    PRIMARY KEY (portfolio_id, bucket, bucket_start)
+);
+
+-- 组合内按粒度和时间范围查询
+CREATE INDEX IF NOT EXISTS idx_history_rollups_portfolio_bucket_start
+    ON history_rollups (portfolio_id, bucket, bucket_start);
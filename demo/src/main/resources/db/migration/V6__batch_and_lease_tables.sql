@@ -0,0 +1,35 @@
+-- 批量推荐任务的结果和检查点、多实例定时任务的租约
+
+CREATE TABLE IF NOT EXISTS portfolio_recommendations (
+    portfolio_id         BIGINT         NOT NULL,
+    policy               VARCHAR(64)    NOT NULL,
+    computed_at          TIMESTAMP(6)   NOT NULL,
+    grand_total          NUMERIC(19, 2) NOT NULL,
+    nasdaq_current       NUMERIC(19, 2) NOT NULL,
+    sp_current           NUMERIC(19, 2) NOT NULL,
+    conservative_current NUMERIC(19, 2) NOT NULL,
+    cash_current         NUMERIC(19, 2) NOT NULL,
+    nasdaq_target        NUMERIC(19, 2) NOT NULL,
+    sp_target            NUMERIC(19, 2) NOT NULL,
+    conservative_target  NUMERIC(19, 2) NOT NULL,
+    cash_target          NUMERIC(19, 2) NOT NULL,
+    PRIMARY KEY (portfolio_id, policy)
+);
+
+CREATE TABLE IF NOT EXISTS batch_checkpoints (
+    job_name             VARCHAR(64)  NOT NULL,
+    last_portfolio_id    BIGINT,
+    processed_portfolios BIGINT       NOT NULL,
+    processed_holdings   BIGINT       NOT NULL,
+    started_at           TIMESTAMP(6) NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL,
+    completed            BOOLEAN      NOT NULL,
+    PRIMARY KEY (job_name)
+);
+
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    lease_name VARCHAR(64)  NOT NULL,
+    owner      VARCHAR(128) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (lease_name)
+);
@@ -0,0 +1,2 @@
+-- 乐观锁版本号 (按版本号校验的更新和删除)，已有持仓从 0 开始
+ALTER TABLE asset_details ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
@@ -3,6 +3,36 @@
 // 后端 API 地址，请确保与您的 Spring Boot 端口一致（默认 8080）
 const API_BASE_URL = 'http://localhost:8080/api';
 
+// 读己之写：配置了只读副本时，写入后一段时间内的读取要求后端读主库，以便立即看到刚刚的修改
+// (包括冲突后取回最新版本号)；其余读取走副本
+const READ_YOUR_WRITES_WINDOW_MS = 5000;
+let lastWriteAt = 0;
+
+axios.interceptors.request.use(config => {
+    const method = (config.method || 'get').toLowerCase();
+    if (method !== 'get') {
+        lastWriteAt = Date.now();
+    } else if (Date.now() - lastWriteAt < READ_YOUR_WRITES_WINDOW_MS) {
+        config.headers['X-Read-Your-Writes'] = 'true';
+    }
+    return config;
+});
+
+// 窗口从写入完成时算起 (成功或失败都可能已修改数据)
+function markWriteCompleted(config) {
+    if (config && (config.method || 'get').toLowerCase() !== 'get') {
+        lastWriteAt = Date.now();
+    }
+}
+
+axios.interceptors.response.use(response => {
+    markWriteCompleted(response.config);
+    return response;
+}, error => {
+    markWriteCompleted(error.config);
+    return Promise.reject(error);
+});
+
 // 资产类型映射，用于前端展示和后端枚举匹配
 const ASSET_TYPE_MAP = {
     'nasdaq': 'NASDAQ',
@@ -95,6 +125,14 @@ async function fetchAndRenderAllAssets() {
             if (ul) {
                 const li = document.createElement('li');
                 li.innerHTML = `<span>${item.name}:</span> <span>${parseFloat(item.amount).toFixed(2)} 元</span>`;
+                // 修改 / 删除时带上读取时的版本号，已被其他人修改时后端返回 409
+                const editBtn = document.createElement('button');
+                editBtn.textContent = '修改';
+                editBtn.addEventListener('click', () => editAsset(item));
+                const deleteBtn = document.createElement('button');
+                deleteBtn.textContent = '删除';
+                deleteBtn.addEventListener('click', () => deleteAsset(item));
+                li.append(' ', editBtn, ' ', deleteBtn);
                 ul.appendChild(li);
             }
             
@@ -148,6 +186,46 @@ async function handleAssetFormSubmit(e) {
     }
 }
 
+/**
+ * 修改资产金额 (PATCH /api/assets/{id})
+ */
+async function editAsset(item) {
+    const input = prompt(`请输入 ${item.name} 的新金额：`, parseFloat(item.amount).toFixed(2));
+    if (input === null) return;
+    const amount = parseFloat(input);
+    if (isNaN(amount) || amount < 0) {
+        alert('请输入有效的金额！');
+        return;
+    }
+    await writeAsset('正在修改资产...', () =>
+        axios.patch(`${API_BASE_URL}/assets/${item.id}`, { version: item.version, amount: amount }));
+}
+
+/**
+ * 删除资产 (DELETE /api/assets/{id}?version=)
+ */
+async function deleteAsset(item) {
+    if (!confirm(`确定删除 ${item.name}？`)) return;
+    await writeAsset('正在删除资产...', () =>
+        axios.delete(`${API_BASE_URL}/assets/${item.id}`, { params: { version: item.version } }));
+}
+
+async function writeAsset(message, request) {
+    showLoading(message);
+    try {
+        await request();
+    } catch (error) {
+        console.error('修改资产失败:', error);
+        alert(error.response && error.response.status === 409
+            ? '该资产已被修改，已刷新为最新数据，请重试。'
+            : '操作失败，请重试。');
+    } finally {
+        hideLoading();
+    }
+    await fetchAndRenderAllAssets(); // 刷新列表和总额 (冲突时也取回最新版本号)
+    document.getElementById('recommendation-results').style.display = 'none';
+}
+
 // ==========================================================
 // 推荐配置 (与后端 /api/calculate/recommendation 交互)
 // ==========================================================
@@ -186,7 +264,7 @@ function renderRecommendationResults(data) {
     const targetConfig = [
         { name: '纳指持仓', targetAmount: data.nasdaqTarget, currentAmount: data.nasdaqCurrent, targetRatio: data.nasdaqTargetRatio },
         { name: '标普持仓', targetAmount: data.spTarget, currentAmount: data.spCurrent, targetRatio: data.spTargetRatio },
-        { name: '稳健投资', targetAmount: 0, currentAmount: data.conservativeCurrent, targetRatio: '0.00%' },
+        { name: '稳健投资', targetAmount: data.conservativeTarget ?? 0, currentAmount: data.conservativeCurrent, targetRatio: data.conservativeTargetRatio ?? '0.00%' },
         { name: '现金', targetAmount: data.cashTarget, currentAmount: data.cashCurrent, targetRatio: data.cashTargetRatio },
     ];
 
@@ -265,13 +343,18 @@ async function saveCurrentConfig() {
 async function fetchAndRenderHistory() {
     showLoading('正在加载历史记录...');
     try {
-        const response = await axios.get(`${API_BASE_URL}/records`);
-        const records = response.data; // List<HistoryRecordDTO>
+        // 表格只显示最近 100 条 (游标分页首页)；趋势图使用降采样后的点 (按时间正序)，与历史记录总数无关
+        const [pageResponse, pointsResponse] = await Promise.all([
+            axios.get(`${API_BASE_URL}/records`, { params: { limit: 100 } }),
+            axios.get(`${API_BASE_URL}/records`, { params: { points: 500 } })
+        ]);
+        const records = pageResponse.data.items; // List<HistoryRecordDTO>，最新的在前
+        const points = pointsResponse.data; // List<HistoryRecordDTO>，最老的在前
         
         renderHistoryTable(records);
         
-        if (records.length > 0) {
-            renderHistoryCharts(records);
+        if (points.length > 0) {
+            renderHistoryCharts(points);
         } else {
             // 清空图表
             if(lineChart) lineChart.dispose();
@@ -313,8 +396,8 @@ function renderHistoryTable(records) {
  * 绘制历史记录图表
  */
 function renderHistoryCharts(records) {
-    // 确保数据顺序是从老到新，方便绘制趋势图
-    const sortedRecords = [...records].reverse(); 
+    // 降采样接口已按时间从老到新排列，方便绘制趋势图
+    const sortedRecords = records;
 
     // 绘制折线图
     if (lineChart) lineChart.dispose();
@@ -332,12 +415,12 @@ function renderHistoryCharts(records) {
         series: [{ name: '总资产', type: 'line', data: totals, smooth: true }]
     });
     
-    // 绘制最新配置的饼图 (最新的在 records[0])
+    // 绘制最新配置的饼图 (降采样总是保留最后一条记录)
     if (pieChart) pieChart.dispose();
     const pieChartDom = document.getElementById('history-pie-chart');
     pieChart = echarts.init(pieChartDom);
     
-    const latestRecord = records[0];
+    const latestRecord = records[records.length - 1];
     pieChart.setOption({
         title: { text: `${new Date(latestRecord.recordDate).toLocaleDateString()} 实际配置饼图`, left: 'center' },
         series: [{
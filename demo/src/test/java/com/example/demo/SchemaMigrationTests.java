@@ -0,0 +1,145 @@
+package com.example.demo;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.BatchCheckpoint;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.model.HistoryRollup;
+import com.example.demo.model.PortfolioRecommendation;
+import com.example.demo.model.SchedulerLease;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 迁移脚本：
+ * 1. 空库按顺序执行全部脚本，建出所有表和查询依赖的索引，重复执行不会再次运行；
+ * 2. 最初版本 (ddl-auto: update) 建出的库记为基线版本 1 后执行 V2 及之后的脚本，已有数据归入默认组合、
+ *    版本号为 0，主键序列移到已有最大 id 之后；
+ * 3. 两种情况下迁移后的表结构都通过 Hibernate 的 validate 校验 (使用生产环境的 PostgreSQL 方言)。
+ */
+class SchemaMigrationTests {
+
+    private static final String OPTIONS = ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void emptyDatabaseMigratesAndValidates() throws SQLException {
+        String url = "jdbc:h2:mem:schema_migration_empty" + OPTIONS;
+        Flyway flyway = flyway(url);
+        MigrateResult first = flyway.migrate();
+        assertThat(first.success).isTrue();
+        assertThat(first.migrationsExecuted).isEqualTo(7);
+        assertThat(flyway.migrate().migrationsExecuted).isZero();
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            assertThat(indexes(metaData, "asset_details"))
+                    .contains("idx_asset_details_portfolio_type", "idx_asset_details_portfolio_id");
+            assertThat(indexes(metaData, "history_records"))
+                    .contains("idx_history_records_portfolio_date_id");
+            assertThat(indexes(metaData, "history_rollups"))
+                    .contains("idx_history_rollups_portfolio_bucket_start");
+        }
+        validate(url);
+    }
+
+    @Test
+    void baselineDatabaseIsUpgradedAndValidates() throws SQLException {
+        String url = "jdbc:h2:mem:schema_migration_baseline" + OPTIONS;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            // 最初版本由 Hibernate 建出的表 (自增主键，没有组合和版本号)
+            statement.execute("CREATE TABLE asset_details (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "asset_type VARCHAR(255) NOT NULL, name VARCHAR(255) NOT NULL, amount NUMERIC(19, 2) NOT NULL)");
+            statement.execute("CREATE TABLE history_records (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                    + "record_date TIMESTAMP(6) NOT NULL, grand_total NUMERIC(19, 2) NOT NULL, "
+                    + "nasdaq_total NUMERIC(19, 2), sp_total NUMERIC(19, 2), conservative_total NUMERIC(19, 2), "
+                    + "cash_total NUMERIC(19, 2))");
+            statement.execute("INSERT INTO asset_details (id, asset_type, name, amount) VALUES "
+                    + "(7, 'NASDAQ', 'QQQ', 100.00), (120, 'CASH', '活期', 50.00)");
+            statement.execute("INSERT INTO history_records (record_date, grand_total) VALUES "
+                    + "(TIMESTAMP '2024-01-01 00:00:00', 150.00)");
+        }
+
+        MigrateResult result = flyway(url).migrate();
+        assertThat(result.success).isTrue();
+        assertThat(result.migrationsExecuted).isEqualTo(6);
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT COUNT(*) FROM asset_details WHERE portfolio_id = 1 AND version = 0")) {
+                rs.next();
+                assertThat(rs.getLong(1)).isEqualTo(2);
+            }
+            try (ResultSet rs = statement.executeQuery("SELECT portfolio_id FROM history_records")) {
+                rs.next();
+                assertThat(rs.getLong(1)).isEqualTo(1);
+            }
+            // pooled 分配器以 nextval 为一批 id 的上界，整批都在已有最大 id 之后
+            try (ResultSet rs = statement.executeQuery("SELECT NEXT VALUE FOR asset_details_seq")) {
+                rs.next();
+                assertThat(rs.getLong(1) - 50).isGreaterThanOrEqualTo(120);
+            }
+        }
+        validate(url);
+    }
+
+    private static Flyway flyway(String url) {
+        return Flyway.configure()
+                .dataSource(url, "sa", "")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    /**
+     * 以 ddl-auto: validate 构建 SessionFactory，表、列类型或序列与实体不一致时抛出异常
+     */
+    private static void validate(String url) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.URL, url)
+                .applySetting(AvailableSettings.USER, "sa")
+                .applySetting(AvailableSettings.PASS, "")
+                .applySetting(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "validate")
+                .applySetting(AvailableSettings.USE_SECOND_LEVEL_CACHE, false)
+                .applySetting(AvailableSettings.USE_QUERY_CACHE, false)
+                .build();
+        try (SessionFactory sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(AssetDetail.class, HistoryRecord.class, HistoryRollup.class,
+                        PortfolioRecommendation.class, BatchCheckpoint.class, SchedulerLease.class)
+                .buildMetadata()
+                .buildSessionFactory()) {
+            assertThat(sessionFactory.isOpen()).isTrue();
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    private static Set<String> indexes(DatabaseMetaData metaData, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, table, false, false)) {
+            while (rs.next()) {
+                names.add(rs.getString("INDEX_NAME"));
+            }
+        }
+        return names;
+    }
+}
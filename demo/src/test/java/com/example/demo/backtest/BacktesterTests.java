@@ -0,0 +1,88 @@
+package com.example.demo.backtest;
+
+import com.example.demo.model.AssetDetail.AssetType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BacktesterTests {
+
+    // 纳指先涨 100% 再跌 50%，其余不变
+    static final String PRICES = """
+            date,CASH,NASDAQ,SP,CONSERVATIVE
+            2024-01-31,1,100,100,100
+            2024-02-01,1,200,100,100
+            2024-02-02,1,100,100,100
+            """;
+
+    // 默认策略的目标权重
+    private static final double[] WEIGHTS = {0.5775, 0.1725, 0, 0.25};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void converterWritesDailyReturnsThatAreMappedBack() throws Exception {
+        PriceSeries series = convert(PRICES);
+
+        assertThat(series.days()).isEqualTo(2);
+        assertThat(series.date(0)).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(series.date(1)).isEqualTo(LocalDate.of(2024, 2, 2));
+        assertThat(series.dailyReturn(0, AssetType.NASDAQ.ordinal())).isEqualTo(1.0);
+        assertThat(series.dailyReturn(1, AssetType.NASDAQ.ordinal())).isEqualTo(-0.5);
+        assertThat(series.dailyReturn(1, AssetType.CASH.ordinal())).isEqualTo(0.0);
+    }
+
+    @Test
+    void converterRejectsDatesOutOfOrder() {
+        String prices = PRICES + "2024-02-02,1,100,100,100\n";
+
+        assertThatThrownBy(() -> convert(prices))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("第 5 行");
+    }
+
+    @Test
+    void rebalancingStrategiesAreComparedInParallel() throws Exception {
+        PriceSeries series = convert(PRICES);
+        List<Backtester.Strategy> strategies = List.of(
+                new Backtester.Strategy(RebalanceFrequency.NEVER, 0),
+                new Backtester.Strategy(RebalanceFrequency.DAILY, 0),
+                new Backtester.Strategy(RebalanceFrequency.DAILY, 0.5),
+                new Backtester.Strategy(RebalanceFrequency.MONTHLY, 0));
+
+        List<Backtester.Result> results = Backtester.runAll(series, WEIGHTS, strategies, ForkJoinPool.commonPool());
+
+        Backtester.Result never = results.get(0);
+        assertThat(never.finalValue()).isCloseTo(1.0, within(1e-12));
+        assertThat(never.maxDrawdown()).isCloseTo(1 - 1 / 1.5775, within(1e-12));
+        assertThat(never.rebalances()).isZero();
+
+        // 第一天收盘后卖出纳指涨幅，第二天的下跌损失更小
+        Backtester.Result daily = results.get(1);
+        assertThat(daily.rebalances()).isEqualTo(1);
+        assertThat(daily.finalValue()).isCloseTo(1.5775 - 1.5775 * 0.5775 / 2, within(1e-12));
+        assertThat(daily.turnover()).isGreaterThan(0);
+
+        // 偏离未超过容忍带，或同一个月内没有再平衡时点
+        assertThat(results.get(2).rebalances()).isZero();
+        assertThat(results.get(3).rebalances()).isZero();
+        assertThat(results.get(3).finalValue()).isEqualTo(never.finalValue());
+    }
+
+    private PriceSeries convert(String csv) throws Exception {
+        Path file = tempDir.resolve("prices.bin");
+        PriceSeriesConverter.convert(new BufferedReader(new StringReader(csv)), file);
+        return PriceSeries.map(file);
+    }
+}
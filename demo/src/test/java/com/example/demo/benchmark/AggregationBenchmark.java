@@ -0,0 +1,98 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.service.AssetLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 推荐配置聚合的基准测试：对比
+ *   before: findAll() -> DTO -> Entity -> 每种类型各扫描一次列表求和
+ *   after : 数据库 GROUP BY asset_type 求和
+ *   ledger: 读取内存中的资产总额账本 (AssetLedger)
+ * 在 10k / 100k / 1M 行下的耗时和内存分配。
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AggregationBenchmark {
+
+    private static final int[] ROW_COUNTS = {10_000, 100_000, 1_000_000};
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM asset_details");
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void aggregationBeforeAndAfter() {
+        for (int rows : ROW_COUNTS) {
+            jdbcTemplate.update("DELETE FROM asset_details");
+            insertRows(rows);
+            assetLedger.rebuild();
+            int iterations = rows >= 1_000_000 ? 3 : 10;
+
+            System.out.println("---- " + rows + " rows ----");
+            System.out.println(BenchmarkSupport.measure("before: findAll + stream sum", 1, iterations,
+                    this::sumInMemory));
+            System.out.println(BenchmarkSupport.measure("after : GROUP BY projection", 1, iterations,
+                    () -> assetDetailRepository.sumAmountGroupByAssetType(Portfolios.DEFAULT_ID)));
+            System.out.println(BenchmarkSupport.measure("ledger: AssetLedger.totalsByType", 1_000, 10_000,
+                    () -> assetLedger.totalsByType(Portfolios.DEFAULT_ID)));
+        }
+    }
+
+    /**
+     * 旧实现：加载所有行并在内存中按类型各扫描一次
+     */
+    private Map<AssetType, BigDecimal> sumInMemory() {
+        List<AssetDetail> allAssets = assetDetailRepository.findAll();
+        Map<AssetType, BigDecimal> totals = new EnumMap<>(AssetType.class);
+        for (AssetType type : AssetType.values()) {
+            totals.put(type, allAssets.stream()
+                    .filter(asset -> asset.getAssetType() == type)
+                    .map(AssetDetail::getAmount)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .setScale(2, RoundingMode.HALF_UP));
+        }
+        return totals;
+    }
+
+    private void insertRows(int rows) {
+        AssetType[] types = AssetType.values();
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < rows; i++) {
+            long cents = ThreadLocalRandom.current().nextLong(1, 10_000_000);
+            batch.add(new Object[]{types[i % types.length].name(), "holding-" + i, BigDecimal.valueOf(cents, 2)});
+            if (batch.size() == 10_000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO asset_details (id, asset_type, name, amount) "
+                        + "VALUES (nextval('asset_details_seq'), ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
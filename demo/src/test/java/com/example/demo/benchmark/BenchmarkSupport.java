@@ -0,0 +1,62 @@
+package com.example.demo.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * 基准测试辅助工具：测量一段代码的耗时 (中位数) 和当前线程的内存分配量。
+ *
+ * 基准测试默认不随 mvn test 运行，需显式开启：
+ *   mvn test -Dbenchmark=true -Dtest='*Benchmark'
+ */
+final class BenchmarkSupport {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 先预热 warmup 次，再执行 iterations 次，返回中位耗时和平均每次分配的字节数
+     */
+    static Result measure(String name, int warmup, int iterations, Supplier<?> action) {
+        for (int i = 0; i < warmup; i++) {
+            blackhole(action.get());
+        }
+        long[] nanos = new long[iterations];
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            blackhole(action.get());
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        Arrays.sort(nanos);
+        return new Result(name, nanos[iterations / 2], allocated / iterations);
+    }
+
+    /**
+     * 计算吞吐量 (行/秒)
+     */
+    static double rowsPerSecond(long rows, long nanos) {
+        return rows * 1_000_000_000.0 / Math.max(nanos, 1);
+    }
+
+    private static volatile int sink;
+
+    private static void blackhole(Object value) {
+        sink ^= System.identityHashCode(value);
+    }
+
+    record Result(String name, long medianNanos, long allocatedBytesPerOp) {
+
+        @Override
+        public String toString() {
+            return String.format("%-40s median %12.1f us   alloc %,14d B/op",
+                    name, medianNanos / 1_000.0, allocatedBytesPerOp);
+        }
+    }
+}
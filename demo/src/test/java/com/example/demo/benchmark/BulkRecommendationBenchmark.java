@@ -0,0 +1,113 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.BulkRecommendationStatusDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.AssetTypeTotal;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.BulkRecommendationService;
+import com.example.demo.service.CalculationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 批量推荐任务的基准测试：100k 个组合、共 1M 条持仓，对比
+ *   before: 逐个组合查询 GROUP BY asset_type 求和 (N 次查询)
+ *   ledger: 逐个组合调用 CalculationService.getRecommendation() (读取内存账本，不写结果)
+ *   bulk  : BulkRecommendationService 一遍扫描 + fork/join 计算 + 批量写入结果
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BulkRecommendationBenchmark {
+
+    private static final int PORTFOLIOS = 100_000;
+
+    private static final int HOLDINGS = 1_000_000;
+
+    @Autowired
+    private BulkRecommendationService bulkRecommendationService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM portfolio_recommendations");
+        jdbcTemplate.update("DELETE FROM batch_checkpoints");
+        jdbcTemplate.update("DELETE FROM asset_details");
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void bulkRecommendationAtOneMillionHoldings() {
+        insertRows();
+        assetLedger.rebuild();
+        System.out.println("---- " + PORTFOLIOS + " portfolios, " + HOLDINGS + " holdings ----");
+
+        BenchmarkSupport.Result before = BenchmarkSupport.measure("before: per-portfolio GROUP BY", 0, 1, () -> {
+            long grandTotal = 0;
+            for (long portfolio = 1; portfolio <= PORTFOLIOS; portfolio++) {
+                for (AssetTypeTotal total : assetDetailRepository.sumAmountGroupByAssetType(portfolio)) {
+                    grandTotal += total.getTotal().unscaledValue().longValue();
+                }
+            }
+            return grandTotal;
+        });
+        System.out.println(before + report(before));
+
+        BenchmarkSupport.Result ledger = BenchmarkSupport.measure("ledger: per-portfolio getRecommendation", 1, 3,
+                () -> {
+                    BigDecimal grandTotal = BigDecimal.ZERO;
+                    for (long portfolio = 1; portfolio <= PORTFOLIOS; portfolio++) {
+                        grandTotal = grandTotal.add(calculationService.getRecommendation(portfolio).getGrandTotal());
+                    }
+                    return grandTotal;
+                });
+        System.out.println(ledger + report(ledger));
+
+        BulkRecommendationStatusDTO[] status = new BulkRecommendationStatusDTO[1];
+        BenchmarkSupport.Result bulk = BenchmarkSupport.measure("bulk  : scan + fork/join + batch write", 1, 3,
+                () -> status[0] = bulkRecommendationService.run(true));
+        System.out.println(bulk + report(bulk));
+        System.out.println("bulk status: portfolios=" + status[0].getProcessedPortfolios()
+                + " holdings=" + status[0].getProcessedHoldings() + " chunks=" + status[0].getChunks());
+    }
+
+    private static String report(BenchmarkSupport.Result result) {
+        return String.format("   %,.0f holdings/s", BenchmarkSupport.rowsPerSecond(HOLDINGS, result.medianNanos()));
+    }
+
+    private void insertRows() {
+        AssetType[] types = AssetType.values();
+        int perPortfolio = HOLDINGS / PORTFOLIOS;
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < HOLDINGS; i++) {
+            long cents = ThreadLocalRandom.current().nextLong(1, 10_000_000);
+            batch.add(new Object[]{i / perPortfolio + 1L, types[i % types.length].name(), "holding-" + i,
+                    BigDecimal.valueOf(cents, 2)});
+            if (batch.size() == 10_000 || i == HOLDINGS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO asset_details (id, portfolio_id, asset_type, name, amount) "
+                        + "VALUES (nextval('asset_details_seq'), ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
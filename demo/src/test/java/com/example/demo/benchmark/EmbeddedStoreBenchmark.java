@@ -0,0 +1,116 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.AssetImportResultDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.service.AssetImportReaders;
+import com.example.demo.service.AssetImportService;
+import com.example.demo.service.AssetService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 嵌入式存储模式与 JPA 默认后端的对比：已有 10 万条持仓时的启动耗时 (中位数)、
+ * 逐条保存 (每条一个事务) 和批量导入的每秒写入行数。
+ *
+ * JPA 后端默认为 H2 内存库；指定 -Dbenchmark.jpa.url (及 .username / .password) 可改为对比 PostgreSQL：
+ *   mvn test -Dbenchmark=true -Dtest=EmbeddedStoreBenchmark -Dbenchmark.jpa.url=jdbc:postgresql://localhost:5432/bench
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EmbeddedStoreBenchmark {
+
+    private static final int HOLDINGS = 100_000;
+
+    private static final int SINGLE_WRITES = 5_000;
+
+    private static final int RESTARTS = 5;
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void jpaBackend() {
+        String url = System.getProperty("benchmark.jpa.url",
+                "jdbc:h2:mem:embedded_benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1");
+        run("jpa", new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE), new String[]{
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("benchmark.jpa.username", "sa"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.jpa.password", ""),
+                "--spring.jpa.hibernate.ddl-auto=update"});
+    }
+
+    @Test
+    void embeddedBackend() {
+        run("embedded", new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded"), new String[]{
+                "--asset.embedded.path=" + directory.resolve("asset"),
+                "--spring.jpa.hibernate.ddl-auto=update"});
+    }
+
+    private void run(String backend, SpringApplicationBuilder builder, String[] args) {
+        try (ConfigurableApplicationContext context = builder.run(args)) {
+            AssetService assetService = context.getBean(AssetService.class);
+            long start = System.nanoTime();
+            for (int i = 0; i < SINGLE_WRITES; i++) {
+                assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, type(i), "single-" + i, new BigDecimal("1.00")));
+            }
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%-8s single saves   %,d rows -> %,12.0f rows/s%n",
+                    backend, SINGLE_WRITES, BenchmarkSupport.rowsPerSecond(SINGLE_WRITES, nanos));
+
+            AssetImportResultDTO result = context.getBean(AssetImportService.class)
+                    .importAssets(PORTFOLIO, AssetImportReaders.csv(csv()));
+            assertThat(result.getImported()).isEqualTo(HOLDINGS);
+            System.out.printf("%-8s bulk import    %,d rows -> %,12.0f rows/s%n",
+                    backend, HOLDINGS, BenchmarkSupport.rowsPerSecond(HOLDINGS, result.getElapsedMillis() * 1_000_000));
+        }
+
+        // 重启：JPA 后端只需连接已有的库；嵌入式后端需打开并恢复本地文件，两者都重建内存账本
+        long[] nanos = new long[RESTARTS];
+        for (int i = 0; i < RESTARTS; i++) {
+            long start = System.nanoTime();
+            try (ConfigurableApplicationContext context = builder.run(args)) {
+                nanos[i] = System.nanoTime() - start;
+                if (i == RESTARTS - 1) {
+                    assertThat(context.getBean(JdbcTemplate.class).queryForObject(
+                            "SELECT COUNT(*) FROM asset_details WHERE portfolio_id = ?", Long.class, PORTFOLIO))
+                            .isEqualTo(SINGLE_WRITES + HOLDINGS);
+                }
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-8s startup with %,d holdings: median %,d ms%n",
+                backend, SINGLE_WRITES + HOLDINGS, nanos[RESTARTS / 2] / 1_000_000);
+    }
+
+    private static ByteArrayInputStream csv() {
+        StringBuilder csv = new StringBuilder("asset_type,name,amount\n");
+        for (int i = 0; i < HOLDINGS; i++) {
+            csv.append(type(i)).append(",holding-").append(i).append(',').append(i % 100_000).append(".00\n");
+        }
+        return new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AssetType type(int i) {
+        return AssetType.values()[i % AssetType.values().length];
+    }
+}
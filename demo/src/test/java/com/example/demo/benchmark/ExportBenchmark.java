@@ -0,0 +1,128 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.Portfolios;
+import com.example.demo.service.HistoryExportService.ExportFormat;
+import com.example.demo.service.HistoryExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 历史记录导出基准测试：在 100k / 1M 行下导出 CSV 和 NDJSON，
+ * 报告吞吐量 (行/秒) 以及导出过程中存活堆内存的峰值增量 (应与行数无关)。
+ * 注意：GC 采样本身会拉低吞吐量，吞吐量数字偏保守；H2 与应用同进程，
+ * 它为查询结果保留的行也计入堆内存 (PostgreSQL 下这部分在数据库服务器上)。
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExportBenchmark {
+
+    private static final int[] ROW_COUNTS = {100_000, 1_000_000};
+
+    @Autowired
+    private HistoryExportService historyExportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM history_records");
+    }
+
+    @Test
+    void exportThroughputAndHeap() throws IOException {
+        int inserted = 0;
+        for (int rows : ROW_COUNTS) {
+            insertRecords(inserted, rows - inserted);
+            inserted = rows;
+            for (ExportFormat format : ExportFormat.values()) {
+                HeapSamplingOutputStream out = new HeapSamplingOutputStream();
+                long start = System.nanoTime();
+                long exported = historyExportService.export(Portfolios.DEFAULT_ID, format, null, null, out);
+                long elapsed = System.nanoTime() - start;
+
+                assertThat(exported).isEqualTo(rows);
+                System.out.printf("%-6s %,9d rows  %,7d ms  %,10.0f rows/s  %,6d MB written  peak live heap +%,d KB%n",
+                        format, exported, elapsed / 1_000_000, BenchmarkSupport.rowsPerSecond(exported, elapsed),
+                        out.bytes >> 20, out.peakHeapGrowth() >> 10);
+            }
+        }
+    }
+
+    private void insertRecords(int offset, int count) {
+        LocalDateTime base = LocalDateTime.of(2000, 1, 1, 0, 0);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = offset; i < offset + count; i++) {
+            BigDecimal part = BigDecimal.valueOf(i % 1_000_000, 2);
+            batch.add(new Object[]{Timestamp.valueOf(base.plusMinutes(i)), part.multiply(BigDecimal.valueOf(4)),
+                    part, part, part, part});
+            if (batch.size() == 10_000 || i == offset + count - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO history_records (record_date, grand_total, nasdaq_total, "
+                        + "sp_total, conservative_total, cash_total) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 丢弃写入的数据，只统计字节数，并每写出 8MB 采样一次 GC 后仍存活的堆内存 (排除已成为垃圾的对象)
+     */
+    private static final class HeapSamplingOutputStream extends OutputStream {
+
+        private static final long SAMPLE_BYTES = 8L << 20;
+
+        private final long baseline;
+        private long bytes;
+        private long nextSample = SAMPLE_BYTES;
+        private long peakHeap;
+
+        HeapSamplingOutputStream() {
+            System.gc();
+            baseline = usedHeap();
+            peakHeap = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            sample();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            sample();
+        }
+
+        private void sample() {
+            if (bytes >= nextSample) {
+                nextSample += SAMPLE_BYTES;
+                System.gc();
+                peakHeap = Math.max(peakHeap, usedHeap());
+            }
+        }
+
+        long peakHeapGrowth() {
+            return Math.max(0, peakHeap - baseline);
+        }
+
+        private static long usedHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.dto.AssetImportResultDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.service.AssetImportReaders;
+import com.example.demo.service.AssetImportService;
+import com.example.demo.service.AssetLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 批量导入基准测试：分别以 CSV 和 NDJSON 导入 1M 行，报告每秒导入行数。
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ImportBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private AssetImportService assetImportService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM asset_details");
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void importCsv() throws IOException {
+        Path file = tempDir.resolve("assets.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("asset_type,name,amount\n");
+            for (int i = 0; i < ROWS; i++) {
+                writer.write(type(i) + ",holding-" + i + "," + amount(i) + "\n");
+            }
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            report("CSV", assetImportService.importAssets(Portfolios.DEFAULT_ID, AssetImportReaders.csv(in)));
+        }
+    }
+
+    @Test
+    void importNdjson() throws IOException {
+        Path file = tempDir.resolve("assets.ndjson");
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < ROWS; i++) {
+                writer.write("{\"assetType\":\"" + type(i) + "\",\"name\":\"holding-" + i
+                        + "\",\"amount\":" + amount(i) + "}\n");
+            }
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            report("NDJSON", assetImportService.importAssets(Portfolios.DEFAULT_ID,
+                    AssetImportReaders.ndjson(in, objectMapper)));
+        }
+    }
+
+    private void report(String format, AssetImportResultDTO result) {
+        assertThat(result.getImported()).isEqualTo(ROWS);
+        System.out.printf("%-7s imported %,d rows in %,d chunks, %,d ms -> %,.0f rows/s%n",
+                format, result.getImported(), result.getChunks(), result.getElapsedMillis(),
+                BenchmarkSupport.rowsPerSecond(result.getImported(), result.getElapsedMillis() * 1_000_000));
+    }
+
+    private static AssetType type(int i) {
+        return AssetType.values()[i % AssetType.values().length];
+    }
+
+    private static String amount(int i) {
+        return (i % 100_000) + "." + String.format("%02d", i % 100);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.CalculationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 多组合的基准测试：表中有 10k / 100k 个组合 (每个组合 10 条持仓、5 条历史记录)，
+ * 测量单个组合的持仓分页、按类型求和、历史分页和推荐配置的耗时。
+ * 有 (portfolio_id, ...) 复合索引时，耗时只与组合自身大小有关，不随总行数增长。
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PortfolioBenchmark {
+
+    private static final int[] PORTFOLIO_COUNTS = {10_000, 100_000};
+
+    private static final int HOLDINGS_PER_PORTFOLIO = 10;
+
+    private static final int RECORDS_PER_PORTFOLIO = 5;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM history_records");
+        jdbcTemplate.update("DELETE FROM asset_details");
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void perPortfolioReadsDoNotDependOnTableSize() {
+        for (int portfolios : PORTFOLIO_COUNTS) {
+            jdbcTemplate.update("DELETE FROM history_records");
+            jdbcTemplate.update("DELETE FROM asset_details");
+            insertRows(portfolios);
+            // 绕过 Hibernate 直接写库，需清空二级缓存 (上一轮的查询结果已过期)
+            entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+            assetLedger.rebuild();
+            System.out.println("---- " + portfolios + " portfolios, "
+                    + portfolios * HOLDINGS_PER_PORTFOLIO + " holdings ----");
+            System.out.println(BenchmarkSupport.measure("assets page (portfolio_id, id)", 100, 1_000,
+                    () -> assetDetailRepository.findByPortfolioIdAndIdGreaterThanOrderByIdAsc(
+                            randomPortfolio(portfolios), 0L, PageRequest.ofSize(100))));
+            System.out.println(BenchmarkSupport.measure("GROUP BY (portfolio_id, asset_type)", 100, 1_000,
+                    () -> assetDetailRepository.sumAmountGroupByAssetType(randomPortfolio(portfolios))));
+            System.out.println(BenchmarkSupport.measure("history page (portfolio_id, record_date)", 100, 1_000,
+                    () -> historyRecordRepository.findByPortfolioIdOrderByRecordDateDescIdDesc(
+                            randomPortfolio(portfolios), PageRequest.ofSize(20))));
+            System.out.println(BenchmarkSupport.measure("recommendation (ledger)", 1_000, 10_000,
+                    () -> calculationService.getRecommendation(randomPortfolio(portfolios))));
+        }
+    }
+
+    private static long randomPortfolio(int portfolios) {
+        return ThreadLocalRandom.current().nextLong(1, portfolios + 1);
+    }
+
+    private void insertRows(int portfolios) {
+        AssetType[] types = AssetType.values();
+        List<Object[]> assets = new ArrayList<>(10_000);
+        List<Object[]> records = new ArrayList<>(10_000);
+        LocalDateTime now = LocalDateTime.now();
+        for (long portfolio = 1; portfolio <= portfolios; portfolio++) {
+            for (int i = 0; i < HOLDINGS_PER_PORTFOLIO; i++) {
+                long cents = ThreadLocalRandom.current().nextLong(1, 10_000_000);
+                assets.add(new Object[]{portfolio, types[i % types.length].name(), "holding-" + i,
+                        BigDecimal.valueOf(cents, 2)});
+            }
+            for (int i = 0; i < RECORDS_PER_PORTFOLIO; i++) {
+                BigDecimal total = BigDecimal.valueOf(ThreadLocalRandom.current().nextLong(1, 10_000_000), 2);
+                records.add(new Object[]{portfolio, Timestamp.valueOf(now.minusDays(i)), total});
+            }
+            if (assets.size() >= 10_000 || portfolio == portfolios) {
+                jdbcTemplate.batchUpdate("INSERT INTO asset_details (id, portfolio_id, asset_type, name, amount) "
+                        + "VALUES (nextval('asset_details_seq'), ?, ?, ?, ?)", assets);
+                jdbcTemplate.batchUpdate("INSERT INTO history_records (portfolio_id, record_date, "
+                        + "grand_total, nasdaq_total, sp_total, conservative_total, cash_total) "
+                        + "VALUES (?, ?, ?, 0, 0, 0, 0)", records);
+                assets.clear();
+                records.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.AssetService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 二级缓存的基准测试：同一组合有 100 / 1000 条持仓和历史记录时，
+ * 对比缓存为空 (每次读取前清空所有区域，cold) 和已缓存 (warm) 时各读取接口的耗时。
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SecondLevelCacheBenchmark {
+
+    private static final int[] ROW_COUNTS = {100, 1_000};
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM history_records");
+        jdbcTemplate.update("DELETE FROM asset_details");
+        cache().evictAllRegions();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void coldAndWarmReads() {
+        for (int rows : ROW_COUNTS) {
+            jdbcTemplate.update("DELETE FROM history_records");
+            jdbcTemplate.update("DELETE FROM asset_details");
+            insertRows(rows);
+            // 绕过 Hibernate 直接写库，需清空二级缓存
+            cache().evictAllRegions();
+            assetLedger.rebuild();
+
+            System.out.println("---- " + rows + " holdings / records ----");
+            compare("findAllAssets", () -> assetService.findAllAssets(PORTFOLIO));
+            compare("findAssetsByType", () -> assetService.findAssetsByType(PORTFOLIO, AssetType.NASDAQ));
+            compare("findAssetsPage (100)", () -> assetService.findAssetsPage(PORTFOLIO, null, 100));
+            compare("findAllHistoryRecords", () -> assetService.findAllHistoryRecords(PORTFOLIO));
+            compare("findHistoryRecordsPage (20)", () -> assetService.findHistoryRecordsPage(PORTFOLIO, null, 20));
+        }
+    }
+
+    private void compare(String name, Supplier<?> read) {
+        System.out.println(BenchmarkSupport.measure(name + " cold", 20, 200, () -> {
+            cache().evictAllRegions();
+            return read.get();
+        }));
+        System.out.println(BenchmarkSupport.measure(name + " warm", 20, 200, read));
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    private void insertRows(int rows) {
+        AssetType[] types = AssetType.values();
+        List<Object[]> assets = new ArrayList<>(rows);
+        List<Object[]> records = new ArrayList<>(rows);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < rows; i++) {
+            long cents = ThreadLocalRandom.current().nextLong(1, 10_000_000);
+            assets.add(new Object[]{PORTFOLIO, types[i % types.length].name(), "holding-" + i,
+                    BigDecimal.valueOf(cents, 2)});
+            records.add(new Object[]{PORTFOLIO, Timestamp.valueOf(now.minusDays(i)), BigDecimal.valueOf(cents, 2)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO asset_details (id, portfolio_id, asset_type, name, amount) "
+                + "VALUES (nextval('asset_details_seq'), ?, ?, ?, ?)", assets);
+        jdbcTemplate.batchUpdate("INSERT INTO history_records (portfolio_id, record_date, "
+                + "grand_total, nasdaq_total, sp_total, conservative_total, cash_total) "
+                + "VALUES (?, ?, ?, 0, 0, 0, 0)", records);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 前端静态文件的传输量：对比未处理的文件 (不压缩、每次加载都重新下载 index.html、script.js、style.css)
+ * 与构建时处理后的文件 (br / gzip 预压缩，带摘要的文件长期缓存，index.html 重新验证) 在首次访问和再次访问时的
+ * 请求数和响应体字节数；以及每个文件不压缩、gzip 和 br 三种响应的字节数 (br 相对 gzip 的实际收益)。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StaticAssetBenchmark {
+
+    private static final Path SOURCE = Path.of("src/main/resources/static");
+
+    private static final Pattern ASSET = Pattern.compile("\"(assets/[^\"]+)\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void firstAndRepeatVisit() throws Exception {
+        long original = 0;
+        for (String name : new String[]{"index.html", "script.js", "style.css"}) {
+            original += size(name);
+        }
+        System.out.printf("%-28s %8s %12s%n", "visit", "requests", "body bytes");
+        System.out.printf("%-28s %8d %,12d%n", "unprocessed (every visit)", 3, original);
+
+        for (String coding : new String[]{"gzip", "br"}) {
+            // 首次访问：index.html 和其引用的带摘要文件都完整下载
+            MockHttpServletResponse index = mockMvc.perform(request("/index.html", coding)).andReturn().getResponse();
+            String html = mockMvc.perform(get("/index.html")).andReturn().getResponse().getContentAsString();
+            List<String> assets = new ArrayList<>();
+            ASSET.matcher(html).results().forEach(match -> assets.add(match.group(1)));
+            long firstBytes = index.getContentAsByteArray().length;
+            for (String asset : assets) {
+                firstBytes += mockMvc.perform(request("/" + asset, coding)).andReturn().getResponse()
+                        .getContentAsByteArray().length;
+            }
+            System.out.printf("%-28s %8d %,12d%n", "first visit (" + coding + ")", 1 + assets.size(), firstBytes);
+
+            // 再次访问：带摘要的文件 immutable 不再请求，index.html 带 If-Modified-Since 重新验证
+            MockHttpServletResponse revalidated = mockMvc.perform(request("/index.html", coding)
+                            .header(HttpHeaders.IF_MODIFIED_SINCE, index.getHeader(HttpHeaders.LAST_MODIFIED)))
+                    .andReturn().getResponse();
+            System.out.printf("%-28s %8d %,12d   (index.html %d)%n", "repeat visit (" + coding + ")", 1,
+                    revalidated.getContentAsByteArray().length, revalidated.getStatus());
+        }
+    }
+
+    @Test
+    void precompressedSizes() throws Exception {
+        String html = mockMvc.perform(get("/index.html")).andReturn().getResponse().getContentAsString();
+        List<String> paths = new ArrayList<>();
+        paths.add("/index.html");
+        ASSET.matcher(html).results().forEach(match -> paths.add("/" + match.group(1)));
+
+        System.out.printf("%-32s %10s %10s %10s %10s%n", "file", "identity", "gzip", "br", "br/gzip");
+        long[] totals = new long[3];
+        for (String path : paths) {
+            long identity = mockMvc.perform(get(path)).andReturn().getResponse().getContentAsByteArray().length;
+            long gzip = mockMvc.perform(request(path, "gzip")).andReturn().getResponse().getContentAsByteArray().length;
+            long br = mockMvc.perform(request(path, "br")).andReturn().getResponse().getContentAsByteArray().length;
+            totals[0] += identity;
+            totals[1] += gzip;
+            totals[2] += br;
+            System.out.printf("%-32s %,10d %,10d %,10d %9.1f%%%n", path, identity, gzip, br, 100.0 * br / gzip);
+        }
+        System.out.printf("%-32s %,10d %,10d %,10d %9.1f%%%n", "total", totals[0], totals[1], totals[2],
+                100.0 * totals[2] / totals[1]);
+    }
+
+    private static MockHttpServletRequestBuilder request(String path, String coding) {
+        return get(path).header(HttpHeaders.ACCEPT_ENCODING, coding);
+    }
+
+    private static long size(String name) throws IOException {
+        return Files.size(SOURCE.resolve(name));
+    }
+}
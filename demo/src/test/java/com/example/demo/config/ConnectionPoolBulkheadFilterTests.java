@@ -0,0 +1,89 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolBulkheadFilterTests {
+
+    private ConnectionPoolBulkheadFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        filter = new ConnectionPoolBulkheadFilter();
+        ReflectionTestUtils.setField(filter, "maxConcurrentRequests", 1);
+        ReflectionTestUtils.setField(filter, "acquireTimeoutMs", 50L);
+        filter.init();
+    }
+
+    @Test
+    void rejectsWithServiceUnavailableWhenAllPermitsAreHeld() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+            try {
+                filter.doFilter(apiRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    await(release);
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(apiRequest(), rejected, (req, res) -> { });
+        assertThat(rejected.getStatus()).isEqualTo(503);
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(apiRequest(), accepted, (req, res) -> { });
+        assertThat(accepted.getStatus()).isEqualTo(200);
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void streamingResponseHoldsPermitUntilAsyncCompletes() throws Exception {
+        MockHttpServletRequest request = apiRequest();
+        request.setAsyncSupported(true);
+        FilterChain startsAsync = (req, res) -> req.startAsync();
+
+        filter.doFilter(request, new MockHttpServletResponse(), startsAsync);
+        assertThat(filter.availablePermits()).isZero();
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void nonApiRequestsAreNotLimited() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/index.html");
+        request.setAsyncSupported(true);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertThat(filter.availablePermits()).isEqualTo(1);
+    }
+
+    private static MockHttpServletRequest apiRequest() {
+        return new MockHttpServletRequest("GET", "/api/assets");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.AssetService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 读写分离：主库和只读副本是两个独立的 H2 内存库 (副本不会自动同步，测试中直接写入副本模拟复制)。
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=6",
+        "asset.datasource.replica.url=jdbc:h2:mem:routing_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+                + "DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "asset.datasource.replica.username=sa",
+        "asset.datasource.replica.driver-class-name=org.h2.Driver",
+        "asset.datasource.replica.hikari.maximum-pool-size=3"
+})
+@AutoConfigureMockMvc
+class DataSourceRoutingTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            replica.execute(statement);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        primary.update("DELETE FROM history_records");
+        primary.update("DELETE FROM history_rollups");
+        primary.update("DELETE FROM asset_details");
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void poolsAreSizedSeparately() {
+        assertThat(primaryDataSource.getMaximumPoolSize()).isEqualTo(6);
+        assertThat(replicaDataSource.getMaximumPoolSize()).isEqualTo(3);
+    }
+
+    @Test
+    void writesGoToPrimaryAndReadOnlyTransactionsToReplica() {
+        AssetDetailDTO saved = assetService.saveAsset(PORTFOLIO,
+                new AssetDetailDTO(null, AssetType.NASDAQ, "QQQ", new BigDecimal("100.00")));
+        assertThat(count(primary)).isEqualTo(1);
+        assertThat(count(replica)).isZero();
+
+        // 副本尚未复制到这条写入
+        assertThat(assetService.findAllAssets(PORTFOLIO)).isEmpty();
+        assertThat(assetService.findAssetsPage(PORTFOLIO, null, 10).getItems()).isEmpty();
+
+        // 复制完成后读到副本上的数据；上一次读到的空结果没有进入查询缓存
+        replicate(saved);
+        assertThat(assetService.findAllAssets(PORTFOLIO))
+                .extracting(AssetDetailDTO::getName).containsExactly("QQQ");
+
+        // 账本以主库为准
+        assertThat(assetLedger.holdingCount(PORTFOLIO)).isEqualTo(1);
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    @Test
+    void readYourWritesReadsFromPrimary() throws Exception {
+        assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.CASH, "活期", new BigDecimal("50.00")));
+        assetService.saveCurrentAssetsAsRecord(PORTFOLIO);
+
+        assertThat(DataSourceRouting.onPrimary(() -> assetService.findAllAssets(PORTFOLIO))).hasSize(1);
+
+        mockMvc.perform(get("/api/records").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+        mockMvc.perform(get("/api/records").param("limit", "10").header(ReadYourWritesFilter.HEADER, "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)));
+
+        // 流式响应在异步线程中读取，同样读主库
+        MvcResult streaming = mockMvc.perform(get("/api/records").header(ReadYourWritesFilter.HEADER, "true"))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(streaming))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        MvcResult lagging = mockMvc.perform(get("/api/records")).andReturn();
+        mockMvc.perform(asyncDispatch(lagging))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void rebalancePlansReadHoldingsFromPrimary() throws Exception {
+        assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.NASDAQ, "QQQ", new BigDecimal("1000")));
+
+        // 副本上还没有这条持仓；默认策略 (缓存) 和指定策略的计划都按主库上的持仓生成
+        mockMvc.perform(get("/api/calculate/rebalance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades", hasSize(2)));
+        mockMvc.perform(get("/api/calculate/rebalance").param("policy", "default"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trades", hasSize(2)));
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM asset_details", Long.class);
+    }
+
+    private void replicate(AssetDetailDTO asset) {
+        replica.update("INSERT INTO asset_details (id, portfolio_id, asset_type, name, amount, version) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)", asset.getId(), PORTFOLIO, asset.getAssetType().name(),
+                asset.getName(), asset.getAmount(), asset.getVersion());
+    }
+}
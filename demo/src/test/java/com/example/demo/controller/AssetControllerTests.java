@@ -0,0 +1,394 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import com.example.demo.service.AssetLedger;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AssetControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @AfterEach
+    void cleanUp() {
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void getAssetsWithoutParametersStreamsJsonArray() throws Exception {
+        saveAssets(3);
+
+        MvcResult result = mockMvc.perform(get("/api/assets"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].name").value("holding-0"));
+    }
+
+    @Test
+    void assetsKeysetPaginationVisitsEveryRowOnce() throws Exception {
+        saveAssets(5);
+
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            var requestBuilder = get("/api/assets").param("limit", "2");
+            if (cursor != null) {
+                requestBuilder.param("cursor", cursor);
+            }
+            String json = mockMvc.perform(requestBuilder)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            names.addAll(JsonPath.read(json, "$.items[*].name"));
+            cursor = JsonPath.read(json, "$.nextCursor");
+        } while (cursor != null);
+
+        assertThat(names).containsExactly("holding-0", "holding-1", "holding-2", "holding-3", "holding-4");
+    }
+
+    @Test
+    void recordsKeysetPaginationOrdersByDateThenId() throws Exception {
+        LocalDateTime sameTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        saveRecord(sameTime.minusDays(1), "1.00");
+        saveRecord(sameTime, "2.00");
+        saveRecord(sameTime, "3.00");
+
+        String first = mockMvc.perform(get("/api/records").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].grandTotal").value(3.00))
+                .andExpect(jsonPath("$.items[1].grandTotal").value(2.00))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(first, "$.nextCursor");
+
+        mockMvc.perform(get("/api/records").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].grandTotal").value(1.00))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void savedRecordsAreRolledUpAndDownsampled() throws Exception {
+        saveAssets(1);
+        mockMvc.perform(post("/api/records")).andExpect(status().isCreated());
+        mockMvc.perform(post("/api/records")).andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/records").param("bucket", "day"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bucket").value("DAY"))
+                .andExpect(jsonPath("$[0].count").value(2));
+        mockMvc.perform(get("/api/records").param("points", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/api/records").param("bucket", "year"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/records").param("points", "2"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/records").param("bucket", "week")
+                        .param("from", "2024-02-01").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportStreamsCsvWithinDateRange() throws Exception {
+        saveRecord(LocalDateTime.of(2024, 1, 1, 9, 0), "1.00");
+        saveRecord(LocalDateTime.of(2024, 1, 2, 23, 59, 59), "2.50");
+        saveRecord(LocalDateTime.of(2024, 1, 3, 0, 0), "3.00");
+
+        MvcResult result = mockMvc.perform(get("/api/records/export")
+                        .param("format", "csv").param("from", "2024-01-01").param("to", "2024-01-02"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(csv.lines()).hasSize(3);
+        assertThat(csv.lines().skip(1)).extracting(line -> line.split(",")[1])
+                .containsExactly("2024-01-01T09:00:00", "2024-01-02T23:59:59");
+        assertThat(csv.lines().skip(2).findFirst()).hasValueSatisfying(line -> assertThat(line).contains(",2.50,"));
+    }
+
+    @Test
+    void exportStreamsNdjson() throws Exception {
+        saveRecord(LocalDateTime.of(2024, 1, 1, 9, 0), "1.00");
+        saveRecord(LocalDateTime.of(2024, 2, 1, 9, 0), "2.00");
+
+        MvcResult result = mockMvc.perform(get("/api/records/export").param("format", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = ndjson.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat((Double) JsonPath.read(lines.get(1), "$.grandTotal")).isEqualTo(2.0);
+    }
+
+    @Test
+    void exportRejectsUnknownFormat() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/records/export").param("format", "xml")).andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void recommendationReturnsNotModifiedForCurrentETag() throws Exception {
+        saveAssets(2);
+
+        MvcResult first = mockMvc.perform(get("/api/calculate/recommendation"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.grandTotal").value(2))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/calculate/recommendation").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/assets").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void writesChangeETagAndRefreshCachedResponses() throws Exception {
+        saveAssets(1);
+        String before = assetsETag();
+
+        mockMvc.perform(post("/api/assets").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assetType\":\"CASH\",\"name\":\"new\",\"amount\":5}"))
+                .andExpect(status().isCreated());
+        String afterAsset = assetsETag();
+        assertThat(afterAsset).isNotEqualTo(before);
+
+        MvcResult result = mockMvc.perform(get("/api/assets").header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+        mockMvc.perform(get("/api/calculate/recommendation"))
+                .andExpect(jsonPath("$.grandTotal").value(6));
+
+        mockMvc.perform(post("/api/records")).andExpect(status().isCreated());
+        assertThat(assetsETag()).isNotEqualTo(afterAsset);
+    }
+
+    @Test
+    void updatesAndDeletesRequireCurrentVersion() throws Exception {
+        postAsset("/api/assets", "NASDAQ", "QQQ", "100");
+        long id = assetDetailRepository.findAll().get(0).getId();
+
+        mockMvc.perform(patch("/api/assets/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"version\":0,\"amount\":120}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(120))
+                .andExpect(jsonPath("$.version").value(1));
+        // 旧版本号提交被拒绝
+        mockMvc.perform(patch("/api/assets/" + id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"version\":0,\"amount\":130}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/assets").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":" + id + ",\"version\":0,\"amount\":130},"
+                                + "{\"id\":" + (id + 1000) + ",\"version\":0,\"amount\":1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.affected").value(0))
+                .andExpect(jsonPath("$.conflicts[0]").value(id))
+                .andExpect(jsonPath("$.missing[0]").value(id + 1000));
+        mockMvc.perform(get("/api/calculate/recommendation"))
+                .andExpect(jsonPath("$.grandTotal").value(120));
+
+        mockMvc.perform(delete("/api/assets/" + id).param("version", "0"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(delete("/api/assets/" + id).param("version", "1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/assets/" + id).param("version", "1"))
+                .andExpect(status().isNotFound());
+        assertThat(assetDetailRepository.count()).isZero();
+    }
+
+    @Test
+    void portfolioRoutesAreIsolated() throws Exception {
+        postAsset("/api/portfolios/2/assets", "NASDAQ", "QQQ", "100");
+        postAsset("/api/portfolios/3/assets", "CASH", "现金", "40");
+        String portfolio2ETag = mockMvc.perform(get("/api/portfolios/2/calculate/recommendation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.grandTotal").value(100))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // 写入组合 3 不影响组合 2 的 ETag
+        postAsset("/api/portfolios/3/assets", "SP", "VOO", "60");
+        mockMvc.perform(get("/api/portfolios/2/calculate/recommendation")
+                        .header(HttpHeaders.IF_NONE_MATCH, portfolio2ETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/portfolios/3/calculate/recommendation"))
+                .andExpect(jsonPath("$.grandTotal").value(100))
+                .andExpect(jsonPath("$.spCurrent").value(60));
+
+        mockMvc.perform(get("/api/portfolios/3/assets").param("limit", "10"))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].portfolioId").value(3));
+        // 默认组合没有持仓
+        mockMvc.perform(get("/api/calculate/recommendation")).andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/portfolios/2/records")).andExpect(status().isCreated());
+        mockMvc.perform(get("/api/portfolios/2/records").param("limit", "10"))
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].grandTotal").value(100));
+        mockMvc.perform(get("/api/portfolios/3/records").param("limit", "10"))
+                .andExpect(jsonPath("$.items", hasSize(0)));
+    }
+
+    @Test
+    void recommendationByPolicyAndComparison() throws Exception {
+        postAsset("/api/assets", "CONSERVATIVE", "债基", "400");
+        postAsset("/api/assets", "CASH", "现金", "600");
+
+        mockMvc.perform(get("/api/calculate/recommendation").param("policy", "balanced"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.policy").value("balanced"))
+                .andExpect(jsonPath("$.conservativeTarget").value(250.00))
+                .andExpect(jsonPath("$.rebalanceNeeded").value(true));
+        mockMvc.perform(get("/api/calculate/recommendation/compare").param("policies", "balanced,default"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].policy").value("balanced"))
+                .andExpect(jsonPath("$[1].policy").value("default"))
+                .andExpect(jsonPath("$[1].cashTarget").value(250.00));
+        mockMvc.perform(get("/api/calculate/recommendation").param("policy", "missing"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rebalancePlanIsCachedByVersion() throws Exception {
+        postAsset("/api/assets", "NASDAQ", "QQQ", "1000");
+
+        String eTag = mockMvc.perform(get("/api/calculate/rebalance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.policy").value("default"))
+                .andExpect(jsonPath("$.trades", hasSize(2)))
+                .andExpect(jsonPath("$.trades[0].toAssetType").value("SP"))
+                .andExpect(jsonPath("$.trades[0].amount").value(172.50))
+                .andExpect(jsonPath("$.trades[1].toAssetType").value("CASH"))
+                .andExpect(jsonPath("$.transferred").value(422.50))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/calculate/rebalance").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/portfolios/5/calculate/rebalance"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void projectionComparesCurrentAndTargetMix() throws Exception {
+        postAsset("/api/assets", "NASDAQ", "QQQ", "1000");
+
+        String body = mockMvc.perform(get("/api/calculate/projection")
+                        .param("paths", "2000").param("years", "5").param("seed", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.goal").value(1000.00))
+                .andExpect(jsonPath("$.current.bands", hasSize(5)))
+                .andExpect(jsonPath("$.target.bands[4].year").value(5))
+                .andExpect(jsonPath("$.target.shortfallProbability").isNumber())
+                .andReturn().getResponse().getContentAsString();
+        // 同一种子结果相同
+        mockMvc.perform(get("/api/calculate/projection")
+                        .param("paths", "2000").param("years", "5").param("seed", "1"))
+                .andExpect(content().string(body));
+        mockMvc.perform(get("/api/calculate/projection").param("years", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void invalidCursorIsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/records").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void postAsset(String path, String assetType, String name, String amount) throws Exception {
+        mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assetType\":\"" + assetType + "\",\"name\":\"" + name
+                                + "\",\"amount\":" + amount + "}"))
+                .andExpect(status().isCreated());
+    }
+
+    private String assetsETag() throws Exception {
+        return mockMvc.perform(get("/api/calculate/recommendation"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void saveAssets(int count) {
+        for (int i = 0; i < count; i++) {
+            AssetDetail asset = new AssetDetail();
+            asset.setAssetType(AssetType.CASH);
+            asset.setName("holding-" + i);
+            asset.setAmount(BigDecimal.ONE);
+            assetDetailRepository.save(asset);
+        }
+        // 绕过 AssetService 直接写库，需重建账本 (同时递增数据版本号)
+        assetLedger.rebuild();
+    }
+
+    private void saveRecord(LocalDateTime recordDate, String grandTotal) {
+        HistoryRecord record = new HistoryRecord();
+        record.setRecordDate(recordDate);
+        record.setGrandTotal(new BigDecimal(grandTotal));
+        historyRecordRepository.save(record);
+    }
+}
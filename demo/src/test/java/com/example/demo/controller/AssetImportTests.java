@@ -0,0 +1,104 @@
+package com.example.demo.controller;
+
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.service.AssetLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "asset.import.chunk-size=2")
+class AssetImportTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @AfterEach
+    void cleanUp() {
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void batchImportsJsonArrayInChunks() throws Exception {
+        String body = """
+                [{"assetType":"NASDAQ","name":"QQQ","amount":100.50},
+                 {"assetType":"SP","name":"VOO","amount":200},
+                 {"assetType":"NASDAQ","name":"QQQM","amount":0.50}]
+                """;
+
+        mockMvc.perform(post("/api/assets/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.chunks").value(2));
+
+        assertThat(assetDetailRepository.count()).isEqualTo(3);
+        assertThat(assetLedger.totalsByType(PORTFOLIO).get(AssetType.NASDAQ)).isEqualTo(new BigDecimal("101.00"));
+    }
+
+    @Test
+    void importsCsvWithQuotedFields() throws Exception {
+        String body = "﻿name,asset_type,amount\n"
+                + "\"债基, A类\",conservative,1000.00\n"
+                + "\n"
+                + "活期,CASH,20\n";
+
+        mockMvc.perform(post("/api/assets/import").contentType("text/csv").content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertThat(assetDetailRepository.findByPortfolioIdAndAssetType(PORTFOLIO, AssetType.CONSERVATIVE))
+                .singleElement()
+                .satisfies(asset -> assertThat(asset.getName()).isEqualTo("债基, A类"));
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        String body = """
+                {"assetType":"CASH","name":"活期","amount":10}
+                {"assetType":"SP","name":"VOO","amount":20}
+                """;
+
+        mockMvc.perform(post("/api/assets/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void invalidRowIsRejectedAfterCommittedChunks() throws Exception {
+        String body = "asset_type,name,amount\n"
+                + "CASH,a,1\n"
+                + "CASH,b,2\n"
+                + "GOLD,c,3\n";
+
+        mockMvc.perform(post("/api/assets/import").contentType("text/csv").content(body))
+                .andExpect(status().isBadRequest());
+
+        // 第一个批次 (2 行) 已提交
+        assertThat(assetDetailRepository.count()).isEqualTo(2);
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.controller;
+
+import com.example.demo.backtest.PriceSeriesConverter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BacktestControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void priceSeries(DynamicPropertyRegistry registry) throws IOException {
+        Path file = Files.createTempFile("prices", ".bin");
+        file.toFile().deleteOnExit();
+        PriceSeriesConverter.convert(new BufferedReader(new StringReader("""
+                date,NASDAQ,SP,CONSERVATIVE,CASH
+                2023-12-29,100,100,100,1
+                2024-01-02,110,105,100,1
+                2024-01-31,99,100,101,1
+                2024-02-01,120,110,101,1
+                """)), file);
+        registry.add("asset.backtest.location", file::toString);
+    }
+
+    @Test
+    void backtestComparesFrequenciesAndBands() throws Exception {
+        mockMvc.perform(get("/api/backtest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.policy").value("default"))
+                .andExpect(jsonPath("$.from").value("2024-01-02"))
+                .andExpect(jsonPath("$.to").value("2024-02-01"))
+                .andExpect(jsonPath("$.days").value(3))
+                // NEVER 只回放一次，其余三个频率各两个容忍带
+                .andExpect(jsonPath("$.results", hasSize(7)))
+                .andExpect(jsonPath("$.results[0].frequency").value("NEVER"))
+                .andExpect(jsonPath("$.results[1].frequency").value("MONTHLY"))
+                .andExpect(jsonPath("$.results[1].rebalances").value(1));
+
+        mockMvc.perform(get("/api/backtest").param("policy", "balanced")
+                        .param("frequencies", "DAILY").param("bands", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results", hasSize(1)))
+                .andExpect(jsonPath("$.results[0].rebalances").value(2));
+
+        mockMvc.perform(get("/api/backtest").param("bands", "2"))
+                .andExpect(status().isBadRequest());
+    }
+}
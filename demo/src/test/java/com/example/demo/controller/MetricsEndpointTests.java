@@ -0,0 +1,64 @@
+package com.example.demo.controller;
+
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.service.AssetLedger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @AfterEach
+    void cleanUp() {
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void prometheusEndpointExposesRequestRepositoryStagePoolAndCacheMetrics() throws Exception {
+        mockMvc.perform(post("/api/assets").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"assetType\":\"NASDAQ\",\"name\":\"QQQ\",\"amount\":100}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/calculate/recommendation")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/assets").param("limit", "10")).andExpect(status().isOk());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/api/calculate/recommendation\"")
+                .contains("quantile=\"0.99\"")
+                .contains("spring_data_repository_invocations_seconds_count{")
+                .contains("method=\"findByPortfolioIdAndIdGreaterThanOrderByIdAsc\"")
+                .contains("asset_recommendation_stage_seconds_count{stage=\"targets\"")
+                .contains("asset_query_rows_count{query=\"assets.page\"")
+                .contains("hikaricp_connections_active")
+                .contains("hikaricp_connections_pending")
+                .contains("cache_gets_total{cache=\"default-query-results-region\"")
+                .contains("cache_evictions_total{cache=\"asset_details\"");
+    }
+}
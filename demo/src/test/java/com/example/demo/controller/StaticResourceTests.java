@@ -0,0 +1,79 @@
+package com.example.demo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 前端静态文件：index.html 引用带摘要的文件名，带摘要的文件可长期缓存，两者按 Accept-Encoding 返回预压缩版本。
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class StaticResourceTests {
+
+    private static final Pattern ASSET = Pattern.compile("\"(assets/[^\"]+)\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void indexReferencesFingerprintedAssetsServedCompressedAndImmutable() throws Exception {
+        MockHttpServletResponse index = mockMvc.perform(get("/index.html"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(index.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache");
+        String html = index.getContentAsString();
+        assertThat(html).doesNotContain("src=\"script.js\"").doesNotContain("href=\"style.css\"");
+
+        List<String> assets = ASSET.matcher(html).results().map(match -> match.group(1)).toList();
+        assertThat(assets).hasSize(2)
+                .anyMatch(path -> path.matches("assets/script\\.[0-9a-f]{12}\\.js"))
+                .anyMatch(path -> path.matches("assets/style\\.[0-9a-f]{12}\\.css"));
+
+        for (String asset : assets) {
+            MockHttpServletResponse plain = mockMvc.perform(get("/" + asset))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse();
+            assertThat(plain.getHeader(HttpHeaders.CACHE_CONTROL))
+                    .contains("max-age=31536000", "public", "immutable");
+            assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+
+            for (String coding : new String[]{"br", "gzip"}) {
+                MockHttpServletResponse encoded = mockMvc.perform(get("/" + asset)
+                                .header(HttpHeaders.ACCEPT_ENCODING, coding))
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse();
+                assertThat(encoded.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo(coding);
+                assertThat(encoded.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+                assertThat(encoded.getContentAsByteArray().length).isLessThan(plain.getContentAsByteArray().length);
+            }
+        }
+    }
+
+    @Test
+    void indexIsRevalidatedWithNotModified() throws Exception {
+        MockHttpServletResponse first = mockMvc.perform(get("/index.html")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(first.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("br");
+
+        String lastModified = first.getHeader(HttpHeaders.LAST_MODIFIED);
+        assertThat(lastModified).isNotNull();
+        mockMvc.perform(get("/index.html")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "br")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.demo.policy;
+
+import com.example.demo.dto.AllocationDTO;
+import com.example.demo.dto.AllocationDTO.BandStatus;
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.service.AssetLedger;
+import com.example.demo.service.AssetService;
+import com.example.demo.service.CalculationService;
+import com.example.demo.service.DataVersion;
+import com.example.demo.service.ResponseCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class PolicyRegistryTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private PolicyRegistry policyRegistry;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void cleanUp() {
+        policyRegistry.reload();
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void defaultPolicyKeepsLegacyRatiosAndAddsConservativeTarget() {
+        save(AssetType.NASDAQ, "600.00");
+        save(AssetType.CONSERVATIVE, "100.00");
+        save(AssetType.CASH, "300.00");
+
+        RecommendationDTO dto = calculationService.getRecommendation(PORTFOLIO);
+
+        assertThat(dto.getPolicy()).isEqualTo("default");
+        assertThat(dto.getNasdaqTarget()).isEqualTo(new BigDecimal("577.50"));
+        assertThat(dto.getSpTarget()).isEqualTo(new BigDecimal("172.50"));
+        assertThat(dto.getConservativeTarget()).isEqualTo(new BigDecimal("0.00"));
+        assertThat(dto.getCashTarget()).isEqualTo(new BigDecimal("250.00"));
+        assertThat(dto.getNasdaqTargetRatio()).isEqualTo("57.75%");
+        assertThat(dto.getSpTargetRatio()).isEqualTo("17.25%");
+        assertThat(dto.getConservativeTargetRatio()).isEqualTo("0.00%");
+        assertThat(dto.getCashTargetRatio()).isEqualTo("25.00%");
+        assertThat(dto.getAllocations()).extracting(AllocationDTO::getName)
+                .containsExactly("风险资产", "NASDAQ", "SP", "CONSERVATIVE", "CASH");
+        assertThat(dto.getAllocations().get(0).getCurrent()).isEqualTo(new BigDecimal("600.00"));
+        assertThat(dto.getAllocations().get(0).getTarget()).isEqualTo(new BigDecimal("750.00"));
+        assertThat(dto.isRebalanceNeeded()).isFalse();
+    }
+
+    @Test
+    void compareEvaluatesEveryPolicyWithToleranceBands() {
+        save(AssetType.NASDAQ, "300.00");
+        save(AssetType.SP, "300.00");
+        save(AssetType.CONSERVATIVE, "100.00");
+        save(AssetType.CASH, "300.00");
+
+        List<RecommendationDTO> results = calculationService.compareRecommendations(PORTFOLIO, List.of());
+
+        assertThat(results).extracting(RecommendationDTO::getPolicy).containsExactly("default", "balanced");
+        RecommendationDTO balanced = results.get(1);
+        assertThat(balanced.getConservativeTarget()).isEqualTo(new BigDecimal("250.00"));
+        AllocationDTO conservative = balanced.getAllocations().stream()
+                .filter(allocation -> allocation.getAssetType() == AssetType.CONSERVATIVE).findFirst().orElseThrow();
+        assertThat(conservative.getLowerBound()).isEqualTo(new BigDecimal("200.00"));
+        assertThat(conservative.getUpperBound()).isEqualTo(new BigDecimal("300.00"));
+        assertThat(conservative.getStatus()).isEqualTo(BandStatus.BELOW);
+        AllocationDTO nasdaq = balanced.getAllocations().stream()
+                .filter(allocation -> allocation.getAssetType() == AssetType.NASDAQ).findFirst().orElseThrow();
+        assertThat(nasdaq.getStatus()).isEqualTo(BandStatus.WITHIN);
+        assertThat(balanced.isRebalanceNeeded()).isTrue();
+        // 默认策略没有容忍带
+        assertThat(results.get(0).getAllocations()).allMatch(allocation -> allocation.getStatus() == null);
+    }
+
+    @Test
+    void applySwapsPoliciesAndInvalidatesCachedRecommendation() throws Exception {
+        save(AssetType.CASH, "100.00");
+        assertThat(json(responseCache.recommendationJson(PORTFOLIO).value()).getCashTarget())
+                .isEqualTo(new BigDecimal("25.00"));
+        long version = dataVersion.current(PORTFOLIO);
+
+        policyRegistry.apply(config("all-cash", "0", "1"));
+
+        assertThat(dataVersion.current(PORTFOLIO)).isGreaterThan(version);
+        RecommendationDTO reloaded = json(responseCache.recommendationJson(PORTFOLIO).value());
+        assertThat(reloaded.getPolicy()).isEqualTo("all-cash");
+        assertThat(reloaded.getCashTarget()).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void invalidPoliciesAreRejectedAndPreviousPoliciesKept() {
+        PolicySet before = policyRegistry.current();
+
+        assertThatThrownBy(() -> policyRegistry.apply(config("broken", "0.5", "0.4")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("权重之和");
+        assertThat(policyRegistry.current()).isSameAs(before);
+        assertThatThrownBy(() -> calculationService.getRecommendation(PORTFOLIO, "missing"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 测试用策略：风险资产 (纳指、标普各半) 权重 risk，稳健投资 0，现金权重 cash
+     */
+    private PolicyConfig config(String name, String risk, String cash) throws Exception {
+        String json = """
+                {"defaultPolicy": "%s", "policies": [{"name": "%s", "buckets": [
+                  {"name": "风险资产", "weight": %s, "buckets": [
+                    {"assetType": "NASDAQ", "weight": 0.5}, {"assetType": "SP", "weight": 0.5}]},
+                  {"assetType": "CONSERVATIVE", "weight": 0},
+                  {"assetType": "CASH", "weight": %s}]}]}
+                """.formatted(name, name, risk, cash);
+        return objectMapper.readValue(json, PolicyConfig.class);
+    }
+
+    private RecommendationDTO json(byte[] body) throws Exception {
+        return objectMapper.readValue(body, RecommendationDTO.class);
+    }
+
+    private void save(AssetType type, String amount) {
+        assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, type, type.name(), new BigDecimal(amount)));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.AssetWriteResultDTO;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 高并发写同一批持仓：每个写入方 读取 -> 加 1 -> 带版本号提交，冲突时重新读取重试。
+ * 乐观锁下不会丢失任何一次修改，账本与数据库保持一致。
+ */
+@SpringBootTest
+class AssetConcurrencyTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    private static final int WRITERS = 16;
+    private static final int INCREMENTS = 25;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @AfterEach
+    void cleanUp() {
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void concurrentWritersLoseNoUpdates() throws Exception {
+        long first = assetService.saveAsset(PORTFOLIO,
+                new AssetDetailDTO(null, AssetType.NASDAQ, "QQQ", new BigDecimal("0.00"))).getId();
+        long second = assetService.saveAsset(PORTFOLIO,
+                new AssetDetailDTO(null, AssetType.CASH, "活期", new BigDecimal("0.00"))).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            boolean bulk = w % 2 == 1;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < INCREMENTS; i++) {
+                    if (bulk) {
+                        incrementBoth(first, second);
+                    } else {
+                        incrementOne(first);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // 单条写入方只加第一条，批量写入方两条各加一次
+        AssetDetail a = assetDetailRepository.findById(first).orElseThrow();
+        AssetDetail b = assetDetailRepository.findById(second).orElseThrow();
+        assertThat(a.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(WRITERS * INCREMENTS));
+        assertThat(a.getVersion()).isEqualTo(WRITERS * INCREMENTS);
+        assertThat(b.getAmount()).isEqualByComparingTo(BigDecimal.valueOf(WRITERS / 2 * INCREMENTS));
+        assertThat(assetService.sumAmountByType(PORTFOLIO).get(AssetType.NASDAQ))
+                .isEqualByComparingTo(a.getAmount());
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    private void incrementOne(long id) {
+        while (true) {
+            AssetDetail current = assetDetailRepository.findById(id).orElseThrow();
+            AssetDetailDTO patch = new AssetDetailDTO();
+            patch.setVersion(current.getVersion());
+            patch.setAmount(current.getAmount().add(BigDecimal.ONE));
+            try {
+                assetService.updateAsset(PORTFOLIO, id, patch);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                // 已被其他写入方修改，重新读取后重试
+            }
+        }
+    }
+
+    private void incrementBoth(long first, long second) {
+        List<Long> pending = new ArrayList<>(List.of(first, second));
+        while (!pending.isEmpty()) {
+            List<AssetDetailDTO> patches = new ArrayList<>();
+            for (AssetDetail current : assetDetailRepository.findAllById(pending)) {
+                AssetDetailDTO patch = new AssetDetailDTO(current.getId(), null, null,
+                        current.getAmount().add(BigDecimal.ONE));
+                patch.setVersion(current.getVersion());
+                patches.add(patch);
+            }
+            AssetWriteResultDTO result = assetService.updateAssets(PORTFOLIO, patches);
+            pending = new ArrayList<>(result.getConflicts());
+        }
+    }
+}
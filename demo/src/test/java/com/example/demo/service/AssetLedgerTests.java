@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AssetLedgerTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @AfterEach
+    void cleanUp() {
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void concurrentSavesAreAllCounted() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                AssetType type = AssetType.values()[t % AssetType.values().length];
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assetService.saveAsset(PORTFOLIO,
+                                new AssetDetailDTO(null, type, "h" + i, new BigDecimal("1.01")));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(assetLedger.holdingCount()).isEqualTo(threads * perThread);
+        assertThat(assetLedger.totalsByType(PORTFOLIO).get(AssetType.NASDAQ)).isEqualTo(new BigDecimal("101.00"));
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    @Test
+    void reconcileReportsAndRepairsDrift() {
+        assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.SP, "VOO", new BigDecimal("10.00")));
+
+        // 绕过 AssetService 直接写库，模拟账本漏记
+        AssetDetail external = new AssetDetail();
+        external.setAssetType(AssetType.SP);
+        external.setName("外部导入");
+        external.setAmount(new BigDecimal("5.50"));
+        assetDetailRepository.save(external);
+
+        assertThat(assetLedger.totalsByType(PORTFOLIO).get(AssetType.SP)).isEqualTo(new BigDecimal("10.00"));
+        assertThat(assetLedger.reconcile()).isTrue();
+        assertThat(assetLedger.totalsByType(PORTFOLIO).get(AssetType.SP)).isEqualTo(new BigDecimal("15.50"));
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    @Test
+    void portfoliosAreTrackedAndReconciledSeparately() {
+        assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.CASH, "现金", new BigDecimal("1.00")));
+        assetService.saveAsset(7L, new AssetDetailDTO(null, AssetType.CASH, "现金", new BigDecimal("2.00")));
+
+        assertThat(assetLedger.totalsByType(PORTFOLIO).get(AssetType.CASH)).isEqualTo(new BigDecimal("1.00"));
+        assertThat(assetLedger.totalsByType(7L).get(AssetType.CASH)).isEqualTo(new BigDecimal("2.00"));
+        assertThat(assetLedger.holdingCount(8L)).isZero();
+        assertThat(assetLedger.holdingCount()).isEqualTo(2);
+
+        // 只有组合 8 漏记，对账后该组合按数据库重建，其他组合不变
+        AssetDetail external = new AssetDetail();
+        external.setPortfolioId(8L);
+        external.setAssetType(AssetType.SP);
+        external.setName("外部导入");
+        external.setAmount(new BigDecimal("3.00"));
+        assetDetailRepository.save(external);
+
+        assertThat(assetLedger.reconcile()).isTrue();
+        assertThat(assetLedger.totalsByType(8L).get(AssetType.SP)).isEqualTo(new BigDecimal("3.00"));
+        assertThat(assetLedger.totalsByType(7L).get(AssetType.CASH)).isEqualTo(new BigDecimal("2.00"));
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    @Test
+    void writeThatWouldOverflowTotalsIsRejectedAndRolledBack() {
+        // 单条金额在列的范围内，但两条合计的分超出 long 范围
+        BigDecimal huge = new BigDecimal("50000000000000000.00");
+        assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.NASDAQ, "QQQ", huge));
+
+        assertThatThrownBy(() -> assetService.saveAsset(PORTFOLIO,
+                new AssetDetailDTO(null, AssetType.SP, "VOO", huge)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(assetDetailRepository.count()).isEqualTo(1);
+        assertThat(assetLedger.holdingCount(PORTFOLIO)).isEqualTo(1);
+        assertThat(assetLedger.totalsByType(PORTFOLIO).get(AssetType.NASDAQ)).isEqualTo(huge);
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.AssetWriteResultDTO;
+import com.example.demo.dto.HistoryRecordDTO;
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AssetServiceTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @AfterEach
+    void cleanUp() {
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void sumAmountByTypeReadsLedger() {
+        save(AssetType.NASDAQ, "QQQ", "100.10");
+        save(AssetType.NASDAQ, "QQQM", "0.05");
+        save(AssetType.CASH, "活期", "50");
+
+        Map<AssetType, BigDecimal> totals = assetService.sumAmountByType(PORTFOLIO);
+
+        assertThat(totals.get(AssetType.NASDAQ)).isEqualTo(new BigDecimal("100.15"));
+        assertThat(totals.get(AssetType.SP)).isEqualTo(new BigDecimal("0.00"));
+        assertThat(totals.get(AssetType.CONSERVATIVE)).isEqualTo(new BigDecimal("0.00"));
+        assertThat(totals.get(AssetType.CASH)).isEqualTo(new BigDecimal("50.00"));
+    }
+
+    @Test
+    void saveCurrentAssetsAsRecordUsesGroupedTotals() {
+        save(AssetType.SP, "VOO", "300.00");
+        save(AssetType.CONSERVATIVE, "债基", "200.00");
+
+        HistoryRecordDTO record = assetService.saveCurrentAssetsAsRecord(PORTFOLIO);
+
+        assertThat(record.getGrandTotal()).isEqualTo(new BigDecimal("500.00"));
+        assertThat(record.getSpTotal()).isEqualTo(new BigDecimal("300.00"));
+        assertThat(record.getConservativeTotal()).isEqualTo(new BigDecimal("200.00"));
+        assertThat(record.getNasdaqTotal()).isEqualTo(new BigDecimal("0.00"));
+    }
+
+    @Test
+    void saveCurrentAssetsAsRecordSeesWritesNotYetInLedger() {
+        save(AssetType.CASH, "活期", "50.00");
+        // 直接经仓库写入，模拟其他实例的写入：本实例的账本要到对账时才能看到
+        AssetDetail other = new AssetDetail();
+        other.setPortfolioId(PORTFOLIO);
+        other.setAssetType(AssetType.NASDAQ);
+        other.setName("QQQ");
+        other.setAmount(new BigDecimal("100.00"));
+        assetDetailRepository.save(other);
+        assertThat(assetService.sumCentsByType(PORTFOLIO)[AssetType.NASDAQ.ordinal()]).isZero();
+
+        HistoryRecordDTO record = assetService.saveCurrentAssetsAsRecord(PORTFOLIO);
+
+        assertThat(record.getGrandTotal()).isEqualTo(new BigDecimal("150.00"));
+        assertThat(record.getNasdaqTotal()).isEqualTo(new BigDecimal("100.00"));
+    }
+
+    @Test
+    void saveCurrentAssetsAsRecordRejectsEmptyPortfolio() {
+        assertThatThrownBy(() -> assetService.saveCurrentAssetsAsRecord(PORTFOLIO))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void recommendationSplitsGrandTotal() {
+        save(AssetType.NASDAQ, "QQQ", "600.00");
+        save(AssetType.CASH, "活期", "400.00");
+
+        RecommendationDTO dto = calculationService.getRecommendation(PORTFOLIO);
+
+        assertThat(dto.getGrandTotal()).isEqualTo(new BigDecimal("1000.00"));
+        assertThat(dto.getNasdaqTarget()).isEqualTo(new BigDecimal("577.50"));
+        assertThat(dto.getSpTarget()).isEqualTo(new BigDecimal("172.50"));
+        assertThat(dto.getCashTarget()).isEqualTo(new BigDecimal("250.00"));
+    }
+
+    @Test
+    void updatesAndDeletesAreVersionCheckedAndKeepLedgerInSync() {
+        AssetDetailDTO qqq = save(AssetType.NASDAQ, "QQQ", "100.00");
+        AssetDetailDTO cash = save(AssetType.CASH, "活期", "50.00");
+        assertThat(qqq.getVersion()).isZero();
+
+        AssetDetailDTO patch = new AssetDetailDTO();
+        patch.setVersion(qqq.getVersion());
+        patch.setAssetType(AssetType.SP);
+        patch.setAmount(new BigDecimal("120.005"));
+        AssetDetailDTO updated = assetService.updateAsset(PORTFOLIO, qqq.getId(), patch);
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(updated.getName()).isEqualTo("QQQ");
+        assertThat(updated.getAmount()).isEqualTo(new BigDecimal("120.01"));
+
+        // 使用旧版本号的修改被拒绝
+        assertThatThrownBy(() -> assetService.updateAsset(PORTFOLIO, qqq.getId(), patch))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        // 批量：一条冲突、一条不存在、一条成功
+        AssetDetailDTO stale = new AssetDetailDTO(qqq.getId(), null, null, BigDecimal.ONE);
+        stale.setVersion(0L);
+        AssetDetailDTO missing = new AssetDetailDTO(-1L, null, null, BigDecimal.ONE);
+        missing.setVersion(0L);
+        AssetDetailDTO ok = new AssetDetailDTO(cash.getId(), null, null, new BigDecimal("70.00"));
+        ok.setVersion(0L);
+        AssetWriteResultDTO result = assetService.updateAssets(PORTFOLIO, List.of(stale, missing, ok));
+        assertThat(result.getRequested()).isEqualTo(3);
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getConflicts()).containsExactly(qqq.getId());
+        assertThat(result.getMissing()).containsExactly(-1L);
+
+        Map<AssetType, BigDecimal> totals = assetService.sumAmountByType(PORTFOLIO);
+        assertThat(totals.get(AssetType.NASDAQ)).isEqualTo(new BigDecimal("0.00"));
+        assertThat(totals.get(AssetType.SP)).isEqualTo(new BigDecimal("120.01"));
+        assertThat(totals.get(AssetType.CASH)).isEqualTo(new BigDecimal("70.00"));
+
+        assertThatThrownBy(() -> assetService.deleteAsset(PORTFOLIO, cash.getId(), 0L))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assetService.deleteAsset(PORTFOLIO, cash.getId(), 1L);
+        assertThatThrownBy(() -> assetService.deleteAsset(PORTFOLIO, cash.getId(), 1L))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThat(assetService.sumAmountByType(PORTFOLIO).get(AssetType.CASH)).isEqualTo(new BigDecimal("0.00"));
+        // 账本与数据库一致
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    private AssetDetailDTO save(AssetType type, String name, String amount) {
+        return assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, type, name, new BigDecimal(amount)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.BulkRecommendationStatusDTO;
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.BatchCheckpoint;
+import com.example.demo.model.PortfolioRecommendation;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.BatchCheckpointRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import com.example.demo.repository.PortfolioRecommendationRepository;
+import com.example.demo.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// 每批只读 2 行，让组合跨越多个批次；同一遍扫描按两个策略计算
+@SpringBootTest(properties = {
+        "asset.batch.recommendation.chunk-size=2",
+        "asset.batch.recommendation.snapshots=true",
+        "asset.batch.recommendation.policies=default,balanced"
+})
+class BulkRecommendationServiceTests {
+
+    @Autowired
+    private BulkRecommendationService bulkRecommendationService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @Autowired
+    private PortfolioRecommendationRepository recommendationRepository;
+
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        recommendationRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+        assetDetailRepository.deleteAll();
+        schedulerLeaseRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void bulkRunMatchesPerPortfolioRecommendation() {
+        save(1L, AssetType.NASDAQ, "100.01");
+        save(1L, AssetType.SP, "200.02");
+        save(1L, AssetType.CASH, "33.33");
+        save(2L, AssetType.CONSERVATIVE, "10.00");
+        save(5L, AssetType.NASDAQ, "0.05");
+        save(5L, AssetType.CASH, "999.99");
+        save(9L, AssetType.CASH, "0.00");
+
+        BulkRecommendationStatusDTO status = bulkRecommendationService.run(true);
+
+        assertThat(status.isCompleted()).isTrue();
+        assertThat(status.isRunning()).isFalse();
+        assertThat(status.getProgress()).isEqualTo(1.0);
+        assertThat(status.getProcessedPortfolios()).isEqualTo(4);
+        assertThat(status.getProcessedHoldings()).isEqualTo(7);
+        for (long portfolioId : new long[]{1L, 2L, 5L}) {
+            for (String policy : new String[]{"default", "balanced"}) {
+                RecommendationDTO expected = calculationService.getRecommendation(portfolioId, policy);
+                PortfolioRecommendation actual = recommendationRepository
+                        .findById(new PortfolioRecommendation.Key(portfolioId, policy)).orElseThrow();
+                assertThat(actual.getGrandTotal()).isEqualTo(expected.getGrandTotal());
+                assertThat(actual.getNasdaqCurrent()).isEqualTo(expected.getNasdaqCurrent());
+                assertThat(actual.getCashCurrent()).isEqualTo(expected.getCashCurrent());
+                assertThat(actual.getNasdaqTarget()).isEqualTo(expected.getNasdaqTarget());
+                assertThat(actual.getSpTarget()).isEqualTo(expected.getSpTarget());
+                assertThat(actual.getConservativeTarget()).isEqualTo(expected.getConservativeTarget());
+                assertThat(actual.getCashTarget()).isEqualTo(expected.getCashTarget());
+            }
+        }
+        // 总资产为零的组合没有推荐配置
+        assertThat(recommendationRepository.count()).isEqualTo(6);
+        assertThat(historyRecordRepository.count()).isEqualTo(3);
+        assertThat(historyRecordRepository.findByPortfolioIdOrderByRecordDateDesc(1L).get(0).getGrandTotal())
+                .isEqualTo(new BigDecimal("333.36"));
+    }
+
+    @Test
+    void resumesAfterCheckpointAndClearsStaleResults() {
+        save(1L, AssetType.CASH, "1.00");
+        save(2L, AssetType.CASH, "2.00");
+        save(3L, AssetType.SP, "3.00");
+        save(3L, AssetType.CASH, "4.00");
+
+        // 上一轮处理完组合 2 后中断；组合 4 的持仓此后已被删除，只剩旧结果
+        BatchCheckpoint checkpoint = new BatchCheckpoint(BulkRecommendationService.JOB_NAME, LocalDateTime.now());
+        checkpoint.setLastPortfolioId(2L);
+        checkpoint.setProcessedPortfolios(2);
+        checkpoint.setProcessedHoldings(2);
+        checkpointRepository.save(checkpoint);
+        PortfolioRecommendation stale = new PortfolioRecommendation();
+        stale.setPortfolioId(4L);
+        stale.setPolicy("default");
+        stale.setComputedAt(LocalDateTime.now());
+        stale.setGrandTotal(BigDecimal.ONE);
+        stale.setNasdaqCurrent(BigDecimal.ZERO);
+        stale.setSpCurrent(BigDecimal.ZERO);
+        stale.setConservativeCurrent(BigDecimal.ZERO);
+        stale.setCashCurrent(BigDecimal.ONE);
+        stale.setNasdaqTarget(BigDecimal.ZERO);
+        stale.setSpTarget(BigDecimal.ZERO);
+        stale.setConservativeTarget(BigDecimal.ZERO);
+        stale.setCashTarget(BigDecimal.ONE);
+        recommendationRepository.save(stale);
+
+        BulkRecommendationStatusDTO status = bulkRecommendationService.run(false);
+
+        assertThat(status.isResumed()).isTrue();
+        assertThat(status.isCompleted()).isTrue();
+        assertThat(status.getProcessedPortfolios()).isEqualTo(3);
+        assertThat(status.getProcessedHoldings()).isEqualTo(4);
+        assertThat(recommendationRepository.findAll())
+                .extracting(PortfolioRecommendation::getPortfolioId)
+                .containsExactly(3L, 3L);
+        assertThat(recommendationRepository.findById(new PortfolioRecommendation.Key(3L, "default")).orElseThrow()
+                .getGrandTotal()).isEqualTo(new BigDecimal("7.00"));
+        assertThat(checkpointRepository.findById(BulkRecommendationService.JOB_NAME).orElseThrow().isCompleted())
+                .isTrue();
+
+        // 已完成的检查点不再续跑，下一轮从头开始
+        assertThat(bulkRecommendationService.run(false).isResumed()).isFalse();
+        assertThat(recommendationRepository.count()).isEqualTo(6);
+    }
+
+    @Test
+    void onlyTheLeaseHolderRuns() {
+        LeaseService other = new LeaseService();
+        ReflectionTestUtils.setField(other, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(other, "owner", "other-instance");
+        save(1L, AssetType.CASH, "1.00");
+
+        // 另一个实例正在运行时，本实例既不同步运行也不在后台启动
+        assertThat(other.tryAcquire(BulkRecommendationService.JOB_NAME, Duration.ofMinutes(10))).isTrue();
+        assertThatThrownBy(() -> bulkRecommendationService.run(true)).isInstanceOf(IllegalStateException.class);
+        assertThat(bulkRecommendationService.startAsync(true)).isFalse();
+        assertThat(recommendationRepository.count()).isZero();
+
+        // 释放后由本实例运行，运行结束后释放租约
+        other.release(BulkRecommendationService.JOB_NAME);
+        assertThat(bulkRecommendationService.run(true).isCompleted()).isTrue();
+        assertThat(recommendationRepository.count()).isEqualTo(2);
+        assertThat(schedulerLeaseRepository.findById(BulkRecommendationService.JOB_NAME))
+                .hasValueSatisfying(lease -> {
+                    assertThat(lease.getOwner()).isEqualTo(leaseService.owner());
+                    assertThat(lease.getExpiresAt()).isBefore(LocalDateTime.now());
+                });
+        assertThat(other.tryAcquire(BulkRecommendationService.JOB_NAME, Duration.ofMinutes(10))).isTrue();
+    }
+
+    private void save(long portfolioId, AssetType type, String amount) {
+        assetService.saveAsset(portfolioId, new AssetDetailDTO(null, type, "h", new BigDecimal(amount)));
+    }
+}
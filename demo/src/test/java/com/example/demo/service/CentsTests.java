@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.service.Cents.Ratio;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 基于随机样本的性质测试：定点「分」运算的结果与原先 BigDecimal 实现逐分一致。
+ * 使用固定种子，失败时可复现。
+ */
+class CentsTests {
+
+    private static final int SAMPLES = 200_000;
+
+    private final SplittableRandom random = new SplittableRandom(20240101L);
+
+    @Test
+    void ofMatchesBigDecimalHalfUpRounding() {
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal amount = randomAmount();
+            BigDecimal expected = amount.setScale(2, RoundingMode.HALF_UP);
+
+            assertThat(Cents.toBigDecimal(Cents.of(amount))).as("amount %s", amount).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void multiplyMatchesBigDecimalMultiplyAndSetScale() {
+        for (int i = 0; i < SAMPLES; i++) {
+            long cents = randomCents();
+            BigDecimal ratioValue = BigDecimal.valueOf(random.nextLong(0, 20_001), random.nextInt(0, 5));
+            Ratio ratio = Ratio.of(ratioValue.toPlainString());
+            BigDecimal expected = Cents.toBigDecimal(cents).multiply(ratioValue).setScale(2, RoundingMode.HALF_UP);
+
+            if (expected.unscaledValue().bitLength() > 63) {
+                // 结果超出 long 范围：必须报告溢出，而不是静默截断
+                assertThatThrownBy(() -> Cents.multiply(cents, ratio)).isInstanceOf(ArithmeticException.class);
+                continue;
+            }
+            assertThat(Cents.toBigDecimal(Cents.multiply(cents, ratio)))
+                    .as("%s × %s", Cents.toBigDecimal(cents), ratioValue)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void recommendationTargetsMatchLegacyBigDecimalPipeline() {
+        Ratio totalRisk = Ratio.of("0.75");
+        Ratio cash = Ratio.of("0.25");
+        Ratio nasdaqInRisk = Ratio.of("0.77");
+        Ratio spInRisk = Ratio.of("0.23");
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long[] parts = {randomCents() / 8, randomCents() / 8, randomCents() / 8, randomCents() / 8};
+            long grandTotal = Cents.add(Cents.add(parts[0], parts[1]), Cents.add(parts[2], parts[3]));
+            long totalRiskTarget = Cents.multiply(grandTotal, totalRisk);
+
+            // 原实现：BigDecimal.add 求和，multiply 后 setScale(2, HALF_UP)
+            BigDecimal legacyGrand = Cents.toBigDecimal(parts[0]).add(Cents.toBigDecimal(parts[1]))
+                    .add(Cents.toBigDecimal(parts[2])).add(Cents.toBigDecimal(parts[3]));
+            BigDecimal legacyRisk = legacyGrand.multiply(new BigDecimal("0.75")).setScale(2, RoundingMode.HALF_UP);
+
+            assertThat(Cents.toBigDecimal(grandTotal)).isEqualTo(legacyGrand);
+            assertThat(Cents.toBigDecimal(totalRiskTarget)).isEqualTo(legacyRisk);
+            assertThat(Cents.toBigDecimal(Cents.multiply(totalRiskTarget, nasdaqInRisk)))
+                    .isEqualTo(legacyRisk.multiply(new BigDecimal("0.77")).setScale(2, RoundingMode.HALF_UP));
+            assertThat(Cents.toBigDecimal(Cents.multiply(totalRiskTarget, spInRisk)))
+                    .isEqualTo(legacyRisk.multiply(new BigDecimal("0.23")).setScale(2, RoundingMode.HALF_UP));
+            assertThat(Cents.toBigDecimal(Cents.multiply(grandTotal, cash)))
+                    .isEqualTo(legacyGrand.multiply(new BigDecimal("0.25")).setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Test
+    void halfUpRoundsTiesAwayFromZero() {
+        assertThat(Cents.divideHalfUp(5, 10)).isEqualTo(1);
+        assertThat(Cents.divideHalfUp(-5, 10)).isEqualTo(-1);
+        assertThat(Cents.divideHalfUp(4, 10)).isEqualTo(0);
+        assertThat(Cents.divideHalfUp(-4, 10)).isEqualTo(0);
+        assertThat(Cents.divideHalfUp(Long.MAX_VALUE, Long.MAX_VALUE - 1)).isEqualTo(1);
+    }
+
+    @Test
+    void ratioPercentStrings() {
+        assertThat(Ratio.of("0.75").times(Ratio.of("0.77")).toPercentString()).isEqualTo("57.75%");
+        assertThat(Ratio.of("0.75").times(Ratio.of("0.23")).toPercentString()).isEqualTo("17.25%");
+        assertThat(Ratio.of("0.25").toPercentString()).isEqualTo("25.00%");
+    }
+
+    @Test
+    void overflowIsDetected() {
+        assertThatThrownBy(() -> Cents.add(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Cents.of(new BigDecimal("1E+18"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Cents.multiply(Long.MAX_VALUE, Ratio.of("2"))).isInstanceOf(ArithmeticException.class);
+        // 中间乘积溢出但结果在范围内时仍然精确
+        assertThat(Cents.multiply(Long.MAX_VALUE, Ratio.of("0.5"))).isEqualTo(Long.MAX_VALUE / 2 + 1);
+    }
+
+    /**
+     * 随机金额：小数位 0 ~ 6，覆盖需要舍入的情况
+     */
+    private BigDecimal randomAmount() {
+        return BigDecimal.valueOf(random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L), random.nextInt(0, 7));
+    }
+
+    /**
+     * 随机分：大多在常见范围内，部分接近 long 上限以覆盖宽乘法路径
+     */
+    private long randomCents() {
+        return switch (random.nextInt(4)) {
+            case 0 -> random.nextLong(-10_000L, 10_000L);
+            case 1 -> random.nextLong(0, 100_000_000_000L);
+            case 2 -> random.nextLong(-100_000_000_000_000L, 100_000_000_000_000L);
+            default -> random.nextLong(Long.MAX_VALUE / 4, Long.MAX_VALUE / 2);
+        };
+    }
+}
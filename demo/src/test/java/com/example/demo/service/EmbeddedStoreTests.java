@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 嵌入式存储模式：数据写入本地文件，重启后恢复；大量删除后压缩提高文件的有效数据比例。
+ */
+class EmbeddedStoreTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void committedChangesSurviveRestartAndCompactionReclaimsDeletedRows() throws Exception {
+        AssetDetailDTO qqq;
+        try (ConfigurableApplicationContext context = start()) {
+            AssetService assetService = context.getBean(AssetService.class);
+            qqq = assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.NASDAQ, "QQQ",
+                    new BigDecimal("100.00")));
+            assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, AssetType.CASH, "活期", new BigDecimal("50.00")));
+            assetService.saveCurrentAssetsAsRecord(PORTFOLIO);
+            AssetDetailDTO patch = new AssetDetailDTO();
+            patch.setVersion(qqq.getVersion());
+            patch.setAmount(new BigDecimal("120.00"));
+            qqq = assetService.updateAsset(PORTFOLIO, qqq.getId(), patch);
+
+            // 在一个事务中插入两个组合的大量行 (自动提交时每行各提交一次、各追加一个块)，再删除其中一个组合：
+            // 写入的块中一半的页失效，文件的有效数据比例下降
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            // 失效的块默认保留 45 秒后才能被重写，测试中不保留
+            jdbcTemplate.execute("SET RETENTION_TIME 0");
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < 50_000; i++) {
+                rows.add(new Object[]{i < 25_000 ? PORTFOLIO + 1 : PORTFOLIO + 2, "holding-" + i});
+            }
+            context.getBean(TransactionTemplate.class).executeWithoutResult(tx -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO asset_details (id, portfolio_id, asset_type, name, amount, version) "
+                            + "VALUES (nextval('asset_details_seq'), ?, 'CASH', ?, 1.00, 0)", rows));
+            jdbcTemplate.update("DELETE FROM asset_details WHERE portfolio_id = ?", PORTFOLIO + 1);
+
+            EmbeddedStoreCompactor.Result result = context.getBean(EmbeddedStoreCompactor.class).compact();
+            assertThat(result.rewritten()).isTrue();
+            assertThat(result.fillRateAfter()).isGreaterThan(result.fillRateBefore());
+        }
+
+        // 重启：从文件恢复已提交的数据，账本由恢复后的数据重建
+        try (ConfigurableApplicationContext context = start()) {
+            AssetService assetService = context.getBean(AssetService.class);
+            assertThat(assetService.findAllAssets(PORTFOLIO))
+                    .extracting(AssetDetailDTO::getName, AssetDetailDTO::getAmount, AssetDetailDTO::getVersion)
+                    .containsExactlyInAnyOrder(
+                            org.assertj.core.groups.Tuple.tuple("QQQ", new BigDecimal("120.00"), qqq.getVersion()),
+                            org.assertj.core.groups.Tuple.tuple("活期", new BigDecimal("50.00"), 0L));
+            assertThat(assetService.findAllHistoryRecords(PORTFOLIO)).hasSize(1);
+            assertThat(context.getBean(AssetLedger.class).snapshot(PORTFOLIO).grandTotal()).isEqualTo(17_000);
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded")
+                .run("--asset.embedded.path=" + directory.resolve("asset"),
+                        "--spring.jpa.hibernate.ddl-auto=update");
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.HistoryBucketDTO;
+import com.example.demo.dto.HistoryRecordDTO;
+import com.example.demo.model.HistoryRecord;
+import com.example.demo.model.HistoryRollup.Bucket;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class HistoryRollupServiceTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private HistoryRollupService historyRollupService;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM scheduler_leases");
+        ReflectionTestUtils.setField(historyRollupService, "maxSource", 20000);
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+    }
+
+    @Test
+    void rollupsAreMaintainedIncrementallyAndMatchRebuild() {
+        // 2024-01-01 是星期一；较早的记录在较晚的记录之后保存
+        save(LocalDateTime.of(2024, 1, 1, 10, 0), "100.00");
+        save(LocalDateTime.of(2024, 1, 3, 9, 0), "300.00");
+        save(LocalDateTime.of(2024, 1, 2, 9, 0), "200.00");
+        save(LocalDateTime.of(2024, 1, 8, 9, 0), "400.00");
+
+        List<HistoryBucketDTO> weeks = historyRollupService.findBuckets(PORTFOLIO, Bucket.WEEK, null, null);
+        assertThat(weeks)
+                .extracting(HistoryBucketDTO::getBucketStart, HistoryBucketDTO::getCount,
+                        HistoryBucketDTO::getGrandTotal, HistoryBucketDTO::getMinGrandTotal,
+                        HistoryBucketDTO::getMaxGrandTotal, HistoryBucketDTO::getAvgGrandTotal)
+                .containsExactly(
+                        tuple(LocalDate.of(2024, 1, 1), 3L, new BigDecimal("300.00"), new BigDecimal("100.00"),
+                                new BigDecimal("300.00"), new BigDecimal("200.00")),
+                        tuple(LocalDate.of(2024, 1, 8), 1L, new BigDecimal("400.00"), new BigDecimal("400.00"),
+                                new BigDecimal("400.00"), new BigDecimal("400.00")));
+        assertThat(weeks.get(0).getLastRecordDate()).isEqualTo(LocalDateTime.of(2024, 1, 3, 9, 0));
+
+        List<HistoryBucketDTO> months = historyRollupService.findBuckets(PORTFOLIO, Bucket.MONTH, null, null);
+        assertThat(months).extracting(HistoryBucketDTO::getCount, HistoryBucketDTO::getGrandTotal)
+                .containsExactly(tuple(4L, new BigDecimal("400.00")));
+
+        // 范围从 from 所在的时间段开始
+        assertThat(historyRollupService.findBuckets(PORTFOLIO, Bucket.DAY, LocalDate.of(2024, 1, 2),
+                LocalDate.of(2024, 1, 3)))
+                .extracting(HistoryBucketDTO::getBucketStart)
+                .containsExactly(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 3));
+
+        // 按原始记录重建得到相同的汇总
+        historyRollupService.rebuild();
+        assertThat(historyRollupService.findBuckets(PORTFOLIO, Bucket.WEEK, null, null))
+                .usingRecursiveFieldByFieldElementComparator().isEqualTo(weeks);
+    }
+
+    @Test
+    void downsampleKeepsEndpointsAndFallsBackToRollups() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int day = 0; day < 100; day++) {
+            save(start.plusDays(day), String.valueOf(1000 + (day % 7) * 10));
+        }
+
+        List<HistoryRecordDTO> points = historyRollupService.downsample(PORTFOLIO, null, null, 10);
+        assertThat(points).hasSize(10);
+        assertThat(points.get(0).getRecordDate()).isEqualTo(start);
+        assertThat(points.get(9).getRecordDate()).isEqualTo(start.plusDays(99));
+        assertThat(points).extracting(HistoryRecordDTO::getRecordDate).isSorted();
+        assertThat(points.get(0).getId()).isNotNull();
+
+        // 原始记录超过读取上限时改用能容纳的最细粒度 (这里是按周，15 个时间段)
+        ReflectionTestUtils.setField(historyRollupService, "maxSource", 50);
+        List<HistoryRecordDTO> weekly = historyRollupService.downsample(PORTFOLIO, null, null, 100);
+        assertThat(weekly).hasSize(15);
+        assertThat(weekly.get(14).getRecordDate()).isEqualTo(start.plusDays(99));
+        assertThat(weekly.get(0).getId()).isNull();
+
+        assertThatThrownBy(() -> historyRollupService.downsample(PORTFOLIO, null, null, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void startupRebuildsMissingRollupsUnlessAnotherInstanceHoldsTheLease() {
+        save(LocalDateTime.of(2024, 1, 1, 9, 0), "100.00");
+        save(LocalDateTime.of(2024, 1, 2, 9, 0), "200.00");
+        assertThat(historyRollupService.rollupsCoverRecords()).isTrue();
+
+        // 模拟新增汇总表之前已有的历史记录
+        historyRollupRepository.deleteAll();
+        assertThat(historyRollupService.rollupsCoverRecords()).isFalse();
+
+        // 另一个实例持有重建租约时不重建
+        LeaseService other = new LeaseService();
+        ReflectionTestUtils.setField(other, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(other, "owner", "other-instance");
+        assertThat(other.tryAcquire(HistoryRollupService.REBUILD_LEASE_NAME, Duration.ofMinutes(10))).isTrue();
+        historyRollupService.init();
+        assertThat(historyRollupRepository.count()).isZero();
+
+        // 租约释放后重建，重建完成后释放租约
+        other.release(HistoryRollupService.REBUILD_LEASE_NAME);
+        historyRollupService.init();
+        assertThat(historyRollupService.rollupsCoverRecords()).isTrue();
+        assertThat(historyRollupService.findBuckets(PORTFOLIO, Bucket.DAY, null, null))
+                .extracting(HistoryBucketDTO::getCount).containsExactly(1L, 1L);
+        assertThat(other.tryAcquire(HistoryRollupService.REBUILD_LEASE_NAME, Duration.ofMinutes(10))).isTrue();
+    }
+
+    private void save(LocalDateTime recordDate, String grandTotal) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            HistoryRecord record = new HistoryRecord();
+            record.setPortfolioId(PORTFOLIO);
+            record.setRecordDate(recordDate);
+            record.setGrandTotal(new BigDecimal(grandTotal));
+            record.setNasdaqTotal(new BigDecimal(grandTotal));
+            record.setSpTotal(BigDecimal.ZERO);
+            record.setConservativeTotal(BigDecimal.ZERO);
+            record.setCashTotal(BigDecimal.ZERO);
+            historyRollupService.record(historyRecordRepository.save(record));
+        });
+    }
+}
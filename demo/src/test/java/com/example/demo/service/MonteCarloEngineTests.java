@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class MonteCarloEngineTests {
+
+    private static final double[] CORRELATION = {1, 0.9, 0.2, 0, 0.9, 1, 0.2, 0, 0.2, 0.2, 1, 0, 0, 0, 0, 1};
+
+    // 当前持仓 (全部纳指) 与目标配置 (57.75 / 17.25 / 0 / 25)
+    private static final double[][] WEIGHTS = {{1, 0, 0, 0}, {0.5775, 0.1725, 0, 0.25}};
+
+    @Test
+    void resultsDoNotDependOnThreadCount() {
+        MonteCarloEngine engine = new MonteCarloEngine(new double[]{0.10, 0.08, 0.04, 0.02},
+                new double[]{0.22, 0.16, 0.05, 0.01}, CORRELATION);
+        int paths = 3 * MonteCarloEngine.BLOCK_SIZE + 100;
+
+        MonteCarloEngine.Result single = simulate(engine, paths, 1);
+        MonteCarloEngine.Result parallel = simulate(engine, paths, 4);
+
+        assertThat(parallel.counts()).isEqualTo(single.counts());
+        assertThat(parallel.shortfalls()).isEqualTo(single.shortfalls());
+        // 分散后的目标配置波动更小：5% 分位更高、95% 分位更低
+        assertThat(single.percentile(1, 9, 0.05)).isGreaterThan(single.percentile(0, 9, 0.05));
+        assertThat(single.percentile(1, 9, 0.95)).isLessThan(single.percentile(0, 9, 0.95));
+        assertThat(single.shortfallProbability(1)).isLessThan(single.shortfallProbability(0));
+    }
+
+    @Test
+    void withoutVolatilityEveryPathCompoundsTheExpectedReturn() {
+        MonteCarloEngine engine = new MonteCarloEngine(new double[]{0.02, 0.02, 0.02, 0.02},
+                new double[]{0, 0, 0, 0}, CORRELATION);
+
+        MonteCarloEngine.Result result = engine.simulate(WEIGHTS, 1000, 10, 7, 1.3, ForkJoinPool.commonPool());
+
+        double expected = Math.pow(1.02, 10);
+        // 直方图每格约 0.39%
+        assertThat(result.percentile(0, 9, 0.05)).isCloseTo(expected, within(expected * 0.004));
+        assertThat(result.percentile(1, 9, 0.95)).isCloseTo(expected, within(expected * 0.004));
+        assertThat(result.shortfallProbability(0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void invalidCorrelationIsRejected() {
+        double[] notPositiveDefinite = CORRELATION.clone();
+        notPositiveDefinite[1] = notPositiveDefinite[4] = 1.5;
+
+        assertThatThrownBy(() -> new MonteCarloEngine(new double[4], new double[4], notPositiveDefinite))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MonteCarloEngine.Result simulate(MonteCarloEngine engine, int paths, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return engine.simulate(WEIGHTS, paths, 10, 42, 1.0, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
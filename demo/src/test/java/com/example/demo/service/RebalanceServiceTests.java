@@ -0,0 +1,97 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.RebalancePlanDTO;
+import com.example.demo.dto.TradeDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class RebalanceServiceTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private RebalanceService rebalanceService;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @AfterEach
+    void cleanUp() {
+        ReflectionTestUtils.setField(rebalanceService, "minTrade", BigDecimal.ZERO);
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void planMovesExcessFromLargestHoldingsToUnderweightTypes() {
+        Map<String, Long> ids = holdings();
+
+        RebalancePlanDTO plan = rebalanceService.plan(PORTFOLIO, null);
+
+        // 默认策略：纳指 577.50、标普 172.50、稳健 0、现金 250.00
+        assertThat(plan.getPolicy()).isEqualTo("default");
+        assertThat(plan.getTrades())
+                .extracting(TradeDTO::getFromAssetId, TradeDTO::getToAssetId, TradeDTO::getToAssetType,
+                        TradeDTO::getAmount)
+                .containsExactly(
+                        tuple(ids.get("QQQ"), null, AssetType.SP, new BigDecimal("22.50")),
+                        tuple(ids.get("债基A"), null, AssetType.SP, new BigDecimal("150.00")),
+                        tuple(ids.get("债基B"), ids.get("活期"), AssetType.CASH, new BigDecimal("50.00")));
+        assertThat(plan.getTransferred()).isEqualTo(new BigDecimal("222.50"));
+        assertThat(plan.getResidual()).isEqualTo(new BigDecimal("0.00"));
+        // 相同输入得到相同计划
+        assertThat(rebalanceService.plan(PORTFOLIO, "default"))
+                .usingRecursiveComparison().isEqualTo(plan);
+    }
+
+    @Test
+    void smallAdjustmentsAndTransfersBelowMinimumAreSkipped() {
+        Map<String, Long> ids = holdings();
+        ReflectionTestUtils.setField(rebalanceService, "minTrade", new BigDecimal("30"));
+
+        RebalancePlanDTO plan = rebalanceService.plan(PORTFOLIO, null);
+
+        // 纳指只超配 22.50，不调整；债基B 拆成 22.50 + 27.50 两笔，均低于最小交易金额
+        assertThat(plan.getTrades())
+                .extracting(TradeDTO::getFromAssetId, TradeDTO::getToAssetType, TradeDTO::getAmount)
+                .containsExactly(tuple(ids.get("债基A"), AssetType.SP, new BigDecimal("150.00")));
+        assertThat(plan.getTransferred()).isEqualTo(new BigDecimal("150.00"));
+        assertThat(plan.getResidual()).isEqualTo(new BigDecimal("72.50"));
+    }
+
+    private Map<String, Long> holdings() {
+        Map<String, Long> ids = new HashMap<>();
+        save(ids, AssetType.NASDAQ, "QQQM", "200.00");
+        save(ids, AssetType.NASDAQ, "QQQ", "400.00");
+        save(ids, AssetType.CONSERVATIVE, "债基B", "50.00");
+        save(ids, AssetType.CONSERVATIVE, "债基A", "150.00");
+        save(ids, AssetType.CASH, "活期", "200.00");
+        return ids;
+    }
+
+    private void save(Map<String, Long> ids, AssetType type, String name, String amount) {
+        ids.put(name, assetService.saveAsset(PORTFOLIO,
+                new AssetDetailDTO(null, type, name, new BigDecimal(amount))).getId());
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.demo.service;
+
+import com.example.demo.config.SecondLevelCacheConfig;
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.HistoryRecordDTO;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import com.example.demo.repository.SchedulerLeaseRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheTests {
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanUp() {
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+        assetDetailRepository.deleteAll();
+        schedulerLeaseRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void assetReadsAreCachedAndInvalidatedByEveryKindOfWrite() {
+        AssetDetailDTO qqq = save(AssetType.NASDAQ, "QQQ", "100.00");
+        save(AssetType.CASH, "活期", "50.00");
+        assertThat(assetService.findAllAssets(PORTFOLIO)).hasSize(2);
+
+        // 重复的查询和按主键读取来自缓存
+        double queryHits = hits(SecondLevelCacheConfig.QUERY_RESULTS);
+        assertThat(assetService.findAllAssets(PORTFOLIO)).hasSize(2);
+        assertThat(assetService.findAssetsByType(PORTFOLIO, AssetType.NASDAQ)).hasSize(1);
+        assertThat(assetService.findAssetsByType(PORTFOLIO, AssetType.NASDAQ)).hasSize(1);
+        assertThat(hits(SecondLevelCacheConfig.QUERY_RESULTS)).isGreaterThanOrEqualTo(queryHits + 2);
+        double entityHits = hits(SecondLevelCacheConfig.ASSET_DETAILS);
+        assetDetailRepository.findById(qqq.getId());
+        assetDetailRepository.findById(qqq.getId());
+        assertThat(hits(SecondLevelCacheConfig.ASSET_DETAILS)).isGreaterThan(entityHits);
+
+        // 经过 Hibernate 的插入
+        save(AssetType.SP, "VOO", "10.00");
+        assertThat(assetService.findAllAssets(PORTFOLIO)).hasSize(3);
+
+        // JdbcTemplate 的条件修改：查询结果和按主键读取的实体都是新值
+        AssetDetailDTO patch = new AssetDetailDTO();
+        patch.setVersion(qqq.getVersion());
+        patch.setAmount(new BigDecimal("120.00"));
+        assetService.updateAsset(PORTFOLIO, qqq.getId(), patch);
+        assertThat(assetService.findAllAssets(PORTFOLIO))
+                .filteredOn(asset -> asset.getId().equals(qqq.getId()))
+                .singleElement()
+                .satisfies(asset -> {
+                    assertThat(asset.getAmount()).isEqualByComparingTo("120.00");
+                    assertThat(asset.getVersion()).isEqualTo(qqq.getVersion() + 1);
+                });
+        assertThat(assetDetailRepository.findById(qqq.getId()))
+                .hasValueSatisfying(asset -> assertThat(asset.getAmount()).isEqualByComparingTo("120.00"));
+
+        // JdbcTemplate 的条件删除
+        assetService.deleteAsset(PORTFOLIO, qqq.getId(), qqq.getVersion() + 1);
+        assertThat(assetService.findAllAssets(PORTFOLIO)).hasSize(2);
+        assertThat(assetService.findAssetsByType(PORTFOLIO, AssetType.NASDAQ)).isEmpty();
+        assertThat(assetDetailRepository.findById(qqq.getId())).isEmpty();
+    }
+
+    @Test
+    void concurrentWritersRereadingByIdSeeTheCurrentVersion() throws Exception {
+        AssetDetailDTO cash = save(AssetType.CASH, "活期", "0.00");
+        int writers = 4;
+        int perWriter = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perWriter; ) {
+                        // 每次都按主键重新读取 (经过实体缓存)，冲突后重试
+                        var current = assetDetailRepository.findById(cash.getId()).orElseThrow();
+                        AssetDetailDTO patch = new AssetDetailDTO();
+                        patch.setVersion(current.getVersion());
+                        patch.setAmount(current.getAmount().add(BigDecimal.ONE));
+                        try {
+                            assetService.updateAsset(PORTFOLIO, cash.getId(), patch);
+                            i++;
+                        } catch (OptimisticLockingFailureException e) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }));
+            }
+            // 缓存一直返回旧版本时写入方会无限重试，这里以超时判定
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(assetDetailRepository.findById(cash.getId())).hasValueSatisfying(asset -> {
+            assertThat(asset.getVersion()).isEqualTo(cash.getVersion() + writers * perWriter);
+            assertThat(asset.getAmount()).isEqualByComparingTo(String.valueOf(writers * perWriter));
+        });
+    }
+
+    @Test
+    void historyReadsSeeSnapshotsWrittenWithJdbc() {
+        AssetDetailDTO cash = save(AssetType.CASH, "活期", "50.00");
+        assetService.saveCurrentAssetsAsRecord(PORTFOLIO);
+        assertThat(assetService.findAllHistoryRecords(PORTFOLIO)).hasSize(1);
+
+        double queryHits = hits(SecondLevelCacheConfig.QUERY_RESULTS);
+        assertThat(assetService.findAllHistoryRecords(PORTFOLIO)).hasSize(1);
+        assertThat(hits(SecondLevelCacheConfig.QUERY_RESULTS)).isGreaterThan(queryHits);
+
+        // 定时快照以 JDBC 批量插入
+        AssetDetailDTO patch = new AssetDetailDTO();
+        patch.setVersion(cash.getVersion());
+        patch.setAmount(new BigDecimal("80.00"));
+        assetService.updateAsset(PORTFOLIO, cash.getId(), patch);
+        assertThat(snapshotService.snapshot().written()).isEqualTo(1);
+        assertThat(assetService.findAllHistoryRecords(PORTFOLIO))
+                .extracting(HistoryRecordDTO::getGrandTotal)
+                .containsExactly(new BigDecimal("80.00"), new BigDecimal("50.00"));
+    }
+
+    private AssetDetailDTO save(AssetType type, String name, String amount) {
+        return assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, type, name, new BigDecimal(amount)));
+    }
+
+    private double hits(String region) {
+        return meterRegistry.get("cache.gets").tags("cache", region, "result", "hit").functionCounter().count();
+    }
+}
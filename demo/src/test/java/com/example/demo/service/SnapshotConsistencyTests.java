@@ -0,0 +1,181 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetDetailDTO;
+import com.example.demo.dto.HistoryRecordDTO;
+import com.example.demo.dto.RecommendationDTO;
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.model.Portfolios;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 写入与快照并发：写入方不断修改持仓的资产类型 (总资产不变，但金额在类型之间移动)，读取方同时保存快照和计算推荐配置。
+ * 每次读到的各类型总额必须来自同一时间点：总资产始终等于初始值，且等于各类型之和。
+ * 同时比较有无并发快照时的写入吞吐量，快照读取不应阻塞写入。
+ */
+@SpringBootTest
+class SnapshotConsistencyTests {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotConsistencyTests.class);
+
+    private static final long PORTFOLIO = Portfolios.DEFAULT_ID;
+
+    private static final AssetType[] TYPES = AssetType.values();
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 2;
+    private static final int WRITES_PER_WRITER = 150;
+
+    private static final BigDecimal AMOUNT = new BigDecimal("1000.00");
+
+    @Autowired
+    private AssetService assetService;
+
+    @Autowired
+    private CalculationService calculationService;
+
+    @Autowired
+    private AssetLedger assetLedger;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @AfterEach
+    void cleanUp() {
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+        assetDetailRepository.deleteAll();
+        assetLedger.rebuild();
+    }
+
+    @Test
+    void snapshotsAreConsistentWhileWritersMoveMoneyBetweenTypes() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (AssetType type : TYPES) {
+            ids.add(assetService.saveAsset(PORTFOLIO, new AssetDetailDTO(null, type, type.name(), AMOUNT)).getId());
+        }
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf(TYPES.length));
+
+        // 1. 只有写入方
+        long alone = runWriters(ids, () -> { });
+
+        // 2. 写入方与快照 / 推荐配置读取方并发
+        Queue<String> violations = new ConcurrentLinkedQueue<>();
+        AtomicInteger reads = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        List<Future<?>> readerFutures = new ArrayList<>();
+        for (int r = 0; r < READERS; r++) {
+            readerFutures.add(readers.submit(() -> {
+                while (!done.get()) {
+                    HistoryRecordDTO record = assetService.saveCurrentAssetsAsRecord(PORTFOLIO);
+                    BigDecimal parts = record.getNasdaqTotal().add(record.getSpTotal())
+                            .add(record.getConservativeTotal()).add(record.getCashTotal());
+                    if (record.getGrandTotal().compareTo(expected) != 0 || parts.compareTo(expected) != 0) {
+                        violations.add("snapshot " + record.getGrandTotal() + " / " + parts);
+                    }
+                    RecommendationDTO recommendation = calculationService.getRecommendation(PORTFOLIO);
+                    BigDecimal currents = recommendation.getNasdaqCurrent().add(recommendation.getSpCurrent())
+                            .add(recommendation.getConservativeCurrent()).add(recommendation.getCashCurrent());
+                    if (recommendation.getGrandTotal().compareTo(expected) != 0
+                            || currents.compareTo(expected) != 0) {
+                        violations.add("recommendation " + recommendation.getGrandTotal() + " / " + currents);
+                    }
+                    reads.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        long concurrent = runWriters(ids, () -> done.set(true));
+        for (Future<?> future : readerFutures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        readers.shutdown();
+
+        int writes = WRITERS * WRITES_PER_WRITER;
+        log.info("写入吞吐量：无快照 {} 次/秒，并发快照时 {} 次/秒 (期间完成 {} 轮快照 + 推荐配置)",
+                (long) (writes * 1e9 / alone), (long) (writes * 1e9 / concurrent), reads.get());
+
+        assertThat(violations).isEmpty();
+        assertThat(reads.get()).isPositive();
+        assertThat(historyRecordRepository.count()).isEqualTo(reads.get());
+        assertThat(assetLedger.snapshot(PORTFOLIO).grandTotal()).isEqualTo(Cents.of(expected));
+        assertThat(assetLedger.reconcile()).isFalse();
+    }
+
+    /**
+     * 运行一轮写入：每次把随机一条持仓改为下一个资产类型 (冲突时重新读取重试)
+     * @return 耗时 (纳秒)
+     */
+    private long runWriters(List<Long> ids, Runnable onFinished) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService writers = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            futures.add(writers.submit(() -> {
+                start.await();
+                for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                    moveToNextType(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            onFinished.run();
+            writers.shutdown();
+        }
+    }
+
+    private void moveToNextType(long id) {
+        while (true) {
+            AssetDetail current = assetDetailRepository.findById(id).orElseThrow();
+            AssetDetailDTO patch = new AssetDetailDTO();
+            patch.setVersion(current.getVersion());
+            patch.setAssetType(TYPES[(current.getAssetType().ordinal() + 1) % TYPES.length]);
+            try {
+                assetService.updateAsset(PORTFOLIO, id, patch);
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                // 已被其他写入方修改，重新读取后重试
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.model.AssetDetail;
+import com.example.demo.model.AssetDetail.AssetType;
+import com.example.demo.repository.AssetDetailRepository;
+import com.example.demo.repository.HistoryRecordRepository;
+import com.example.demo.repository.HistoryRollupRepository;
+import com.example.demo.repository.SchedulerLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SnapshotServiceTests {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private LeaseService leaseService;
+
+    @Autowired
+    private AssetDetailRepository assetDetailRepository;
+
+    @Autowired
+    private HistoryRecordRepository historyRecordRepository;
+
+    @Autowired
+    private HistoryRollupRepository historyRollupRepository;
+
+    @Autowired
+    private SchedulerLeaseRepository schedulerLeaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        historyRecordRepository.deleteAll();
+        historyRollupRepository.deleteAll();
+        assetDetailRepository.deleteAll();
+        schedulerLeaseRepository.deleteAll();
+    }
+
+    @Test
+    void onlyPortfoliosWithChangedTotalsAreSnapshotted() {
+        AssetDetail qqq = save(1L, AssetType.NASDAQ, "100.00");
+        save(1L, AssetType.CASH, "50.00");
+        save(2L, AssetType.SP, "200.00");
+
+        assertThat(snapshotService.snapshot()).isEqualTo(new SnapshotService.Result(true, 2, 0));
+        assertThat(snapshotService.snapshot()).isEqualTo(new SnapshotService.Result(true, 0, 2));
+
+        // 多次修改在两次运行之间合并为一条快照
+        qqq.setAmount(new BigDecimal("120.00"));
+        qqq = assetDetailRepository.save(qqq);
+        qqq.setAmount(new BigDecimal("130.00"));
+        assetDetailRepository.save(qqq);
+        assertThat(snapshotService.snapshot()).isEqualTo(new SnapshotService.Result(true, 1, 1));
+
+        assertThat(historyRecordRepository.findByPortfolioIdOrderByRecordDateDesc(1L))
+                .extracting(record -> record.getGrandTotal())
+                .containsExactly(new BigDecimal("180.00"), new BigDecimal("150.00"));
+        assertThat(historyRecordRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void leaseIsHeldByOneInstanceUntilItExpires() {
+        LeaseService other = new LeaseService();
+        ReflectionTestUtils.setField(other, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(other, "owner", "other-instance");
+        save(1L, AssetType.CASH, "10.00");
+
+        // 另一个实例持有租约时本实例不执行
+        assertThat(other.tryAcquire(SnapshotService.LEASE_NAME, Duration.ofMinutes(10))).isTrue();
+        assertThat(snapshotService.snapshot()).isEqualTo(new SnapshotService.Result(false, 0, 0));
+        assertThat(historyRecordRepository.count()).isZero();
+
+        // 持有者可以续约，释放 (或过期) 后由本实例接管
+        assertThat(other.tryAcquire(SnapshotService.LEASE_NAME, Duration.ofMinutes(10))).isTrue();
+        other.release(SnapshotService.LEASE_NAME);
+        assertThat(snapshotService.snapshot()).isEqualTo(new SnapshotService.Result(true, 1, 0));
+
+        // 本轮结束后释放租约 (不等到期)，其他实例可以立即获取
+        assertThat(schedulerLeaseRepository.findById(SnapshotService.LEASE_NAME))
+                .hasValueSatisfying(lease -> {
+                    assertThat(lease.getOwner()).isEqualTo(leaseService.owner());
+                    assertThat(lease.getExpiresAt()).isBefore(LocalDateTime.now());
+                });
+        assertThat(other.tryAcquire(SnapshotService.LEASE_NAME, Duration.ofMinutes(10))).isTrue();
+    }
+
+    private AssetDetail save(long portfolioId, AssetType type, String amount) {
+        AssetDetail asset = new AssetDetail();
+        asset.setPortfolioId(portfolioId);
+        asset.setAssetType(type);
+        asset.setName(type.name());
+        asset.setAmount(new BigDecimal(amount));
+        return assetDetailRepository.save(asset);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionedCacheTests {
+
+    @Test
+    void reloadsOnlyWhenVersionChanges() {
+        AtomicLong version = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        VersionedCache<Integer> cache = new VersionedCache<>(version::get, loads::incrementAndGet);
+
+        assertThat(cache.get().value()).isEqualTo(1);
+        assertThat(cache.get().value()).isEqualTo(1);
+
+        version.incrementAndGet();
+        VersionedCache.Entry<Integer> reloaded = cache.get();
+        assertThat(reloaded.value()).isEqualTo(2);
+        assertThat(reloaded.version()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        VersionedCache<Integer> cache = new VersionedCache<>(() -> 0L, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loads.incrementAndGet();
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<VersionedCache.Entry<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(cache::get));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<VersionedCache.Entry<Integer>> result : results) {
+                assertThat(result.get().value()).isEqualTo(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.assets;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 构建时处理前端静态文件 (demo 构建的 process-classes 阶段由 exec-maven-plugin 执行，见 demo/pom.xml)：
+ *
+ * 1. 每个 .js / .css 按内容摘要复制为 assets/名称.摘要.扩展名，内容不变时文件名不变，内容变化时文件名随之变化；
+ * 2. 把 .html 中对这些文件的引用 (src="..." / href="...") 改为带摘要的文件名；
+ * 3. 为 .html 和带摘要的文件生成 .gz 和 .br 预压缩版本，运行时按 Accept-Encoding 直接返回 (demo 的 StaticResourceConfig)。
+ *
+ * 读取源目录 (src/main/resources/static)、写入输出目录 (target/classes/static)，重复构建的结果相同。
+ * 只在构建时使用，不打入 demo 的 jar。
+ *
+ * 用法: StaticAssetBuilder <源目录> <输出目录>
+ */
+public final class StaticAssetBuilder {
+
+    // 带摘要文件所在的子目录 (相对于 static)，与 demo 的 StaticResourceConfig 一致
+    static final String ASSETS_DIR = "assets";
+
+    // 文件名中摘要的十六进制位数
+    private static final int HASH_LENGTH = 12;
+
+    private static final Pattern REFERENCE = Pattern.compile("(src|href)=\"([^\"]+)\"");
+
+    private StaticAssetBuilder() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("用法: StaticAssetBuilder <源目录> <输出目录>");
+        }
+        Path source = Path.of(args[0]);
+        Path output = Path.of(args[1]);
+        Brotli4jLoader.ensureAvailability();
+
+        Path assets = output.resolve(ASSETS_DIR);
+        deleteRecursively(assets);
+        Files.createDirectories(assets);
+
+        // 原文件名 -> assets/带摘要的文件名
+        Map<String, String> fingerprinted = new LinkedHashMap<>();
+        List<Path> html;
+        try (Stream<Path> files = Files.list(source)) {
+            List<Path> all = files.filter(Files::isRegularFile).sorted().toList();
+            for (Path file : all) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".js") || name.endsWith(".css")) {
+                    byte[] content = Files.readAllBytes(file);
+                    String hashed = ASSETS_DIR + "/" + fingerprint(name, content);
+                    write(output.resolve(hashed), content);
+                    fingerprinted.put(name, hashed);
+                }
+            }
+            html = all.stream().filter(file -> file.getFileName().toString().endsWith(".html")).toList();
+        }
+        for (Path file : html) {
+            String rewritten = rewrite(Files.readString(file, StandardCharsets.UTF_8), fingerprinted);
+            write(output.resolve(file.getFileName().toString()), rewritten.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 名称.扩展名 -> 名称.摘要.扩展名 (摘要为内容 SHA-256 的前 HASH_LENGTH 位十六进制)
+     */
+    static String fingerprint(String name, byte[] content) {
+        try {
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content))
+                    .substring(0, HASH_LENGTH);
+            int dot = name.lastIndexOf('.');
+            return name.substring(0, dot) + "." + hash + name.substring(dot);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 把 HTML 中对本地文件的引用改为带摘要的文件名，外部地址 (CDN 等) 不变
+     */
+    static String rewrite(String html, Map<String, String> fingerprinted) {
+        Matcher matcher = REFERENCE.matcher(html);
+        StringBuilder out = new StringBuilder(html.length());
+        while (matcher.find()) {
+            String hashed = fingerprinted.get(matcher.group(2));
+            String replacement = hashed == null ? matcher.group() : matcher.group(1) + "=\"" + hashed + "\"";
+            matcher.appendReplacement(out, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(out);
+        return out.toString();
+    }
+
+    /**
+     * 写入文件及其 .gz / .br 预压缩版本
+     */
+    private static void write(Path target, byte[] content) throws IOException {
+        Files.write(target, content);
+        Files.write(target.resolveSibling(target.getFileName() + ".gz"), gzip(content));
+        Files.write(target.resolveSibling(target.getFileName() + ".br"),
+                Encoder.compress(content, new Encoder.Parameters().setQuality(11)));
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}